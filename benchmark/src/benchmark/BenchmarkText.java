@@ -0,0 +1,172 @@
+package benchmark;
+
+import controller.filemenu.FileLoadWorker;
+import model.PieceTableDocument;
+import model.TextFormat;
+
+import javax.swing.*;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.reflect.InvocationTargetException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Generates the texts the benchmarks run on.
+ * <p>
+ * A text consists of lines of random words, with the same seed for every run, so the results of
+ * different releases are comparable. Each text is written once as a UTF-8 file into
+ * {@code java.io.tmpdir/texteditor-benchmark} and reused by later forks and runs.
+ * Documents are opened from these files the same way the editor opens them.
+ * </p>
+ */
+public final class BenchmarkText {
+
+    /**
+     * A word that occurs in every text, about once in 12 words.
+     */
+    public static final String FREQUENT_WORD = "search";
+
+    /**
+     * A word that occurs in no text, so searching for it reads the whole document.
+     */
+    public static final String ABSENT_WORD = "zyxwvut";
+
+    private static final long MAPPING_THRESHOLD = 16L * 1024 * 1024;
+    private static final String[] ASCII_WORDS = {
+            "lorem", "ipsum", "dolor", "sit", "amet", "editor", "piece", "table",
+            FREQUENT_WORD, "replace", "Window", "line"
+    };
+    private static final String[] MULTILINGUAL_WORDS = {
+            "Straße", "Übergröße", "naïve", "κείμενο", "текст", "テキスト",
+            FREQUENT_WORD, "文本编辑", "שלום", "مرحبا", "😀👍", "line"
+    };
+
+    /**
+     * The characters a text is made of.
+     */
+    public enum Kind { ASCII, MULTILINGUAL }
+
+    private BenchmarkText() {
+    }
+
+    /**
+     * Parses a size such as "1KB", "64MB" or "1GB".
+     *
+     * @param size The size with a unit.
+     * @return The number of bytes.
+     */
+    public static long parseSize(String size) {
+        String unit = size.replaceAll("[0-9]", "").toUpperCase(Locale.ROOT);
+        long value = Long.parseLong(size.substring(0, size.length() - unit.length()));
+        switch (unit) {
+            case "KB": return value * 1024;
+            case "MB": return value * 1024 * 1024;
+            case "GB": return value * 1024 * 1024 * 1024;
+            default: return value;
+        }
+    }
+
+    /**
+     * Returns the file holding a text, writing it first if it does not exist yet.
+     *
+     * @param size The size of the file in bytes.
+     * @param kind The characters of the text.
+     * @return The UTF-8 file.
+     * @throws IOException If the file cannot be written.
+     */
+    public static synchronized Path file(long size, Kind kind) throws IOException {
+        Path directory = Paths.get(System.getProperty("java.io.tmpdir"), "texteditor-benchmark");
+        Path file = directory.resolve(kind.name().toLowerCase(Locale.ROOT) + "-" + size + ".txt");
+        if (Files.exists(file)) {
+            return file;
+        }
+        Files.createDirectories(directory);
+        Path tempFile = Files.createTempFile(directory, "text", ".tmp");
+        try (OutputStream output = Files.newOutputStream(tempFile)) {
+            writeText(output, size, kind);
+        }
+        Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING);
+        return file;
+    }
+
+    /**
+     * Opens a text as a document, memory-mapping large ASCII files like the editor does.
+     *
+     * @param size The size of the file in bytes.
+     * @param kind The characters of the text.
+     * @return The document.
+     * @throws IOException If the file cannot be written or read.
+     */
+    public static PieceTableDocument document(long size, Kind kind) throws IOException {
+        return open(file(size, kind));
+    }
+
+    /**
+     * Opens a file as a document: mapped if it is large and mappable, otherwise streamed by a {@link FileLoadWorker}
+     * whose chunks are appended on the EDT.
+     *
+     * @param file The file.
+     * @return The document.
+     * @throws IOException If the file cannot be read.
+     */
+    public static PieceTableDocument open(Path file) throws IOException {
+        TextFormat format = TextFormat.detect(file);
+        if (format.isMappable() && Files.size(file) >= MAPPING_THRESHOLD) {
+            PieceTableDocument document = PieceTableDocument.map(file, percent -> { });
+            if (document != null) {
+                return document;
+            }
+        }
+        PieceTableDocument document = new PieceTableDocument();
+        FileLoadWorker worker = new FileLoadWorker(file, document, format);
+        worker.run();
+        try {
+            worker.get();
+            SwingUtilities.invokeAndWait(() -> { }); // Wait for the remaining chunks on the EDT
+        } catch (InterruptedException | ExecutionException | InvocationTargetException exception) {
+            throw new IOException("Laden fehlgeschlagen", exception);
+        }
+        return document;
+    }
+
+    /**
+     * Writes lines of random words until the given number of UTF-8 bytes is reached.
+     */
+    private static void writeText(OutputStream output, long size, Kind kind) throws IOException {
+        String[] words = kind == Kind.ASCII ? ASCII_WORDS : MULTILINGUAL_WORDS;
+        Random random = new Random(42);
+        StringBuilder chunk = new StringBuilder(80 * 1024);
+        long written = 0;
+        while (written < size) {
+            chunk.setLength(0);
+            while (chunk.length() < 64 * 1024) {
+                int lineLength = 20 + random.nextInt(100);
+                int lineStart = chunk.length();
+                while (chunk.length() - lineStart < lineLength) {
+                    // Multilingual texts still consist of ASCII words by half, like most real documents
+                    String[] source = kind == Kind.MULTILINGUAL && random.nextBoolean() ? ASCII_WORDS : words;
+                    chunk.append(source[random.nextInt(source.length)]).append(' ');
+                }
+                chunk.setCharAt(chunk.length() - 1, '\n');
+            }
+            byte[] bytes = chunk.toString().getBytes(StandardCharsets.UTF_8);
+            int length = (int) Math.min(bytes.length, size - written);
+            // Cut at a line break, so no character is split at the end of the file
+            while (length < bytes.length && length > 0 && bytes[length - 1] != '\n') {
+                length--;
+            }
+            output.write(bytes, 0, length);
+            written += length;
+            if (length < bytes.length) {
+                break;
+            }
+        }
+    }
+}
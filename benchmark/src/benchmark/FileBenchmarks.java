@@ -0,0 +1,61 @@
+package benchmark;
+
+import controller.filemenu.FileSaveWorker;
+import model.PieceTableDocument;
+import model.TextFormat;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures opening and saving files the way {@link controller.filemenu.FileMenuManager} does: detecting the
+ * format and then memory-mapping or streaming the file into a document, and saving a document through a
+ * temporary file that is moved over the target.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx12g")
+public class FileBenchmarks {
+
+    @Param({"1KB", "1MB", "64MB", "1GB"})
+    public String size;
+
+    @Param({"ASCII", "MULTILINGUAL"})
+    public BenchmarkText.Kind text;
+
+    private Path source;
+    private Path target;
+    private PieceTableDocument document;
+
+    @Setup(Level.Trial)
+    public void createFiles() throws IOException {
+        source = BenchmarkText.file(BenchmarkText.parseSize(size), text);
+        document = BenchmarkText.open(source);
+        target = Files.createTempFile("texteditor-benchmark", ".txt");
+    }
+
+    @TearDown(Level.Trial)
+    public void deleteTarget() throws IOException {
+        Files.deleteIfExists(target);
+    }
+
+    @Benchmark
+    public int open() throws IOException {
+        return BenchmarkText.open(source).getLength();
+    }
+
+    @Benchmark
+    public long save() throws IOException, InterruptedException, ExecutionException {
+        FileSaveWorker worker = new FileSaveWorker(document, target, TextFormat.DEFAULT);
+        worker.run();
+        worker.get();
+        return Files.size(target);
+    }
+}
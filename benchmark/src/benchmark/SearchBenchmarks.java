@@ -0,0 +1,85 @@
+package benchmark;
+
+import model.LiteralMatcher;
+import model.PieceTableDocument;
+import model.RebuiltRegion;
+import model.RegexMatcher;
+import org.openjdk.jmh.annotations.*;
+
+import javax.swing.text.BadLocationException;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the search engines behind {@link controller.editmenu.SearchAndReplaceManager}: a search that has to
+ * read the whole document, finding all matches of a frequent word with and without case folding or as a
+ * regular expression, and a Replace All applied as one edit.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx12g")
+public class SearchBenchmarks {
+
+    @Param({"1KB", "1MB", "64MB", "1GB"})
+    public String size;
+
+    @Param({"ASCII", "MULTILINGUAL"})
+    public BenchmarkText.Kind text;
+
+    private PieceTableDocument document;
+    private final LiteralMatcher absentMatcher = new LiteralMatcher(BenchmarkText.ABSENT_WORD, true);
+    private final LiteralMatcher caseSensitiveMatcher = new LiteralMatcher(BenchmarkText.FREQUENT_WORD, true);
+    private final LiteralMatcher caseInsensitiveMatcher = new LiteralMatcher(BenchmarkText.FREQUENT_WORD, false);
+    private final RegexMatcher regexMatcher = new RegexMatcher("sea(r)ch\\b", true);
+    private final LiteralMatcher replacedMatcher = new LiteralMatcher("SEARCH", true);
+
+    @Setup(Level.Trial)
+    public void openDocument() throws IOException {
+        document = BenchmarkText.document(BenchmarkText.parseSize(size), text);
+    }
+
+    /**
+     * Searches for a word that does not occur, as the Search button does, reading every character.
+     */
+    @Benchmark
+    public int searchAbsent() throws BadLocationException {
+        return absentMatcher.indexOf(document, 0);
+    }
+
+    @Benchmark
+    public int findAllCaseSensitive() throws BadLocationException {
+        return caseSensitiveMatcher.findAll(document).length;
+    }
+
+    @Benchmark
+    public int findAllCaseInsensitive() throws BadLocationException {
+        return caseInsensitiveMatcher.findAll(document).length;
+    }
+
+    @Benchmark
+    public int findAllRegex() {
+        return regexMatcher.findAll(document).size();
+    }
+
+    /**
+     * Replaces all occurrences of the frequent word and then restores them, each as one edit.
+     */
+    @Benchmark
+    public int replaceAllAndRestore() throws BadLocationException {
+        int replaced = replaceAll(caseSensitiveMatcher, "SEARCH");
+        replaceAll(replacedMatcher, BenchmarkText.FREQUENT_WORD);
+        return replaced;
+    }
+
+    private int replaceAll(LiteralMatcher matcher, String replacement) throws BadLocationException {
+        RebuiltRegion region = matcher.replaceAll(document, replacement);
+        if (region == null) {
+            return 0;
+        }
+        document.replace(region.getStart(), region.getEnd() - region.getStart(), region.getText(), null);
+        return region.getMatchCount();
+    }
+}
@@ -0,0 +1,58 @@
+package benchmark;
+
+import model.PieceTableDocument;
+import org.openjdk.jmh.annotations.*;
+
+import javax.swing.text.BadLocationException;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the work behind the status bar of {@link controller.StatusBarManager}: the word and line
+ * count after an edit, which the piece table document keeps up to date incrementally, and the line
+ * and column of the caret, which are looked up in the line index.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx12g")
+public class StatusBarBenchmarks {
+
+    @Param({"1KB", "1MB", "64MB", "1GB"})
+    public String size;
+
+    @Param({"ASCII", "MULTILINGUAL"})
+    public BenchmarkText.Kind text;
+
+    private PieceTableDocument document;
+    private int middle;
+
+    @Setup(Level.Trial)
+    public void openDocument() throws IOException {
+        document = BenchmarkText.document(BenchmarkText.parseSize(size), text);
+        middle = document.getLength() / 2;
+    }
+
+    /**
+     * Types a word into the middle of the document, reads the counts shown in the status bar and removes the word again.
+     */
+    @Benchmark
+    public int wordCountAfterTyping() throws BadLocationException {
+        document.insertString(middle, " neu ", null);
+        int words = document.getStatistics().getWordCount() + document.getStatistics().getLineCount();
+        document.remove(middle, 5);
+        return words;
+    }
+
+    /**
+     * Computes the line and column of a caret in the middle of the document.
+     */
+    @Benchmark
+    public long caretPosition() {
+        int line = document.getLineIndex().getLineOfOffset(middle);
+        int column = middle - document.getLineIndex().getLineStart(line);
+        return ((long) line << 32) | column;
+    }
+}
@@ -1,15 +1,32 @@
+import controller.EdtWatchdog;
+import controller.StartupTimer;
 import controller.TextEditorMainController;
+import controller.batch.BatchCommand;
 import gui.TextEditorMainGUI;
 
+import javax.swing.*;
+import java.awt.event.WindowEvent;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+
 
 /**
  * The main entry point for the Text Editor application.
  * This class initialises the graphical user interface (GUI)
  * and its corresponding controller.
+ * With {@code --batch} as the first argument, the files given on the command line are
+ * transformed or printed into a file by a {@link BatchCommand} instead, without creating any window.
+ * With {@code -Dtexteditor.startupBenchmark=true}, the editor prints its startup times and exits
+ * once it is ready and warmed up, e.g. to record an AppCDS archive with {@code -XX:ArchiveClassesAtExit}.
  */
 public class TextEditorMain {
     public static void main(String[] args) {
-        new RunTextEditor();
+        if (args.length > 0 && args[0].equals("--batch")) {
+            System.setProperty("java.awt.headless", "true");
+            System.exit(BatchCommand.run(Arrays.copyOfRange(args, 1, args.length), System.out, System.err));
+        }
+        StartupTimer startupTimer = StartupTimer.start();
+        new RunTextEditor(startupTimer);
     }
 
     /**
@@ -17,11 +34,30 @@ public class TextEditorMain {
      */
     public static class RunTextEditor {
 
-        public RunTextEditor() {
+        public RunTextEditor(StartupTimer startupTimer) {
+            // Time every event on the EDT and record the stack of events that block it
+            EdtWatchdog.install();
             // Initialise the graphical user interface with a default title
             TextEditorMainGUI gui = new TextEditorMainGUI("Texteditor | Unbenannt");
+            startupTimer.mark(StartupTimer.Milestone.WINDOW_BUILT);
             // Create and bind the controller to handle logic and events
-            new TextEditorMainController(gui);
+            TextEditorMainController controller = new TextEditorMainController(gui);
+            // Once the window is painted and the start events are processed, warm up what is built on first use
+            gui.setFirstPaintListener(paintedAt -> {
+                startupTimer.mark(StartupTimer.Milestone.FIRST_PAINT, paintedAt);
+                SwingUtilities.invokeLater(() -> {
+                    startupTimer.mark(StartupTimer.Milestone.READY);
+                    CompletableFuture<Void> warmUp = controller.warmUp();
+                    if (Boolean.getBoolean("texteditor.startupBenchmark")) {
+                        warmUp.whenComplete((result, exception) -> SwingUtilities.invokeLater(() -> {
+                            System.out.println(startupTimer.describe());
+                            gui.dispatchEvent(new WindowEvent(gui, WindowEvent.WINDOW_CLOSING));
+                        }));
+                    }
+                });
+            });
+            // Offer to restore the changes of a session that ended unexpectedly
+            controller.recoverUnsavedChanges();
         }
     }
 }
\ No newline at end of file
@@ -0,0 +1,249 @@
+package controller;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import model.LatencyHistogram;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Maps the action commands of menu items and toolbar buttons to the actions they run, and measures every run.
+ * <p>
+ * Each run of a command is timed into a {@link LatencyHistogram} of its own, and the bytes the running thread
+ * allocates are counted through {@code com.sun.management.ThreadMXBean}, where the JVM supports it. Each run is
+ * also emitted as a JFR event {@code texteditor.Command}, so a flight recording shows the commands alongside
+ * garbage collections and file I/O. The time measured is the time the command holds the EDT; a command opening a
+ * modal dialog includes the time the dialog is open, while work a command hands to a background worker is not
+ * included.
+ * </p>
+ * <p>
+ * Registering a command a second time replaces its action but keeps its statistics, so the menu and the toolbar
+ * can share one registry.
+ * </p>
+ */
+public class CommandRegistry {
+
+    private static final double NANOS_PER_MILLI = 1e6;
+
+    private final Map<String, Runnable> actions = new LinkedHashMap<>();
+    private final Map<String, CommandStatistics> statistics = new LinkedHashMap<>();
+
+    /**
+     * Registers the action of a command.
+     *
+     * @param command The action command, as set on the menu item or button.
+     * @param action  The action to run.
+     */
+    public synchronized void register(String command, Runnable action) {
+        actions.put(command, action);
+        statistics.computeIfAbsent(command, CommandStatistics::new);
+    }
+
+    /**
+     * Runs the action of a command and records its duration and allocations, even if it throws.
+     *
+     * @param command The action command.
+     * @return true if the command is registered and has been run, false if it is unknown.
+     */
+    public boolean execute(String command) {
+        Runnable action;
+        CommandStatistics commandStatistics;
+        synchronized (this) {
+            action = actions.get(command);
+            commandStatistics = statistics.get(command);
+        }
+        if (action == null) {
+            return false;
+        }
+
+        com.sun.management.ThreadMXBean threadBean = AllocationCounter.THREAD_BEAN;
+        CommandEvent event = new CommandEvent();
+        event.command = command;
+        long allocatedBefore = threadBean == null ? 0 : threadBean.getCurrentThreadAllocatedBytes();
+        event.begin();
+        long start = System.nanoTime();
+        try {
+            action.run();
+        } finally {
+            long duration = System.nanoTime() - start;
+            event.end();
+            long allocated = threadBean == null ? 0 : threadBean.getCurrentThreadAllocatedBytes() - allocatedBefore;
+            commandStatistics.record(duration, allocated);
+            if (event.shouldCommit()) {
+                event.allocatedBytes = allocated;
+                event.commit();
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns whether the allocations of the commands are measured. The first call looks up the
+     * {@code ThreadMXBean}, which takes some tens of milliseconds, so it is best made off the EDT.
+     *
+     * @return true if the JVM reports the bytes allocated per thread.
+     */
+    public boolean isMeasuringAllocations() {
+        return AllocationCounter.THREAD_BEAN != null;
+    }
+
+    /**
+     * Returns the statistics of all registered commands, in the order they were registered.
+     *
+     * @return The statistics; they keep recording as commands run.
+     */
+    public synchronized List<CommandStatistics> getStatistics() {
+        return new ArrayList<>(statistics.values());
+    }
+
+    /**
+     * Discards the recorded runs of all commands.
+     */
+    public synchronized void reset() {
+        for (CommandStatistics commandStatistics : statistics.values()) {
+            commandStatistics.reset();
+        }
+    }
+
+    /**
+     * Writes count, percentiles and maximum of every command that has run as a JSON document.
+     *
+     * @param writer The writer to write to; it is not closed.
+     * @throws IOException If writing fails.
+     */
+    public void writeJson(Writer writer) throws IOException {
+        StringBuilder json = new StringBuilder();
+        json.append("{\n");
+        json.append("  \"created\": \"").append(Instant.now()).append("\",\n");
+        json.append("  \"allocationsMeasured\": ").append(isMeasuringAllocations()).append(",\n");
+        json.append("  \"commands\": [");
+        String separator = "\n";
+        for (CommandStatistics commandStatistics : getStatistics()) {
+            if (commandStatistics.getCount() == 0) {
+                continue;
+            }
+            LatencyHistogram latency = commandStatistics.getLatency();
+            json.append(separator);
+            json.append(String.format(Locale.ROOT,
+                    "    {\"command\": \"%s\", \"count\": %d, \"p50Millis\": %.3f, \"p99Millis\": %.3f, \"maxMillis\": %.3f, "
+                            + "\"meanAllocatedBytes\": %d, \"maxAllocatedBytes\": %d}",
+                    escape(commandStatistics.getCommand()), commandStatistics.getCount(),
+                    latency.getValueAtPercentile(50) / NANOS_PER_MILLI, latency.getValueAtPercentile(99) / NANOS_PER_MILLI,
+                    latency.getMax() / NANOS_PER_MILLI, commandStatistics.getMeanAllocatedBytes(),
+                    commandStatistics.getMaxAllocatedBytes()));
+            separator = ",\n";
+        }
+        json.append(separator.equals("\n") ? "]\n" : "\n  ]\n");
+        json.append("}\n");
+        writer.write(json.toString());
+        writer.flush();
+    }
+
+    /**
+     * Escapes quotes, backslashes and control characters for a JSON string.
+     */
+    private static String escape(String text) {
+        StringBuilder escaped = new StringBuilder(text.length());
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '"' || c == '\\') {
+                escaped.append('\\').append(c);
+            } else if (c < 0x20) {
+                escaped.append(String.format(Locale.ROOT, "\\u%04x", (int) c));
+            } else {
+                escaped.append(c);
+            }
+        }
+        return escaped.toString();
+    }
+
+    /**
+     * Holds the {@code ThreadMXBean}, looked up when it is first used rather than when the editor starts.
+     */
+    private static class AllocationCounter {
+        static final com.sun.management.ThreadMXBean THREAD_BEAN = lookUp();
+
+        private static com.sun.management.ThreadMXBean lookUp() {
+            java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+            if (bean instanceof com.sun.management.ThreadMXBean
+                    && ((com.sun.management.ThreadMXBean) bean).isThreadAllocatedMemorySupported()
+                    && ((com.sun.management.ThreadMXBean) bean).isThreadAllocatedMemoryEnabled()) {
+                return (com.sun.management.ThreadMXBean) bean;
+            }
+            return null;
+        }
+    }
+
+    /**
+     * The recorded runs of one command: their durations in nanoseconds and the bytes they allocated.
+     */
+    public static class CommandStatistics {
+
+        private final String command;
+        private final LatencyHistogram latency = new LatencyHistogram();
+        private long allocatedBytes = 0;
+        private long maxAllocatedBytes = 0;
+
+        CommandStatistics(String command) {
+            this.command = command;
+        }
+
+        synchronized void record(long durationNanos, long allocated) {
+            latency.record(durationNanos);
+            allocatedBytes += allocated;
+            maxAllocatedBytes = Math.max(maxAllocatedBytes, allocated);
+        }
+
+        synchronized void reset() {
+            latency.reset();
+            allocatedBytes = 0;
+            maxAllocatedBytes = 0;
+        }
+
+        public String getCommand() { return command; }
+        public LatencyHistogram getLatency() { return latency; }
+        public long getCount() { return latency.getTotalCount(); }
+        public synchronized long getMaxAllocatedBytes() { return maxAllocatedBytes; }
+
+        /**
+         * Returns the bytes a run of the command allocated on average.
+         *
+         * @return The mean, or 0 if the command has not run.
+         */
+        public synchronized long getMeanAllocatedBytes() {
+            long count = latency.getTotalCount();
+            return count == 0 ? 0 : allocatedBytes / count;
+        }
+    }
+
+    /**
+     * The JFR event emitted for every run of a command.
+     */
+    @Name("texteditor.Command")
+    @Label("Befehl")
+    @Category("Texteditor")
+    @Description("Ausführung eines Menü- oder Symbolleistenbefehls")
+    @StackTrace(false)
+    static class CommandEvent extends Event {
+
+        @Label("Befehl")
+        String command;
+
+        @Label("Allokiert")
+        @DataAmount
+        long allocatedBytes;
+    }
+}
@@ -0,0 +1,268 @@
+package controller;
+
+import model.LatencyHistogram;
+
+import javax.swing.*;
+import java.awt.*;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.Locale;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.FileHandler;
+import java.util.logging.Formatter;
+import java.util.logging.Handler;
+import java.util.logging.Level;
+import java.util.logging.LogRecord;
+import java.util.logging.Logger;
+
+/**
+ * Measures how long the Event Dispatch Thread spends on each event and records the stack of the EDT
+ * while an event blocks it for too long.
+ * <p>
+ * The watchdog replaces the system event queue and times every dispatched event. The durations go into a
+ * {@link LatencyHistogram}, whose percentiles are written to the diagnostics log once a minute and when the
+ * editor exits. A monitor thread checks the running event several times per threshold; once an event has
+ * been running longer than {@code -Dtexteditor.stallThresholdMillis} (200 ms by default, 0 turns the
+ * watchdog off), the stack of the EDT is written to the log, and again the total duration once it ends.
+ * </p>
+ * <p>
+ * Events opening a modal dialog dispatch further events while they wait for it. Such an event is not
+ * recorded in the histogram, as its duration includes the time the user spent in the dialog, and the
+ * stall clock restarts after each nested event. While a nested event loop waits for input, the EDT is idle,
+ * which the monitor recognises from its stack.
+ * </p>
+ * <p>
+ * The log is written to {@code ~/.texteditor/diagnostics.0.log} and rotated over three files of 1 MB each.
+ * </p>
+ */
+public class EdtWatchdog extends EventQueue {
+
+    private static final String THRESHOLD_PROPERTY = "texteditor.stallThresholdMillis";
+    private static final long DEFAULT_THRESHOLD_MILLIS = 200;
+    private static final int LOG_FILE_LIMIT = 1024 * 1024;
+    private static final int LOG_FILE_COUNT = 3;
+    private static final long SUMMARY_INTERVAL_SECONDS = 60;
+    private static final int MAX_STACK_DEPTH = 64;
+
+    private final long thresholdNanos;
+    private final Logger logger;
+    private final LatencyHistogram histogram = new LatencyHistogram();
+    private final ScheduledExecutorService monitor;
+    private volatile Thread dispatchThread;
+    private volatile AWTEvent activeEvent;
+    private volatile long activeSince;
+    private volatile long activeSequence;
+    private volatile long stalledSequence = -1;
+    private volatile long stallCount = 0;
+    private volatile long modalCount = 0;
+    private long sequence = 0;
+    private boolean nestedDispatch = false;
+    private long summarisedCount = 0;
+
+    /**
+     * Constructs a watchdog writing to the given handler. It starts timing once it is pushed onto the event queue.
+     *
+     * @param thresholdMillis The duration of an event after which the stack of the EDT is recorded.
+     * @param handler         Receives the stall reports and histogram summaries.
+     */
+    public EdtWatchdog(long thresholdMillis, Handler handler) {
+        thresholdNanos = TimeUnit.MILLISECONDS.toNanos(thresholdMillis);
+        logger = Logger.getAnonymousLogger();
+        logger.setUseParentHandlers(false);
+        logger.addHandler(handler);
+
+        monitor = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "EDT-Watchdog");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long checkInterval = Math.max(1, thresholdNanos / 4);
+        monitor.scheduleAtFixedRate(this::checkForStall, checkInterval, checkInterval, TimeUnit.NANOSECONDS);
+        monitor.scheduleAtFixedRate(this::writeSummary, SUMMARY_INTERVAL_SECONDS, SUMMARY_INTERVAL_SECONDS, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Installs a watchdog writing to the rotating diagnostics log, unless it is turned off.
+     *
+     * @return The installed watchdog, or null if it is turned off or the log cannot be opened.
+     */
+    public static EdtWatchdog install() {
+        long thresholdMillis = Long.getLong(THRESHOLD_PROPERTY, DEFAULT_THRESHOLD_MILLIS);
+        if (thresholdMillis <= 0) {
+            return null;
+        }
+        Handler handler;
+        try {
+            Path directory = Path.of(System.getProperty("user.home"), ".texteditor");
+            Files.createDirectories(directory);
+            handler = new FileHandler(directory.resolve("diagnostics.%g.log").toString(),
+                    LOG_FILE_LIMIT, LOG_FILE_COUNT, true);
+        } catch (IOException exception) {
+            System.err.println("Diagnoseprotokoll kann nicht geöffnet werden: " + exception.getMessage());
+            return null;
+        }
+        handler.setFormatter(new DiagnosticsFormatter());
+
+        EdtWatchdog watchdog = new EdtWatchdog(thresholdMillis, handler);
+        Toolkit.getDefaultToolkit().getSystemEventQueue().push(watchdog);
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            watchdog.writeSummary();
+            handler.close();
+        }, "EDT-Watchdog-Shutdown"));
+        return watchdog;
+    }
+
+    /**
+     * Removes the watchdog from the event queue and stops its monitor. Events still queued are passed on.
+     */
+    public void uninstall() {
+        monitor.shutdownNow();
+        pop();
+        for (Handler handler : logger.getHandlers()) {
+            handler.flush();
+        }
+    }
+
+    public LatencyHistogram getHistogram() { return histogram; }
+    public long getStallCount() { return stallCount; }
+
+    /**
+     * Dispatches an event and records its duration.
+     *
+     * @param event The event to dispatch.
+     */
+    @Override
+    protected void dispatchEvent(AWTEvent event) {
+        dispatchThread = Thread.currentThread();
+        AWTEvent outerEvent = activeEvent;
+        long outerSequence = activeSequence;
+        nestedDispatch = false;
+
+        long start = System.nanoTime();
+        activeSequence = ++sequence;
+        activeSince = start;
+        activeEvent = event;
+        try {
+            super.dispatchEvent(event);
+        } finally {
+            long end = System.nanoTime();
+            if (nestedDispatch) {
+                modalCount++;
+            } else {
+                histogram.record(end - start);
+            }
+            if (stalledSequence == activeSequence) {
+                logger.warning(String.format(Locale.ROOT, "EDT-Blockade beendet nach %d ms: %s",
+                        TimeUnit.NANOSECONDS.toMillis(end - start), describe(event)));
+            }
+
+            // The outer event continues; its stall clock restarts now
+            activeEvent = outerEvent;
+            activeSequence = outerSequence;
+            activeSince = end;
+            nestedDispatch = outerEvent != null;
+        }
+    }
+
+    /**
+     * Records the stack of the EDT if the running event has exceeded the threshold and has not been recorded yet.
+     */
+    private void checkForStall() {
+        Thread thread = dispatchThread;
+        AWTEvent event = activeEvent;
+        long eventSequence = activeSequence;
+        long elapsed = System.nanoTime() - activeSince;
+        if (thread == null || event == null || eventSequence == stalledSequence || elapsed < thresholdNanos) {
+            return;
+        }
+        StackTraceElement[] stack = thread.getStackTrace();
+        if (eventSequence != activeSequence || isWaitingForEvents(thread, stack)) {
+            return;
+        }
+        stalledSequence = eventSequence;
+        stallCount++;
+
+        StringBuilder report = new StringBuilder();
+        report.append(String.format(Locale.ROOT, "EDT blockiert seit %d ms (Schwelle %d ms): %s",
+                TimeUnit.NANOSECONDS.toMillis(elapsed), TimeUnit.NANOSECONDS.toMillis(thresholdNanos), describe(event)));
+        report.append(System.lineSeparator()).append("    Zustand: ").append(thread.getState());
+        for (int i = 0; i < Math.min(stack.length, MAX_STACK_DEPTH); i++) {
+            report.append(System.lineSeparator()).append("    at ").append(stack[i]);
+        }
+        if (stack.length > MAX_STACK_DEPTH) {
+            report.append(System.lineSeparator()).append("    ... ").append(stack.length - MAX_STACK_DEPTH).append(" weitere");
+        }
+        logger.warning(report.toString());
+    }
+
+    /**
+     * Returns whether the EDT waits for the next event, as it does in the nested event loop of a modal dialog.
+     */
+    private static boolean isWaitingForEvents(Thread thread, StackTraceElement[] stack) {
+        Thread.State state = thread.getState();
+        if (state != Thread.State.WAITING && state != Thread.State.TIMED_WAITING) {
+            return false;
+        }
+        for (int i = 0; i < Math.min(stack.length, 8); i++) {
+            if (stack[i].getClassName().equals("java.awt.EventQueue") && stack[i].getMethodName().equals("getNextEvent")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Writes the percentiles of the event durations to the log, if events have been recorded since the last summary.
+     */
+    public synchronized void writeSummary() {
+        long count = histogram.getTotalCount();
+        if (count == summarisedCount) {
+            return;
+        }
+        summarisedCount = count;
+        logger.info(String.format(Locale.ROOT,
+                "EDT-Latenz: %d Ereignisse, Mittel %.2f ms, p50 %.2f ms, p90 %.2f ms, p99 %.2f ms, p99.9 %.2f ms, "
+                        + "max %.2f ms; %d Blockaden, %d modale Ereignisse",
+                count, histogram.getMean() / 1e6, millis(histogram.getValueAtPercentile(50)),
+                millis(histogram.getValueAtPercentile(90)), millis(histogram.getValueAtPercentile(99)),
+                millis(histogram.getValueAtPercentile(99.9)), millis(histogram.getMax()), stallCount, modalCount));
+        for (Handler handler : logger.getHandlers()) {
+            handler.flush();
+        }
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1e6;
+    }
+
+    /**
+     * Describes an event by its type and source; for buttons and menu items, the action command names the action.
+     */
+    private static String describe(AWTEvent event) {
+        Object source = event.getSource();
+        String description = event.getClass().getSimpleName() + " " + event.paramString();
+        if (source instanceof AbstractButton) {
+            return description + " auf \"" + ((AbstractButton) source).getActionCommand() + "\"";
+        }
+        return source == null ? description : description + " von " + source.getClass().getName();
+    }
+
+    /**
+     * Formats log records as a time stamp, the level and the message, one record per line.
+     */
+    private static class DiagnosticsFormatter extends Formatter {
+        private static final DateTimeFormatter TIME_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss.SSS");
+
+        @Override
+        public String format(LogRecord record) {
+            String level = record.getLevel() == Level.WARNING ? "WARNUNG" : "INFO";
+            return LocalDateTime.ofInstant(record.getInstant(), ZoneId.systemDefault()).format(TIME_FORMAT) + " " + level + " " + record.getMessage() + System.lineSeparator();
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package controller;
+
+import controller.filemenu.FileChooserConfigurator;
+import gui.PerformanceDialogWindow;
+import model.LatencyHistogram;
+
+import javax.swing.*;
+import javax.swing.filechooser.FileNameExtensionFilter;
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.time.LocalDate;
+
+/**
+ * Shows the statistics of a {@link CommandRegistry} in a {@link PerformanceDialogWindow} and exports them as JSON.
+ * The dialogue is built when it is first shown.
+ */
+public class PerformanceManager {
+
+    private static final double NANOS_PER_MILLI = 1e6;
+
+    private final JFrame gui;
+    private final CommandRegistry commands;
+    private PerformanceDialogWindow dialogWindow;
+
+    /**
+     * Constructs the performance manager.
+     *
+     * @param gui      The main window, parent of the dialogue.
+     * @param commands The registry whose commands are shown.
+     */
+    public PerformanceManager(JFrame gui, CommandRegistry commands) {
+        this.gui = gui;
+        this.commands = commands;
+    }
+
+    /**
+     * Shows the dialogue with the current statistics.
+     */
+    public void showPerformanceDialog() {
+        if (dialogWindow == null) {
+            dialogWindow = new PerformanceDialogWindow(gui);
+            dialogWindow.getRefreshButton().addActionListener(e -> refresh());
+            dialogWindow.getResetButton().addActionListener(e -> {
+                commands.reset();
+                refresh();
+            });
+            dialogWindow.getExportButton().addActionListener(e -> exportJson());
+            dialogWindow.getNoteLabel().setText(commands.isMeasuringAllocations()
+                    ? "Zeiten inklusive offener modaler Dialoge"
+                    : "Zeiten inklusive offener modaler Dialoge; Allokationen werden von dieser JVM nicht gemessen");
+        }
+        refresh();
+        dialogWindow.showPerformanceDialog(gui);
+    }
+
+    /**
+     * Fills the table with one row for every command that has run.
+     */
+    private void refresh() {
+        dialogWindow.getTableModel().setRowCount(0);
+        for (CommandRegistry.CommandStatistics statistics : commands.getStatistics()) {
+            if (statistics.getCount() == 0) {
+                continue;
+            }
+            LatencyHistogram latency = statistics.getLatency();
+            dialogWindow.getTableModel().addRow(new Object[] {
+                    statistics.getCommand(),
+                    statistics.getCount(),
+                    latency.getValueAtPercentile(50) / NANOS_PER_MILLI,
+                    latency.getValueAtPercentile(99) / NANOS_PER_MILLI,
+                    latency.getMax() / NANOS_PER_MILLI,
+                    statistics.getMeanAllocatedBytes() / 1024.0,
+                    statistics.getMaxAllocatedBytes() / 1024.0
+            });
+        }
+    }
+
+    /**
+     * Asks for a file and writes the statistics into it as JSON.
+     */
+    private void exportJson() {
+        JFileChooser fileChooser = new JFileChooser();
+        FileChooserConfigurator.configureFileChooser(fileChooser);
+        fileChooser.setDialogTitle("Leistungsdaten exportieren");
+        fileChooser.setFileFilter(new FileNameExtensionFilter("JSON-Dateien (*.json)", "json"));
+        fileChooser.setSelectedFile(new File("texteditor-leistung-" + LocalDate.now() + ".json"));
+        if (fileChooser.showSaveDialog(dialogWindow) != JFileChooser.APPROVE_OPTION) {
+            return;
+        }
+
+        File file = fileChooser.getSelectedFile();
+        if (!file.getName().contains(".")) {
+            file = new File(file.getPath() + ".json");
+        }
+        try (Writer writer = Files.newBufferedWriter(file.toPath(), StandardCharsets.UTF_8)) {
+            commands.writeJson(writer);
+        } catch (IOException exception) {
+            JOptionPane.showMessageDialog(dialogWindow, "Export fehlgeschlagen:\n" + exception.getMessage(),
+                    "Leistungsdaten exportieren", JOptionPane.ERROR_MESSAGE);
+        }
+    }
+}
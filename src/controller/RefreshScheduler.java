@@ -0,0 +1,90 @@
+package controller;
+
+import javax.swing.*;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+
+/**
+ * Coalesces refresh requests on the Event Dispatch Thread.
+ * <p>
+ * Listeners request a refresh task instead of running it directly. All tasks requested
+ * within one frame (about 16 ms) are run once when the frame ends, so a burst of caret and
+ * document events, e.g. from pasting or replacing text, results in a single update of the
+ * status bar and the menu state. Requests for a task that is already pending are dropped.
+ * </p>
+ */
+public class RefreshScheduler {
+
+    private static final int FRAME_MILLIS = 16;
+
+    private final LinkedHashSet<Runnable> pendingTasks = new LinkedHashSet<>();
+    private final Timer timer;
+    private long appliedCount = 0;
+    private long droppedCount = 0;
+
+    /**
+     * Constructs a scheduler with the default frame length of 16 ms.
+     */
+    public RefreshScheduler() {
+        this(FRAME_MILLIS);
+    }
+
+    /**
+     * Constructs a scheduler with the given frame length.
+     *
+     * @param frameMillis The delay in milliseconds between the first request and running the tasks.
+     */
+    public RefreshScheduler(int frameMillis) {
+        timer = new Timer(frameMillis, e -> flush());
+        timer.setRepeats(false);
+    }
+
+    /**
+     * Requests a task to run at the end of the current frame.
+     * Must be called on the Event Dispatch Thread. The same task instance
+     * is run at most once per frame, however often it is requested.
+     *
+     * @param task The refresh task.
+     */
+    public void request(Runnable task) {
+        if (!pendingTasks.add(task)) {
+            droppedCount++;
+            return;
+        }
+        if (!timer.isRunning()) {
+            timer.start();
+        }
+    }
+
+    /**
+     * Runs all pending tasks immediately. Tasks requested while running are deferred to the next frame.
+     */
+    public void flush() {
+        timer.stop();
+        List<Runnable> tasks = new ArrayList<>(pendingTasks);
+        pendingTasks.clear();
+        for (Runnable task : tasks) {
+            task.run();
+            appliedCount++;
+        }
+    }
+
+    /**
+     * Returns the number of refreshes that have been run.
+     *
+     * @return The applied count.
+     */
+    public long getAppliedCount() {
+        return appliedCount;
+    }
+
+    /**
+     * Returns the number of requests that were merged into an already pending refresh.
+     *
+     * @return The dropped count.
+     */
+    public long getDroppedCount() {
+        return droppedCount;
+    }
+}
@@ -0,0 +1,179 @@
+package controller;
+
+import javax.swing.*;
+import java.awt.*;
+import java.awt.event.AWTEventListener;
+import java.awt.event.KeyEvent;
+import java.io.IOException;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Measures how long the editor takes to start, up to the point where it processes the first keystroke.
+ * <p>
+ * The milestones are counted in milliseconds from the start of the process: entering {@code main},
+ * the window being built, the window being painted for the first time, and the editor being ready,
+ * which is when the EDT has processed everything queued while starting. Since a keystroke typed at
+ * that point is processed right away, this is the time to the first keystroke. If the user types
+ * earlier or while the background warm-up runs, the delay of that first keystroke is recorded as well.
+ * </p>
+ * <p>
+ * Each start adds a line to {@code ~/.texteditor/startup.csv}, including whether a custom class data
+ * sharing (AppCDS) archive was used, so the times of successive starts and releases can be compared.
+ * </p>
+ */
+public class StartupTimer {
+
+    /**
+     * The points in time that are measured while the editor starts.
+     */
+    public enum Milestone { MAIN, WINDOW_BUILT, FIRST_PAINT, READY, FIRST_KEYSTROKE }
+
+    private static final String CSV_HEADER = "zeitpunkt,cds_archiv,main_ms,fenster_ms,erstes_bild_ms,bereit_ms,"
+            + "erster_tastendruck_ms,tastendruck_verzoegerung_ms";
+
+    private final Map<Milestone, Long> milestones = new EnumMap<>(Milestone.class);
+    private final AWTEventListener keyListener = this::firstKeyPressed;
+    private long firstKeystrokeDelay = -1;
+    private long processStart = -1;
+    private boolean written = false;
+
+    private StartupTimer() {
+        milestones.put(Milestone.MAIN, System.currentTimeMillis());
+    }
+
+    /**
+     * Starts measuring; to be called first thing in {@code main}. The first keystroke is watched from now on,
+     * and the times are written when it has been processed or, without keystroke, when the editor exits.
+     *
+     * @return The timer.
+     */
+    public static StartupTimer start() {
+        StartupTimer timer = new StartupTimer();
+        Toolkit.getDefaultToolkit().addAWTEventListener(timer.keyListener, AWTEvent.KEY_EVENT_MASK);
+        Runtime.getRuntime().addShutdownHook(new Thread(timer::write, "Startup-Timer-Shutdown"));
+        return timer;
+    }
+
+    /**
+     * Records a milestone, unless it has been recorded already.
+     *
+     * @param milestone The milestone reached now.
+     */
+    public synchronized void mark(Milestone milestone) {
+        mark(milestone, System.currentTimeMillis());
+    }
+
+    /**
+     * Records a milestone reached at a given time, unless it has been recorded already.
+     *
+     * @param milestone The milestone.
+     * @param millis    The time it was reached, in milliseconds since the epoch.
+     */
+    public synchronized void mark(Milestone milestone, long millis) {
+        milestones.putIfAbsent(milestone, millis);
+    }
+
+    /**
+     * Returns the time from the start of the process to a milestone.
+     *
+     * @param milestone The milestone.
+     * @return The time in milliseconds, or -1 if the milestone has not been reached yet.
+     */
+    public synchronized long getMillis(Milestone milestone) {
+        Long time = milestones.get(milestone);
+        return time == null ? -1 : time - processStart();
+    }
+
+    /**
+     * Describes the milestones reached so far on one line.
+     *
+     * @return The description.
+     */
+    public synchronized String describe() {
+        return String.format(Locale.ROOT, "Start: main %d ms, Fenster %d ms, erstes Bild %d ms, bereit %d ms (CDS-Archiv: %s)",
+                getMillis(Milestone.MAIN), getMillis(Milestone.WINDOW_BUILT), getMillis(Milestone.FIRST_PAINT),
+                getMillis(Milestone.READY), sharedArchive());
+    }
+
+    /**
+     * Records the delay of the first key press, once the EDT has processed it.
+     */
+    private void firstKeyPressed(AWTEvent event) {
+        if (event.getID() != KeyEvent.KEY_PRESSED) {
+            return;
+        }
+        Toolkit.getDefaultToolkit().removeAWTEventListener(keyListener);
+        long pressed = ((KeyEvent) event).getWhen();
+        SwingUtilities.invokeLater(() -> {
+            synchronized (this) {
+                mark(Milestone.FIRST_KEYSTROKE);
+                firstKeystrokeDelay = milestones.get(Milestone.FIRST_KEYSTROKE) - pressed;
+            }
+            Thread writer = new Thread(this::write, "Startup-Timer");
+            writer.setDaemon(true);
+            writer.start();
+        });
+    }
+
+    /**
+     * Appends the times of this start to the startup log, once.
+     */
+    private synchronized void write() {
+        if (written) {
+            return;
+        }
+        written = true;
+        try {
+            Path directory = Path.of(System.getProperty("user.home"), ".texteditor");
+            Files.createDirectories(directory);
+            Path file = directory.resolve("startup.csv");
+            boolean created = !Files.exists(file);
+            try (Writer writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+                if (created) {
+                    writer.write(CSV_HEADER + System.lineSeparator());
+                }
+                writer.write(String.format(Locale.ROOT, "%s,%s,%d,%d,%d,%d,%d,%d%n",
+                        LocalDateTime.now().format(DateTimeFormatter.ISO_LOCAL_DATE_TIME), sharedArchive(),
+                        getMillis(Milestone.MAIN), getMillis(Milestone.WINDOW_BUILT), getMillis(Milestone.FIRST_PAINT),
+                        getMillis(Milestone.READY), getMillis(Milestone.FIRST_KEYSTROKE), firstKeystrokeDelay));
+            }
+        } catch (IOException exception) {
+            System.err.println("Startzeiten können nicht gespeichert werden: " + exception.getMessage());
+        }
+    }
+
+    /**
+     * Returns the start of the process; looked up only when the times are reported, as it reads the process table.
+     */
+    private long processStart() {
+        if (processStart < 0) {
+            processStart = ProcessHandle.current().info().startInstant().map(Instant::toEpochMilli)
+                    .orElse(milestones.get(Milestone.MAIN));
+        }
+        return processStart;
+    }
+
+    /**
+     * Returns the name of the AppCDS archive given with {@code -XX:SharedArchiveFile}, or "-" without one.
+     */
+    private static String sharedArchive() {
+        for (String argument : ManagementFactory.getRuntimeMXBean().getInputArguments()) {
+            if (argument.startsWith("-XX:SharedArchiveFile=")) {
+                return Path.of(argument.substring("-XX:SharedArchiveFile=".length())).getFileName().toString();
+            }
+        }
+        return "-";
+    }
+}
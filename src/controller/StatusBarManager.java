@@ -1,72 +1,110 @@
 package controller;
 
 import gui.TextEditorStatusBar;
+import model.LineIndex;
+import model.PieceTableDocument;
+import model.TextStatistics;
 
 import javax.swing.*;
-import javax.swing.event.CaretEvent;
-import javax.swing.event.CaretListener;
 import javax.swing.event.DocumentEvent;
 import javax.swing.event.DocumentListener;
+import javax.swing.text.Document;
 
 /**
  * Manages the status bar updates for the text editor.
  * This class listens for caret movements and document changes,
- * updating the cursor position, word count, and character count in real-time.
+ * updating the cursor position, word count, character count, and line count in real-time.
+ * Updates are coalesced by a {@link RefreshScheduler}, so each label is refreshed at most once per frame.
  */
 public class StatusBarManager {
 
     private final TextEditorStatusBar statusBar;
     private final JTextArea textArea;
+    private final RefreshScheduler refreshScheduler;
+    private final Runnable cursorRefresh = this::refreshCursorPosition;
+    private final Runnable textInfoRefresh = this::refreshTextInfo;
 
     /**
-     * Constructs the status bar manager and registers event listeners.
+     * Constructs the status bar manager with its own refresh scheduler and registers event listeners.
      *
      * @param statusBar The status bar instance to be updated.
      * @param textArea  The text area whose events are being monitored.
      */
     public StatusBarManager(TextEditorStatusBar statusBar, JTextArea textArea) {
+        this(statusBar, textArea, new RefreshScheduler());
+    }
+
+    /**
+     * Constructs the status bar manager and registers event listeners.
+     *
+     * @param statusBar        The status bar instance to be updated.
+     * @param textArea         The text area whose events are being monitored.
+     * @param refreshScheduler The scheduler coalescing the status bar updates.
+     */
+    public StatusBarManager(TextEditorStatusBar statusBar, JTextArea textArea, RefreshScheduler refreshScheduler) {
         this.statusBar = statusBar;
         this.textArea = textArea;
+        this.refreshScheduler = refreshScheduler;
 
-        textArea.addCaretListener(new CursorPositionUpdater());
-        textArea.getDocument().addDocumentListener(new TextUpdater());
+        TextUpdater textUpdater = new TextUpdater();
+        textArea.addCaretListener(e -> refreshScheduler.request(cursorRefresh));
+        textArea.getDocument().addDocumentListener(textUpdater);
+
+        // Follow the text area when a file is opened into a new document
+        textArea.addPropertyChangeListener("document", e -> {
+            ((Document) e.getOldValue()).removeDocumentListener(textUpdater);
+            ((Document) e.getNewValue()).addDocumentListener(textUpdater);
+            refreshScheduler.request(textInfoRefresh);
+        });
     }
 
     /**
-     * Listens for caret position changes and updates the cursor position in the status bar.
+     * Updates the cursor position in the status bar from the current caret position.
+     * Piece table documents look the line up in their line index instead of the line elements.
      */
-    private class CursorPositionUpdater implements CaretListener {
-        @Override
-        public void caretUpdate(CaretEvent e) {
-            try {
-                int caretPos = e.getDot();
-                int line = textArea.getLineOfOffset(caretPos) + 1;
-                int column = caretPos - textArea.getLineStartOffset(line - 1) + 1;
-                statusBar.updateCursorPosition(line, column);
-            } catch (Exception exception) {
-                statusBar.updateCursorPosition(1, 1); // Default position in case of error
+    private void refreshCursorPosition() {
+        try {
+            int caretPos = textArea.getCaretPosition();
+            Document document = textArea.getDocument();
+            if (document instanceof PieceTableDocument) {
+                LineIndex lineIndex = ((PieceTableDocument) document).getLineIndex();
+                int line = lineIndex.getLineOfOffset(caretPos);
+                statusBar.updateCursorPosition(line + 1, caretPos - lineIndex.getLineStart(line) + 1);
+                return;
             }
+            int line = textArea.getLineOfOffset(caretPos) + 1;
+            int column = caretPos - textArea.getLineStartOffset(line - 1) + 1;
+            statusBar.updateCursorPosition(line, column);
+        } catch (Exception exception) {
+            statusBar.updateCursorPosition(1, 1); // Default position in case of error
         }
     }
 
     /**
-     * Listens for document changes and updates the word and character count in the status bar.
+     * Updates the text statistics displayed in the status bar.
+     * Piece table documents maintain their counts incrementally, so an update does not read the text.
+     */
+    private void refreshTextInfo() {
+        Document document = textArea.getDocument();
+        if (document instanceof PieceTableDocument) {
+            TextStatistics statistics = ((PieceTableDocument) document).getStatistics();
+            statusBar.updateTextInfo(document.getLength(), statistics.getWordCount(), statistics.getLineCount());
+        } else {
+            String text = textArea.getText();
+            statusBar.updateTextInfo(text.length(), countWords(text), textArea.getLineCount());
+        }
+    }
+
+    /**
+     * Listens for document changes and requests an update of the word, character and line count.
      */
     private class TextUpdater implements DocumentListener {
         @Override
-        public void insertUpdate(DocumentEvent e) { infoUpdater(); }
+        public void insertUpdate(DocumentEvent e) { refreshScheduler.request(textInfoRefresh); }
         @Override
-        public void removeUpdate(DocumentEvent e) { infoUpdater(); }
+        public void removeUpdate(DocumentEvent e) { refreshScheduler.request(textInfoRefresh); }
         @Override
-        public void changedUpdate(DocumentEvent e) { infoUpdater(); }
-
-        /**
-         * Updates the text statistics displayed in the status bar.
-         */
-        private void infoUpdater() {
-            String text = textArea.getText();
-            statusBar.updateTextInfo(text.length(), countWords(text));
-        }
+        public void changedUpdate(DocumentEvent e) { refreshScheduler.request(textInfoRefresh); }
     }
 
     /**
@@ -2,6 +2,7 @@ package controller;
 
 import controller.editmenu.EditMenuManager;
 import controller.editmenu.SearchAndReplaceManager;
+import controller.filemenu.FileChooserConfigurator;
 import controller.filemenu.FileMenuManager;
 import gui.TextEditorMainGUI;
 import gui.SearchAndReplaceDialogWindow;
@@ -12,6 +13,7 @@ import java.awt.event.ActionListener;
 import java.awt.event.InputEvent;
 import java.awt.event.KeyEvent;
 import java.io.File;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * The main controller for the text editor.
@@ -23,13 +25,16 @@ public class TextEditorMainController implements ActionListener {
     private final TextEditorMainGUI gui;
     private final FileMenuManager fileMenuManager;
     private final EditMenuManager editMenuManager;
-    private final SearchAndReplaceDialogWindow searchAndReplaceDialogWindow;
-    private final SearchAndReplaceManager searchAndReplaceManager;
+    private SearchAndReplaceDialogWindow searchAndReplaceDialogWindow;
+    private SearchAndReplaceManager searchAndReplaceManager;
     private final ToolBarManager toolBarManager;
+    private final CommandRegistry commands;
+    private final PerformanceManager performanceManager;
 
     /**
      * Constructs the main controller for the text editor.
      * It initialises menu managers, shortcut keys, and event listeners.
+     * The search and replace dialogue is built when it is first used.
      *
      * @param gui The main graphical user interface of the text editor.
      */
@@ -37,14 +42,81 @@ public class TextEditorMainController implements ActionListener {
         this.gui = gui;
         this.fileMenuManager = new FileMenuManager(gui, this);
         this.editMenuManager = new EditMenuManager(gui, this);
-        this.searchAndReplaceDialogWindow = new SearchAndReplaceDialogWindow(gui);
-        this.searchAndReplaceManager = new SearchAndReplaceManager(gui, searchAndReplaceDialogWindow);
-        this.toolBarManager = new ToolBarManager(gui.getToolBar(), fileMenuManager, editMenuManager, searchAndReplaceManager);
+        this.commands = new CommandRegistry();
+        this.performanceManager = new PerformanceManager(gui, commands);
+        this.toolBarManager = new ToolBarManager(gui.getToolBar(), fileMenuManager, editMenuManager, this::getSearchAndReplaceManager, commands);
 
+        initialiseCommands();
         initialiseShortcuts();
         initialiseListeners();
     }
 
+    /**
+     * Registers the actions of the menu commands; the toolbar registers its own.
+     */
+    private void initialiseCommands() {
+        // 'File' menu actions
+        commands.register("new", fileMenuManager::createNewFile);
+        commands.register("open", fileMenuManager::openFile);
+        commands.register("save", fileMenuManager::saveFile);
+        commands.register("save_as", fileMenuManager::saveFileAs);
+        commands.register("close_tab", fileMenuManager::closeActiveTab);
+        commands.register("follow", fileMenuManager::toggleFollow);
+        commands.register("print", fileMenuManager::printDocument);
+
+        // 'Edit' menu actions; search()/replace() -> SearchAndReplaceManager
+        commands.register("undo", editMenuManager::undo);
+        commands.register("redo", editMenuManager::redo);
+        commands.register("web_search", editMenuManager::webSearch);
+        commands.register("search_and_replace_dialog", () -> {
+            getSearchAndReplaceManager();
+            searchAndReplaceDialogWindow.showSearchAndReplaceDialog(gui);
+        });
+        commands.register("simple_search", () -> gui.getToolBar().getSearchField().requestFocus());
+        commands.register("go_to_line", editMenuManager::goToLine);
+        commands.register("date/time", editMenuManager::dateTime);
+
+        // 'Extras' menu actions
+        commands.register("performance", performanceManager::showPerformanceDialog);
+    }
+
+    /**
+     * Returns the search and replace manager, building it and its dialogue on first use.
+     *
+     * @return The search and replace manager.
+     */
+    private SearchAndReplaceManager getSearchAndReplaceManager() {
+        if (searchAndReplaceManager == null) {
+            searchAndReplaceDialogWindow = new SearchAndReplaceDialogWindow(gui);
+            searchAndReplaceManager = new SearchAndReplaceManager(gui, searchAndReplaceDialogWindow);
+        }
+        return searchAndReplaceManager;
+    }
+
+    /**
+     * Prepares in the background what the first use of a command would otherwise wait for:
+     * the file system view and classes of the file chooser and the allocation counter of the
+     * command registry. To be called once the window has been painted.
+     *
+     * @return A future completed once the warm-up has finished.
+     */
+    public CompletableFuture<Void> warmUp() {
+        CompletableFuture<Void> warmUp = new CompletableFuture<>();
+        Thread thread = new Thread(() -> {
+            try {
+                FileChooserConfigurator.warmUp();
+                commands.isMeasuringAllocations();
+                warmUp.complete(null);
+            } catch (RuntimeException exception) {
+                warmUp.completeExceptionally(exception);
+            }
+        }, "Startup-Warmup");
+        thread.setDaemon(true);
+        thread.setPriority(Thread.MIN_PRIORITY);
+        thread.start();
+        return warmUp;
+    }
+
     /**
      * Sets up keyboard shortcuts for the application's menus.
      */
@@ -54,6 +126,7 @@ public class TextEditorMainController implements ActionListener {
         gui.getOpenFileItem().setAccelerator(KeyStroke.getKeyStroke('O', InputEvent.CTRL_DOWN_MASK));
         gui.getSaveFileItem().setAccelerator(KeyStroke.getKeyStroke('S', InputEvent.CTRL_DOWN_MASK));
         gui.getSaveFileAsItem().setAccelerator(KeyStroke.getKeyStroke('S', InputEvent.CTRL_DOWN_MASK | InputEvent.SHIFT_DOWN_MASK));
+        gui.getCloseTabItem().setAccelerator(KeyStroke.getKeyStroke('W', InputEvent.CTRL_DOWN_MASK));
         gui.getPrintDocumentItem().setAccelerator(KeyStroke.getKeyStroke('P', InputEvent.CTRL_DOWN_MASK));
 
         // Shortcuts 'Edit' menu
@@ -62,6 +135,7 @@ public class TextEditorMainController implements ActionListener {
         gui.getWebSearchItem().setAccelerator(KeyStroke.getKeyStroke('G', InputEvent.CTRL_DOWN_MASK | InputEvent.SHIFT_DOWN_MASK));
         gui.getSearchItem().setAccelerator(KeyStroke.getKeyStroke('F', InputEvent.CTRL_DOWN_MASK));
         gui.getSearchAndReplaceItem().setAccelerator(KeyStroke.getKeyStroke('F', InputEvent.CTRL_DOWN_MASK | InputEvent.SHIFT_DOWN_MASK));
+        gui.getGoToLineItem().setAccelerator(KeyStroke.getKeyStroke('G', InputEvent.CTRL_DOWN_MASK));
         gui.getDateTimeItem().setAccelerator(KeyStroke.getKeyStroke(KeyEvent.VK_F5, 0));
     }
 
@@ -69,14 +143,17 @@ public class TextEditorMainController implements ActionListener {
      * Registers action listeners for menu items and updates web search status.
      */
     private void initialiseListeners() {
-        // Update web search item status dynamically
-        gui.getTextArea().addCaretListener(e -> editMenuManager.updateWebSearchItemStatus());
+        // Update web search item status dynamically, at most once per frame
+        Runnable webSearchItemRefresh = editMenuManager::updateWebSearchItemStatus;
+        gui.getTextArea().addCaretListener(e -> gui.getRefreshScheduler().request(webSearchItemRefresh));
 
         // Register listeners for 'File' menu actions
         addMenuAction(gui.getNewFileItem(), "new");
         addMenuAction(gui.getOpenFileItem(), "open");
         addMenuAction(gui.getSaveFileItem(), "save");
         addMenuAction(gui.getSaveFileAsItem(), "save_as");
+        addMenuAction(gui.getCloseTabItem(), "close_tab");
+        addMenuAction(gui.getFollowFileItem(), "follow");
         addMenuAction(gui.getPrintDocumentItem(), "print");
 
         // Register listeners for 'Edit' menu actions
@@ -85,7 +162,11 @@ public class TextEditorMainController implements ActionListener {
         addMenuAction(gui.getWebSearchItem(), "web_search");
         addMenuAction(gui.getSearchItem(), "simple_search");
         addMenuAction(gui.getSearchAndReplaceItem(), "search_and_replace_dialog");
+        addMenuAction(gui.getGoToLineItem(), "go_to_line");
         addMenuAction(gui.getDateTimeItem(), "date/time");
+
+        // Register listeners for 'Extras' menu actions
+        addMenuAction(gui.getPerformanceItem(), "performance");
     }
 
     /**
@@ -100,54 +181,29 @@ public class TextEditorMainController implements ActionListener {
     }
 
     /**
-     * Handles menu and toolbar actions triggered by the user.
+     * Handles menu actions triggered by the user by running the registered command.
      *
      * @param e The action event triggered by user interaction.
      */
     @Override
     public void actionPerformed(ActionEvent e) {
-        String actionCommand = e.getActionCommand();
-
-        switch (actionCommand) {
-            // 'File' menu actions
-            case "new":
-                fileMenuManager.createNewFile();
-                break;
-            case "open":
-                fileMenuManager.openFile();
-                break;
-            case "save":
-                fileMenuManager.saveFile();
-                break;
-            case "save_as":
-                fileMenuManager.saveFileAs();
-                break;
-            case "print":
-                fileMenuManager.printDocument();
-                break;
-            // 'Edit' menu actions
-            case "undo":
-                editMenuManager.undo();
-                break;
-            case "redo":
-                editMenuManager.redo();
-                break;
-            case "web_search":
-                editMenuManager.webSearch();
-                break;
-            case "search_and_replace_dialog":
-                searchAndReplaceDialogWindow.showSearchAndReplaceDialog(gui);
-                break;
-            case "simple_search":
-                gui.getToolBar().getSearchField().requestFocus();
-                break;
-            // search()/replace() -> SearchAndReplaceManager
-            case "date/time":
-                editMenuManager.dateTime();
-                break;
-            default:
-                break;
-        }
+        commands.execute(e.getActionCommand());
+    }
+
+    /**
+     * Returns the registry the menu and toolbar commands are dispatched through.
+     *
+     * @return The command registry with the statistics of every command.
+     */
+    public CommandRegistry getCommands() {
+        return commands;
+    }
+
+    /**
+     * Offers to restore unsaved changes left behind by a crash and starts the autosave journal.
+     */
+    public void recoverUnsavedChanges() {
+        fileMenuManager.recoverUnsavedChanges();
     }
 
     /**
@@ -6,6 +6,7 @@ import controller.filemenu.FileMenuManager;
 import gui.TextEditorToolBar;
 
 import java.awt.event.*;
+import java.util.function.Supplier;
 
 /**
  * Manages the toolbar actions and connects them to the corresponding menu managers.
@@ -17,10 +18,11 @@ public class ToolBarManager implements ActionListener {
     private final TextEditorToolBar toolBar;
     private final FileMenuManager fileMenuManager;
     private final EditMenuManager editMenuManager;
-    private final SearchAndReplaceManager searchAndReplaceManager;
+    private final Supplier<SearchAndReplaceManager> searchAndReplaceManager;
+    private final CommandRegistry commands;
 
     /**
-     * Constructs the toolbar manager and sets up event listeners for toolbar actions.
+     * Constructs the toolbar manager with a registry of its own and sets up event listeners for toolbar actions.
      *
      * @param toolBar                The toolbar instance containing interactive buttons.
      * @param fileMenuManager        The manager handling file-related actions.
@@ -28,13 +30,42 @@ public class ToolBarManager implements ActionListener {
      * @param searchAndReplaceManager The manager handling search and replace functionality.
      */
     public ToolBarManager(TextEditorToolBar toolBar, FileMenuManager fileMenuManager, EditMenuManager editMenuManager, SearchAndReplaceManager searchAndReplaceManager) {
+        this(toolBar, fileMenuManager, editMenuManager, () -> searchAndReplaceManager, new CommandRegistry());
+    }
+
+    /**
+     * Constructs the toolbar manager, registering its commands in a shared registry, and sets up event listeners for toolbar actions.
+     *
+     * @param toolBar                The toolbar instance containing interactive buttons.
+     * @param fileMenuManager        The manager handling file-related actions.
+     * @param editMenuManager        The manager handling edit-related actions.
+     * @param searchAndReplaceManager Supplies the manager handling search and replace functionality when it is first needed.
+     * @param commands               The registry the toolbar commands are dispatched through and measured by.
+     */
+    public ToolBarManager(TextEditorToolBar toolBar, FileMenuManager fileMenuManager, EditMenuManager editMenuManager, Supplier<SearchAndReplaceManager> searchAndReplaceManager, CommandRegistry commands) {
         this.toolBar = toolBar;
         this.fileMenuManager = fileMenuManager;
         this.editMenuManager = editMenuManager;
         this.searchAndReplaceManager = searchAndReplaceManager;
+        this.commands = commands;
+        initialiseCommands();
         initialiseToolBarListeners();
     }
 
+    /**
+     * Registers the actions of the toolbar commands.
+     */
+    private void initialiseCommands() {
+        commands.register("new", fileMenuManager::createNewFile);
+        commands.register("open", fileMenuManager::openFile);
+        commands.register("save", fileMenuManager::saveFile);
+        commands.register("print", fileMenuManager::printDocument);
+        commands.register("undo", editMenuManager::undo);
+        commands.register("redo", editMenuManager::redo);
+        commands.register("web_search", editMenuManager::webSearch);
+        commands.register("search_field", () -> searchAndReplaceManager.get().search(toolBar.getSearchField().getText(), false));
+    }
+
     /**
      * Registers action listeners for all toolbar buttons.
      */
@@ -64,41 +95,12 @@ public class ToolBarManager implements ActionListener {
     }
 
     /**
-     * Handles toolbar actions triggered by the user.
+     * Handles toolbar actions triggered by the user by running the registered command.
      *
      * @param e The action event triggered by user interaction.
      */
     @Override
     public void actionPerformed(ActionEvent e) {
-        String actionCommand = e.getActionCommand();
-
-        switch (actionCommand) {
-            case "new":
-                fileMenuManager.createNewFile();
-                break;
-            case "open":
-                fileMenuManager.openFile();
-                break;
-            case "save":
-                fileMenuManager.saveFile();
-                break;
-            case "print":
-                fileMenuManager.printDocument();
-                break;
-            case "undo":
-                editMenuManager.undo();
-                break;
-            case "redo":
-                editMenuManager.redo();
-                break;
-            case "web_search":
-                editMenuManager.webSearch();
-                break;
-            case "search_field":
-                searchAndReplaceManager.search(toolBar.getSearchField().getText(), false);
-                break;
-            default:
-                break;
-        }
+        commands.execute(e.getActionCommand());
     }
 }
@@ -0,0 +1,304 @@
+package controller.batch;
+
+import model.DocumentPrintable;
+import model.FileTransformer;
+import model.LiteralMatcher;
+import model.PieceTableDocument;
+import model.RegexMatcher;
+import model.TextFormat;
+import model.TextTransform;
+
+import javax.swing.text.BadLocationException;
+import java.awt.*;
+import java.awt.print.PageFormat;
+import java.awt.print.Paper;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.UncheckedIOException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.PatternSyntaxException;
+import java.util.stream.Stream;
+
+/**
+ * Runs search/replace and cleanup transforms over many files without a display, started with
+ * {@code --batch} as the first program argument.
+ * <p>
+ * Every file is streamed through a {@link FileTransformer}. The files are processed in parallel by a fixed
+ * number of threads; the queue of waiting files is bounded, so when it is full the thread walking the
+ * directories transforms the next file itself instead of queueing more. At the end, the number of changes
+ * per file and the total throughput are printed.
+ * </p>
+ * <p>
+ * With {@code --print}, a single file is printed into a PostScript or PDF file instead, on DIN A4 pages
+ * in a monospaced font, which needs neither a printer nor a display.
+ * </p>
+ */
+public class BatchCommand {
+
+    static final String USAGE = String.join(System.lineSeparator(),
+            "Aufruf: --batch [Optionen] <Datei|Verzeichnis>...",
+            "  --replace <Suche> <Ersetzung>  ersetzt alle Treffer (mehrfach möglich, in dieser Reihenfolge)",
+            "  --regex                        Suchbegriffe sind reguläre Ausdrücke ($1, ${name} in der Ersetzung)",
+            "  --ignore-case                  Groß- und Kleinschreibung ignorieren",
+            "  --trim-trailing                Leerzeichen und Tabs am Zeilenende entfernen",
+            "  --eol <lf|crlf|cr>             Zeilenende der geschriebenen Dateien",
+            "  --include <Muster>             nur Dateien, deren Name dem Glob-Muster entspricht (in Verzeichnissen)",
+            "  --threads <n>                  Anzahl der Threads (Standard: Anzahl der Prozessoren)",
+            "  --dry-run                      nur zählen, keine Datei schreiben",
+            "  --print <Ausgabe.ps|pdf>       druckt eine einzelne Datei ohne Drucker in eine PostScript- oder PDF-Datei");
+
+    private static final Font PRINT_FONT = new Font(Font.MONOSPACED, Font.PLAIN, 10);
+
+    private final List<String[]> replacements = new ArrayList<>();
+    private final List<Path> inputs = new ArrayList<>();
+    private boolean regex = false;
+    private boolean ignoreCase = false;
+    private boolean trimTrailing = false;
+    private TextFormat.LineEnding lineEnding;
+    private PathMatcher include;
+    private int threads = Runtime.getRuntime().availableProcessors();
+    private boolean dryRun = false;
+    private Path printOutput;
+
+    /**
+     * Parses the arguments, transforms all files and prints the report.
+     *
+     * @param args The arguments following {@code --batch}.
+     * @param out  Receives the report.
+     * @param err  Receives usage and file errors.
+     * @return The exit code: 0 on success, 1 if a file failed, 2 if the arguments are invalid.
+     */
+    public static int run(String[] args, PrintStream out, PrintStream err) {
+        BatchCommand command = new BatchCommand();
+        List<TextTransform> transforms;
+        try {
+            command.parse(args);
+            transforms = command.createTransforms();
+        } catch (IllegalArgumentException exception) {
+            err.println(exception.getMessage());
+            err.println(USAGE);
+            return 2;
+        }
+        return command.printOutput != null ? command.print(out, err) : command.execute(transforms, out, err);
+    }
+
+    private void parse(String[] args) {
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--replace":
+                    if (i + 2 >= args.length) {
+                        throw new IllegalArgumentException("--replace erwartet einen Suchbegriff und eine Ersetzung");
+                    }
+                    if (args[i + 1].isEmpty()) {
+                        throw new IllegalArgumentException("Leerer Suchbegriff");
+                    }
+                    replacements.add(new String[]{args[i + 1], args[i + 2]});
+                    i += 2;
+                    break;
+                case "--regex":
+                    regex = true;
+                    break;
+                case "--ignore-case":
+                    ignoreCase = true;
+                    break;
+                case "--trim-trailing":
+                    trimTrailing = true;
+                    break;
+                case "--eol":
+                    lineEnding = parseLineEnding(valueOf(args, ++i, "--eol"));
+                    break;
+                case "--include":
+                    include = FileSystems.getDefault().getPathMatcher("glob:" + valueOf(args, ++i, "--include"));
+                    break;
+                case "--threads":
+                    threads = parseThreads(valueOf(args, ++i, "--threads"));
+                    break;
+                case "--dry-run":
+                    dryRun = true;
+                    break;
+                case "--print":
+                    printOutput = Paths.get(valueOf(args, ++i, "--print"));
+                    break;
+                default:
+                    if (args[i].startsWith("--")) {
+                        throw new IllegalArgumentException("Unbekannte Option: " + args[i]);
+                    }
+                    inputs.add(Paths.get(args[i]));
+            }
+        }
+        if (inputs.isEmpty()) {
+            throw new IllegalArgumentException("Keine Dateien angegeben");
+        }
+        boolean transforming = !replacements.isEmpty() || trimTrailing || lineEnding != null;
+        if (printOutput != null) {
+            if (transforming || inputs.size() != 1) {
+                throw new IllegalArgumentException("--print erwartet genau eine Datei und keine Umwandlung");
+            }
+        } else if (!transforming) {
+            throw new IllegalArgumentException("Keine Umwandlung angegeben");
+        }
+    }
+
+    private List<TextTransform> createTransforms() {
+        List<TextTransform> transforms = new ArrayList<>();
+        for (String[] replacement : replacements) {
+            if (regex) {
+                try {
+                    transforms.add(TextTransform.replace(new RegexMatcher(replacement[0], !ignoreCase), replacement[1]));
+                } catch (PatternSyntaxException exception) {
+                    throw new IllegalArgumentException("Ungültiger regulärer Ausdruck: " + exception.getDescription());
+                }
+            } else {
+                transforms.add(TextTransform.replace(new LiteralMatcher(replacement[0], !ignoreCase), replacement[1]));
+            }
+        }
+        if (trimTrailing) {
+            transforms.add(TextTransform.trimTrailingWhitespace());
+        }
+        return transforms;
+    }
+
+    /**
+     * Transforms all files on a bounded pool of threads and prints one line per file in the order of the input.
+     */
+    private int execute(List<TextTransform> transforms, PrintStream out, PrintStream err) {
+        FileTransformer transformer = new FileTransformer(transforms, lineEnding, dryRun);
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(threads * 4), new ThreadPoolExecutor.CallerRunsPolicy());
+        List<Path> files = new ArrayList<>();
+        List<Future<FileTransformer.Result>> results = new ArrayList<>();
+        long startTime = System.nanoTime();
+        int errorCount = 0;
+
+        try {
+            for (Path input : inputs) {
+                boolean directory = Files.isDirectory(input);
+                try (Stream<Path> walk = directory ? Files.walk(input) : Stream.of(input)) {
+                    Iterator<Path> iterator = walk.iterator();
+                    while (iterator.hasNext()) {
+                        Path file = iterator.next();
+                        // Files given explicitly are always transformed, files found in directories only if included
+                        if (directory && (!Files.isRegularFile(file) || !isIncluded(file))) {
+                            continue;
+                        }
+                        files.add(file);
+                        results.add(executor.submit(() -> transformer.transform(file)));
+                    }
+                } catch (IOException | UncheckedIOException exception) {
+                    err.println("FEHLER  " + input + ": " + exception.getMessage());
+                    errorCount++;
+                }
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        long byteCount = 0;
+        long changeCount = 0;
+        int writtenCount = 0;
+        for (int i = 0; i < results.size(); i++) {
+            try {
+                FileTransformer.Result result = results.get(i).get();
+                byteCount += result.getByteCount();
+                changeCount += result.getChangeCount();
+                writtenCount += result.isChanged() ? 1 : 0;
+                out.printf(Locale.ROOT, "%10d Treffer  %s%s (%d ms)%n", result.getChangeCount(), files.get(i),
+                        result.isChanged() ? " *" : "", result.getElapsedNanos() / 1_000_000);
+            } catch (ExecutionException exception) {
+                err.println("FEHLER  " + files.get(i) + ": " + exception.getCause().getMessage());
+                errorCount++;
+            } catch (InterruptedException exception) {
+                Thread.currentThread().interrupt();
+                err.println("Abgebrochen");
+                return 1;
+            }
+        }
+
+        long elapsedNanos = Math.max(1, System.nanoTime() - startTime);
+        double megabytes = byteCount / (1024.0 * 1024.0);
+        out.printf(Locale.ROOT, "%d Dateien, %d %s, %d Fehler, %d Treffer; %.1f MB in %d ms (%.1f MB/s, %d Threads)%n",
+                results.size(), writtenCount, dryRun ? "würden geändert" : "geändert", errorCount, changeCount,
+                megabytes, elapsedNanos / 1_000_000, megabytes * 1e9 / elapsedNanos, threads);
+        return errorCount == 0 ? 0 : 1;
+    }
+
+    /**
+     * Reads the single input file into a document and prints it into the output file.
+     */
+    private int print(PrintStream out, PrintStream err) {
+        Path input = inputs.get(0);
+        long startTime = System.nanoTime();
+        try {
+            TextFormat format = TextFormat.detect(input);
+            PieceTableDocument document = new PieceTableDocument();
+            document.insertString(0, format.decode(Files.readAllBytes(input)), null);
+            int pageCount = new DocumentPrintable(document, PRINT_FONT)
+                    .printToFile(printOutput, a4PageFormat(), input.getFileName().toString());
+            out.printf(Locale.ROOT, "%d %s gedruckt: %s (%d ms)%n", pageCount, pageCount == 1 ? "Seite" : "Seiten", printOutput,
+                    (System.nanoTime() - startTime) / 1_000_000);
+            return 0;
+        } catch (IOException exception) {
+            err.println("FEHLER  " + input + ": " + exception.getMessage());
+            return 1;
+        } catch (BadLocationException exception) {
+            throw new IllegalStateException(exception);
+        }
+    }
+
+    /**
+     * Returns portrait DIN A4 pages with margins of 2 cm.
+     */
+    private static PageFormat a4PageFormat() {
+        double margin = 72 * 2 / 2.54;
+        Paper paper = new Paper();
+        paper.setSize(595, 842);
+        paper.setImageableArea(margin, margin, 595 - 2 * margin, 842 - 2 * margin);
+        PageFormat pageFormat = new PageFormat();
+        pageFormat.setPaper(paper);
+        return pageFormat;
+    }
+
+    private boolean isIncluded(Path file) {
+        return include == null || include.matches(file.getFileName());
+    }
+
+    private static String valueOf(String[] args, int index, String option) {
+        if (index >= args.length) {
+            throw new IllegalArgumentException(option + " erwartet einen Wert");
+        }
+        return args[index];
+    }
+
+    private static TextFormat.LineEnding parseLineEnding(String value) {
+        try {
+            return TextFormat.LineEnding.valueOf(value.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException exception) {
+            throw new IllegalArgumentException("Unbekanntes Zeilenende: " + value);
+        }
+    }
+
+    private static int parseThreads(String value) {
+        try {
+            int count = Integer.parseInt(value);
+            if (count > 0) {
+                return count;
+            }
+        } catch (NumberFormatException exception) {
+            // Reported below
+        }
+        throw new IllegalArgumentException("Ungültige Anzahl an Threads: " + value);
+    }
+}
@@ -2,12 +2,14 @@ package controller.editmenu;
 
 import controller.TextEditorMainController;
 import gui.TextEditorMainGUI;
+import model.PieceTableDocument;
+import model.UndoHistory;
 
 import javax.swing.*;
 import javax.swing.event.UndoableEditEvent;
 import javax.swing.event.UndoableEditListener;
 import javax.swing.text.BadLocationException;
-import javax.swing.undo.UndoManager;
+import javax.swing.text.Document;
 import java.awt.*;
 import java.io.IOException;
 import java.net.URI;
@@ -21,13 +23,17 @@ import java.util.Locale;
 
 /**
  * Manages edit menu functionalities, including undo/redo operations,
- * web search, and inserting the current date and time.
+ * web search, jumping to a line, and inserting the current date and time.
  */
 public class EditMenuManager {
 
     private final TextEditorMainGUI gui;
     private final TextEditorMainController mainController;
-    private final UndoManager undoManager = new UndoManager();
+    private static final long MEGABYTE = 1024 * 1024;
+    private static final long UNDO_MEMORY_BUDGET = Long.getLong("texteditor.undoBudgetMB", 64) * MEGABYTE;
+    private static final long UNDO_DISK_BUDGET = 8 * UNDO_MEMORY_BUDGET;
+
+    private UndoHistory undoManager;
 
     /**
      * Constructs the edit menu manager.
@@ -45,23 +51,67 @@ public class EditMenuManager {
 
     /**
      * Initialises the undo manager and registers a listener to track document changes.
+     * The history is limited by the memory its edits hold ({@code -Dtexteditor.undoBudgetMB}, 64 MB by default)
+     * instead of a number of edits; older edits are moved to a temporary file.
+     * Each document keeps a history of its own, so switching tabs switches the history.
      */
     private void initialiseUndoManager() {
-        gui.getTextArea().getDocument().addUndoableEditListener(new UndoableEditListener() {
+        undoManager = historyOf(gui.getTextArea().getDocument());
+
+        // The menu items are refreshed at most once per frame, however fast the user types
+        Runnable undoRedoRefresh = this::updateUndoRedoState;
+        UndoableEditListener undoListener = new UndoableEditListener() {
             @Override
             public void undoableEditHappened(UndoableEditEvent e) {
                 undoManager.addEdit(e.getEdit());
-                updateUndoRedoState();
+                gui.getRefreshScheduler().request(undoRedoRefresh);
             }
+        };
+        gui.getTextArea().getDocument().addUndoableEditListener(undoListener);
+
+        // The history follows the document shown in the text area; a new document starts with an empty one
+        gui.getTextArea().addPropertyChangeListener("document", e -> {
+            ((Document) e.getOldValue()).removeUndoableEditListener(undoListener);
+            Document document = (Document) e.getNewValue();
+            document.addUndoableEditListener(undoListener);
+            undoManager = historyOf(document);
+            updateUndoRedoState();
         });
     }
 
+    /**
+     * Returns the undo history stored with a document, creating it on first use.
+     *
+     * @param document The document.
+     * @return The history of the document.
+     */
+    private static UndoHistory historyOf(Document document) {
+        Object history = document.getProperty(UndoHistory.class);
+        if (!(history instanceof UndoHistory)) {
+            history = new UndoHistory(UNDO_MEMORY_BUDGET, UNDO_DISK_BUDGET);
+            document.putProperty(UndoHistory.class, history);
+        }
+        return (UndoHistory) history;
+    }
+
     /**
      * Updates the enabled state of the undo and redo menu items.
      */
     public void updateUndoRedoState() {
         gui.getUndoItem().setEnabled(undoManager.canUndo());
         gui.getRedoItem().setEnabled(undoManager.canRedo());
+        gui.getUndoItem().setToolTipText(undoManager.getEditCount() + " Schritte, "
+                + undoManager.getMemoryBytes() / 1024 + " KB im Speicher, "
+                + undoManager.getSpilledBytes() / 1024 + " KB ausgelagert");
+    }
+
+    /**
+     * Returns the undo history of the document shown, for example to monitor its memory footprint.
+     *
+     * @return The undo history.
+     */
+    public UndoHistory getUndoHistory() {
+        return undoManager;
     }
 
     /**
@@ -115,10 +165,65 @@ public class EditMenuManager {
      * Enables or disables the web search menu item based on text selection.
      */
     public void updateWebSearchItemStatus() {
-        boolean hasSelection = gui.getTextArea().getSelectedText() != null;
+        JTextArea textArea = gui.getTextArea();
+        boolean hasSelection = textArea.getSelectionStart() != textArea.getSelectionEnd();
         gui.getWebSearchItem().setEnabled(hasSelection);
     }
 
+    /**
+     * Asks for a line number and moves the cursor to the start of that line.
+     */
+    public void goToLine() {
+        JTextArea textArea = gui.getTextArea();
+        int lineCount = lineCountOf(textArea.getDocument());
+        String input = JOptionPane.showInputDialog(gui, "Zeilennummer (1 - " + lineCount + "):",
+                "Gehe zu Zeile", JOptionPane.QUESTION_MESSAGE);
+        if (input == null || input.isBlank()) {
+            return;
+        }
+
+        try {
+            if (!goToLine(Integer.parseInt(input.trim()))) {
+                showInfoDialog("Gehe zu Zeile", "Die Zeile " + input.trim() + " existiert nicht");
+            }
+        } catch (NumberFormatException exception) {
+            showInfoDialog("Gehe zu Zeile", "Ungültige Zeilennummer: " + input.trim());
+        }
+    }
+
+    /**
+     * Moves the cursor to the start of a line and scrolls it into view.
+     * Piece table documents find the line in their line index, so the jump takes
+     * logarithmic time even in files with many millions of lines.
+     *
+     * @param line The line number (1-based index).
+     * @return True if the line exists.
+     */
+    public boolean goToLine(int line) {
+        JTextArea textArea = gui.getTextArea();
+        Document document = textArea.getDocument();
+        if (line < 1 || line > lineCountOf(document)) {
+            return false;
+        }
+
+        int offset;
+        if (document instanceof PieceTableDocument) {
+            offset = ((PieceTableDocument) document).getLineIndex().getLineStart(line - 1);
+        } else {
+            offset = document.getDefaultRootElement().getElement(line - 1).getStartOffset();
+        }
+        textArea.setCaretPosition(offset);
+        textArea.requestFocusInWindow();
+        return true;
+    }
+
+    private static int lineCountOf(Document document) {
+        if (document instanceof PieceTableDocument) {
+            return ((PieceTableDocument) document).getLineIndex().getLineCount();
+        }
+        return document.getDefaultRootElement().getElementCount();
+    }
+
     /**
      * Inserts the current date and time at the cursor position.
      * Uses system locale and timezone settings to format the date and time.
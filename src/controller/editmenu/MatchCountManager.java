@@ -0,0 +1,244 @@
+package controller.editmenu;
+
+import gui.SearchAndReplaceDialogWindow;
+import model.DocumentSnapshot;
+import model.LiteralMatcher;
+import model.ParallelMatchCounter;
+import model.RegexMatcher;
+
+import javax.swing.*;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
+import javax.swing.text.Document;
+import java.awt.event.ComponentAdapter;
+import java.awt.event.ComponentEvent;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.regex.PatternSyntaxException;
+
+/**
+ * Shows a live "n von N Treffern" counter in the search and replace dialogue.
+ * <p>
+ * The matches are counted in the background, literal terms in parallel with a
+ * {@link ParallelMatchCounter}, on a {@link DocumentSnapshot} taken when the count starts,
+ * so the counting threads never read the document while it is being edited. Whenever the
+ * search term, the search options or the document change, a running count is cancelled and
+ * a new one starts once the changes have settled for a moment, so that typing does not start
+ * a count per keystroke.
+ * </p>
+ */
+public class MatchCountManager {
+
+    private static final int RESTART_DELAY_MILLIS = 150;
+    private static final int REGEX_TIMEOUT_MILLIS = 3000;
+
+    private final JTextArea textArea;
+    private final SearchAndReplaceDialogWindow dialogWindow;
+    private final Timer restartTimer;
+    private SwingWorker<int[], Void> countWorker;
+    private ParallelMatchCounter counter;
+    private Timer timeout;
+    private int currentMatchStart = -1;
+
+    /**
+     * Constructs the match count manager and registers its listeners.
+     *
+     * @param textArea     The text area whose document is searched.
+     * @param dialogWindow The search and replace dialogue showing the counter.
+     */
+    public MatchCountManager(JTextArea textArea, SearchAndReplaceDialogWindow dialogWindow) {
+        this.textArea = textArea;
+        this.dialogWindow = dialogWindow;
+
+        restartTimer = new Timer(RESTART_DELAY_MILLIS, e -> restart());
+        restartTimer.setRepeats(false);
+
+        initialiseListeners();
+    }
+
+    /**
+     * Registers listeners for everything the count depends on.
+     */
+    private void initialiseListeners() {
+        DocumentListener termListener = new DocumentListener() {
+            @Override
+            public void insertUpdate(DocumentEvent e) { scheduleRestart(); }
+            @Override
+            public void removeUpdate(DocumentEvent e) { scheduleRestart(); }
+            @Override
+            public void changedUpdate(DocumentEvent e) { }
+        };
+        dialogWindow.getSearchField().getDocument().addDocumentListener(termListener);
+        dialogWindow.getCaseSensitiveCheck().addItemListener(e -> scheduleRestart());
+        dialogWindow.getRegexCheck().addItemListener(e -> scheduleRestart());
+
+        // Edits invalidate the count and the number of the current match
+        DocumentListener textListener = new DocumentListener() {
+            @Override
+            public void insertUpdate(DocumentEvent e) { textChanged(); }
+            @Override
+            public void removeUpdate(DocumentEvent e) { textChanged(); }
+            @Override
+            public void changedUpdate(DocumentEvent e) { }
+        };
+        textArea.getDocument().addDocumentListener(textListener);
+        textArea.addPropertyChangeListener("document", e -> {
+            ((Document) e.getOldValue()).removeDocumentListener(textListener);
+            ((Document) e.getNewValue()).addDocumentListener(textListener);
+            textChanged();
+        });
+
+        dialogWindow.addComponentListener(new ComponentAdapter() {
+            @Override
+            public void componentShown(ComponentEvent e) {
+                restart();
+            }
+
+            @Override
+            public void componentHidden(ComponentEvent e) {
+                cancel();
+            }
+        });
+    }
+
+    /**
+     * Sets the match the user is currently at and updates the counter.
+     *
+     * @param start The start offset of the current match, or -1 if there is none.
+     */
+    public void setCurrentMatch(int start) {
+        currentMatchStart = start;
+        restart();
+    }
+
+    private void textChanged() {
+        currentMatchStart = -1;
+        scheduleRestart();
+    }
+
+    private void scheduleRestart() {
+        cancel();
+        restartTimer.restart();
+    }
+
+    /**
+     * Cancels a running count and starts a new one for the current search term.
+     */
+    public void restart() {
+        restartTimer.stop();
+        cancel();
+
+        String searchTerm = dialogWindow.getSearchField().getText();
+        JLabel label = dialogWindow.getMatchCountLabel();
+        if (!dialogWindow.isVisible() || searchTerm.isEmpty()) {
+            label.setText(" ");
+            return;
+        }
+
+        boolean isCaseSensitive = dialogWindow.getCaseSensitiveCheck().isSelected();
+        Document document = DocumentSnapshot.of(textArea.getDocument());
+        int length = document.getLength();
+        int current = Math.min(currentMatchStart, length);
+        SwingWorker<int[], Void> worker;
+
+        if (dialogWindow.getRegexCheck().isSelected()) {
+            RegexMatcher regexMatcher;
+            try {
+                regexMatcher = new RegexMatcher(searchTerm, isCaseSensitive);
+            } catch (PatternSyntaxException exception) {
+                label.setText("Ungültiger Ausdruck");
+                return;
+            }
+            worker = new SwingWorker<>() {
+                @Override
+                protected int[] doInBackground() {
+                    int before = current >= 0 ? regexMatcher.count(document, 0, current) : -1;
+                    return new int[]{before, regexMatcher.count(document, 0, length)};
+                }
+            };
+            timeout = new Timer(REGEX_TIMEOUT_MILLIS, e -> {
+                cancel();
+                label.setText("Zählen abgebrochen");
+            });
+            timeout.setRepeats(false);
+            timeout.start();
+        } else {
+            ParallelMatchCounter counter = new ParallelMatchCounter(new LiteralMatcher(searchTerm, isCaseSensitive), document);
+            this.counter = counter;
+            worker = new SwingWorker<>() {
+                @Override
+                protected int[] doInBackground() throws Exception {
+                    if (current < 0) {
+                        return new int[]{-1, counter.count(0, length)};
+                    }
+                    int before = counter.count(0, current);
+                    return new int[]{before, before + counter.count(current, length)};
+                }
+            };
+        }
+
+        worker.addPropertyChangeListener(e -> {
+            if ("state".equals(e.getPropertyName()) && e.getNewValue() == SwingWorker.StateValue.DONE) {
+                showResult(worker);
+            }
+        });
+        countWorker = worker;
+        label.setText("Zähle Treffer …");
+        worker.execute();
+    }
+
+    /**
+     * Shows the result of a finished count, unless it has been superseded.
+     *
+     * @param worker The finished worker.
+     */
+    private void showResult(SwingWorker<int[], Void> worker) {
+        if (worker != countWorker || worker.isCancelled()) {
+            return;
+        }
+        countWorker = null;
+        stopTimeout();
+
+        JLabel label = dialogWindow.getMatchCountLabel();
+        try {
+            int[] result = worker.get();
+            int total = result[1];
+            if (total == 0) {
+                label.setText("Keine Treffer");
+            } else if (result[0] >= 0 && result[0] < total) {
+                label.setText((result[0] + 1) + " von " + total + " Treffern");
+            } else {
+                label.setText(total == 1 ? "1 Treffer" : total + " Treffer");
+            }
+        } catch (ExecutionException exception) {
+            // A count cancelled from another thread has been superseded by a new one
+            if (!(exception.getCause() instanceof CancellationException)) {
+                label.setText(" ");
+            }
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Cancels a running count.
+     */
+    public void cancel() {
+        stopTimeout();
+        if (counter != null) {
+            counter.cancel();
+            counter = null;
+        }
+        if (countWorker != null) {
+            countWorker.cancel(true);
+            countWorker = null;
+        }
+    }
+
+    private void stopTimeout() {
+        if (timeout != null) {
+            timeout.stop();
+            timeout = null;
+        }
+    }
+}
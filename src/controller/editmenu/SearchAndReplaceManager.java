@@ -1,25 +1,54 @@
 package controller.editmenu;
 
+import gui.AllMatchesHighlightPainter;
 import gui.SearchAndReplaceDialogWindow;
 import gui.TextEditorMainGUI;
+import model.DocumentSnapshot;
+import model.LiteralMatcher;
+import model.MatchPositions;
+import model.RebuiltRegion;
+import model.RegexMatcher;
 
 import javax.swing.*;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
 import javax.swing.text.*;
 import java.awt.*;
 import java.awt.event.*;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.regex.PatternSyntaxException;
 
 /**
  * Manages the search and replace functionality in the text editor.
  * Handles user interactions from the search and replace dialogue, performs text searches,
  * replaces occurrences, and highlights matches.
+ * Searches with regular expressions run in the background and are cancelled after a timeout,
+ * so that an expression with catastrophic backtracking cannot freeze the editor.
  */
 public class SearchAndReplaceManager implements ActionListener {
 
+    private static final int REGEX_TIMEOUT_MILLIS = 3000;
+    private static final Highlighter.HighlightPainter CURRENT_MATCH_PAINTER =
+            new DefaultHighlighter.DefaultHighlightPainter(Color.yellow);
+
     private final TextEditorMainGUI gui;
     private final JTextArea textArea;
     private final SearchAndReplaceDialogWindow dialogWindow;
     private int lastMatchIndex = -1;
     private boolean hasSearchFunctionBeenCalled = false;
+    private LiteralMatcher matcher;
+    private RegexMatcher regexMatcher;
+    private int lastMatchEnd = -1;
+    private SwingWorker<?, Void> regexWorker;
+    private int documentVersion = 0;
+    private final AllMatchesHighlightPainter allMatchesPainter = new AllMatchesHighlightPainter(new Color(255, 240, 170));
+    private Object currentMatchHighlight;
+    private Object allMatchesHighlight;
+    private Document allMatchesDocument;
+    private final MatchCountManager matchCountManager;
 
     /**
      * Constructs the search and replace manager.
@@ -31,6 +60,7 @@ public class SearchAndReplaceManager implements ActionListener {
         this.gui = gui;
         this.textArea = gui.getTextArea();
         this.dialogWindow = dialogWindow;
+        this.matchCountManager = new MatchCountManager(textArea, dialogWindow);
 
         initialiseSearchAndReplaceListeners();
     }
@@ -68,19 +98,40 @@ public class SearchAndReplaceManager implements ActionListener {
         registerEnterKeyListener(dialogWindow.getSearchField(), "search");
         registerEnterKeyListener(dialogWindow.getSearchButton(), "search");
         registerEnterKeyListener(dialogWindow.getReplaceButton(), "replace");
+        registerEnterKeyListener(dialogWindow.getReplaceAllButton(), "replace_all");
 
-        dialogWindow.getCaseSensitiveCheck().addKeyListener(new KeyAdapter() {
-            @Override
-            public void keyPressed(KeyEvent e) {
-                if (e.getKeyCode() == KeyEvent.VK_ENTER) {
-                    dialogWindow.getCaseSensitiveCheck().setSelected(!dialogWindow.getCaseSensitiveCheck().isSelected());
-                }
+        registerEnterKeyToggle(dialogWindow.getCaseSensitiveCheck());
+        registerEnterKeyToggle(dialogWindow.getRegexCheck());
+        registerEnterKeyToggle(dialogWindow.getHighlightAllCheck());
+
+        dialogWindow.getHighlightAllCheck().addItemListener(e -> {
+            if (!dialogWindow.getHighlightAllCheck().isSelected()) {
+                clearAllMatches();
             }
         });
 
+        // Background searches are discarded if the text changes while they are running
+        DocumentListener versionListener = new DocumentListener() {
+            @Override
+            public void insertUpdate(DocumentEvent e) { documentVersion++; }
+            @Override
+            public void removeUpdate(DocumentEvent e) { documentVersion++; }
+            @Override
+            public void changedUpdate(DocumentEvent e) { }
+        };
+        textArea.getDocument().addDocumentListener(versionListener);
+        textArea.addPropertyChangeListener("document", e -> {
+            ((Document) e.getOldValue()).removeDocumentListener(versionListener);
+            ((Document) e.getNewValue()).addDocumentListener(versionListener);
+            documentVersion++;
+            clearAllMatches();
+        });
+
         // Allow navigation between buttons using arrow keys
         registerArrowKeyListener(dialogWindow.getSearchButton(), KeyEvent.VK_RIGHT, dialogWindow.getReplaceButton());
         registerArrowKeyListener(dialogWindow.getReplaceButton(), KeyEvent.VK_LEFT, dialogWindow.getSearchButton());
+        registerArrowKeyListener(dialogWindow.getReplaceButton(), KeyEvent.VK_RIGHT, dialogWindow.getReplaceAllButton());
+        registerArrowKeyListener(dialogWindow.getReplaceAllButton(), KeyEvent.VK_LEFT, dialogWindow.getReplaceButton());
 
         dialogWindow.setFocusTraversalPolicy(new LayoutFocusTraversalPolicy());
 
@@ -89,6 +140,9 @@ public class SearchAndReplaceManager implements ActionListener {
 
         dialogWindow.getReplaceButton().addActionListener(this);
         dialogWindow.getReplaceButton().setActionCommand("replace");
+
+        dialogWindow.getReplaceAllButton().addActionListener(this);
+        dialogWindow.getReplaceAllButton().setActionCommand("replace_all");
     }
 
     /**
@@ -108,6 +162,22 @@ public class SearchAndReplaceManager implements ActionListener {
         });
     }
 
+    /**
+     * Registers an Enter key listener that toggles a checkbox.
+     *
+     * @param checkBox The checkbox to toggle.
+     */
+    private void registerEnterKeyToggle(JCheckBox checkBox) {
+        checkBox.addKeyListener(new KeyAdapter() {
+            @Override
+            public void keyPressed(KeyEvent e) {
+                if (e.getKeyCode() == KeyEvent.VK_ENTER) {
+                    checkBox.setSelected(!checkBox.isSelected());
+                }
+            }
+        });
+    }
+
     /**
      * Registers an arrow key listener to navigate between buttons.
      *
@@ -133,13 +203,33 @@ public class SearchAndReplaceManager implements ActionListener {
      */
     @Override
     public void actionPerformed(ActionEvent e) {
+        String searchTerm = dialogWindow.getSearchField().getText();
+        String replaceTerm = dialogWindow.getReplaceField().getText();
+        boolean isCaseSensitive = dialogWindow.getCaseSensitiveCheck().isSelected();
+        boolean isRegex = dialogWindow.getRegexCheck().isSelected();
+        boolean highlightAll = dialogWindow.getHighlightAllCheck().isSelected();
+
         switch (e.getActionCommand()) {
             case "search":
-                search(dialogWindow.getSearchField().getText(), dialogWindow.getCaseSensitiveCheck().isSelected());
+                if (isRegex) {
+                    searchRegex(searchTerm, isCaseSensitive, highlightAll);
+                } else if (search(searchTerm, isCaseSensitive) != -1 && highlightAll) {
+                    highlightAllMatches(searchTerm, isCaseSensitive);
+                }
                 break;
             case "replace":
-                replace(dialogWindow.getSearchField().getText(), dialogWindow.getReplaceField().getText(),
-                        dialogWindow.getCaseSensitiveCheck().isSelected());
+                if (isRegex) {
+                    replaceRegex(searchTerm, replaceTerm, isCaseSensitive);
+                } else {
+                    replace(searchTerm, replaceTerm, isCaseSensitive);
+                }
+                break;
+            case "replace_all":
+                if (isRegex) {
+                    replaceAllRegex(searchTerm, replaceTerm, isCaseSensitive);
+                } else {
+                    replaceAll(searchTerm, replaceTerm, isCaseSensitive);
+                }
                 break;
             default:
                 System.out.println("Unbekannte Aktion: " + e.getActionCommand());
@@ -150,7 +240,10 @@ public class SearchAndReplaceManager implements ActionListener {
      * Closes the search dialogue and resets search-related states.
      */
     private void closeSearchDialog() {
+        cancelRegexWorker();
+        matchCountManager.cancel();
         clearHighlights();
+        clearAllMatches();
         resetMatchIndex();
         resetHasSearchFunctionBeenCalled();
         dialogWindow.dispose();
@@ -172,33 +265,50 @@ public class SearchAndReplaceManager implements ActionListener {
             return -1;
         }
 
-        String textContent = textArea.getText();
+        LiteralMatcher matcher = getMatcher(searchTerm, isCaseSensitive);
+        Document document = textArea.getDocument();
         int currentCursorPosition = textArea.getCaretPosition();
 
-        if (!isCaseSensitive) {
-            searchTerm = searchTerm.toLowerCase();
-            textContent = textContent.toLowerCase();
+        try {
+            lastMatchIndex = matcher.indexOf(document, currentCursorPosition);
+            if (lastMatchIndex == -1) {
+                lastMatchIndex = matcher.indexOf(document, 0);
+                if (lastMatchIndex != -1) {
+                    JOptionPane.showMessageDialog(gui, "Am Ende des Dokuments angekommen. Suche beginnt von vorne",
+                            "Suchen", JOptionPane.INFORMATION_MESSAGE);
+                }
+            }
+        } catch (BadLocationException exception) {
+            exception.printStackTrace();
+            lastMatchIndex = -1;
         }
 
-        lastMatchIndex = textContent.indexOf(searchTerm, currentCursorPosition);
-
         if (lastMatchIndex == -1) {
-            lastMatchIndex = textContent.indexOf(searchTerm);
-            if (lastMatchIndex != -1) {
-                JOptionPane.showMessageDialog(gui, "Am Ende des Dokuments angekommen. Suche beginnt von vorne",
-                        "Suchen", JOptionPane.INFORMATION_MESSAGE);
-            } else {
-                JOptionPane.showMessageDialog(gui, "Keine Treffer", "Suchen", JOptionPane.INFORMATION_MESSAGE);
-                resetHasSearchFunctionBeenCalled();
-                return -1;
-            }
+            JOptionPane.showMessageDialog(gui, "Keine Treffer", "Suchen", JOptionPane.INFORMATION_MESSAGE);
+            resetHasSearchFunctionBeenCalled();
+            return -1;
         }
 
-        highlightText(lastMatchIndex, lastMatchIndex + searchTerm.length());
-        textArea.setCaretPosition(lastMatchIndex + searchTerm.length());
+        lastMatchEnd = lastMatchIndex + matcher.length();
+        highlightText(lastMatchIndex, lastMatchEnd);
+        textArea.setCaretPosition(lastMatchEnd);
         return lastMatchIndex;
     }
 
+    /**
+     * Returns a matcher for the given search, reusing the previous one while the search is repeated.
+     *
+     * @param searchTerm      The text to search for.
+     * @param isCaseSensitive Whether the search is case-sensitive.
+     * @return The matcher.
+     */
+    private LiteralMatcher getMatcher(String searchTerm, boolean isCaseSensitive) {
+        if (matcher == null || !matcher.matches(searchTerm, isCaseSensitive)) {
+            matcher = new LiteralMatcher(searchTerm, isCaseSensitive);
+        }
+        return matcher;
+    }
+
     /**
      * Replaces the currently highlighted search term with the given replacement.
      *
@@ -219,35 +329,384 @@ public class SearchAndReplaceManager implements ActionListener {
             return;
         }
 
-        String selectedText = textArea.getText().substring(lastMatchIndex, lastMatchIndex + searchTerm.length());
-
-        if ((isCaseSensitive && selectedText.equals(searchTerm)) ||
-                (!isCaseSensitive && selectedText.equalsIgnoreCase(searchTerm))) {
-            textArea.replaceRange(replaceTerm, lastMatchIndex, lastMatchIndex + searchTerm.length());
+        try {
+            if (getMatcher(searchTerm, isCaseSensitive).matchesAt(textArea.getDocument(), lastMatchIndex)) {
+                textArea.replaceRange(replaceTerm, lastMatchIndex, lastMatchIndex + searchTerm.length());
+            }
+        } catch (BadLocationException exception) {
+            exception.printStackTrace();
         }
 
         lastMatchIndex = search(searchTerm, isCaseSensitive);
     }
 
     /**
-     * Highlights a section of text in the text area.
+     * Replaces all occurrences of the search term at once.
+     * All matches are found in a single pass, the text from the first to the last match is
+     * rebuilt with the replacements, and the rebuilt text is applied as one edit,
+     * so the whole operation is undone in one step.
+     *
+     * @param searchTerm      The text to search for.
+     * @param replaceTerm     The text to replace each occurrence with.
+     * @param isCaseSensitive Whether the search is case-sensitive.
+     * @return The number of replaced occurrences.
+     */
+    public int replaceAll(String searchTerm, String replaceTerm, boolean isCaseSensitive) {
+        if (searchTerm == null || searchTerm.isEmpty()) {
+            JOptionPane.showMessageDialog(gui, "Kein Suchbegriff eingegeben", "Leeres Suchfeld",
+                    JOptionPane.WARNING_MESSAGE);
+            return 0;
+        }
+
+        long startTime = System.nanoTime();
+        LiteralMatcher matcher = getMatcher(searchTerm, isCaseSensitive);
+        Document document = textArea.getDocument();
+        int matchCount;
+
+        try {
+            RebuiltRegion region = matcher.replaceAll(document, replaceTerm);
+            matchCount = region == null ? 0 : region.getMatchCount();
+            if (region != null) {
+                ((AbstractDocument) document).replace(region.getStart(), region.getEnd() - region.getStart(),
+                        region.getText(), null);
+            }
+        } catch (BadLocationException exception) {
+            exception.printStackTrace();
+            return 0;
+        }
+
+        clearHighlights();
+        clearAllMatches();
+        resetMatchIndex();
+        resetHasSearchFunctionBeenCalled();
+
+        if (matchCount == 0) {
+            JOptionPane.showMessageDialog(gui, "Keine Treffer", "Alle ersetzen", JOptionPane.INFORMATION_MESSAGE);
+        } else {
+            long elapsedMillis = (System.nanoTime() - startTime) / 1_000_000;
+            JOptionPane.showMessageDialog(gui, matchCount + " Treffer ersetzt (" + elapsedMillis + " ms)",
+                    "Alle ersetzen", JOptionPane.INFORMATION_MESSAGE);
+        }
+        return matchCount;
+    }
+
+    /**
+     * Searches for the next match of a regular expression in the background and highlights it.
+     *
+     * @param expression      The regular expression.
+     * @param isCaseSensitive Whether the search is case-sensitive.
+     */
+    public void searchRegex(String expression, boolean isCaseSensitive) {
+        searchRegex(expression, isCaseSensitive, false);
+    }
+
+    /**
+     * Searches for the next match of a regular expression in the background and highlights it,
+     * optionally highlighting all other matches as well.
+     *
+     * @param expression      The regular expression.
+     * @param isCaseSensitive Whether the search is case-sensitive.
+     * @param highlightAll    Whether all matches are highlighted.
+     */
+    private void searchRegex(String expression, boolean isCaseSensitive, boolean highlightAll) {
+        hasSearchFunctionBeenCalled = true;
+
+        RegexMatcher regexMatcher = getRegexMatcher(expression, isCaseSensitive);
+        if (regexMatcher == null) {
+            resetHasSearchFunctionBeenCalled();
+            return;
+        }
+
+        int currentCursorPosition = textArea.getCaretPosition();
+
+        runRegexTask(document -> {
+            RegexSearchResult result = new RegexSearchResult();
+            result.match = regexMatcher.find(document, currentCursorPosition);
+            if (result.match == null && currentCursorPosition > 0) {
+                result.match = regexMatcher.find(document, 0);
+                result.wrapped = true;
+            }
+            if (result.match != null && highlightAll) {
+                result.allMatches = regexMatcher.findAll(document);
+            }
+            return result;
+        }, result -> {
+            if (result.match == null) {
+                JOptionPane.showMessageDialog(gui, "Keine Treffer", "Suchen", JOptionPane.INFORMATION_MESSAGE);
+                resetHasSearchFunctionBeenCalled();
+                return;
+            }
+            if (result.wrapped) {
+                JOptionPane.showMessageDialog(gui, "Am Ende des Dokuments angekommen. Suche beginnt von vorne",
+                        "Suchen", JOptionPane.INFORMATION_MESSAGE);
+            }
+            lastMatchIndex = result.match[0];
+            lastMatchEnd = result.match[1];
+            highlightText(lastMatchIndex, lastMatchEnd);
+            if (result.allMatches != null) {
+                showAllMatches(result.allMatches);
+            }
+        });
+    }
+
+    /**
+     * The outcome of a background search with a regular expression.
+     */
+    private static class RegexSearchResult {
+        int[] match;
+        boolean wrapped;
+        MatchPositions allMatches;
+    }
+
+    /**
+     * Replaces the current match of a regular expression and searches for the next one.
+     * The replacement may refer to groups of the match with $n or ${name}.
+     *
+     * @param expression      The regular expression.
+     * @param replaceTerm     The replacement.
+     * @param isCaseSensitive Whether the search is case-sensitive.
+     */
+    public void replaceRegex(String expression, String replaceTerm, boolean isCaseSensitive) {
+        if (!hasSearchFunctionBeenCalled || lastMatchEnd == -1) {
+            searchRegex(expression, isCaseSensitive);
+            return;
+        }
+
+        RegexMatcher regexMatcher = getRegexMatcher(expression, isCaseSensitive);
+        if (regexMatcher == null) {
+            return;
+        }
+
+        int start = lastMatchIndex;
+        int end = lastMatchEnd;
+
+        runRegexTask(document -> regexMatcher.replacementAt(document, start, end, replaceTerm), replacement -> {
+            if (replacement != null) {
+                textArea.replaceRange(replacement, start, end);
+                textArea.setCaretPosition(start + replacement.length());
+            }
+            searchRegex(expression, isCaseSensitive);
+        });
+    }
+
+    /**
+     * Replaces all matches of a regular expression in the background and applies them as one edit.
+     *
+     * @param expression      The regular expression.
+     * @param replaceTerm     The replacement.
+     * @param isCaseSensitive Whether the search is case-sensitive.
+     */
+    public void replaceAllRegex(String expression, String replaceTerm, boolean isCaseSensitive) {
+        RegexMatcher regexMatcher = getRegexMatcher(expression, isCaseSensitive);
+        if (regexMatcher == null) {
+            return;
+        }
+
+        long startTime = System.nanoTime();
+        Document document = textArea.getDocument();
+
+        runRegexTask(snapshot -> regexMatcher.replaceAll(snapshot, replaceTerm), region -> {
+            clearHighlights();
+            clearAllMatches();
+            resetMatchIndex();
+            resetHasSearchFunctionBeenCalled();
+
+            if (region == null) {
+                JOptionPane.showMessageDialog(gui, "Keine Treffer", "Alle ersetzen", JOptionPane.INFORMATION_MESSAGE);
+                return;
+            }
+            try {
+                ((AbstractDocument) document).replace(region.getStart(), region.getEnd() - region.getStart(),
+                        region.getText(), null);
+            } catch (BadLocationException exception) {
+                exception.printStackTrace();
+                return;
+            }
+            long elapsedMillis = (System.nanoTime() - startTime) / 1_000_000;
+            JOptionPane.showMessageDialog(gui, region.getMatchCount() + " Treffer ersetzt (" + elapsedMillis + " ms)",
+                    "Alle ersetzen", JOptionPane.INFORMATION_MESSAGE);
+        });
+    }
+
+    /**
+     * Returns a matcher for the given regular expression, reusing the previous one while the search is repeated.
+     * Shows a warning if the expression is empty or invalid.
+     *
+     * @param expression      The regular expression.
+     * @param isCaseSensitive Whether the search is case-sensitive.
+     * @return The matcher, or null if the expression cannot be used.
+     */
+    private RegexMatcher getRegexMatcher(String expression, boolean isCaseSensitive) {
+        if (expression == null || expression.isEmpty()) {
+            JOptionPane.showMessageDialog(gui, "Kein Suchbegriff eingegeben", "Leeres Suchfeld",
+                    JOptionPane.WARNING_MESSAGE);
+            return null;
+        }
+        if (regexMatcher == null || !regexMatcher.matches(expression, isCaseSensitive)) {
+            try {
+                regexMatcher = new RegexMatcher(expression, isCaseSensitive);
+            } catch (PatternSyntaxException exception) {
+                JOptionPane.showMessageDialog(gui, "Ungültiger regulärer Ausdruck:\n" + exception.getDescription(),
+                        "Regulärer Ausdruck", JOptionPane.WARNING_MESSAGE);
+                return null;
+            }
+        }
+        return regexMatcher;
+    }
+
+    /**
+     * Runs a regular expression task in the background and passes its result to the given action
+     * on the Event Dispatch Thread. The task matches a snapshot of the document, as the document
+     * must not be read off the Event Dispatch Thread while it may be edited. The task is cancelled
+     * if it exceeds the timeout, and its result is discarded if the document has been changed in
+     * the meantime, since its offsets refer to the snapshot.
+     *
+     * @param task     The matching task, receiving the snapshot.
+     * @param onResult Receives the result of the task.
+     * @param <T>      The result type.
+     */
+    private <T> void runRegexTask(Function<Document, T> task, Consumer<T> onResult) {
+        cancelRegexWorker();
+        int startVersion = documentVersion;
+        Document snapshot = DocumentSnapshot.of(textArea.getDocument());
+
+        SwingWorker<T, Void> worker = new SwingWorker<>() {
+            @Override
+            protected T doInBackground() {
+                return task.apply(snapshot);
+            }
+        };
+        Timer timeout = new Timer(REGEX_TIMEOUT_MILLIS, e -> {
+            if (worker.cancel(true)) {
+                JOptionPane.showMessageDialog(gui, "Die Suche wurde nach " + REGEX_TIMEOUT_MILLIS / 1000
+                        + " Sekunden abgebrochen. Bitte den Ausdruck vereinfachen.", "Zeitüberschreitung",
+                        JOptionPane.WARNING_MESSAGE);
+            }
+        });
+        timeout.setRepeats(false);
+
+        worker.addPropertyChangeListener(e -> {
+            if (!"state".equals(e.getPropertyName()) || e.getNewValue() != SwingWorker.StateValue.DONE) {
+                return;
+            }
+            timeout.stop();
+            if (regexWorker == worker) {
+                regexWorker = null;
+            }
+            if (worker.isCancelled() || documentVersion != startVersion) {
+                return;
+            }
+            try {
+                onResult.accept(worker.get());
+            } catch (ExecutionException exception) {
+                Throwable cause = exception.getCause();
+                if (cause instanceof IllegalArgumentException) {
+                    JOptionPane.showMessageDialog(gui, cause.getMessage(), "Ersetzen", JOptionPane.WARNING_MESSAGE);
+                } else if (!(cause instanceof CancellationException)) {
+                    cause.printStackTrace();
+                }
+            } catch (InterruptedException exception) {
+                Thread.currentThread().interrupt();
+            }
+        });
+
+        regexWorker = worker;
+        timeout.start();
+        worker.execute();
+    }
+
+    /**
+     * Cancels a running regular expression search.
+     */
+    private void cancelRegexWorker() {
+        if (regexWorker != null) {
+            regexWorker.cancel(true);
+            regexWorker = null;
+        }
+    }
+
+    /**
+     * Highlights all occurrences of a literal search term.
+     *
+     * @param searchTerm      The text to search for.
+     * @param isCaseSensitive Whether the search is case-sensitive.
+     */
+    public void highlightAllMatches(String searchTerm, boolean isCaseSensitive) {
+        LiteralMatcher matcher = getMatcher(searchTerm, isCaseSensitive);
+        try {
+            showAllMatches(MatchPositions.of(matcher.findAll(textArea.getDocument()), matcher.length()));
+        } catch (BadLocationException exception) {
+            exception.printStackTrace();
+        }
+    }
+
+    /**
+     * Shows the given matches with a single highlight that paints only the visible ones.
+     * The matches follow later edits of the document.
+     *
+     * @param matches The matches to show.
+     */
+    private void showAllMatches(MatchPositions matches) {
+        clearAllMatches();
+        Highlighter highlighter = textArea.getHighlighter();
+        allMatchesDocument = textArea.getDocument();
+        allMatchesDocument.addDocumentListener(matches);
+        allMatchesPainter.setMatches(matches);
+        try {
+            allMatchesHighlight = highlighter.addHighlight(0, allMatchesDocument.getLength(), allMatchesPainter);
+            // Keep the current match on top of the other matches
+            if (currentMatchHighlight != null) {
+                Highlighter.Highlight current = (Highlighter.Highlight) currentMatchHighlight;
+                highlighter.removeHighlight(currentMatchHighlight);
+                currentMatchHighlight = highlighter.addHighlight(current.getStartOffset(), current.getEndOffset(),
+                        CURRENT_MATCH_PAINTER);
+            }
+        } catch (BadLocationException exception) {
+            exception.printStackTrace();
+        }
+    }
+
+    /**
+     * Removes the highlighting of all matches.
+     */
+    public void clearAllMatches() {
+        if (allMatchesHighlight != null) {
+            textArea.getHighlighter().removeHighlight(allMatchesHighlight);
+            allMatchesHighlight = null;
+        }
+        if (allMatchesDocument != null) {
+            allMatchesDocument.removeDocumentListener(allMatchesPainter.getMatches());
+            allMatchesDocument = null;
+        }
+        allMatchesPainter.setMatches(new MatchPositions());
+    }
+
+    /**
+     * Highlights the current match in the text area, replacing the previous current match.
      *
      * @param start The starting index of the highlight.
      * @param end   The ending index of the highlight.
      */
     private void highlightText(int start, int end) {
         try {
-            Highlighter highlighter = textArea.getHighlighter();
-            Highlighter.HighlightPainter painter = new DefaultHighlighter.DefaultHighlightPainter(Color.yellow);
-            highlighter.removeAllHighlights();
-            highlighter.addHighlight(start, end, painter);
+            clearHighlights();
+            currentMatchHighlight = textArea.getHighlighter().addHighlight(start, end, CURRENT_MATCH_PAINTER);
             textArea.setCaretPosition(end);
+            matchCountManager.setCurrentMatch(start);
         } catch (BadLocationException exception) {
             exception.printStackTrace();
         }
     }
 
-    public void clearHighlights() { textArea.getHighlighter().removeAllHighlights(); }
-    public void resetMatchIndex() { lastMatchIndex = -1; }
+    /**
+     * Removes the highlighting of the current match.
+     */
+    public void clearHighlights() {
+        if (currentMatchHighlight != null) {
+            textArea.getHighlighter().removeHighlight(currentMatchHighlight);
+            currentMatchHighlight = null;
+        }
+    }
+    public void resetMatchIndex() { lastMatchIndex = -1; lastMatchEnd = -1; }
     public void resetHasSearchFunctionBeenCalled() { hasSearchFunctionBeenCalled = false; }
 }
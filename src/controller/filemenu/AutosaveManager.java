@@ -0,0 +1,245 @@
+package controller.filemenu;
+
+import model.EditJournal;
+
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
+import javax.swing.text.BadLocationException;
+import javax.swing.text.Document;
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Records the edits of every open document in an {@link EditJournal}, so that unsaved changes
+ * survive a crash of the editor.
+ * <p>
+ * Each tab has a journal file of its own. Edits are collected in memory while typing and written
+ * to the journals by a background thread every few hundred milliseconds, so recording an edit
+ * never waits for the disk. A journal is restarted whenever its document is loaded, saved or
+ * swapped out, and all journals are deleted when the editor is closed normally.
+ * </p>
+ */
+public class AutosaveManager {
+
+    private static final long FLUSH_INTERVAL_MILLIS = 300;
+    private static final String JOURNAL_PREFIX = "recovery-";
+    private static final String JOURNAL_SUFFIX = ".journal";
+
+    private final Path directory;
+    private final Map<DocumentTab, TabJournal> journals = new ConcurrentHashMap<>();
+    private final List<EditJournal> orphanedJournals = new ArrayList<>();
+    private final ScheduledExecutorService flusher;
+
+    /**
+     * Constructs the autosave manager and starts its background thread.
+     *
+     * @param directory The directory holding the journals.
+     */
+    public AutosaveManager(Path directory) {
+        this.directory = directory;
+
+        flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "Autosave");
+            thread.setDaemon(true);
+            return thread;
+        });
+        flusher.scheduleWithFixedDelay(this::flush, FLUSH_INTERVAL_MILLIS, FLUSH_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Returns the default directory of the journals and swap files in the user's home directory.
+     *
+     * @return The directory.
+     */
+    public static Path defaultDirectory() {
+        return Path.of(System.getProperty("user.home"), ".texteditor");
+    }
+
+    /**
+     * The journal of a tab and the listener recording the edits of its document.
+     */
+    private static class TabJournal implements DocumentListener {
+        final EditJournal journal;
+        Document document;
+
+        TabJournal(EditJournal journal) {
+            this.journal = journal;
+        }
+
+        void attach(Document newDocument) {
+            if (document != null) {
+                document.removeDocumentListener(this);
+            }
+            document = newDocument;
+            if (document != null) {
+                document.addDocumentListener(this);
+            }
+        }
+
+        @Override
+        public void insertUpdate(DocumentEvent e) {
+            try {
+                journal.recordInsert(e.getOffset(), e.getDocument().getText(e.getOffset(), e.getLength()));
+            } catch (BadLocationException exception) {
+                journal.clear();
+            }
+        }
+
+        @Override
+        public void removeUpdate(DocumentEvent e) {
+            journal.recordRemove(e.getOffset(), e.getLength());
+        }
+
+        @Override
+        public void changedUpdate(DocumentEvent e) {
+        }
+    }
+
+    /**
+     * Starts recording the edits of a tab's document, which has just been loaded, saved or swapped out.
+     * The edits apply to the swap file of the tab if it has one, otherwise to its bound file.
+     *
+     * @param tab The tab.
+     */
+    public void startJournal(DocumentTab tab) {
+        TabJournal tabJournal = journals.computeIfAbsent(tab, this::openJournal);
+        if (tabJournal == null) {
+            return; // Autosave is not available for this tab
+        }
+        Path file = tab.getFile() != null ? tab.getFile().toPath() : null;
+        Path base = tab.getSwapFile() != null ? tab.getSwapFile() : file;
+        try {
+            tabJournal.journal.reset(base, file);
+            tabJournal.attach(tab.getDocument());
+        } catch (IOException exception) {
+            exception.printStackTrace();
+            suspendJournal(tab);
+        }
+    }
+
+    private TabJournal openJournal(DocumentTab tab) {
+        Path path = directory.resolve(JOURNAL_PREFIX + ProcessHandle.current().pid() + "-" + tab.getId() + JOURNAL_SUFFIX);
+        try {
+            return new TabJournal(new EditJournal(path));
+        } catch (IOException exception) {
+            System.err.println("Automatisches Sichern deaktiviert: " + exception.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Stops recording, for example while a file is being loaded, and empties the journal.
+     *
+     * @param tab The tab.
+     */
+    public void suspendJournal(DocumentTab tab) {
+        TabJournal tabJournal = journals.get(tab);
+        if (tabJournal != null) {
+            tabJournal.attach(null);
+            tabJournal.journal.clear();
+        }
+    }
+
+    /**
+     * Stops recording a tab that is no longer needed and deletes its journal.
+     *
+     * @param tab The tab.
+     */
+    public void closeJournal(DocumentTab tab) {
+        TabJournal tabJournal = journals.remove(tab);
+        if (tabJournal != null) {
+            tabJournal.attach(null);
+            closeAndDelete(tabJournal.journal);
+        }
+    }
+
+    /**
+     * Reads the journals left behind by previous sessions that did not end normally.
+     * Journals still in use by another running instance are skipped.
+     *
+     * @return The unsaved changes of previous sessions.
+     */
+    public List<EditJournal.Recovery> readRecovery() {
+        List<EditJournal.Recovery> recoveries = new ArrayList<>();
+        if (!Files.isDirectory(directory)) {
+            return recoveries;
+        }
+        try (DirectoryStream<Path> paths = Files.newDirectoryStream(directory, JOURNAL_PREFIX + "*" + JOURNAL_SUFFIX)) {
+            for (Path path : paths) {
+                EditJournal journal;
+                try {
+                    journal = new EditJournal(path); // Fails while another instance holds the journal
+                } catch (IOException exception) {
+                    continue;
+                }
+                orphanedJournals.add(journal);
+                try {
+                    EditJournal.Recovery recovery = EditJournal.read(path);
+                    if (recovery != null) {
+                        recoveries.add(recovery);
+                    }
+                } catch (IOException exception) {
+                    // An unreadable journal is skipped and deleted with the others
+                    System.err.println("Journal kann nicht gelesen werden: " + path + " (" + exception.getMessage() + ")");
+                }
+            }
+        } catch (IOException exception) {
+            exception.printStackTrace();
+        }
+        return recoveries;
+    }
+
+    /**
+     * Deletes the journals read by {@link #readRecovery()}, once their changes have been restored or rejected.
+     */
+    public void discardRecovery() {
+        for (EditJournal journal : orphanedJournals) {
+            closeAndDelete(journal);
+        }
+        orphanedJournals.clear();
+    }
+
+    /**
+     * Writes the recorded edits to the journals. Runs on the autosave thread.
+     */
+    private void flush() {
+        for (TabJournal tabJournal : journals.values()) {
+            try {
+                tabJournal.journal.flush();
+            } catch (IOException exception) {
+                exception.printStackTrace();
+                tabJournal.journal.clear();
+            }
+        }
+    }
+
+    /**
+     * Stops autosaving and deletes the journals when the editor is closed normally.
+     */
+    public void shutdown() {
+        flusher.shutdownNow();
+        for (DocumentTab tab : new ArrayList<>(journals.keySet())) {
+            closeJournal(tab);
+        }
+        discardRecovery();
+    }
+
+    private static void closeAndDelete(EditJournal journal) {
+        try {
+            journal.clear();
+            journal.close();
+            Files.deleteIfExists(journal.getPath());
+        } catch (IOException exception) {
+            exception.printStackTrace();
+        }
+    }
+}
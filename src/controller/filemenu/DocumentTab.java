@@ -0,0 +1,112 @@
+package controller.filemenu;
+
+import model.TextFormat;
+
+import javax.swing.text.Document;
+import java.io.File;
+import java.nio.file.Path;
+
+/**
+ * The state of one open document: the file it is bound to, its text and its caret.
+ * <p>
+ * A tab whose document is not in memory only keeps its file and caret position. Its text is
+ * read when the tab is shown, either from the bound file or, if the tab had unsaved changes
+ * when it was evicted, from its swap file.
+ * </p>
+ */
+public class DocumentTab {
+
+    private static int nextId = 1;
+
+    private final int id = nextId++;
+    private File file;
+    private Path swapFile;
+    private Document document;
+    private TextFormat format;
+    private int caretPosition = 0;
+    private boolean modified = false;
+    private boolean busy = false;
+    private boolean loading = false;
+    private long changeCount = 0;
+    private long lastShown = 0;
+
+    /**
+     * Constructs a tab bound to the given file, without reading it.
+     *
+     * @param file The file, or null for a new, untitled document.
+     */
+    DocumentTab(File file) {
+        this.file = file;
+        this.format = file == null ? TextFormat.DEFAULT : null;
+    }
+
+    public int getId() { return id; }
+    public File getFile() { return file; }
+    public Path getSwapFile() { return swapFile; }
+    public Document getDocument() { return document; }
+    public int getCaretPosition() { return caretPosition; }
+    public long getLastShown() { return lastShown; }
+
+    /**
+     * Returns the encoding and line ending the document is written in when it is saved.
+     *
+     * @return The format, or null until the bound file has been read for the first time.
+     */
+    public TextFormat getFormat() { return format; }
+
+    /**
+     * Returns whether the document has been changed since it was loaded or saved.
+     *
+     * @return True if there are unsaved changes.
+     */
+    public boolean isModified() { return modified; }
+
+    /**
+     * Returns whether the document is being loaded or saved, during which it must not be edited or evicted.
+     *
+     * @return True while a background task works on the document.
+     */
+    public boolean isBusy() { return busy; }
+
+    /**
+     * Returns whether a background task is filling the document from its file, so its changes are no edits.
+     *
+     * @return True while the document is being loaded or followed.
+     */
+    public boolean isLoading() { return loading; }
+
+    /**
+     * Returns the number of changes made to the document so far, which tells a background task working on
+     * a snapshot whether the document has been changed since the snapshot was taken.
+     *
+     * @return The number of changes.
+     */
+    public long getChangeCount() { return changeCount; }
+
+    /**
+     * Returns whether the text of the tab is in memory.
+     *
+     * @return True if the tab has a document.
+     */
+    public boolean isLoaded() { return document != null; }
+
+    /**
+     * Returns the name shown on the tab.
+     *
+     * @return The file name, or "Unbenannt", marked with an asterisk if there are unsaved changes.
+     */
+    public String getTitle() {
+        return (file != null ? file.getName() : "Unbenannt") + (modified ? " *" : "");
+    }
+
+    void setFile(File file) { this.file = file; }
+    void setSwapFile(Path swapFile) { this.swapFile = swapFile; }
+    void setDocument(Document document) { this.document = document; }
+    void setFormat(TextFormat format) { this.format = format; }
+    void setCaretPosition(int caretPosition) { this.caretPosition = caretPosition; }
+    void setModified(boolean modified) { this.modified = modified; }
+    void setBusy(boolean busy) { this.busy = busy; }
+    void setLoading(boolean loading) { this.loading = loading; }
+    void countChange() { changeCount++; }
+    void setLastShown(long lastShown) { this.lastShown = lastShown; }
+}
@@ -1,8 +1,10 @@
 package controller.filemenu;
 
 import javax.swing.*;
+import javax.swing.filechooser.FileSystemView;
 import java.awt.*;
 import java.awt.event.ActionEvent;
+import java.io.File;
 
 /**
  * Configures a {@link JFileChooser} to enhance usability.
@@ -37,4 +39,29 @@ public class FileChooserConfigurator {
             }
         });
     }
-}
\ No newline at end of file
+
+    /**
+     * Prepares what building the first file chooser waits for, without blocking the EDT:
+     * loads the classes of the chooser and its look and feel and lists the roots and the
+     * default directory of the file system, so the operating system has them cached.
+     * The chooser itself is still built on the EDT when it is first needed.
+     */
+    public static void warmUp() {
+        try {
+            Class.forName(JFileChooser.class.getName());
+            String uiClassName = UIManager.getString("FileChooserUI");
+            if (uiClassName != null) {
+                Class.forName(uiClassName);
+            }
+        } catch (ClassNotFoundException exception) {
+            // The chooser loads its classes itself when it is built
+        }
+
+        FileSystemView fileSystemView = FileSystemView.getFileSystemView();
+        fileSystemView.getRoots();
+        File defaultDirectory = fileSystemView.getDefaultDirectory();
+        if (defaultDirectory != null) {
+            fileSystemView.getFiles(defaultDirectory, true);
+        }
+    }
+}
@@ -0,0 +1,192 @@
+package controller.filemenu;
+
+import model.TextFormat;
+
+import javax.swing.*;
+import javax.swing.text.BadLocationException;
+import javax.swing.text.Document;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Loads a file into a document in the background.
+ * The file is read in chunks through a {@link FileChannel}, decoded incrementally
+ * and appended to the document in batches on the Event Dispatch Thread.
+ * Chunks are handed over with {@link SwingUtilities#invokeLater(Runnable)} rather than
+ * {@code publish}, so every chunk is appended before {@link #done()} runs.
+ * The number of decoded chunks waiting for the EDT is bounded, so the heap
+ * holds little more than the text that is already part of the document.
+ * A byte order mark is skipped and CRLF and CR line endings are converted to LF on the way,
+ * also where a CRLF pair is split between two chunks.
+ */
+public class FileLoadWorker extends SwingWorker<Void, Void> {
+
+    private static final int CHUNK_SIZE = 64 * 1024;
+    private static final int MAX_PENDING_CHUNKS = 16;
+
+    private final Path path;
+    private final Document document;
+    private final TextFormat format;
+    private final Semaphore pendingChunks = new Semaphore(MAX_PENDING_CHUNKS);
+    private boolean afterCarriageReturn = false;
+
+    /**
+     * Constructs a loader that appends the content of the given file to the document.
+     *
+     * @param path     The file to read.
+     * @param document The document receiving the decoded text.
+     * @param charset  The charset used to decode the file.
+     */
+    public FileLoadWorker(Path path, Document document, Charset charset) {
+        this(path, document, new TextFormat(charset, false, TextFormat.LineEnding.LF));
+    }
+
+    /**
+     * Constructs a loader that appends the content of the given file to the document.
+     *
+     * @param path     The file to read.
+     * @param document The document receiving the decoded text.
+     * @param format   The format of the file, as detected by {@link TextFormat#detect(Path)}.
+     */
+    public FileLoadWorker(Path path, Document document, TextFormat format) {
+        this.path = path;
+        this.document = document;
+        this.format = format;
+    }
+
+    /**
+     * Reads and decodes the file chunk by chunk and publishes the decoded text.
+     *
+     * @return Nothing.
+     * @throws IOException          If the file cannot be read.
+     * @throws InterruptedException If the worker is cancelled while waiting for the EDT.
+     */
+    @Override
+    protected Void doInBackground() throws IOException, InterruptedException {
+        CharsetDecoder decoder = format.getCharset().newDecoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        ByteBuffer bytes = ByteBuffer.allocate(CHUNK_SIZE);
+        CharBuffer chars = CharBuffer.allocate(CHUNK_SIZE);
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            long bytesRead = skipByteOrderMark(channel);
+            boolean endOfInput = false;
+
+            while (!endOfInput && !isCancelled()) {
+                int count = channel.read(bytes);
+                endOfInput = count < 0;
+                if (count > 0) {
+                    bytesRead += count;
+                }
+
+                bytes.flip();
+                CoderResult result = decoder.decode(bytes, chars, endOfInput);
+                while (result.isOverflow()) {
+                    publishChunk(chars);
+                    result = decoder.decode(bytes, chars, endOfInput);
+                }
+                bytes.compact();
+
+                if (endOfInput) {
+                    while (decoder.flush(chars).isOverflow()) {
+                        publishChunk(chars);
+                    }
+                }
+                publishChunk(chars);
+                setProgress(size == 0 ? 100 : (int) Math.min(100, bytesRead * 100 / size));
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Moves the channel behind the byte order mark of the format, if the file starts with it.
+     *
+     * @param channel The channel at the start of the file.
+     * @return The number of bytes skipped.
+     */
+    private long skipByteOrderMark(FileChannel channel) throws IOException {
+        byte[] mark = format.getByteOrderMark();
+        if (mark.length == 0) {
+            return 0;
+        }
+        ByteBuffer start = ByteBuffer.allocate(mark.length);
+        while (start.hasRemaining() && channel.read(start) >= 0) {
+            // Read until the buffer is full or the file ends
+        }
+        if (start.hasRemaining() || !start.flip().equals(ByteBuffer.wrap(mark))) {
+            channel.position(0);
+            return 0;
+        }
+        return mark.length;
+    }
+
+    /**
+     * Publishes the decoded characters and clears the buffer for reuse.
+     * Blocks while too many chunks are still waiting to be appended on the EDT.
+     *
+     * @param chars The buffer holding the decoded characters.
+     * @throws InterruptedException If the worker is cancelled while waiting.
+     */
+    private void publishChunk(CharBuffer chars) throws InterruptedException {
+        chars.flip();
+        String chunk = chars.hasRemaining() ? toLineFeeds(chars.toString()) : "";
+        if (!chunk.isEmpty()) {
+            pendingChunks.acquire();
+            SwingUtilities.invokeLater(() -> appendChunk(chunk));
+        }
+        chars.clear();
+    }
+
+    /**
+     * Converts CRLF and CR line endings to LF. A CR at the end of a chunk is remembered,
+     * so an LF at the start of the next chunk is dropped.
+     *
+     * @param chunk The decoded text.
+     * @return The text with LF line endings.
+     */
+    private String toLineFeeds(String chunk) {
+        if (!afterCarriageReturn && chunk.indexOf('\r') < 0) {
+            return chunk;
+        }
+        StringBuilder converted = new StringBuilder(chunk.length());
+        for (int i = 0; i < chunk.length(); i++) {
+            char c = chunk.charAt(i);
+            if (c == '\n' && afterCarriageReturn) {
+                afterCarriageReturn = false;
+                continue;
+            }
+            afterCarriageReturn = c == '\r';
+            converted.append(afterCarriageReturn ? '\n' : c);
+        }
+        return converted.toString();
+    }
+
+    /**
+     * Appends a decoded chunk to the end of the document.
+     *
+     * @param chunk The decoded text in reading order.
+     */
+    private void appendChunk(String chunk) {
+        try {
+            if (!isCancelled()) {
+                document.insertString(document.getLength(), chunk, null);
+            }
+        } catch (BadLocationException exception) {
+            cancel(true);
+        } finally {
+            pendingChunks.release();
+        }
+    }
+}
@@ -2,14 +2,32 @@ package controller.filemenu;
 
 import controller.TextEditorMainController;
 import gui.TextEditorMainGUI;
+import gui.TextEditorStatusBar;
+import model.DocumentPrintable;
+import model.DocumentSnapshot;
+import model.EditJournal;
+import model.PieceTableDocument;
+import model.TextFormat;
 
 import javax.swing.*;
+import javax.swing.text.BadLocationException;
+import javax.swing.text.Document;
 import java.awt.*;
 import java.awt.event.KeyEvent;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
 import java.awt.print.*;
 import java.io.File;
-import java.io.FileWriter;
 import java.io.IOException;
+import java.nio.charset.CharacterCodingException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
 
 /**
  * Manages file-related actions such as creating, opening, saving, and printing files.
@@ -17,10 +35,18 @@ import java.io.IOException;
  */
 public class FileMenuManager {
 
+    private static final long MAPPING_THRESHOLD = 16L * 1024 * 1024;
+
     private final TextEditorMainGUI gui;
     private final TextEditorMainController mainController;
-    private final JFileChooser fileChooser;
-    private File currentFile = null;
+    private JFileChooser fileChooser;
+    private final Map<DocumentTab, SwingWorker<?, Void>> loadWorkers = new HashMap<>();
+    private final Map<DocumentTab, EditJournal.Recovery> pendingRecoveries = new HashMap<>();
+    private FileSaveWorker saveWorker = null;
+    private DocumentTab savingTab = null;
+    private final AutosaveManager autosaveManager;
+    private final TabManager tabManager;
+    private final FollowManager followManager;
 
     /**
      * Constructs the file menu manager.
@@ -31,68 +57,219 @@ public class FileMenuManager {
     public FileMenuManager(TextEditorMainGUI gui, TextEditorMainController mainController) {
         this.gui = gui;
         this.mainController = mainController;
-        this.fileChooser = new JFileChooser();
-        FileChooserConfigurator.configureFileChooser(fileChooser);
+        this.autosaveManager = new AutosaveManager(AutosaveManager.defaultDirectory());
+        this.tabManager = new TabManager(gui, mainController, autosaveManager, this::loadTab);
+        this.followManager = new FollowManager(gui, tabManager);
+        tabManager.addActivationListener(tab -> gui.getFollowFileItem().setSelected(followManager.isFollowing(tab)));
+        tabManager.addActivationListener(this::refreshFormat);
+
+        gui.addWindowListener(new WindowAdapter() {
+            @Override
+            public void windowClosing(WindowEvent e) {
+                autosaveManager.shutdown();
+                tabManager.deleteSwapFiles();
+            }
+        });
+
+        gui.getStatusBar().getCancelButton().addActionListener(e -> {
+            cancelLoading();
+            cancelSaving();
+        });
+        initialiseFormatMenus();
+        refreshFormat(tabManager.getActiveTab());
     }
 
     /**
-     * Creates a new file, prompting the user to confirm if unsaved changes exist.
-     * This method remains unchanged to preserve its intended behaviour.
+     * Connects the encoding and line ending shown in the status bar to menus for converting the active tab.
+     * An encoding can also be used to read the file again, if it has been detected wrongly.
      */
-    public void createNewFile() {
-        if (!gui.getTextArea().getText().isEmpty()) {
-            Object[] options = {"Ja", "Nein"};
-            JOptionPane optionPane = new JOptionPane(
-                    "Ungespeicherte Änderungen gehen verloren. Fortfahren?",
-                    JOptionPane.WARNING_MESSAGE,
-                    JOptionPane.YES_NO_OPTION,
-                    null,
-                    options,
-                    options[1] // Default to "Nein"
-            );
-
-            JDialog dialog = optionPane.createDialog(gui, "Neue Datei erstellen");
-            dialog.setDefaultCloseOperation(JDialog.DISPOSE_ON_CLOSE);
-
-            SwingUtilities.invokeLater(() -> {
-                JButton noButton = getButton(dialog, "Nein");
-                if (noButton != null) {
-                    noButton.requestFocusInWindow();
-                    dialog.getRootPane().setDefaultButton(noButton);
-                }
-            });
-
-            dialog.getRootPane().registerKeyboardAction(
-                    e -> {
-                        JButton focusedButton = (dialog.getFocusOwner() instanceof JButton)
-                                ? (JButton) dialog.getFocusOwner()
-                                : getButton(dialog, "Nein");
-                        if (focusedButton != null) {
-                            focusedButton.doClick();
-                        }
-                    },
-                    KeyStroke.getKeyStroke(KeyEvent.VK_ENTER, 0),
-                    JComponent.WHEN_IN_FOCUSED_WINDOW
-            );
-
-            dialog.setVisible(true);
-
-            Object selectedValue = optionPane.getValue();
-            if ("Ja".equals(selectedValue)) {
-                resetEditor();
+    private void initialiseFormatMenus() {
+        JButton encodingButton = gui.getStatusBar().getEncodingButton();
+        encodingButton.addActionListener(e -> {
+            JPopupMenu menu = new JPopupMenu();
+            JMenu reopenMenu = new JMenu("Erneut öffnen mit");
+            for (TextFormat encoding : TextFormat.ENCODINGS) {
+                JMenuItem convertItem = new JMenuItem("Umwandeln in " + encoding.getEncodingName());
+                convertItem.addActionListener(event -> convertActiveTab(formatOf(tabManager.getActiveTab()).withEncoding(encoding)));
+                menu.add(convertItem);
+
+                JMenuItem reopenItem = new JMenuItem(encoding.getEncodingName());
+                reopenItem.addActionListener(event -> reopenActiveTab(encoding));
+                reopenMenu.add(reopenItem);
             }
+            reopenMenu.setEnabled(tabManager.getActiveTab().getFile() != null);
+            menu.addSeparator();
+            menu.add(reopenMenu);
+            menu.show(encodingButton, 0, -menu.getPreferredSize().height);
+        });
+
+        JButton lineEndingButton = gui.getStatusBar().getLineEndingButton();
+        lineEndingButton.addActionListener(e -> {
+            JPopupMenu menu = new JPopupMenu();
+            for (TextFormat.LineEnding lineEnding : TextFormat.LineEnding.values()) {
+                JMenuItem item = new JMenuItem("Umwandeln in " + lineEnding.getDisplayName());
+                item.addActionListener(event -> convertActiveTab(formatOf(tabManager.getActiveTab()).withLineEnding(lineEnding)));
+                menu.add(item);
+            }
+            menu.show(lineEndingButton, 0, -menu.getPreferredSize().height);
+        });
+    }
+
+    /**
+     * Changes the encoding or line ending the active tab is saved in. A tab whose text matches its file
+     * is converted right away: the file is rewritten by a streaming save, so even a file that is too large
+     * for the heap is converted chunk by chunk, and the tab takes the new format once the file has been
+     * written. Otherwise the tab is marked as modified and converted when it is saved. If the new encoding
+     * cannot represent the text, the user is asked before anything is written.
+     *
+     * @param format The new format.
+     */
+    private void convertActiveTab(TextFormat format) {
+        DocumentTab tab = tabManager.getActiveTab();
+        if (tab.isBusy() || followManager.isFollowing(tab) || format.equals(tab.getFormat())) {
+            return;
+        }
+        if (tab.getFile() != null && !tab.isModified() && saveWorker == null) {
+            writeFile(tab, tab.getFile(), format, false);
+            return;
+        }
+        tab.setFormat(format);
+        tabManager.markModified(tab);
+        refreshFormat(tab);
+    }
+
+    /**
+     * Reads the file of the active tab again with another encoding, keeping its line ending.
+     * Unsaved changes are discarded after confirmation.
+     *
+     * @param encoding The format providing the charset and byte order mark.
+     */
+    private void reopenActiveTab(TextFormat encoding) {
+        DocumentTab tab = tabManager.getActiveTab();
+        if (tab.getFile() == null || tab.isBusy() || followManager.isFollowing(tab)) {
+            return;
+        }
+        if (tab.isModified() && !confirmDiscard("Erneut öffnen")) {
+            return;
+        }
+        tab.setFormat(formatOf(tab).withEncoding(encoding));
+        tabManager.markUnmodified(tab);
+        tabManager.reload(tab);
+        refreshFormat(tab);
+    }
+
+    /**
+     * Shows the encoding and line ending of a tab in the status bar, if it is the active tab.
+     *
+     * @param tab The tab.
+     */
+    private void refreshFormat(DocumentTab tab) {
+        if (tab != tabManager.getActiveTab()) {
+            return;
+        }
+        TextFormat format = tab.getFormat();
+        gui.getStatusBar().updateFormat(format != null ? format.getEncodingName() : "",
+                format != null ? format.getLineEnding().name() : "");
+    }
+
+    private static TextFormat formatOf(DocumentTab tab) {
+        return tab.getFormat() != null ? tab.getFormat() : TextFormat.DEFAULT;
+    }
+
+    /**
+     * Creates a new, empty document in a tab of its own.
+     */
+    public void createNewFile() {
+        tabManager.show(tabManager.addTab(null));
+    }
+
+    /**
+     * Closes the active tab, prompting the user to confirm if it has unsaved changes.
+     * A tab that is being saved cannot be closed until the save has finished.
+     */
+    public void closeActiveTab() {
+        DocumentTab tab = tabManager.getActiveTab();
+        if (tab == savingTab) {
+            return; // The document is still being saved
+        }
+        if (tab.isModified() && !confirmDiscard("Tab schließen")) {
+            return;
+        }
+        SwingWorker<?, Void> worker = loadWorkers.remove(tab);
+        if (worker != null) {
+            worker.cancel(true);
+            finishProgress();
+        }
+        followManager.stop(tab, false);
+        tabManager.close(tab);
+    }
+
+    /**
+     * Starts or stops following the file of the active tab, like {@code tail -f}.
+     * Only a tab whose text matches its file can be followed.
+     */
+    public void toggleFollow() {
+        DocumentTab tab = tabManager.getActiveTab();
+        if (followManager.isFollowing(tab)) {
+            followManager.stop(tab, true);
+        } else if (tab.getFile() == null || tab.isModified() || tab.isBusy()) {
+            showInfoDialog("Datei verfolgen", "Nur gespeicherte Dateien ohne ungespeicherte Änderungen können verfolgt werden.");
         } else {
-            resetEditor();
+            try {
+                autosaveManager.suspendJournal(tab);
+                followManager.start(tab);
+            } catch (IOException exception) {
+                autosaveManager.startJournal(tab);
+                showErrorDialog("Fehler beim Verfolgen der Datei", exception);
+            }
         }
+        gui.getFollowFileItem().setSelected(followManager.isFollowing(tab));
     }
 
     /**
-     * Resets the editor by clearing the text area and resetting the current file reference.
+     * Asks the user whether unsaved changes may be discarded, with "Nein" as the default answer.
+     *
+     * @param title The title of the dialogue.
+     * @return True if the user agreed.
      */
-    private void resetEditor() {
-        gui.getTextArea().setText("");
-        currentFile = null;
-        mainController.updateTitle(null);
+    private boolean confirmDiscard(String title) {
+        Object[] options = {"Ja", "Nein"};
+        JOptionPane optionPane = new JOptionPane(
+                "Ungespeicherte Änderungen gehen verloren. Fortfahren?",
+                JOptionPane.WARNING_MESSAGE,
+                JOptionPane.YES_NO_OPTION,
+                null,
+                options,
+                options[1] // Default to "Nein"
+        );
+
+        JDialog dialog = optionPane.createDialog(gui, title);
+        dialog.setDefaultCloseOperation(JDialog.DISPOSE_ON_CLOSE);
+
+        SwingUtilities.invokeLater(() -> {
+            JButton noButton = getButton(dialog, "Nein");
+            if (noButton != null) {
+                noButton.requestFocusInWindow();
+                dialog.getRootPane().setDefaultButton(noButton);
+            }
+        });
+
+        dialog.getRootPane().registerKeyboardAction(
+                e -> {
+                    JButton focusedButton = (dialog.getFocusOwner() instanceof JButton)
+                            ? (JButton) dialog.getFocusOwner()
+                            : getButton(dialog, "Nein");
+                    if (focusedButton != null) {
+                        focusedButton.doClick();
+                    }
+                },
+                KeyStroke.getKeyStroke(KeyEvent.VK_ENTER, 0),
+                JComponent.WHEN_IN_FOCUSED_WINDOW
+        );
+
+        dialog.setVisible(true);
+
+        return "Ja".equals(optionPane.getValue());
     }
 
     private JButton getButton(JDialog dialog, String buttonText) {
@@ -108,31 +285,237 @@ public class FileMenuManager {
         return null;
     }
 
+    /**
+     * Returns the file chooser shared by "Open" and "Save As", building it on first use:
+     * building it reads the file system, which would otherwise delay the start of the editor.
+     *
+     * @return The configured file chooser.
+     */
+    private JFileChooser getFileChooser() {
+        if (fileChooser == null) {
+            fileChooser = new JFileChooser();
+            FileChooserConfigurator.configureFileChooser(fileChooser);
+        }
+        return fileChooser;
+    }
+
+    /**
+     * Opens the files selected by the user, each in a tab of its own.
+     * The first file is shown and loaded in the background, so the editor stays responsive
+     * and the loading progress is shown in the status bar. The other files are only read
+     * when their tab is shown. A file that is already open is shown in its existing tab.
+     */
     public void openFile() {
+        JFileChooser fileChooser = getFileChooser();
         fileChooser.setDialogTitle("Datei öffnen");
         fileChooser.setFileFilter(new javax.swing.filechooser.FileNameExtensionFilter("Textdateien (*.txt)", "txt"));
+        fileChooser.setMultiSelectionEnabled(true);
 
-        if (fileChooser.showOpenDialog(gui) == JFileChooser.APPROVE_OPTION) {
-            currentFile = fileChooser.getSelectedFile();
-            try {
-                String content = new String(java.nio.file.Files.readAllBytes(currentFile.toPath()));
-                gui.getTextArea().setText(content);
-                mainController.updateTitle(currentFile);
-            } catch (IOException exception) {
-                showErrorDialog("Fehler beim Öffnen der Datei", exception);
+        if (fileChooser.showOpenDialog(gui) != JFileChooser.APPROVE_OPTION) {
+            fileChooser.setMultiSelectionEnabled(false);
+            return;
+        }
+        openSelectedFiles(fileChooser);
+    }
+
+    /**
+     * Opens the files selected in the file chooser and turns its multiple selection off again for "Save As".
+     *
+     * @param fileChooser The file chooser the user has confirmed.
+     */
+    void openSelectedFiles(JFileChooser fileChooser) {
+        // Turning multiple selection off clears the selection, so the files are read before
+        File[] selectedFiles = fileChooser.getSelectedFiles();
+        fileChooser.setMultiSelectionEnabled(false);
+
+        DocumentTab previousTab = tabManager.getActiveTab();
+        DocumentTab firstTab = null;
+        for (File file : selectedFiles) {
+            DocumentTab tab = tabManager.findTab(file);
+            if (tab == null) {
+                tab = tabManager.addTab(file);
+            }
+            if (firstTab == null) {
+                firstTab = tab;
+            }
+        }
+        if (firstTab == null) {
+            return;
+        }
+        tabManager.show(firstTab);
+
+        // An empty, untitled tab is replaced by the opened files, as a single document used to be
+        if (previousTab != firstTab && isUntouched(previousTab)) {
+            tabManager.close(previousTab);
+        }
+    }
+
+    private boolean isUntouched(DocumentTab tab) {
+        return tab.getFile() == null && !tab.isModified() && !tab.isBusy()
+                && (!tab.isLoaded() || tab.getDocument().getLength() == 0);
+    }
+
+    /**
+     * Reads the document of a tab in the background when the tab is shown for the first time
+     * or after it has been evicted. Large ASCII files are memory-mapped by a {@link MappedFileLoadWorker},
+     * shown as an empty document until the mapping is complete; all other files are streamed into
+     * a new document by a {@link FileLoadWorker}. A tab with unsaved changes that were swapped out
+     * is read from its swap file.
+     *
+     * @param tab The tab to load.
+     */
+    private void loadTab(DocumentTab tab) {
+        autosaveManager.suspendJournal(tab);
+        tabManager.setLoading(tab, true);
+        Path source = tab.getSwapFile() != null ? tab.getSwapFile() : tab.getFile().toPath();
+        gui.getStatusBar().showProgress("Lade " + (tab.getFile() != null ? tab.getFile().getName() : "Unbenannt"));
+
+        if (tab.getFormat() == null) {
+            tab.setFormat(detectFormat(source));
+            refreshFormat(tab);
+        }
+        // Swap files are always written in the default format
+        TextFormat sourceFormat = tab.getSwapFile() != null ? TextFormat.DEFAULT : tab.getFormat();
+
+        if (sourceFormat.isMappable() && source.toFile().length() >= MAPPING_THRESHOLD) {
+            tabManager.setDocument(tab, new PieceTableDocument());
+            startLoading(new MappedFileLoadWorker(source), tab, source);
+        } else {
+            streamFile(tab, source, sourceFormat);
+        }
+    }
+
+    /**
+     * Detects the encoding and line ending of a file from its first bytes.
+     * A file that cannot be read gets the default format; the loader reports the error.
+     *
+     * @param file The file.
+     * @return The detected format.
+     */
+    private static TextFormat detectFormat(Path file) {
+        try {
+            return TextFormat.detect(file);
+        } catch (IOException exception) {
+            return TextFormat.DEFAULT;
+        }
+    }
+
+    /**
+     * Streams the given file into a new, empty document of the tab.
+     *
+     * @param tab    The tab being loaded.
+     * @param source The file to read.
+     * @param format The encoding and line ending of the file.
+     */
+    private void streamFile(DocumentTab tab, Path source, TextFormat format) {
+        Document document = new PieceTableDocument();
+        tabManager.setDocument(tab, document);
+        startLoading(new FileLoadWorker(source, document, format), tab, source);
+    }
+
+    /**
+     * Starts a loader and connects it to the progress display in the status bar.
+     *
+     * @param worker The loader to start.
+     * @param tab    The tab being loaded.
+     * @param source The file being read.
+     */
+    private void startLoading(SwingWorker<?, Void> worker, DocumentTab tab, Path source) {
+        TextEditorStatusBar statusBar = gui.getStatusBar();
+        worker.addPropertyChangeListener(e -> {
+            if ("progress".equals(e.getPropertyName())) {
+                statusBar.updateProgress((Integer) e.getNewValue());
+            }
+        });
+        worker.addPropertyChangeListener(e -> {
+            if ("state".equals(e.getPropertyName()) && e.getNewValue() == SwingWorker.StateValue.DONE) {
+                finishLoading(worker, tab, source);
+            }
+        });
+        loadWorkers.put(tab, worker);
+        worker.execute();
+    }
+
+    /**
+     * Completes a background load on the EDT and reports errors to the user.
+     * If a file could not be mapped, it is streamed instead. The file stays bound to the tab
+     * only if it has been read completely, so a cancelled load can never be saved over the original file.
+     *
+     * @param worker The finished loader.
+     * @param tab    The tab that was loaded.
+     * @param source The file that was read.
+     */
+    private void finishLoading(SwingWorker<?, Void> worker, DocumentTab tab, Path source) {
+        if (loadWorkers.get(tab) != worker) {
+            pendingRecoveries.remove(tab);
+            return; // The tab has been closed
+        }
+        loadWorkers.remove(tab);
+
+        try {
+            Object result = worker.get();
+            if (worker instanceof MappedFileLoadWorker) {
+                if (result == null) {
+                    streamFile(tab, source, tab.getSwapFile() != null ? TextFormat.DEFAULT : tab.getFormat());
+                    return;
+                }
+                tabManager.setDocument(tab, (Document) result);
             }
+            tabManager.discardHistory(tab);
+            EditJournal.Recovery recovery = pendingRecoveries.remove(tab);
+            if (tab.getSwapFile() == null && recovery == null) {
+                tabManager.markUnmodified(tab);
+            }
+            tabManager.restoreCaret(tab);
+            autosaveManager.startJournal(tab);
+            if (recovery != null) {
+                replay(tab, recovery);
+            }
+        } catch (CancellationException exception) {
+            pendingRecoveries.remove(tab);
+            tab.setFile(null);
+        } catch (InterruptedException | ExecutionException exception) {
+            pendingRecoveries.remove(tab);
+            tab.setFile(null);
+            Throwable cause = exception.getCause() != null ? exception.getCause() : exception;
+            showErrorDialog("Fehler beim Öffnen der Datei", cause instanceof Exception ? (Exception) cause : exception);
+        }
+
+        finishProgress();
+        tabManager.setLoading(tab, false);
+        tabManager.refreshTitle(tab);
+        tabManager.evictIfNeeded();
+    }
+
+    /**
+     * Hides the progress display once no background task is running anymore.
+     */
+    private void finishProgress() {
+        if (loadWorkers.isEmpty() && saveWorker == null) {
+            gui.getStatusBar().hideProgress();
+        }
+    }
+
+    /**
+     * Cancels the running background loads, keeping the text read so far.
+     */
+    public void cancelLoading() {
+        for (SwingWorker<?, Void> worker : new ArrayList<>(loadWorkers.values())) {
+            worker.cancel(true);
         }
     }
 
     public void saveFile() {
-        if (currentFile == null) {
+        DocumentTab tab = tabManager.getActiveTab();
+        if (tab.getFile() == null) {
             saveFileAs();
         } else {
-            writeFile(currentFile);
+            writeFile(tab, tab.getFile());
         }
     }
 
     public void saveFileAs() {
+        JFileChooser fileChooser = getFileChooser();
         fileChooser.setDialogTitle("Speichern unter");
         fileChooser.setFileFilter(new javax.swing.filechooser.FileNameExtensionFilter("Textdateien (*.txt)", "txt"));
 
@@ -142,53 +525,269 @@ public class FileMenuManager {
                 selectedFile = new File(selectedFile.getAbsolutePath() + ".txt");
             }
 
-            currentFile = selectedFile;
-            writeFile(currentFile);
+            writeFile(tabManager.getActiveTab(), selectedFile);
+        }
+    }
+
+    /**
+     * Saves the document of a tab to the given file in the background and binds the file to the tab.
+     * The text is written in the encoding and with the line ending of the tab.
+     *
+     * @param tab  The tab to save.
+     * @param file The file to write.
+     */
+    private void writeFile(DocumentTab tab, File file) {
+        writeFile(tab, file, formatOf(tab), false);
+    }
+
+    /**
+     * Saves the document of a tab to the given file in the background and binds the file and the format to the tab.
+     * The text at the start of the save is written from a snapshot; changes that still reach the
+     * read-only tab while saving, such as undoing, keep the tab marked as modified.
+     *
+     * @param tab               The tab to save.
+     * @param file              The file to write.
+     * @param format            The encoding and line ending to write the file in.
+     * @param replaceUnmappable Whether characters the encoding cannot represent are replaced, which the user has agreed to.
+     */
+    private void writeFile(DocumentTab tab, File file, TextFormat format, boolean replaceUnmappable) {
+        if (saveWorker != null || tab.isBusy()) {
+            return; // The document is still being loaded or saved
+        }
+
+        FileSaveWorker worker = new FileSaveWorker(tab.getDocument(), file.toPath(), format, replaceUnmappable);
+        long changeCount = tab.getChangeCount();
+        TextEditorStatusBar statusBar = gui.getStatusBar();
+
+        worker.addPropertyChangeListener(e -> {
+            if ("progress".equals(e.getPropertyName())) {
+                statusBar.updateProgress((Integer) e.getNewValue());
+            }
+        });
+        worker.addPropertyChangeListener(e -> {
+            if ("state".equals(e.getPropertyName()) && e.getNewValue() == SwingWorker.StateValue.DONE) {
+                finishSaving(worker, tab, file, format, replaceUnmappable, changeCount);
+            }
+        });
+
+        saveWorker = worker;
+        savingTab = tab;
+        tabManager.setBusy(tab, true);
+        statusBar.showProgress("Speichere " + file.getName());
+        worker.execute();
+    }
+
+    /**
+     * Completes a background save on the EDT and reports the result to the user.
+     * If the document has been changed while saving, the tab stays modified and the journal
+     * keeps recording against its previous base, as the file lacks these changes. If the encoding
+     * cannot represent the text, the file is left as it was and the user is asked whether to save
+     * again with those characters replaced; the tab then shows the file as it has been written.
+     *
+     * @param worker            The finished save worker.
+     * @param tab               The tab that was saved.
+     * @param file              The file that was written.
+     * @param format            The format the file was written in.
+     * @param replaceUnmappable Whether characters the encoding cannot represent have been replaced.
+     * @param changeCount       The change count of the tab when the snapshot was taken.
+     */
+    private void finishSaving(FileSaveWorker worker, DocumentTab tab, File file, TextFormat format,
+                              boolean replaceUnmappable, long changeCount) {
+        saveWorker = null;
+        savingTab = null;
+        finishProgress();
+        tabManager.setBusy(tab, false);
+
+        try {
+            worker.get();
+            tab.setFile(file);
+            tab.setFormat(format);
+            refreshFormat(tab);
+            if (tab.getChangeCount() != changeCount) {
+                tabManager.refreshTitle(tab);
+            } else if (replaceUnmappable) {
+                // The file lacks the replaced characters, so the document is read again to show what has been saved
+                tabManager.markUnmodified(tab);
+                tabManager.reload(tab);
+            } else {
+                tabManager.markUnmodified(tab);
+                autosaveManager.startJournal(tab);
+            }
+            showInfoDialog("Speichern erfolgreich", (replaceUnmappable
+                    ? "Datei gespeichert, nicht darstellbare Zeichen wurden ersetzt:\n"
+                    : "Datei erfolgreich gespeichert:\n") + file.getAbsolutePath());
+        } catch (CancellationException exception) {
+            showInfoDialog("Speichern abgebrochen", "Die Datei wurde nicht verändert:\n" + file.getAbsolutePath());
+        } catch (InterruptedException | ExecutionException exception) {
+            Throwable cause = exception.getCause() != null ? exception.getCause() : exception;
+            if (cause instanceof CharacterCodingException && !replaceUnmappable) {
+                if (confirmReplaceUnmappable(format)) {
+                    writeFile(tab, file, format, true);
+                } else {
+                    showInfoDialog("Speichern abgebrochen", "Die Datei wurde nicht verändert:\n" + file.getAbsolutePath());
+                }
+                return;
+            }
+            showErrorDialog("Fehler beim Speichern der Datei", cause instanceof Exception ? (Exception) cause : exception);
+        }
+    }
+
+    /**
+     * Asks whether characters that an encoding cannot represent may be replaced when saving.
+     *
+     * @param format The format the file is saved in.
+     * @return True if the user agrees to the lossy save.
+     */
+    private boolean confirmReplaceUnmappable(TextFormat format) {
+        Object[] options = {"Ja", "Nein"};
+        int choice = JOptionPane.showOptionDialog(gui,
+                "Das Dokument enthält Zeichen, die in " + format.getEncodingName() + " nicht dargestellt werden können.\n"
+                        + "Die Datei wurde nicht verändert.\n"
+                        + "Sollen diese Zeichen durch Ersatzzeichen wie \"?\" ersetzt werden?",
+                "Zeichen nicht darstellbar", JOptionPane.YES_NO_OPTION, JOptionPane.WARNING_MESSAGE,
+                null, options, options[1]);
+        return choice == 0;
+    }
+
+    /**
+     * Cancels a running background save, leaving the target file unchanged.
+     */
+    public void cancelSaving() {
+        if (saveWorker != null) {
+            saveWorker.cancel(true);
+        }
+    }
+
+    /**
+     * Offers to restore the unsaved changes of previous sessions that did not end normally,
+     * each into a tab of its own, then starts recording the edits of the documents.
+     */
+    public void recoverUnsavedChanges() {
+        DocumentTab initialTab = tabManager.getActiveTab();
+        autosaveManager.startJournal(initialTab);
+
+        List<EditJournal.Recovery> recoveries = autosaveManager.readRecovery();
+        if (!recoveries.isEmpty()) {
+            StringBuilder sources = new StringBuilder();
+            for (EditJournal.Recovery recovery : recoveries) {
+                sources.append("\n").append(recovery.getFile() != null ? recovery.getFile().toString() : "Unbenannt");
+            }
+            Object[] options = {"Ja", "Nein"};
+            int choice = JOptionPane.showOptionDialog(gui,
+                    "Beim letzten Beenden gingen ungespeicherte Änderungen verloren:" + sources + "\n"
+                            + "Sollen sie wiederhergestellt werden?",
+                    "Wiederherstellen", JOptionPane.YES_NO_OPTION, JOptionPane.QUESTION_MESSAGE,
+                    null, options, options[0]);
+
+            boolean restored = false;
+            for (EditJournal.Recovery recovery : recoveries) {
+                if (choice == 0 && restore(recovery)) {
+                    restored = true;
+                } else if (recovery.isSwapped()) {
+                    deleteQuietly(recovery.getBase()); // The swapped-out text is no longer needed
+                }
+            }
+            if (restored && isUntouched(initialTab)) {
+                tabManager.close(initialTab);
+            }
         }
+        autosaveManager.discardRecovery();
     }
 
-    private void writeFile(File file) {
-        try (FileWriter writer = new FileWriter(file)) {
-            writer.write(gui.getTextArea().getText());
-            mainController.updateTitle(currentFile);
-            showInfoDialog("Speichern erfolgreich", "Datei erfolgreich gespeichert:\n" + file.getAbsolutePath());
+    /**
+     * Opens a new tab for the base file of a journal, which applies the recorded edits once the base
+     * has been loaded. The base is read in the background like any other file, by {@link #loadTab};
+     * an untitled document without base gets its edits right away. If the text had been swapped out,
+     * the swap file stays the base of the tab until it is saved.
+     *
+     * @param recovery The recorded edits.
+     * @return True if the changes are being restored.
+     */
+    private boolean restore(EditJournal.Recovery recovery) {
+        if (!recovery.isBaseUnchanged()) {
+            JOptionPane.showMessageDialog(gui, "Die Datei wurde seitdem verändert oder gelöscht:\n" + recovery.getBase(),
+                    "Wiederherstellen nicht möglich", JOptionPane.WARNING_MESSAGE);
+            return false;
+        }
+
+        DocumentTab tab = tabManager.addTab(recovery.getFile() != null ? recovery.getFile().toFile() : null);
+        // The text of the tab is read as it was read when the journal was started
+        tab.setFormat(recovery.getFile() != null && Files.exists(recovery.getFile())
+                ? detectFormat(recovery.getFile())
+                : TextFormat.DEFAULT);
+        tab.setSwapFile(recovery.isSwapped() ? recovery.getBase() : null);
+        if (recovery.getBase() != null) {
+            pendingRecoveries.put(tab, recovery);
+        }
+        tabManager.show(tab);
+        if (recovery.getBase() == null) {
+            replay(tab, recovery);
+        }
+        return true;
+    }
+
+    /**
+     * Applies the recorded edits of a journal to the loaded document of a tab. The journal of the tab
+     * has been started before, so the edits are recorded again.
+     *
+     * @param tab      The tab.
+     * @param recovery The recorded edits.
+     */
+    private void replay(DocumentTab tab, EditJournal.Recovery recovery) {
+        try {
+            recovery.replay(tab.getDocument());
+        } catch (BadLocationException exception) {
+            showErrorDialog("Fehler beim Wiederherstellen", exception);
+        }
+        tabManager.markModified(tab);
+    }
+
+    private static void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
         } catch (IOException exception) {
-            showErrorDialog("Fehler beim Speichern der Datei", exception);
+            exception.printStackTrace();
         }
     }
 
     /**
      * Prints the current document.
-     * Displays a print dialogue and sends the document to the printer.
+     * Displays a print dialogue and prints the document page by page in the background,
+     * with the font of the text area. The pages are printed from a snapshot of the document,
+     * so the document can be edited while printing without disturbing the printout.
      */
     public void printDocument() {
+        DocumentTab tab = tabManager.getActiveTab();
+        if (tab.isBusy()) {
+            return; // The document is still being loaded or saved
+        }
+
         PrinterJob printerJob = PrinterJob.getPrinterJob();
         printerJob.setJobName(gui.getTitle());
+        printerJob.setPrintable(new DocumentPrintable(DocumentSnapshot.of(tab.getDocument()), gui.getTextArea().getFont()));
 
-        printerJob.setPrintable((graphics, pageFormat, pageIndex) -> {
-            if (pageIndex > 0) {
-                return Printable.NO_SUCH_PAGE;
-            }
-
-            Graphics2D g2d = (Graphics2D) graphics;
-            g2d.translate(pageFormat.getImageableX(), pageFormat.getImageableY());
+        boolean canPrint = printerJob.printDialog(); // Display print dialogue
+        if (!canPrint) {
+            return;
+        }
 
-            try {
-                gui.getTextArea().printAll(graphics);
-            } catch (Exception exception) {
-                return Printable.NO_SUCH_PAGE;
+        new SwingWorker<Void, Void>() {
+            @Override
+            protected Void doInBackground() throws PrinterException {
+                printerJob.print();
+                return null;
             }
-            return Printable.PAGE_EXISTS;
-        });
 
-        boolean canPrint = printerJob.printDialog(); // Display print dialogue
-        if (canPrint) {
-            try {
-                printerJob.print();
-            } catch (PrinterException exception) {
-                showErrorDialog("Druckfehler", exception);
+            @Override
+            protected void done() {
+                try {
+                    get();
+                } catch (InterruptedException | ExecutionException exception) {
+                    Throwable cause = exception.getCause() != null ? exception.getCause() : exception;
+                    showErrorDialog("Druckfehler", cause instanceof Exception ? (Exception) cause : exception);
+                }
             }
-        }
+        }.execute();
     }
 
     /**
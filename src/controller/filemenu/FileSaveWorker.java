@@ -0,0 +1,242 @@
+package controller.filemenu;
+
+import model.DocumentSnapshot;
+import model.TextFormat;
+
+import javax.swing.*;
+import javax.swing.text.BadLocationException;
+import javax.swing.text.Document;
+import javax.swing.text.Segment;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.file.*;
+import java.nio.file.attribute.PosixFileAttributeView;
+import java.util.concurrent.CancellationException;
+
+/**
+ * Saves a document to a file in the background.
+ * <p>
+ * The text is read from the document in chunks, converted to the line ending of the target format,
+ * encoded with its charset behind its byte order mark, if it has one, and written through a
+ * {@link FileChannel} with a reusable direct buffer, so the text is never copied as a whole.
+ * It is written to a temporary file next to the target, which is forced to the disk and then
+ * moved over the target in one atomic step. If the target is a symbolic link, the file it points
+ * to is replaced and the link is kept. If the save fails or is cancelled, the original
+ * file stays untouched.
+ * </p>
+ * <p>
+ * Characters that the charset cannot represent fail the save with a {@link CharacterCodingException},
+ * unless the worker has been asked to replace them.
+ * </p>
+ * <p>
+ * The worker saves a {@link DocumentSnapshot} taken when it is constructed, so the saved file is the text
+ * at that moment, even if the document is edited while the file is being written.
+ * </p>
+ */
+public class FileSaveWorker extends SwingWorker<Void, Void> {
+
+    private static final int CHUNK_SIZE = 64 * 1024;
+
+    private final Document document;
+    private final Path path;
+    private final TextFormat format;
+    private final boolean replaceUnmappable;
+
+    /**
+     * Constructs a worker that saves the document to the given file with LF line endings.
+     *
+     * @param document The document to save.
+     * @param path     The target file.
+     * @param charset  The charset used to encode the text.
+     */
+    public FileSaveWorker(Document document, Path path, Charset charset) {
+        this(document, path, new TextFormat(charset, false, TextFormat.LineEnding.LF));
+    }
+
+    /**
+     * Constructs a worker that saves the document to the given file.
+     * Must be called on the EDT, where the snapshot of the document is taken.
+     *
+     * @param document The document to save.
+     * @param path     The target file.
+     * @param format   The encoding and line ending of the file.
+     */
+    public FileSaveWorker(Document document, Path path, TextFormat format) {
+        this(document, path, format, false);
+    }
+
+    /**
+     * Constructs a worker that saves the document to the given file.
+     * Must be called on the EDT, where the snapshot of the document is taken.
+     *
+     * @param document          The document to save.
+     * @param path              The target file.
+     * @param format            The encoding and line ending of the file.
+     * @param replaceUnmappable Whether characters the charset cannot represent are written as its
+     *                          replacement, e.g. '?', instead of failing the save.
+     */
+    public FileSaveWorker(Document document, Path path, TextFormat format, boolean replaceUnmappable) {
+        this.document = DocumentSnapshot.of(document);
+        this.path = path.toAbsolutePath();
+        this.format = format;
+        this.replaceUnmappable = replaceUnmappable;
+    }
+
+    /**
+     * Writes the document to a temporary file and moves it over the target.
+     *
+     * @return Nothing.
+     * @throws IOException          If the file cannot be written or the text cannot be encoded.
+     * @throws BadLocationException If the snapshot cannot be read.
+     */
+    @Override
+    protected Void doInBackground() throws IOException, BadLocationException {
+        // A file opened through a symbolic link is replaced where the link points to, so the link is kept
+        Path target = Files.exists(path) ? path.toRealPath() : path;
+        Path directory = target.getParent();
+        Path tempFile = Files.createTempFile(directory, "." + target.getFileName(), ".tmp");
+        boolean moved = false;
+
+        try {
+            writeDocument(tempFile);
+            copyPermissions(tempFile, target);
+            moveIntoPlace(tempFile, target);
+            moved = true;
+            forceDirectory(directory);
+        } finally {
+            if (!moved) {
+                Files.deleteIfExists(tempFile);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Encodes the document chunk by chunk into the given file and forces it to the disk.
+     *
+     * @param file The file to write.
+     */
+    private void writeDocument(Path file) throws IOException, BadLocationException {
+        CodingErrorAction action = replaceUnmappable ? CodingErrorAction.REPLACE : CodingErrorAction.REPORT;
+        CharsetEncoder encoder = format.getCharset().newEncoder()
+                .onMalformedInput(action)
+                .onUnmappableCharacter(action);
+        ByteBuffer bytes = ByteBuffer.allocateDirect(CHUNK_SIZE);
+        bytes.put(format.getByteOrderMark());
+        String separator = format.getLineEnding().getSeparator();
+        char[] converted = separator.equals("\n") ? null : new char[CHUNK_SIZE * separator.length()];
+        Segment segment = new Segment();
+        segment.setPartialReturn(true);
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            int length = document.getLength();
+            int offset = 0;
+
+            while (offset < length) {
+                if (isCancelled()) {
+                    throw new CancellationException("Speichern abgebrochen");
+                }
+                document.getText(offset, Math.min(CHUNK_SIZE, length - offset), segment);
+                int count = segment.count;
+                // A surrogate pair must not be split between two chunks
+                if (count > 1 && offset + count < length && Character.isHighSurrogate(segment.array[segment.offset + count - 1])) {
+                    count--;
+                }
+                offset += count;
+
+                CharBuffer chars = converted == null
+                        ? CharBuffer.wrap(segment.array, segment.offset, count)
+                        : CharBuffer.wrap(converted, 0, convertLineEnds(segment, count, separator, converted));
+                CoderResult result = encoder.encode(chars, bytes, offset == length);
+                while (result.isOverflow()) {
+                    writeBuffer(channel, bytes);
+                    result = encoder.encode(chars, bytes, offset == length);
+                }
+                if (result.isError()) {
+                    result.throwException();
+                }
+                setProgress((int) ((long) offset * 100 / length));
+            }
+
+            CoderResult result = encoder.encode(CharBuffer.allocate(0), bytes, true);
+            if (result.isError()) {
+                result.throwException();
+            }
+            while (encoder.flush(bytes).isOverflow()) {
+                writeBuffer(channel, bytes);
+            }
+            writeBuffer(channel, bytes);
+            channel.force(true);
+        }
+    }
+
+    /**
+     * Copies characters into the given array, replacing each line feed by the separator.
+     *
+     * @return The number of characters in the array.
+     */
+    private static int convertLineEnds(Segment segment, int count, String separator, char[] converted) {
+        int length = 0;
+        for (int i = segment.offset; i < segment.offset + count; i++) {
+            char c = segment.array[i];
+            if (c == '\n') {
+                for (int k = 0; k < separator.length(); k++) {
+                    converted[length++] = separator.charAt(k);
+                }
+            } else {
+                converted[length++] = c;
+            }
+        }
+        return length;
+    }
+
+    /**
+     * Writes the content of the buffer to the channel and clears the buffer for reuse.
+     */
+    private static void writeBuffer(FileChannel channel, ByteBuffer bytes) throws IOException {
+        bytes.flip();
+        while (bytes.hasRemaining()) {
+            channel.write(bytes);
+        }
+        bytes.clear();
+    }
+
+    /**
+     * Gives the new file the permissions of the file it replaces, where the file system supports them.
+     */
+    private static void copyPermissions(Path file, Path target) throws IOException {
+        if (Files.exists(target) && Files.getFileAttributeView(target, PosixFileAttributeView.class) != null) {
+            Files.setPosixFilePermissions(file, Files.getPosixFilePermissions(target));
+        }
+    }
+
+    /**
+     * Replaces the target with the written file, atomically if the file system allows it.
+     */
+    private static void moveIntoPlace(Path file, Path target) throws IOException {
+        try {
+            Files.move(file, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException exception) {
+            Files.move(file, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * Forces the directory entry of the moved file to the disk.
+     * Not every platform allows opening a directory, in which case this step is skipped.
+     */
+    private static void forceDirectory(Path directory) {
+        try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException exception) {
+            // The file itself has been forced already
+        }
+    }
+}
@@ -0,0 +1,254 @@
+package controller.filemenu;
+
+import gui.TextEditorMainGUI;
+import model.FileTail;
+import model.PieceTableDocument;
+import model.UndoHistory;
+
+import javax.swing.*;
+import javax.swing.text.BadLocationException;
+import javax.swing.text.Document;
+import javax.swing.text.Element;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Follows files that are still being written, like {@code tail -f}.
+ * <p>
+ * A followed tab shows the last lines of its file and is read-only. A background thread polls the
+ * file twice a second and reads only the appended bytes through a {@link FileTail}; the text read
+ * between two updates of the text area is appended to the document in one batch. The document keeps
+ * at most the last {@code -Dtexteditor.followMaxLines} lines (100 000 by default), removing the oldest
+ * ones like a ring buffer. As the piece table keeps the text of small insertions, the document is
+ * rebuilt from its retained lines once much more text has passed through it, so the memory used by a
+ * followed tab stays constant however long the file grows.
+ * </p>
+ */
+public class FollowManager {
+
+    private static final long POLL_INTERVAL_MILLIS = 500;
+    private static final int INITIAL_TAIL_BYTES = 1024 * 1024;
+    private static final int MAX_POLL_BYTES = 1024 * 1024;
+    private static final int MAX_PENDING_CHARS = 4 * 1024 * 1024;
+    private static final int MAX_LINES = Integer.getInteger("texteditor.followMaxLines", 100_000);
+
+    private final TextEditorMainGUI gui;
+    private final TabManager tabManager;
+    private final Map<DocumentTab, Follower> followers = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService poller;
+
+    /**
+     * Constructs the follow manager and its background thread.
+     *
+     * @param gui        The main GUI of the text editor.
+     * @param tabManager The tab manager holding the followed documents.
+     */
+    public FollowManager(TextEditorMainGUI gui, TabManager tabManager) {
+        this.gui = gui;
+        this.tabManager = tabManager;
+
+        poller = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "Follow");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * The state of one followed tab, shared between the polling thread and the EDT.
+     */
+    private class Follower implements Runnable {
+        final DocumentTab tab;
+        final FileTail tail;
+        final StringBuilder pending = new StringBuilder();
+        final AtomicBoolean flushScheduled = new AtomicBoolean(false);
+        boolean restarted = false;
+        long charsSinceRebuild = 0;
+        ScheduledFuture<?> task;
+
+        Follower(DocumentTab tab, FileTail tail) {
+            this.tab = tab;
+            this.tail = tail;
+        }
+
+        /**
+         * Reads the appended text on the polling thread. While the EDT has not taken the previous text,
+         * at most {@link #MAX_PENDING_CHARS} are collected; the rest stays in the file until then.
+         */
+        @Override
+        public void run() {
+            try {
+                synchronized (pending) {
+                    if (pending.length() >= MAX_PENDING_CHARS) {
+                        return;
+                    }
+                }
+                String text = tail.poll(MAX_POLL_BYTES);
+                synchronized (pending) {
+                    if (tail.hasRestarted()) {
+                        pending.setLength(0);
+                        restarted = true;
+                    }
+                    pending.append(text);
+                }
+                if ((restarted || !text.isEmpty()) && flushScheduled.compareAndSet(false, true)) {
+                    SwingUtilities.invokeLater(() -> flush(this));
+                }
+            } catch (IOException exception) {
+                System.err.println("Fehler beim Verfolgen von " + tab.getFile() + ": " + exception.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Returns whether a tab is being followed.
+     *
+     * @param tab The tab.
+     * @return True if the tab follows its file.
+     */
+    public boolean isFollowing(DocumentTab tab) {
+        return followers.containsKey(tab);
+    }
+
+    /**
+     * Starts following the file of a tab. The document is replaced by the last lines of the file
+     * and the tab stays read-only until following stops.
+     *
+     * @param tab The tab, which must be bound to a file and have no unsaved changes.
+     * @throws IOException If the file cannot be read.
+     */
+    public void start(DocumentTab tab) throws IOException {
+        if (isFollowing(tab)) {
+            return;
+        }
+        Charset charset = tab.getFormat() != null ? tab.getFormat().getCharset() : StandardCharsets.UTF_8;
+        Follower follower = new Follower(tab, FileTail.ofLastBytes(tab.getFile().toPath(), charset, INITIAL_TAIL_BYTES));
+        tabManager.setLoading(tab, true);
+        replaceDocument(tab, new PieceTableDocument());
+        followers.put(tab, follower);
+        follower.task = poller.scheduleWithFixedDelay(follower, 0, POLL_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Stops following a tab. Its document only holds the last lines of the file, so it is dropped
+     * and, if requested, the complete file is read again, with the caret at its end.
+     *
+     * @param tab    The tab.
+     * @param reload Whether to read the file again; false if the tab is being closed.
+     */
+    public void stop(DocumentTab tab, boolean reload) {
+        Follower follower = followers.remove(tab);
+        if (follower == null) {
+            return;
+        }
+        follower.task.cancel(false);
+        tabManager.setLoading(tab, false);
+        tab.setCaretPosition(Integer.MAX_VALUE);
+        if (reload) {
+            tabManager.reload(tab);
+        }
+    }
+
+    /**
+     * Appends the text read since the last update to the document, on the EDT.
+     * The caret stays on its text unless auto-scrolling is enabled, which moves it to the end.
+     *
+     * @param follower The follower whose text is appended.
+     */
+    private void flush(Follower follower) {
+        follower.flushScheduled.set(false);
+        if (followers.get(follower.tab) != follower) {
+            return; // Following has stopped
+        }
+
+        String text;
+        boolean restarted;
+        synchronized (follower.pending) {
+            text = follower.pending.toString();
+            restarted = follower.restarted;
+            follower.pending.setLength(0);
+            follower.restarted = false;
+        }
+
+        DocumentTab tab = follower.tab;
+        JTextArea textArea = gui.getTextArea();
+        boolean shown = tab == tabManager.getActiveTab();
+        boolean autoScroll = gui.getAutoScrollItem().isSelected();
+        Document document = tab.getDocument();
+        int caret = shown ? textArea.getCaretPosition() : tab.getCaretPosition();
+
+        try {
+            if (restarted) {
+                caret = 0;
+                follower.charsSinceRebuild = 0;
+                document = replaceDocument(tab, new PieceTableDocument());
+            }
+            document.insertString(document.getLength(), text, null);
+            follower.charsSinceRebuild += text.length();
+            caret -= trimLines(document);
+
+            if (follower.charsSinceRebuild > 2L * document.getLength() + MAX_POLL_BYTES) {
+                Document rebuilt = new PieceTableDocument();
+                rebuilt.insertString(0, document.getText(0, document.getLength()), null);
+                follower.charsSinceRebuild = 0;
+                document = replaceDocument(tab, rebuilt);
+            } else {
+                Object history = document.getProperty(UndoHistory.class);
+                if (history instanceof UndoHistory) {
+                    ((UndoHistory) history).discardAllEdits();
+                }
+            }
+        } catch (BadLocationException exception) {
+            exception.printStackTrace();
+        }
+
+        caret = autoScroll ? document.getLength() : Math.max(0, Math.min(caret, document.getLength()));
+        tab.setCaretPosition(caret);
+        if (shown) {
+            textArea.setCaretPosition(caret);
+        }
+    }
+
+    /**
+     * Removes the oldest lines beyond the limit from the start of the document.
+     *
+     * @param document The document.
+     * @return The number of characters removed.
+     * @throws BadLocationException If the document is changed concurrently.
+     */
+    private static int trimLines(Document document) throws BadLocationException {
+        Element root = document.getDefaultRootElement();
+        int excess = root.getElementCount() - MAX_LINES;
+        if (excess <= 0) {
+            return 0;
+        }
+        int removed = root.getElement(excess - 1).getEndOffset();
+        document.remove(0, removed);
+        return removed;
+    }
+
+    /**
+     * Replaces the document of a followed tab, closing the undo history of the previous one.
+     * Followed text cannot be edited, so the appended and removed lines are never kept for undo.
+     *
+     * @param tab      The tab.
+     * @param document The new document.
+     * @return The new document.
+     */
+    private Document replaceDocument(DocumentTab tab, Document document) {
+        Object history = tab.getDocument().getProperty(UndoHistory.class);
+        if (history instanceof UndoHistory) {
+            ((UndoHistory) history).close();
+        }
+        tabManager.setDocument(tab, document);
+        return document;
+    }
+}
@@ -0,0 +1,38 @@
+package controller.filemenu;
+
+import model.PieceTableDocument;
+
+import javax.swing.*;
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Opens a large file as a memory-mapped {@link PieceTableDocument} in the background.
+ * The worker only scans the file once to build the line structure; the text itself
+ * stays in the mapping. The result is null if the file cannot be mapped character
+ * by character, in which case the caller falls back to a {@link FileLoadWorker}.
+ */
+public class MappedFileLoadWorker extends SwingWorker<PieceTableDocument, Void> {
+
+    private final Path path;
+
+    /**
+     * Constructs a worker that maps the given file.
+     *
+     * @param path The file to map.
+     */
+    public MappedFileLoadWorker(Path path) {
+        this.path = path;
+    }
+
+    /**
+     * Maps the file and builds the document.
+     *
+     * @return The mapped document, or null if the file contains non-ASCII characters or carriage returns.
+     * @throws IOException If the file cannot be mapped.
+     */
+    @Override
+    protected PieceTableDocument doInBackground() throws IOException {
+        return PieceTableDocument.map(path, this::setProgress);
+    }
+}
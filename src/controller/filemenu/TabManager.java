@@ -0,0 +1,548 @@
+package controller.filemenu;
+
+import controller.TextEditorMainController;
+import gui.TextEditorMainGUI;
+import model.PieceTableDocument;
+import model.UndoHistory;
+
+import javax.swing.*;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
+import javax.swing.text.Document;
+import java.awt.*;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Consumer;
+
+/**
+ * Manages the open documents, each shown in a tab of the editor window.
+ * <p>
+ * All tabs share the text area of the window; switching tabs swaps its document, so the caret,
+ * undo history and file binding belong to each document. A tab opened in the background only
+ * keeps its file until it is shown for the first time, when the loader reads it.
+ * The estimated heap usage of all tabs is limited ({@code -Dtexteditor.tabBudgetMB}, 256 MB by default):
+ * above the limit, the documents of the tabs shown least recently are dropped. Tabs without changes
+ * are simply read again when shown; tabs with unsaved changes are first written to a swap file.
+ * </p>
+ */
+public class TabManager {
+
+    private static final long MEGABYTE = 1024 * 1024;
+    private static final long BYTES_PER_LINE = 96;
+
+    private final TextEditorMainGUI gui;
+    private final TextEditorMainController mainController;
+    private final AutosaveManager autosaveManager;
+    private final Consumer<DocumentTab> loader;
+    private final long heapBudget;
+    private final Path swapDirectory;
+    private final List<DocumentTab> tabs = new ArrayList<>();
+    private final List<Consumer<DocumentTab>> activationListeners = new ArrayList<>();
+    private final Map<Component, DocumentTab> tabsByComponent = new HashMap<>();
+    private final Map<DocumentTab, Component> componentsByTab = new HashMap<>();
+    private final DocumentListener modificationListener;
+    private DocumentTab activeTab;
+    private long showCount = 0;
+    private int swapCount = 0;
+    private boolean selecting = false;
+
+    /**
+     * Constructs the tab manager with one empty tab holding the current document of the text area.
+     *
+     * @param gui             The main GUI of the text editor.
+     * @param mainController  The main controller, which shows the name of the active file.
+     * @param autosaveManager The autosave manager recording the edits of each tab.
+     * @param loader          Reads the document of a tab that is shown but not in memory.
+     */
+    public TabManager(TextEditorMainGUI gui, TextEditorMainController mainController,
+                      AutosaveManager autosaveManager, Consumer<DocumentTab> loader) {
+        this.gui = gui;
+        this.mainController = mainController;
+        this.autosaveManager = autosaveManager;
+        this.loader = loader;
+        this.heapBudget = Long.getLong("texteditor.tabBudgetMB", 256) * MEGABYTE;
+        this.swapDirectory = AutosaveManager.defaultDirectory().resolve("swap");
+
+        modificationListener = new DocumentListener() {
+            @Override
+            public void insertUpdate(DocumentEvent e) { documentChanged(e.getDocument()); }
+            @Override
+            public void removeUpdate(DocumentEvent e) { documentChanged(e.getDocument()); }
+            @Override
+            public void changedUpdate(DocumentEvent e) { }
+        };
+
+        gui.getDocumentTabs().addChangeListener(e -> {
+            DocumentTab selectedTab = tabsByComponent.get(gui.getDocumentTabs().getSelectedComponent());
+            if (!selecting && selectedTab != null && selectedTab != activeTab) {
+                show(selectedTab);
+            }
+        });
+
+        DocumentTab firstTab = addTab(null);
+        setDocument(firstTab, gui.getTextArea().getDocument());
+        activeTab = firstTab;
+        firstTab.setLastShown(++showCount);
+    }
+
+    /**
+     * Returns the position of a tab in the tab strip.
+     *
+     * @param tab The tab.
+     * @return The index, or -1 if the tab has been closed.
+     */
+    private int indexOf(DocumentTab tab) {
+        Component component = componentsByTab.get(tab);
+        return component != null ? gui.getDocumentTabs().indexOfComponent(component) : -1;
+    }
+
+    /**
+     * Adds a tab for the given file without reading it.
+     *
+     * @param file The file, or null for a new, untitled document.
+     * @return The new tab.
+     */
+    public DocumentTab addTab(File file) {
+        DocumentTab tab = new DocumentTab(file);
+        // The tabs only show the names of the documents; the shared text area is placed below them
+        JPanel placeholder = new JPanel();
+        placeholder.setPreferredSize(new Dimension(0, 0));
+        tabs.add(tab);
+        tabsByComponent.put(placeholder, tab);
+        componentsByTab.put(tab, placeholder);
+        runSelecting(() -> gui.getDocumentTabs().addTab(tab.getTitle(), placeholder));
+        refreshTitle(tab);
+        return tab;
+    }
+
+    /**
+     * Returns the tab bound to the given file.
+     *
+     * @param file The file.
+     * @return The tab, or null if the file is not open.
+     */
+    public DocumentTab findTab(File file) {
+        for (DocumentTab tab : tabs) {
+            if (tab.getFile() != null && tab.getFile().getAbsoluteFile().equals(file.getAbsoluteFile())) {
+                return tab;
+            }
+        }
+        return null;
+    }
+
+    public DocumentTab getActiveTab() { return activeTab; }
+
+    /**
+     * Returns the open tabs in the order they are shown.
+     *
+     * @return The tabs.
+     */
+    public List<DocumentTab> getTabs() {
+        return new ArrayList<>(tabs);
+    }
+
+    /**
+     * Shows a tab in the text area, reading its document first if it is not in memory.
+     * The caret position of the previous tab is kept, so it is restored when that tab is shown again.
+     *
+     * @param tab The tab to show.
+     */
+    public void show(DocumentTab tab) {
+        JTextArea textArea = gui.getTextArea();
+        if (activeTab != null && activeTab != tab && activeTab.isLoaded()) {
+            activeTab.setCaretPosition(textArea.getCaretPosition());
+        }
+        activeTab = tab;
+        tab.setLastShown(++showCount);
+
+        if (!tab.isLoaded()) {
+            if (tab.getFile() == null && tab.getSwapFile() == null) {
+                setDocument(tab, new PieceTableDocument());
+                autosaveManager.startJournal(tab);
+            } else {
+                loader.accept(tab);
+            }
+        }
+        if (textArea.getDocument() != tab.getDocument()) {
+            textArea.setDocument(tab.getDocument());
+        }
+        restoreCaret(tab);
+        textArea.setEditable(!tab.isBusy());
+
+        runSelecting(() -> gui.getDocumentTabs().setSelectedComponent(componentsByTab.get(tab)));
+        if (mainController != null) {
+            mainController.updateTitle(tab.getFile());
+        }
+        for (Consumer<DocumentTab> listener : activationListeners) {
+            listener.accept(tab);
+        }
+        evictIfNeeded();
+    }
+
+    /**
+     * Registers a listener that is notified whenever a tab is shown.
+     *
+     * @param listener Receives the tab shown.
+     */
+    public void addActivationListener(Consumer<DocumentTab> listener) {
+        activationListeners.add(listener);
+    }
+
+    /**
+     * Drops the document of a tab and reads it again from its file if the tab is shown.
+     *
+     * @param tab The tab.
+     */
+    void reload(DocumentTab tab) {
+        releaseDocument(tab);
+        if (tab == activeTab) {
+            show(tab);
+        }
+    }
+
+    /**
+     * Moves the caret of the text area to the position stored for a tab, if the tab is shown.
+     *
+     * @param tab The tab.
+     */
+    void restoreCaret(DocumentTab tab) {
+        if (tab == activeTab && tab.isLoaded()) {
+            gui.getTextArea().setCaretPosition(Math.min(tab.getCaretPosition(), tab.getDocument().getLength()));
+        }
+    }
+
+    /**
+     * Sets the document of a tab and shows it in the text area if the tab is active.
+     *
+     * @param tab      The tab.
+     * @param document The document, or null to drop the text of the tab.
+     */
+    void setDocument(DocumentTab tab, Document document) {
+        Document previous = tab.getDocument();
+        if (previous != null && previous != document) {
+            previous.removeDocumentListener(modificationListener);
+            previous.putProperty(DocumentTab.class, null);
+        }
+        tab.setDocument(document);
+        if (document != null && previous != document) {
+            document.putProperty(DocumentTab.class, tab);
+            document.addDocumentListener(modificationListener);
+            if (tab == activeTab) {
+                gui.getTextArea().setDocument(document);
+            }
+        }
+    }
+
+    /**
+     * Marks a tab as busy while a background task reads or writes its document.
+     * A busy tab is read-only and is never evicted.
+     *
+     * @param tab  The tab.
+     * @param busy Whether a task is running.
+     */
+    void setBusy(DocumentTab tab, boolean busy) {
+        tab.setBusy(busy);
+        if (tab == activeTab) {
+            gui.getTextArea().setEditable(!busy);
+        }
+    }
+
+    /**
+     * Marks a tab as busy while a background task fills its document from its file.
+     * The changes made by the task do not mark the tab as modified.
+     *
+     * @param tab     The tab.
+     * @param loading Whether the task is running.
+     */
+    void setLoading(DocumentTab tab, boolean loading) {
+        tab.setLoading(loading);
+        setBusy(tab, loading);
+    }
+
+    /**
+     * Records that the document of a tab matches its file, after it has been loaded from or saved to the file.
+     *
+     * @param tab The tab.
+     */
+    void markUnmodified(DocumentTab tab) {
+        tab.setModified(false);
+        deleteSwapFile(tab);
+        refreshTitle(tab);
+    }
+
+    /**
+     * Clears the undo history of a freshly loaded document, so loading cannot be undone.
+     *
+     * @param tab The tab.
+     */
+    void discardHistory(DocumentTab tab) {
+        Object history = tab.getDocument() != null ? tab.getDocument().getProperty(UndoHistory.class) : null;
+        if (history instanceof UndoHistory) {
+            ((UndoHistory) history).discardAllEdits();
+        }
+    }
+
+    /**
+     * Marks a tab as having unsaved changes.
+     *
+     * @param tab The tab.
+     */
+    void markModified(DocumentTab tab) {
+        if (!tab.isModified()) {
+            tab.setModified(true);
+            refreshTitle(tab);
+        }
+    }
+
+    /**
+     * Updates the name shown on a tab and, for the active tab, the window title.
+     *
+     * @param tab The tab.
+     */
+    void refreshTitle(DocumentTab tab) {
+        int index = indexOf(tab);
+        if (index < 0) {
+            return;
+        }
+        gui.getDocumentTabs().setTitleAt(index, tab.getTitle());
+        gui.getDocumentTabs().setToolTipTextAt(index, tab.getFile() != null ? tab.getFile().getAbsolutePath() : null);
+        if (tab == activeTab && mainController != null) {
+            mainController.updateTitle(tab.getFile());
+        }
+    }
+
+    /**
+     * Closes a tab, discarding its document, history, journal and swap file.
+     * The neighbouring tab is shown instead; closing the last tab opens an empty one.
+     *
+     * @param tab The tab to close.
+     */
+    void close(DocumentTab tab) {
+        int index = tabs.indexOf(tab);
+        if (index < 0) {
+            return;
+        }
+        autosaveManager.closeJournal(tab);
+        releaseDocument(tab);
+        deleteSwapFile(tab);
+        tabs.remove(index);
+        Component component = componentsByTab.remove(tab);
+        tabsByComponent.remove(component);
+        runSelecting(() -> gui.getDocumentTabs().remove(component));
+
+        if (tab == activeTab) {
+            activeTab = null;
+            show(tabs.isEmpty() ? addTab(null) : tabs.get(Math.min(index, tabs.size() - 1)));
+        }
+    }
+
+    /**
+     * Deletes the swap files of all tabs when the editor is closed normally.
+     */
+    void deleteSwapFiles() {
+        for (DocumentTab tab : tabs) {
+            deleteSwapFile(tab);
+        }
+    }
+
+    /**
+     * Returns the estimated heap usage of a tab: the characters held on the heap, the line elements
+     * of the document and the edits kept in memory by its undo history.
+     *
+     * @param tab The tab.
+     * @return The estimate in bytes, or 0 if the document is not in memory.
+     */
+    public long getHeapEstimate(DocumentTab tab) {
+        Document document = tab.getDocument();
+        if (document == null) {
+            return 0;
+        }
+        boolean mapped = document instanceof PieceTableDocument && ((PieceTableDocument) document).getMappedPath() != null;
+        long estimate = mapped ? 0 : 2L * document.getLength();
+        estimate += BYTES_PER_LINE * document.getDefaultRootElement().getElementCount();
+        Object history = document.getProperty(UndoHistory.class);
+        if (history instanceof UndoHistory) {
+            estimate += ((UndoHistory) history).getMemoryBytes();
+        }
+        return estimate;
+    }
+
+    /**
+     * Returns the estimated heap usage of all tabs.
+     *
+     * @return The estimate in bytes.
+     */
+    public long getHeapEstimate() {
+        long total = 0;
+        for (DocumentTab tab : tabs) {
+            total += getHeapEstimate(tab);
+        }
+        return total;
+    }
+
+    /**
+     * Drops the documents of the tabs shown least recently while the tabs use more than the heap budget.
+     * The active tab and busy tabs are kept.
+     */
+    void evictIfNeeded() {
+        long total = getHeapEstimate();
+        while (total > heapBudget) {
+            DocumentTab victim = null;
+            for (DocumentTab tab : tabs) {
+                if (tab != activeTab && tab.isLoaded() && !tab.isBusy()
+                        && (victim == null || tab.getLastShown() < victim.getLastShown())) {
+                    victim = tab;
+                }
+            }
+            if (victim == null) {
+                return;
+            }
+            total -= getHeapEstimate(victim);
+            evict(victim);
+        }
+    }
+
+    /**
+     * Drops the document of a tab. Unsaved changes are written to a swap file first, in the background.
+     *
+     * @param tab The tab to evict.
+     */
+    private void evict(DocumentTab tab) {
+        if (!tab.isModified()) {
+            autosaveManager.closeJournal(tab);
+            releaseDocument(tab);
+            return;
+        }
+
+        // Every swap gets a file of its own, so the swap file the journal is based on stays intact until it is replaced
+        Path swapFile = swapDirectory.resolve("tab-" + ProcessHandle.current().pid() + "-" + tab.getId() + "-" + ++swapCount + ".txt");
+        try {
+            Files.createDirectories(swapDirectory);
+        } catch (IOException exception) {
+            exception.printStackTrace();
+            return; // The tab stays in memory
+        }
+
+        // The worker writes a snapshot, so the swap file holds the text as it is now
+        FileSaveWorker worker = new FileSaveWorker(tab.getDocument(), swapFile, StandardCharsets.UTF_8);
+        long changeCount = tab.getChangeCount();
+        worker.addPropertyChangeListener(e -> {
+            if ("state".equals(e.getPropertyName()) && e.getNewValue() == SwingWorker.StateValue.DONE) {
+                finishSwapping(worker, tab, swapFile, changeCount);
+            }
+        });
+        setBusy(tab, true);
+        worker.execute();
+    }
+
+    /**
+     * Completes writing a swap file on the EDT. The document is dropped unless the tab has been
+     * shown again in the meantime. If the document has been changed since the snapshot was taken,
+     * for example by undoing after the tab was shown again, the swap file is outdated: it is deleted
+     * and the tab stays in memory.
+     *
+     * @param worker      The finished save worker.
+     * @param tab         The evicted tab.
+     * @param swapFile    The swap file.
+     * @param changeCount The change count of the tab when the snapshot was taken.
+     */
+    private void finishSwapping(FileSaveWorker worker, DocumentTab tab, Path swapFile, long changeCount) {
+        setBusy(tab, false);
+        if (!tabs.contains(tab)) {
+            deleteQuietly(swapFile); // Closed while swapping
+            return;
+        }
+        try {
+            worker.get();
+        } catch (CancellationException | InterruptedException | ExecutionException exception) {
+            exception.printStackTrace();
+            return; // The tab stays in memory
+        }
+        if (tab.getChangeCount() != changeCount) {
+            deleteQuietly(swapFile);
+            return; // The tab stays in memory
+        }
+
+        Path previousSwapFile = tab.getSwapFile();
+        tab.setSwapFile(swapFile);
+        if (tab != activeTab) {
+            releaseDocument(tab);
+        }
+        autosaveManager.startJournal(tab);
+        if (previousSwapFile != null) {
+            deleteQuietly(previousSwapFile); // The journal is based on the new swap file now
+        }
+    }
+
+    /**
+     * Drops the document of a tab together with its undo history.
+     *
+     * @param tab The tab.
+     */
+    private void releaseDocument(DocumentTab tab) {
+        Document document = tab.getDocument();
+        if (document == null) {
+            return;
+        }
+        if (tab != activeTab) {
+            tab.setCaretPosition(Math.min(tab.getCaretPosition(), document.getLength()));
+        }
+        Object history = document.getProperty(UndoHistory.class);
+        if (history instanceof UndoHistory) {
+            ((UndoHistory) history).close();
+            document.putProperty(UndoHistory.class, null);
+        }
+        setDocument(tab, null);
+    }
+
+    private void deleteSwapFile(DocumentTab tab) {
+        if (tab.getSwapFile() != null) {
+            deleteQuietly(tab.getSwapFile());
+            tab.setSwapFile(null);
+        }
+    }
+
+    private static void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException exception) {
+            exception.printStackTrace();
+        }
+    }
+
+    /**
+     * Counts every change of a document and marks its tab as modified on the first one. Changes made while
+     * a background task loads the document do not count as edits; those made while it is saved or printed do,
+     * as the task works on a snapshot.
+     */
+    private void documentChanged(Document document) {
+        Object tab = document.getProperty(DocumentTab.class);
+        if (tab instanceof DocumentTab) {
+            ((DocumentTab) tab).countChange();
+            if (!((DocumentTab) tab).isLoading()) {
+                markModified((DocumentTab) tab);
+            }
+        }
+    }
+
+    /**
+     * Changes the tab strip without treating the resulting selection events as a tab switch by the user.
+     */
+    private void runSelecting(Runnable change) {
+        selecting = true;
+        try {
+            change.run();
+        } finally {
+            selecting = false;
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package gui;
+
+import model.MatchPositions;
+
+import javax.swing.text.BadLocationException;
+import javax.swing.text.Highlighter;
+import javax.swing.text.JTextComponent;
+import java.awt.*;
+import java.awt.geom.Rectangle2D;
+
+/**
+ * Paints all search matches of a {@link MatchPositions} list with one highlight.
+ * <p>
+ * The painter is registered once for the whole document. When painting, it looks up the
+ * matches lying in the area being repainted and paints only those, so the cost of a repaint
+ * depends on the number of visible matches, not on the number of matches in the document.
+ * </p>
+ */
+public class AllMatchesHighlightPainter implements Highlighter.HighlightPainter {
+
+    private final Color color;
+    private MatchPositions matches = new MatchPositions();
+
+    /**
+     * Constructs a painter using the given colour.
+     *
+     * @param color The background colour of the matches.
+     */
+    public AllMatchesHighlightPainter(Color color) {
+        this.color = color;
+    }
+
+    /**
+     * Sets the matches to paint.
+     *
+     * @param matches The matches.
+     */
+    public void setMatches(MatchPositions matches) {
+        this.matches = matches;
+    }
+
+    /**
+     * Returns the painted matches.
+     *
+     * @return The matches.
+     */
+    public MatchPositions getMatches() {
+        return matches;
+    }
+
+    @Override
+    public void paint(Graphics g, int p0, int p1, Shape bounds, JTextComponent c) {
+        Rectangle area = g.getClipBounds() != null ? g.getClipBounds().intersection(c.getVisibleRect()) : c.getVisibleRect();
+        if (area.isEmpty() || matches.size() == 0) {
+            return;
+        }
+
+        int first = c.viewToModel2D(new Point(area.x, area.y));
+        int last = c.viewToModel2D(new Point(area.x + area.width, area.y + area.height));
+        Insets insets = c.getInsets();
+        int left = insets.left;
+        int right = c.getWidth() - insets.right;
+        g.setColor(color);
+
+        try {
+            for (int i = matches.indexOfFirstEndingAt(first); i < matches.size() && matches.getStart(i) <= last; i++) {
+                paintMatch(g, c, matches.getStart(i), matches.getEnd(i), left, right);
+            }
+        } catch (BadLocationException exception) {
+            // The matches are updated after the view; the next repaint shows them correctly
+        }
+    }
+
+    /**
+     * Paints the background of one match, which may span several lines.
+     */
+    private void paintMatch(Graphics g, JTextComponent c, int start, int end, int left, int right)
+            throws BadLocationException {
+        Rectangle2D startRect = c.modelToView2D(start);
+        Rectangle2D endRect = c.modelToView2D(end);
+        int startY = (int) startRect.getY();
+        int endY = (int) endRect.getY();
+        int height = (int) startRect.getHeight();
+
+        if (startY == endY) {
+            int width = Math.max((int) (endRect.getX() - startRect.getX()), 1);
+            g.fillRect((int) startRect.getX(), startY, width, height);
+            return;
+        }
+        g.fillRect((int) startRect.getX(), startY, right - (int) startRect.getX(), height);
+        if (endY > startY + height) {
+            g.fillRect(left, startY + height, right - left, endY - startY - height);
+        }
+        g.fillRect(left, endY, (int) endRect.getX() - left, (int) endRect.getHeight());
+    }
+}
@@ -0,0 +1,274 @@
+package gui;
+
+import javax.imageio.ImageIO;
+import javax.swing.*;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Loads the icons of the editor from the classpath and keeps them pre-rendered for every display scale.
+ * <p>
+ * An icon is read from {@code /icons/<name>} on the classpath, so it is found wherever the editor is started from;
+ * only a build without the resources falls back to {@code assets/icons} in the working directory. The icons are
+ * decoded in parallel, and each is rendered once for every scale of the connected screens (for example 1.0 and
+ * 1.5 for a second monitor at 150 %) into a {@link BufferedImage} of exactly the size it covers on that screen.
+ * Painting an icon draws the variant for the scale of the graphics pixel for pixel, so it stays sharp on HiDPI
+ * screens and is never scaled while painting. A variant for a scale that has not been rendered yet, such as after
+ * the window has been moved to another screen, is rendered on its first paint and cached from then on.
+ * </p>
+ */
+public final class IconCache {
+
+    private static final String RESOURCE_DIRECTORY = "/icons/";
+    private static final String FALLBACK_DIRECTORY = "assets/icons/";
+    private static final IconCache SHARED = new IconCache();
+
+    private final ConcurrentHashMap<Variant, BufferedImage> variants = new ConcurrentHashMap<>();
+    private final Set<String> loading = ConcurrentHashMap.newKeySet();
+    private final Set<String> missing = ConcurrentHashMap.newKeySet();
+    private final ExecutorService decoder;
+
+    /**
+     * Constructs an empty cache decoding on as many threads as there are processors.
+     */
+    IconCache() {
+        AtomicInteger threadNumber = new AtomicInteger();
+        decoder = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(), task -> {
+            Thread thread = new Thread(task, "Icon-Decoder-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Returns the cache shared by all components of the editor.
+     *
+     * @return The shared cache.
+     */
+    public static IconCache getShared() {
+        return SHARED;
+    }
+
+    /**
+     * Returns an icon of the given size. It can be used right away; until its image has been loaded, it paints nothing.
+     *
+     * @param name The file name of the icon, e.g. "print-solid.png".
+     * @param size The width and height of the icon in user space.
+     * @return The icon.
+     */
+    public Icon getIcon(String name, int size) {
+        return new CachedIcon(name, size);
+    }
+
+    /**
+     * Decodes icons in parallel and renders them for the scales of all screens.
+     *
+     * @param names The file names of the icons.
+     * @param size  The width and height of the icons in user space.
+     * @return A future completed once all icons have been rendered or found missing.
+     */
+    public CompletableFuture<Void> preload(Collection<String> names, int size) {
+        Set<Double> scales = screenScales();
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+        for (String name : names) {
+            loading.add(name);
+            futures.add(CompletableFuture.runAsync(() -> {
+                try {
+                    render(name, size, scales);
+                } finally {
+                    loading.remove(name);
+                }
+            }, decoder));
+        }
+        return CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0]));
+    }
+
+    /**
+     * Returns the image of an icon for a scale, rendering it if the icon is not being loaded in the background.
+     *
+     * @return The image, or null if the icon is still loading or cannot be read.
+     */
+    BufferedImage getImage(String name, int size, double scale) {
+        BufferedImage image = variants.get(new Variant(name, size, scale));
+        if (image == null && !loading.contains(name) && !missing.contains(name)) {
+            render(name, size, Set.of(scale));
+            image = variants.get(new Variant(name, size, scale));
+        }
+        return image;
+    }
+
+    /**
+     * Decodes an icon once and renders it for each of the given scales.
+     */
+    private void render(String name, int size, Set<Double> scales) {
+        BufferedImage source;
+        try {
+            source = read(name);
+        } catch (IOException exception) {
+            if (missing.add(name)) {
+                System.err.println("Symbol kann nicht geladen werden: " + name + " (" + exception.getMessage() + ")");
+            }
+            return;
+        }
+        for (double scale : scales) {
+            int pixels = (int) Math.ceil(size * scale);
+            variants.putIfAbsent(new Variant(name, size, scale), scale(source, pixels));
+        }
+    }
+
+    /**
+     * Reads an icon from the classpath, or from the working directory if the resources are not on the classpath.
+     */
+    private static BufferedImage read(String name) throws IOException {
+        URL resource = IconCache.class.getResource(RESOURCE_DIRECTORY + name);
+        BufferedImage image;
+        if (resource != null) {
+            image = ImageIO.read(resource);
+        } else {
+            File file = new File(FALLBACK_DIRECTORY + name);
+            if (!file.isFile()) {
+                throw new IOException("weder im Klassenpfad noch unter " + file.getAbsolutePath());
+            }
+            image = ImageIO.read(file);
+        }
+        if (image == null) {
+            throw new IOException("unbekanntes Bildformat");
+        }
+        return image;
+    }
+
+    /**
+     * Scales an image to fit a square of the given size, keeping its proportions and centring it.
+     * Large images are halved step by step, which keeps thin lines as smooth as {@link Image#SCALE_SMOOTH} does.
+     *
+     * @param source The decoded image.
+     * @param pixels The width and height of the square in device pixels.
+     * @return The rendered image.
+     */
+    static BufferedImage scale(BufferedImage source, int pixels) {
+        double ratio = Math.min((double) pixels / source.getWidth(), (double) pixels / source.getHeight());
+        int targetWidth = Math.max(1, (int) Math.round(source.getWidth() * ratio));
+        int targetHeight = Math.max(1, (int) Math.round(source.getHeight() * ratio));
+
+        BufferedImage image = source;
+        int width = source.getWidth();
+        int height = source.getHeight();
+        while (width / 2 >= targetWidth && height / 2 >= targetHeight) {
+            width /= 2;
+            height /= 2;
+            image = draw(image, width, height, width, height, 0, 0);
+        }
+        return draw(image, targetWidth, targetHeight, pixels, pixels, (pixels - targetWidth) / 2, (pixels - targetHeight) / 2);
+    }
+
+    private static BufferedImage draw(BufferedImage source, int width, int height, int canvasWidth, int canvasHeight, int x, int y) {
+        BufferedImage image = new BufferedImage(canvasWidth, canvasHeight, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D graphics = image.createGraphics();
+        graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+        graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+        graphics.drawImage(source, x, y, width, height, null);
+        graphics.dispose();
+        return image;
+    }
+
+    /**
+     * Returns the scales of all screens, or 1.0 without a screen.
+     */
+    private static Set<Double> screenScales() {
+        Set<Double> scales = new TreeSet<>();
+        if (!GraphicsEnvironment.isHeadless()) {
+            for (GraphicsDevice device : GraphicsEnvironment.getLocalGraphicsEnvironment().getScreenDevices()) {
+                scales.add(roundScale(device.getDefaultConfiguration().getDefaultTransform().getScaleX()));
+            }
+        }
+        if (scales.isEmpty()) {
+            scales.add(1.0);
+        }
+        return scales;
+    }
+
+    /**
+     * Rounds a scale to a quarter, so that slightly different transforms share one variant.
+     */
+    static double roundScale(double scale) {
+        return Math.max(0.25, Math.round(scale * 4) / 4.0);
+    }
+
+    /**
+     * An icon painting the variant of its image for the scale of the graphics it is painted with.
+     */
+    private class CachedIcon implements Icon {
+
+        private final String name;
+        private final int size;
+
+        CachedIcon(String name, int size) {
+            this.name = name;
+            this.size = size;
+        }
+
+        @Override
+        public void paintIcon(Component component, Graphics g, int x, int y) {
+            double scale = g instanceof Graphics2D ? roundScale(((Graphics2D) g).getTransform().getScaleX()) : 1.0;
+            BufferedImage image = getImage(name, size, scale);
+            if (image != null) {
+                // The image has as many pixels as the icon covers on the screen, so it is drawn without scaling
+                g.drawImage(image, x, y, size, size, null);
+            }
+        }
+
+        @Override
+        public int getIconWidth() {
+            return size;
+        }
+
+        @Override
+        public int getIconHeight() {
+            return size;
+        }
+    }
+
+    /**
+     * Identifies a rendered image by the icon, its size in user space and the display scale.
+     */
+    private static final class Variant {
+
+        private final String name;
+        private final int size;
+        private final double scale;
+
+        Variant(String name, int size, double scale) {
+            this.name = name;
+            this.size = size;
+            this.scale = scale;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (!(other instanceof Variant)) {
+                return false;
+            }
+            Variant variant = (Variant) other;
+            return name.equals(variant.name) && size == variant.size && scale == variant.scale;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(name, size, scale);
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package gui;
+
+import javax.swing.*;
+import javax.swing.table.DefaultTableModel;
+import java.awt.*;
+
+/**
+ * The performance dialogue window for the text editor.
+ * This class extends {@link JDialog} and lists for every menu and toolbar command
+ * how often it ran, how long it took and how much it allocated.
+ */
+public class PerformanceDialogWindow extends JDialog {
+
+    private static final String[] COLUMNS = {
+            "Befehl", "Anzahl", "p50 (ms)", "p99 (ms)", "Max (ms)", "Ø allokiert (KB)", "Max allokiert (KB)"
+    };
+
+    private final DefaultTableModel tableModel;
+    private final JTable table;
+    private final JLabel noteLabel;
+    private final JButton refreshButton;
+    private final JButton resetButton;
+    private final JButton exportButton;
+    private final JButton closeButton;
+
+    /**
+     * Constructs the performance dialogue window.
+     *
+     * @param parent The parent frame to which this dialogue belongs.
+     */
+    public PerformanceDialogWindow(JFrame parent) {
+        super(parent, "Leistung der Befehle", false);
+
+        setLayout(new BorderLayout());
+        setSize(640, 360);
+
+        // Table of the commands, sortable by every column
+        tableModel = new DefaultTableModel(COLUMNS, 0) {
+            @Override
+            public boolean isCellEditable(int row, int column) {
+                return false;
+            }
+
+            @Override
+            public Class<?> getColumnClass(int column) {
+                return column == 0 ? String.class : column == 1 ? Long.class : Double.class;
+            }
+        };
+        table = new JTable(tableModel);
+        table.setAutoCreateRowSorter(true);
+        add(new JScrollPane(table), BorderLayout.CENTER);
+
+        // Buttons panel
+        JPanel buttonPanel = new JPanel(new FlowLayout(FlowLayout.CENTER));
+
+        refreshButton = new JButton("Aktualisieren");
+        buttonPanel.add(refreshButton);
+
+        resetButton = new JButton("Zurücksetzen");
+        buttonPanel.add(resetButton);
+
+        exportButton = new JButton("Als JSON exportieren");
+        buttonPanel.add(exportButton);
+
+        closeButton = new JButton("Schließen");
+        closeButton.addActionListener(e -> setVisible(false));
+        buttonPanel.add(closeButton);
+
+        // Note on what the durations include, below the buttons
+        noteLabel = new JLabel(" ", SwingConstants.CENTER);
+
+        JPanel southPanel = new JPanel(new BorderLayout());
+        southPanel.add(buttonPanel, BorderLayout.CENTER);
+        southPanel.add(noteLabel, BorderLayout.SOUTH);
+        add(southPanel, BorderLayout.SOUTH);
+    }
+
+    /**
+     * Displays the performance dialogue window centred on the parent frame.
+     *
+     * @param parent The parent frame to position the dialogue.
+     */
+    public void showPerformanceDialog(JFrame parent) {
+        setLocationRelativeTo(parent);
+        setVisible(true);
+    }
+
+    // Getter methods for UI components
+    public DefaultTableModel getTableModel() { return tableModel; }
+    public JTable getTable() { return table; }
+    public JLabel getNoteLabel() { return noteLabel; }
+    public JButton getRefreshButton() { return refreshButton; }
+    public JButton getResetButton() { return resetButton; }
+    public JButton getExportButton() { return exportButton; }
+}
@@ -15,8 +15,12 @@ public class SearchAndReplaceDialogWindow extends JDialog {
     private final JTextField replaceField;
     private final JPanel caseSensitivePanel;
     private final JCheckBox caseSensitiveCheckBox;
+    private final JCheckBox regexCheckBox;
+    private final JCheckBox highlightAllCheckBox;
     private final JButton searchButton;
     private final JButton replaceButton;
+    private final JButton replaceAllButton;
+    private final JLabel matchCountLabel;
 
     /**
      * Constructs the search and replace dialogue window.
@@ -27,7 +31,7 @@ public class SearchAndReplaceDialogWindow extends JDialog {
         super(parent, "Suchen und Ersetzen", false);
 
         setLayout(new BorderLayout());
-        setSize(300, 150);
+        setSize(380, 230);
 
         // Search and replace input fields
         this.searchPanel = new JPanel(new GridLayout(2, 2, 0, 5));
@@ -42,12 +46,19 @@ public class SearchAndReplaceDialogWindow extends JDialog {
 
         add(searchPanel, BorderLayout.NORTH);
 
-        // Case-sensitive checkbox
-        this.caseSensitivePanel = new JPanel(new FlowLayout(FlowLayout.LEFT));
+        // Case-sensitive, regular expression and highlight checkboxes
+        this.caseSensitivePanel = new JPanel(new GridLayout(3, 1));
 
         caseSensitiveCheckBox = new JCheckBox("Groß- / Kleinschreibung beachten");
         caseSensitivePanel.add(caseSensitiveCheckBox);
 
+        regexCheckBox = new JCheckBox("Regulärer Ausdruck");
+        regexCheckBox.setToolTipText("Ersetzung kann mit $1 oder ${name} auf Gruppen verweisen");
+        caseSensitivePanel.add(regexCheckBox);
+
+        highlightAllCheckBox = new JCheckBox("Alle Treffer hervorheben");
+        caseSensitivePanel.add(highlightAllCheckBox);
+
         add(caseSensitivePanel, BorderLayout.CENTER);
 
         // Buttons panel
@@ -59,7 +70,16 @@ public class SearchAndReplaceDialogWindow extends JDialog {
         replaceButton = new JButton("Ersetzen");
         buttonPanel.add(replaceButton);
 
-        add(buttonPanel, BorderLayout.SOUTH);
+        replaceAllButton = new JButton("Alle ersetzen");
+        buttonPanel.add(replaceAllButton);
+
+        // Match counter below the buttons
+        matchCountLabel = new JLabel(" ", SwingConstants.CENTER);
+
+        JPanel southPanel = new JPanel(new BorderLayout());
+        southPanel.add(buttonPanel, BorderLayout.CENTER);
+        southPanel.add(matchCountLabel, BorderLayout.SOUTH);
+        add(southPanel, BorderLayout.SOUTH);
     }
 
     /**
@@ -83,12 +103,24 @@ public class SearchAndReplaceDialogWindow extends JDialog {
     public JCheckBox getCaseSensitiveCheck() {
         return caseSensitiveCheckBox;
     }
+    public JCheckBox getRegexCheck() {
+        return regexCheckBox;
+    }
+    public JCheckBox getHighlightAllCheck() {
+        return highlightAllCheckBox;
+    }
     public JButton getSearchButton() {
         return searchButton;
     }
     public JButton getReplaceButton() {
         return replaceButton;
     }
+    public JButton getReplaceAllButton() {
+        return replaceAllButton;
+    }
+    public JLabel getMatchCountLabel() {
+        return matchCountLabel;
+    }
 
     /**
      * Centres the dialogue window relative to the parent frame.
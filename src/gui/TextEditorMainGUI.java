@@ -1,9 +1,12 @@
 package gui;
 
+import controller.RefreshScheduler;
 import controller.StatusBarManager;
+import model.PieceTableDocument;
 
 import javax.swing.*;
 import java.awt.*;
+import java.util.function.LongConsumer;
 
 /**
  * The main graphical user interface (GUI) for the text editor.
@@ -21,6 +24,9 @@ public class TextEditorMainGUI extends JFrame {
     JMenuItem newFileItem;
     JMenuItem saveFileItem;
     JMenuItem saveFileAsItem;
+    JMenuItem closeTabItem;
+    JCheckBoxMenuItem followFileItem;
+    JCheckBoxMenuItem autoScrollItem;
     JMenuItem printDocumentItem;
 
     // Edit menu and its items
@@ -30,12 +36,25 @@ public class TextEditorMainGUI extends JFrame {
     JMenuItem webSearchItem;
     JMenuItem searchItem;
     JMenuItem searchAndReplaceItem;
+    JMenuItem goToLineItem;
     JMenuItem dateTimeItem;
 
-    // Toolbar, text area, and status bar
+    // Extras menu and its items
+    JMenu extrasMenu;
+    JMenuItem performanceItem;
+
+    // Toolbar, document tabs, text area, and status bar
     private final TextEditorToolBar toolBar;
+    JTabbedPane documentTabs;
     JTextArea textArea;
     private final TextEditorStatusBar statusBar;
+    private final RefreshScheduler refreshScheduler;
+
+    // Notified once the window has been painted for the first time
+    private final Object firstPaintLock = new Object();
+    private LongConsumer firstPaintListener;
+    private long firstPaintMillis;
+    private boolean painted = false;
 
     /**
      * Constructs the main GUI window of the text editor.
@@ -68,6 +87,17 @@ public class TextEditorMainGUI extends JFrame {
         this.saveFileAsItem = new JMenuItem("Speichern unter");
         fileMenu.add(saveFileAsItem);
 
+        this.closeTabItem = new JMenuItem("Tab schließen");
+        fileMenu.add(closeTabItem);
+
+        fileMenu.addSeparator();
+
+        this.followFileItem = new JCheckBoxMenuItem("Datei verfolgen");
+        fileMenu.add(followFileItem);
+
+        this.autoScrollItem = new JCheckBoxMenuItem("Automatisch scrollen", true);
+        fileMenu.add(autoScrollItem);
+
         fileMenu.addSeparator();
 
         this.printDocumentItem = new JMenuItem("Drucken");
@@ -97,11 +127,21 @@ public class TextEditorMainGUI extends JFrame {
         this.searchAndReplaceItem = new JMenuItem("Suchen/Ersetzen");
         editMenu.add(searchAndReplaceItem);
 
+        this.goToLineItem = new JMenuItem("Gehe zu Zeile");
+        editMenu.add(goToLineItem);
+
         editMenu.addSeparator();
 
         this.dateTimeItem = new JMenuItem("Datum/Uhrzeit");
         editMenu.add(dateTimeItem);
 
+        // Creating the extras menu
+        this.extrasMenu = new JMenu("Extras");
+        menuBar.add(extrasMenu);
+
+        this.performanceItem = new JMenuItem("Leistung");
+        extrasMenu.add(performanceItem);
+
         // Adding the meu bar to JFrame
         setJMenuBar(menuBar);
 
@@ -109,16 +149,21 @@ public class TextEditorMainGUI extends JFrame {
         toolBar = new TextEditorToolBar();
         add(toolBar, BorderLayout.NORTH);
 
-        // Creating the text area
-        this.textArea = new JTextArea();
+        // Creating the text area backed by a piece table document, painting only the visible wrapped rows
+        this.textArea = new WrappingTextArea(new PieceTableDocument());
         textArea.setLineWrap(true); // Manual switching to be implemented later
 
-        // Adding the text area with a scroll pane
-        add(new JScrollPane(textArea), BorderLayout.CENTER);
+        // Adding the document tabs above the text area, which all tabs share
+        this.documentTabs = new JTabbedPane(JTabbedPane.TOP, JTabbedPane.SCROLL_TAB_LAYOUT);
+        JPanel documentPanel = new JPanel(new BorderLayout());
+        documentPanel.add(documentTabs, BorderLayout.NORTH);
+        documentPanel.add(new JScrollPane(textArea), BorderLayout.CENTER);
+        add(documentPanel, BorderLayout.CENTER);
 
         // Adding the status bar
         statusBar = new TextEditorStatusBar();
-        new StatusBarManager(statusBar, textArea);
+        refreshScheduler = new RefreshScheduler();
+        new StatusBarManager(statusBar, textArea, refreshScheduler);
         add(statusBar, BorderLayout.SOUTH);
 
         setVisible(true);
@@ -131,6 +176,9 @@ public class TextEditorMainGUI extends JFrame {
     public JMenuItem getNewFileItem() { return newFileItem; }
     public JMenuItem getSaveFileItem() { return saveFileItem; }
     public JMenuItem getSaveFileAsItem() { return saveFileAsItem; }
+    public JMenuItem getCloseTabItem() { return closeTabItem; }
+    public JCheckBoxMenuItem getFollowFileItem() { return followFileItem; }
+    public JCheckBoxMenuItem getAutoScrollItem() { return autoScrollItem; }
 
     // Edit menu getter
     public JMenuItem getPrintDocumentItem() { return printDocumentItem; }
@@ -139,11 +187,58 @@ public class TextEditorMainGUI extends JFrame {
     public JMenuItem getWebSearchItem() { return webSearchItem; }
     public JMenuItem getSearchItem() { return searchItem; };
     public JMenuItem getSearchAndReplaceItem() { return searchAndReplaceItem; }
+    public JMenuItem getGoToLineItem() { return goToLineItem; }
     public JMenuItem getDateTimeItem() { return dateTimeItem; }
 
-    // Tool bar and textArea getter
+    // Extras menu getter
+    public JMenuItem getPerformanceItem() { return performanceItem; }
+
+    // Tool bar, document tabs, textArea and status bar getter
     public TextEditorToolBar getToolBar() { return toolBar; }
+    public JTabbedPane getDocumentTabs() { return documentTabs; }
     public JTextArea getTextArea() { return textArea; }
+    public TextEditorStatusBar getStatusBar() { return statusBar; }
+    public RefreshScheduler getRefreshScheduler() { return refreshScheduler; }
+
+    /**
+     * Paints the window and notifies the first paint listener after the first time.
+     *
+     * @param g The graphics context of the window.
+     */
+    @Override
+    public void paint(Graphics g) {
+        super.paint(g);
+        LongConsumer listener;
+        synchronized (firstPaintLock) {
+            if (painted) {
+                return;
+            }
+            painted = true;
+            firstPaintMillis = System.currentTimeMillis();
+            listener = firstPaintListener;
+        }
+        if (listener != null) {
+            listener.accept(firstPaintMillis);
+        }
+    }
+
+    /**
+     * Sets a listener to notify on the EDT once the window has been painted for the first time,
+     * or right away on the EDT if it already has been, as the window is shown while it is built.
+     *
+     * @param listener Receives the time of the first paint in milliseconds since the epoch.
+     */
+    public void setFirstPaintListener(LongConsumer listener) {
+        long paintedAt;
+        synchronized (firstPaintLock) {
+            if (!painted) {
+                firstPaintListener = listener;
+                return;
+            }
+            paintedAt = firstPaintMillis;
+        }
+        SwingUtilities.invokeLater(() -> listener.accept(paintedAt));
+    }
 
     /**
      * Centres the application window on the user's screen.
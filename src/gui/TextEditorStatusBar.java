@@ -6,13 +6,19 @@ import java.awt.*;
 /**
  * The status bar for the text editor.
  * This class extends {@link JPanel} and provides real-time information
- * about the cursor position, character count, and word count.
+ * about the cursor position, character count, word count, and line count,
+ * as well as the encoding and line ending of the document, which can be changed from here.
  */
 public class TextEditorStatusBar extends JPanel {
 
     private final JLabel cursorPositionLabel;
     private final JLabel wordCountLabel;
     private final JLabel charCountLabel;
+    private final JLabel lineCountLabel;
+    private final JButton encodingButton;
+    private final JButton lineEndingButton;
+    private final JProgressBar progressBar;
+    private final JButton cancelButton;
 
     /**
      * Constructs the status bar and initialises all labels.
@@ -32,6 +38,48 @@ public class TextEditorStatusBar extends JPanel {
         wordCountLabel = new JLabel("0 Wörter");
         add(wordCountLabel);
         addSeparator();
+
+        lineCountLabel = new JLabel("1 Zeile");
+        add(lineCountLabel);
+        addSeparator();
+
+        // Encoding and line ending, each opening a menu to convert the document
+        encodingButton = createFormatButton("Kodierung ändern");
+        add(encodingButton);
+        addSeparator();
+
+        lineEndingButton = createFormatButton("Zeilenende ändern");
+        add(lineEndingButton);
+        addSeparator();
+
+        // Progress indicator for long-running background tasks, hidden while idle
+        progressBar = new JProgressBar(0, 100);
+        progressBar.setStringPainted(true);
+        progressBar.setMaximumSize(new Dimension(200, 15));
+        progressBar.setVisible(false);
+        add(progressBar);
+        add(Box.createHorizontalStrut(5));
+
+        cancelButton = new JButton("Abbrechen");
+        cancelButton.setMargin(new Insets(0, 5, 0, 5));
+        cancelButton.setVisible(false);
+        add(cancelButton);
+    }
+
+    /**
+     * Creates a borderless button that looks like the labels of the status bar.
+     *
+     * @param toolTip The tool tip describing the action of the button.
+     * @return The button.
+     */
+    private static JButton createFormatButton(String toolTip) {
+        JButton button = new JButton(" ");
+        button.setToolTipText(toolTip);
+        button.setBorderPainted(false);
+        button.setContentAreaFilled(false);
+        button.setFocusable(false);
+        button.setMargin(new Insets(0, 0, 0, 0));
+        return button;
     }
 
     /**
@@ -67,8 +115,68 @@ public class TextEditorStatusBar extends JPanel {
         charCountLabel.setText(charCount + " Zeichen");
     }
 
+    /**
+     * Updates the character, word and line count display.
+     *
+     * @param charCount The number of characters in the document.
+     * @param wordCount The number of words in the document.
+     * @param lineCount The number of lines in the document.
+     */
+    public void updateTextInfo(int charCount, int wordCount, int lineCount) {
+        updateTextInfo(charCount, wordCount);
+        String lineLabel = (lineCount == 1) ? "1 Zeile" : lineCount + " Zeilen";
+        lineCountLabel.setText(lineLabel);
+    }
+
+    /**
+     * Updates the encoding and line ending display.
+     *
+     * @param encoding   The name of the encoding, or an empty string if it is not known yet.
+     * @param lineEnding The name of the line ending, or an empty string if it is not known yet.
+     */
+    public void updateFormat(String encoding, String lineEnding) {
+        encodingButton.setText(encoding.isEmpty() ? " " : encoding);
+        lineEndingButton.setText(lineEnding.isEmpty() ? " " : lineEnding);
+    }
+
+    /**
+     * Shows the progress bar and the cancel button for a background task.
+     *
+     * @param message The text displayed inside the progress bar.
+     */
+    public void showProgress(String message) {
+        progressBar.setValue(0);
+        progressBar.setString(message);
+        progressBar.setVisible(true);
+        cancelButton.setVisible(true);
+        revalidate();
+    }
+
+    /**
+     * Updates the value of the progress bar.
+     *
+     * @param percent The progress in percent (0 - 100).
+     */
+    public void updateProgress(int percent) {
+        progressBar.setValue(percent);
+    }
+
+    /**
+     * Hides the progress bar and the cancel button once a background task has finished.
+     */
+    public void hideProgress() {
+        progressBar.setVisible(false);
+        cancelButton.setVisible(false);
+        revalidate();
+    }
+
     // Status bar getter
     public JLabel getCursorPositionLabel() { return cursorPositionLabel; }
     public JLabel getCharCountLabel() { return charCountLabel; }
     public JLabel getWordCountLabel() { return wordCountLabel; }
+    public JLabel getLineCountLabel() { return lineCountLabel; }
+    public JButton getEncodingButton() { return encodingButton; }
+    public JButton getLineEndingButton() { return lineEndingButton; }
+    public JProgressBar getProgressBar() { return progressBar; }
+    public JButton getCancelButton() { return cancelButton; }
 }
@@ -2,15 +2,21 @@ package gui;
 
 import javax.swing.*;
 import java.awt.*;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * The toolbar for the text editor.
  * This class extends {@link JToolBar} and provides quick-access buttons
  * for common actions such as file operations, undo/redo, printing,
  * web search, and text search.
+ * The icons come from the {@link IconCache}, which decodes them in parallel in the background;
+ * until then the buttons show an empty space of the same size.
  */
 public class TextEditorToolBar extends JToolBar{
 
+    private static final int ICON_SIZE = 24;
+
     private final JButton newFileButton;
     private final JButton openFileButton;
     private final JButton saveFileButton;
@@ -19,6 +25,7 @@ public class TextEditorToolBar extends JToolBar{
     private final JButton redoButton;
     private final JButton webSearchButton;
     private final JTextField searchField;
+    private final List<String> iconNames = new ArrayList<>();
 
     /**
      * Constructs the toolbar and initialises all buttons and components.
@@ -27,31 +34,31 @@ public class TextEditorToolBar extends JToolBar{
         setFloatable(false); // Prevents the toolbar from being moved
 
         // Initialising buttons with icons and tooltips
-        this.newFileButton = createButton("assets/icons/file-regular.png", "Neues Dokument erstellen");
+        this.newFileButton = createButton("file-regular.png", "Neues Dokument erstellen");
         add(newFileButton);
 
-        this.openFileButton = createButton("assets/icons/folder-open-regular.png", "Datei öffnen");
+        this.openFileButton = createButton("folder-open-regular.png", "Datei öffnen");
         add(openFileButton);
 
-        this.saveFileButton = createButton("assets/icons/floppy-disk-regular.png", "Speichern");
+        this.saveFileButton = createButton("floppy-disk-regular.png", "Speichern");
         add(saveFileButton);
 
         addSeparator();
 
-        this.printDocumentButton = createButton("assets/icons/print-solid.png", "Drucken");
+        this.printDocumentButton = createButton("print-solid.png", "Drucken");
         add(printDocumentButton);
 
         addSeparator();
 
-        this.undoButton = createButton("assets/icons/rotate-left-solid.png", "Rückgängig");
+        this.undoButton = createButton("rotate-left-solid.png", "Rückgängig");
         add(undoButton);
 
-        this.redoButton = createButton("assets/icons/rotate-right-solid.png", "Wiederherstellen");
+        this.redoButton = createButton("rotate-right-solid.png", "Wiederherstellen");
         add(redoButton);
 
         addSeparator();
 
-        this.webSearchButton = createButton("assets/icons/globe-solid.png", "Markierten Text im Internet suchen");
+        this.webSearchButton = createButton("globe-solid.png", "Markierten Text im Internet suchen");
         add(webSearchButton);
 
         addSeparator();
@@ -61,11 +68,14 @@ public class TextEditorToolBar extends JToolBar{
         searchField.setMaximumSize(new Dimension(200, 25));
         searchField.setToolTipText("Suchen");
 
-        JLabel searchIcon = new JLabel(loadIcon("assets/icons/magnifying-glass-solid.png", 24, 24));
+        JLabel searchIcon = new JLabel(loadIcon("magnifying-glass-solid.png"));
         JPanel searchPanel = new JPanel(new BorderLayout());
         searchPanel.add(searchIcon, BorderLayout.WEST);
         searchPanel.add(searchField, BorderLayout.CENTER);
         add(searchPanel);
+
+        // Decode all icons in parallel and repaint them once they are ready
+        IconCache.getShared().preload(iconNames, ICON_SIZE).thenRun(() -> SwingUtilities.invokeLater(this::repaint));
     }
 
     // Getter methods for toolbar buttons and components
@@ -81,27 +91,24 @@ public class TextEditorToolBar extends JToolBar{
     /**
      * Creates a button with an icon and tooltip.
      *
-     * @param iconPath The path to the icon file.
+     * @param iconName The file name of the icon.
      * @param tooltip  The tooltip text for the button.
      * @return The created JButton.
      */
-    private JButton createButton(String iconPath, String tooltip) {
-        JButton button = new JButton(loadIcon(iconPath, 24, 24));
+    private JButton createButton(String iconName, String tooltip) {
+        JButton button = new JButton(loadIcon(iconName));
         button.setToolTipText(tooltip);
         return button;
     }
 
     /**
-     * Loads and scales an icon to the specified dimensions.
+     * Returns an icon from the shared icon cache and notes it for loading.
      *
-     * @param path  The file path of the icon.
-     * @param width The desired width.
-     * @param height The desired height.
-     * @return A scaled {@link ImageIcon}.
+     * @param name The file name of the icon.
+     * @return The icon, painted once it has been loaded.
      */
-    private ImageIcon loadIcon(String path, int width, int height) {
-        ImageIcon icon = new ImageIcon(path);
-        Image scaledImage = icon.getImage().getScaledInstance(width, height, Image.SCALE_SMOOTH);
-        return new ImageIcon(scaledImage);
+    private Icon loadIcon(String name) {
+        iconNames.add(name);
+        return IconCache.getShared().getIcon(name, ICON_SIZE);
     }
 }
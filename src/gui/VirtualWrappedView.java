@@ -0,0 +1,379 @@
+package gui;
+
+import model.DocumentCharSequence;
+import model.RowBreaker;
+import model.WrapCache;
+
+import javax.swing.*;
+import javax.swing.event.DocumentEvent;
+import javax.swing.text.*;
+import java.awt.*;
+import java.util.Arrays;
+
+/**
+ * Shows the lines of a plain text document wrapped at the width of the text area.
+ * <p>
+ * Unlike Swing's {@link WrappedPlainView}, which creates a view per line and measures every line on
+ * each layout, this view only measures and paints the rows intersecting the visible area. The row starts
+ * of each line are kept in a {@link WrapCache}; lines that have not been measured yet count with an
+ * estimated number of rows. An edit within a line only re-measures the rows around the edit, so even a
+ * line of many megabytes can be scrolled and edited at interactive speed.
+ * </p>
+ */
+class VirtualWrappedView extends View implements TabExpander {
+
+    private final WrapCache cache = new WrapCache();
+    private final Segment segment = new Segment();
+    private final boolean wordWrap;
+    private final CharWidths charWidths;
+    private Font font;
+    private FontMetrics metrics;
+    private int rowHeight;
+    private int tabWidth;
+    private int wrapWidth = 0;
+    private RowBreaker breaker;
+    private float tabBase;
+    private boolean layoutValid = false;
+
+    /**
+     * Constructs the view for the root element of a document.
+     *
+     * @param element    The root element.
+     * @param wordWrap   Whether lines are wrapped at whitespace instead of at any character.
+     * @param charWidths The character widths of the text area, shared by the views of all its documents.
+     */
+    VirtualWrappedView(Element element, boolean wordWrap, CharWidths charWidths) {
+        super(element);
+        this.wordWrap = wordWrap;
+        this.charWidths = charWidths;
+    }
+
+    /**
+     * The widths of the characters of a font, each looked up in the font only once.
+     */
+    static class CharWidths {
+        private FontMetrics metrics;
+        private int[] widths;
+
+        /**
+         * Returns the width of a character, adding one to the stored widths so that 0 marks an unknown width.
+         */
+        int width(FontMetrics fontMetrics, int c) {
+            if (metrics != fontMetrics) {
+                metrics = fontMetrics;
+                widths = new int[Character.MAX_VALUE + 1];
+            }
+            int width = widths[c];
+            if (width == 0) {
+                width = fontMetrics.charWidth((char) c) + 1;
+                widths[c] = width;
+            }
+            return width - 1;
+        }
+    }
+
+    /**
+     * Updates the font measurements if the font of the text area has changed.
+     */
+    private void updateMetrics() {
+        Component host = getContainer();
+        Font hostFont = host.getFont();
+        if (metrics == null || font != hostFont) {
+            font = hostFont;
+            metrics = host.getFontMetrics(hostFont);
+            rowHeight = Math.max(1, metrics.getHeight());
+            int tabSize = getDocument().getProperty(PlainDocument.tabSizeAttribute) instanceof Integer
+                    ? (Integer) getDocument().getProperty(PlainDocument.tabSizeAttribute) : 8;
+            tabWidth = Math.max(1, tabSize * metrics.charWidth('m'));
+            layoutValid = false;
+        }
+        if (!layoutValid) {
+            breaker = new RowBreaker(this::charWidth, tabWidth, wrapWidth > 0 ? wrapWidth : Integer.MAX_VALUE, wordWrap);
+            cache.reset(getElement().getElementCount(), this::estimateRows);
+            layoutValid = true;
+        }
+    }
+
+    private int charWidth(int c) {
+        return charWidths.width(metrics, c);
+    }
+
+    /**
+     * Estimates the rows of a line that has not been measured from its length.
+     */
+    private int estimateRows(int line) {
+        if (wrapWidth <= 0) {
+            return 1;
+        }
+        Element element = getElement().getElement(line);
+        long width = (long) (element.getEndOffset() - element.getStartOffset() - 1) * charWidth('x');
+        return (int) Math.max(1, (width + wrapWidth - 1) / wrapWidth);
+    }
+
+    /**
+     * Measures a line if its rows are not known yet.
+     *
+     * @return True if the line has been measured now.
+     */
+    private boolean measure(int line) {
+        if (cache.isMeasured(line)) {
+            return false;
+        }
+        Element element = getElement().getElement(line);
+        cache.setRows(line, breaker.breakLine(new DocumentCharSequence(getDocument()),
+                element.getStartOffset(), element.getEndOffset() - 1));
+        return true;
+    }
+
+    /**
+     * Measures the lines shown in the given rows. Measuring may change the number of rows in front of
+     * the range, so the range is looked up again once.
+     *
+     * @return True if any line has been measured.
+     */
+    private boolean measureRows(int firstRow, int lastRow) {
+        boolean measured = false;
+        for (int pass = 0; pass < 2; pass++) {
+            int line = cache.getLineOfRow(firstRow);
+            boolean changed = false;
+            while (line < cache.getLineCount() && cache.getFirstRow(line) <= lastRow) {
+                changed |= measure(line);
+                line++;
+            }
+            measured |= changed;
+            if (!changed) {
+                break;
+            }
+        }
+        return measured;
+    }
+
+    @Override
+    public void setSize(float width, float height) {
+        int newWidth = Math.max(1, (int) width);
+        if (newWidth != wrapWidth) {
+            wrapWidth = newWidth;
+            layoutValid = false;
+            preferenceChanged(null, false, true);
+        }
+    }
+
+    @Override
+    public float getPreferredSpan(int axis) {
+        updateMetrics();
+        if (axis == X_AXIS) {
+            return wrapWidth > 0 ? wrapWidth : 100;
+        }
+        return (float) cache.getTotalRows() * rowHeight;
+    }
+
+    @Override
+    public float getMinimumSpan(int axis) {
+        return axis == X_AXIS ? 0 : getPreferredSpan(axis);
+    }
+
+    @Override
+    public float getMaximumSpan(int axis) {
+        return axis == X_AXIS ? Integer.MAX_VALUE : getPreferredSpan(axis);
+    }
+
+    @Override
+    public void paint(Graphics g, Shape allocation) {
+        updateMetrics();
+        Rectangle area = allocation.getBounds();
+        Rectangle clip = g.getClipBounds() != null ? g.getClipBounds() : area;
+        int firstRow = Math.max(0, (clip.y - area.y) / rowHeight);
+        int lastRow = Math.min(cache.getTotalRows() - 1, (clip.y + clip.height - area.y) / rowHeight);
+        if (measureRows(firstRow, lastRow)) {
+            lastRow = Math.min(cache.getTotalRows() - 1, (clip.y + clip.height - area.y) / rowHeight);
+            preferenceChanged(null, false, true);
+        }
+
+        JTextComponent host = (JTextComponent) getContainer();
+        g.setFont(font);
+        Color foreground = host.isEnabled() ? host.getForeground() : host.getDisabledTextColor();
+        Color selectedForeground = host.getSelectedTextColor() != null ? host.getSelectedTextColor() : foreground;
+        int selectionStart = host.getSelectionStart();
+        int selectionEnd = host.getSelectionEnd();
+
+        int line = cache.getLineOfRow(firstRow);
+        int row = firstRow - cache.getFirstRow(line);
+        for (int y = area.y + firstRow * rowHeight; firstRow <= lastRow && line < cache.getLineCount(); firstRow++, y += rowHeight) {
+            int[] rows = cache.getRows(line);
+            if (rows == null) {
+                break; // Not measured, which only happens while the layout is out of date
+            }
+            Element element = getElement().getElement(line);
+            int start = element.getStartOffset() + rows[row];
+            int end = row + 1 < rows.length ? element.getStartOffset() + rows[row + 1] : element.getEndOffset() - 1;
+            paintRow(g, area.x, y + metrics.getAscent(), start, end, selectionStart, selectionEnd, foreground, selectedForeground);
+            if (++row == rows.length) {
+                line++;
+                row = 0;
+            }
+        }
+    }
+
+    /**
+     * Paints the text of a row, using the selected text colour for the selected part.
+     */
+    private void paintRow(Graphics g, int x, int baseline, int start, int end, int selectionStart, int selectionEnd,
+                          Color foreground, Color selectedForeground) {
+        tabBase = x;
+        float position = x;
+        int selectedFrom = Math.max(start, Math.min(selectionStart, end));
+        int selectedTo = Math.max(start, Math.min(selectionEnd, end));
+        if (selectionStart == selectionEnd) {
+            selectedFrom = selectedTo = end;
+        }
+        position = drawText(g, position, baseline, start, selectedFrom, foreground);
+        position = drawText(g, position, baseline, selectedFrom, selectedTo, selectedForeground);
+        drawText(g, position, baseline, selectedTo, end, foreground);
+    }
+
+    private float drawText(Graphics g, float x, int baseline, int start, int end, Color color) {
+        if (start >= end) {
+            return x;
+        }
+        try {
+            getDocument().getText(start, end - start, segment);
+        } catch (BadLocationException exception) {
+            return x;
+        }
+        g.setColor(color);
+        return Utilities.drawTabbedText(segment, x, baseline, (Graphics2D) g, this, start);
+    }
+
+    @Override
+    public float nextTabStop(float x, int tabOffset) {
+        int stop = ((int) (x - tabBase) / tabWidth + 1) * tabWidth;
+        return tabBase + stop;
+    }
+
+    /**
+     * Finds the row of a measured line containing the given offset.
+     *
+     * @param rows   The row starts of the line.
+     * @param offset The offset relative to the start of the line.
+     * @param bias   Whether an offset at a row start belongs to the end of the previous row.
+     * @return The row within the line.
+     */
+    private static int rowOf(int[] rows, int offset, Position.Bias bias) {
+        int row = Arrays.binarySearch(rows, offset);
+        if (row >= 0) {
+            return row > 0 && bias == Position.Bias.Backward ? row - 1 : row;
+        }
+        return -row - 2;
+    }
+
+    @Override
+    public Shape modelToView(int pos, Shape allocation, Position.Bias bias) throws BadLocationException {
+        updateMetrics();
+        Document document = getDocument();
+        if (pos < 0 || pos > document.getLength()) {
+            throw new BadLocationException("Ungültige Position", pos);
+        }
+        Rectangle area = allocation.getBounds();
+        int line = getElement().getElementIndex(pos);
+        measure(line);
+        Element element = getElement().getElement(line);
+        int[] rows = cache.getRows(line);
+        int row = rowOf(rows, pos - element.getStartOffset(), bias);
+        int rowStart = element.getStartOffset() + rows[row];
+
+        document.getText(rowStart, pos - rowStart, segment);
+        tabBase = area.x;
+        int x = area.x + (int) Utilities.getTabbedTextWidth(segment, metrics, (float) area.x, this, rowStart);
+        int y = area.y + (cache.getFirstRow(line) + row) * rowHeight;
+        return new Rectangle(x, y, 1, rowHeight);
+    }
+
+    @Override
+    public int viewToModel(float fx, float fy, Shape allocation, Position.Bias[] biasReturn) {
+        updateMetrics();
+        biasReturn[0] = Position.Bias.Forward;
+        Rectangle area = allocation.getBounds();
+        if (fy < area.y) {
+            return getStartOffset();
+        }
+        int targetRow = (int) (fy - area.y) / rowHeight;
+        if (targetRow >= cache.getTotalRows()) {
+            return Math.max(getStartOffset(), getEndOffset() - 1);
+        }
+        measureRows(targetRow, targetRow);
+        int line = cache.getLineOfRow(targetRow);
+        int[] rows = cache.getRows(line);
+        Element element = getElement().getElement(line);
+        int row = Math.min(rows.length - 1, targetRow - cache.getFirstRow(line));
+        int rowStart = element.getStartOffset() + rows[row];
+        boolean lastRow = row + 1 == rows.length;
+        int rowEnd = lastRow ? element.getEndOffset() - 1 : element.getStartOffset() + rows[row + 1];
+
+        try {
+            getDocument().getText(rowStart, rowEnd - rowStart, segment);
+        } catch (BadLocationException exception) {
+            return rowStart;
+        }
+        tabBase = area.x;
+        int offset = rowStart + Utilities.getTabbedTextOffset(segment, metrics, (float) area.x, fx, this, rowStart, true);
+        // The end of a wrapped row is the start of the next one, so it is shown at the end of this row
+        if (!lastRow && offset >= rowEnd) {
+            biasReturn[0] = Position.Bias.Backward;
+            offset = rowEnd;
+        }
+        return offset;
+    }
+
+    @Override
+    public void insertUpdate(DocumentEvent e, Shape allocation, ViewFactory factory) {
+        update(e, e.getLength(), 0);
+    }
+
+    @Override
+    public void removeUpdate(DocumentEvent e, Shape allocation, ViewFactory factory) {
+        update(e, 0, e.getLength());
+    }
+
+    @Override
+    public void changedUpdate(DocumentEvent e, Shape allocation, ViewFactory factory) {
+        layoutValid = false;
+        preferenceChanged(null, true, true);
+        getContainer().repaint();
+    }
+
+    /**
+     * Updates the cached rows after an edit. An edit within a line re-measures only the rows around it;
+     * lines added or removed are replaced by unmeasured lines. The text area is repainted from the
+     * edited line downwards.
+     */
+    private void update(DocumentEvent e, int inserted, int removed) {
+        if (metrics == null || !layoutValid) {
+            return; // The layout is rebuilt before it is used next
+        }
+        int totalRows = cache.getTotalRows();
+        DocumentEvent.ElementChange change = e.getChange(getElement());
+        int line;
+        if (change != null) {
+            line = change.getIndex();
+            cache.replaceLines(line, change.getChildrenRemoved().length, change.getChildrenAdded().length, this::estimateRows);
+        } else {
+            line = getElement().getElementIndex(e.getOffset());
+            int[] rows = cache.getRows(line);
+            if (rows != null) {
+                Element element = getElement().getElement(line);
+                cache.setRows(line, breaker.rebreak(new DocumentCharSequence(getDocument()),
+                        element.getStartOffset(), element.getEndOffset() - 1, rows,
+                        e.getOffset() - element.getStartOffset(), inserted, removed));
+            }
+        }
+
+        if (cache.getTotalRows() != totalRows) {
+            preferenceChanged(null, false, true);
+        }
+        Component host = getContainer();
+        if (host != null) {
+            int y = ((JComponent) host).getInsets().top + cache.getFirstRow(line) * rowHeight;
+            host.repaint(0, y, host.getWidth(), Math.max(0, host.getHeight() - y));
+        }
+    }
+}
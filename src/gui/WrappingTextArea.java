@@ -0,0 +1,46 @@
+package gui;
+
+import javax.swing.*;
+import javax.swing.plaf.basic.BasicTextAreaUI;
+import javax.swing.text.Document;
+import javax.swing.text.Element;
+import javax.swing.text.View;
+
+/**
+ * A text area whose wrapped lines are laid out by a {@link VirtualWrappedView},
+ * which only measures and paints the rows that are visible.
+ * Without line wrapping, and for bidirectional text, the standard views are used.
+ */
+public class WrappingTextArea extends JTextArea {
+
+    /**
+     * Constructs a text area showing the given document.
+     *
+     * @param document The document to show.
+     */
+    public WrappingTextArea(Document document) {
+        super(document);
+    }
+
+    @Override
+    public void updateUI() {
+        setUI(new VirtualWrapTextAreaUI());
+        invalidate();
+    }
+
+    /**
+     * Creates a {@link VirtualWrappedView} instead of a {@link javax.swing.text.WrappedPlainView}.
+     */
+    private static class VirtualWrapTextAreaUI extends BasicTextAreaUI {
+        private final VirtualWrappedView.CharWidths charWidths = new VirtualWrappedView.CharWidths();
+
+        @Override
+        public View create(Element element) {
+            JTextArea textArea = (JTextArea) getComponent();
+            if (textArea.getLineWrap() && !Boolean.TRUE.equals(element.getDocument().getProperty("i18n"))) {
+                return new VirtualWrappedView(element, textArea.getWrapStyleWord(), charWidths);
+            }
+            return super.create(element);
+        }
+    }
+}
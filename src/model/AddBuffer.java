@@ -0,0 +1,91 @@
+package model;
+
+import java.util.Arrays;
+
+/**
+ * The append-only buffer holding the text typed into a {@link PieceTableContent}.
+ * <p>
+ * The text is stored in blocks of a fixed size that are never moved or overwritten, so a range
+ * that has been appended keeps its characters while more text is appended behind it. Unlike a
+ * {@link StringBuilder}, which reallocates its array and may change its internal encoding while
+ * growing, the buffer can therefore be read by other threads while one thread appends, as long
+ * as they only read ranges that had been appended before the text was handed to them, such as
+ * the ranges of a {@link DocumentSnapshot}. {@link #length()} is only meaningful on the appending thread.
+ * </p>
+ */
+final class AddBuffer implements CharSequence {
+
+    private static final int BLOCK_SHIFT = 13;
+    private static final int BLOCK_SIZE = 1 << BLOCK_SHIFT;
+    private static final int BLOCK_MASK = BLOCK_SIZE - 1;
+
+    private volatile char[][] blocks = new char[4][];
+    private int length = 0;
+
+    /**
+     * Appends text behind the text appended so far.
+     *
+     * @param str The text to append.
+     */
+    void append(String str) {
+        int copied = 0;
+        while (copied < str.length()) {
+            int index = length >>> BLOCK_SHIFT;
+            char[][] current = blocks;
+            if (index == current.length) {
+                // Readers holding the old table still find the blocks they read in it
+                current = Arrays.copyOf(current, current.length * 2);
+                blocks = current;
+            }
+            if (current[index] == null) {
+                current[index] = new char[BLOCK_SIZE];
+            }
+            int offset = length & BLOCK_MASK;
+            int count = Math.min(BLOCK_SIZE - offset, str.length() - copied);
+            str.getChars(copied, copied + count, current[index], offset);
+            copied += count;
+            length += count;
+        }
+    }
+
+    /**
+     * Copies a range of the buffer into the destination array.
+     *
+     * @param begin    The start of the range.
+     * @param end      The end of the range (exclusive).
+     * @param dst      The destination array.
+     * @param dstBegin The offset in the destination array.
+     */
+    void getChars(int begin, int end, char[] dst, int dstBegin) {
+        char[][] current = blocks;
+        while (begin < end) {
+            int offset = begin & BLOCK_MASK;
+            int count = Math.min(BLOCK_SIZE - offset, end - begin);
+            System.arraycopy(current[begin >>> BLOCK_SHIFT], offset, dst, dstBegin, count);
+            begin += count;
+            dstBegin += count;
+        }
+    }
+
+    @Override
+    public int length() {
+        return length;
+    }
+
+    @Override
+    public char charAt(int index) {
+        return blocks[index >>> BLOCK_SHIFT][index & BLOCK_MASK];
+    }
+
+    @Override
+    public CharSequence subSequence(int start, int end) {
+        char[] chars = new char[end - start];
+        getChars(start, end, chars, 0);
+        return new String(chars);
+    }
+
+    @Override
+    public String toString() {
+        return subSequence(0, length).toString();
+    }
+}
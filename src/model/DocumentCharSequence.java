@@ -0,0 +1,121 @@
+package model;
+
+import javax.swing.text.BadLocationException;
+import javax.swing.text.Document;
+import javax.swing.text.Segment;
+import java.util.ConcurrentModificationException;
+import java.util.concurrent.CancellationException;
+
+/**
+ * A read-only {@link CharSequence} view of a document, so that regular expressions can be
+ * matched against the document without copying its text.
+ * <p>
+ * Characters are read through a window of the document that is moved on demand.
+ * The view can be used from a background thread: it stops the matching with a
+ * {@link CancellationException} once the thread is interrupted, which also bounds
+ * catastrophic backtracking, and with a {@link ConcurrentModificationException} if the
+ * document has become shorter than the view. A background thread should view a
+ * {@link DocumentSnapshot} rather than a document that is still being edited.
+ * </p>
+ */
+public class DocumentCharSequence implements CharSequence {
+
+    private static final int WINDOW_SIZE = 16 * 1024;
+    private static final int INTERRUPT_CHECK_INTERVAL = 64 * 1024;
+
+    private final Document document;
+    private final int start;
+    private final int length;
+    private final Segment window = new Segment();
+    private int windowStart = 0;
+    private int windowEnd = 0;
+    private int readsSinceCheck = 0;
+
+    /**
+     * Constructs a view of the whole document as it is now.
+     *
+     * @param document The document.
+     */
+    public DocumentCharSequence(Document document) {
+        this(document, 0, document.getLength());
+    }
+
+    /**
+     * Constructs a view of a range of the document.
+     *
+     * @param document The document.
+     * @param start    The start of the range.
+     * @param length   The length of the range.
+     */
+    private DocumentCharSequence(Document document, int start, int length) {
+        this.document = document;
+        this.start = start;
+        this.length = length;
+    }
+
+    @Override
+    public int length() {
+        return length;
+    }
+
+    @Override
+    public char charAt(int index) {
+        if (index < 0 || index >= length) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Länge: " + length);
+        }
+        if (++readsSinceCheck == INTERRUPT_CHECK_INTERVAL) {
+            readsSinceCheck = 0;
+            checkInterrupted();
+        }
+        int offset = start + index;
+        if (offset < windowStart || offset >= windowEnd) {
+            loadWindow(offset);
+        }
+        return window.array[window.offset + offset - windowStart];
+    }
+
+    @Override
+    public CharSequence subSequence(int from, int to) {
+        if (from < 0 || to > length || from > to) {
+            throw new IndexOutOfBoundsException("Bereich: " + from + " - " + to + ", Länge: " + length);
+        }
+        return new DocumentCharSequence(document, start + from, to - from);
+    }
+
+    @Override
+    public String toString() {
+        try {
+            return document.getText(start, length);
+        } catch (BadLocationException exception) {
+            throw new ConcurrentModificationException("Das Dokument wurde während der Suche geändert");
+        }
+    }
+
+    /**
+     * Moves the window so that it contains the given offset.
+     * The window also covers some text in front of the offset, as matching occasionally steps back.
+     *
+     * @param offset The document offset to read.
+     */
+    private void loadWindow(int offset) {
+        checkInterrupted();
+        int from = Math.max(start, offset - WINDOW_SIZE / 4);
+        int to = Math.min(start + length, from + WINDOW_SIZE);
+        try {
+            document.getText(from, to - from, window);
+        } catch (BadLocationException exception) {
+            throw new ConcurrentModificationException("Das Dokument wurde während der Suche geändert");
+        }
+        windowStart = from;
+        windowEnd = to;
+    }
+
+    /**
+     * Stops the matching if the reading thread has been interrupted.
+     */
+    private void checkInterrupted() {
+        if (Thread.currentThread().isInterrupted()) {
+            throw new CancellationException("Suche abgebrochen");
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package model;
+
+import javax.swing.event.DocumentEvent;
+import javax.swing.text.Document;
+import javax.swing.undo.CannotRedoException;
+import javax.swing.undo.CannotUndoException;
+import javax.swing.undo.UndoableEdit;
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * A single insertion or removal in a {@link PieceTableDocument}, as reported to undoable edit listeners.
+ * <p>
+ * The edit undoes and redoes the change exactly like the edit created by the document, and it
+ * additionally describes the change: where it happened, how much memory the edit keeps alive and,
+ * for removals, the removed text. This allows an undo history to account for its memory and to
+ * move old edits out of memory.
+ * </p>
+ */
+public final class DocumentEdit implements UndoableEdit {
+
+    private static final int EDIT_BYTES = 96;
+    private static final int ELEMENT_BYTES = 96;
+
+    private final UndoableEdit edit;
+    private final Document document;
+    private final int offset;
+    private final int length;
+    private final boolean insertion;
+    private final char typedChar;
+    private final PieceTableContent.RemovedText removedText;
+    private final long footprint;
+
+    /**
+     * Describes the given edit of the document.
+     *
+     * @param edit        The edit created by the document, which must also be its {@link DocumentEvent}.
+     * @param document    The document.
+     * @param contentEdit The edit created by the content for the same change.
+     * @param typedChar   The character inserted by a single-character insertion, {@code '\0'} otherwise.
+     */
+    DocumentEdit(UndoableEdit edit, Document document, UndoableEdit contentEdit, char typedChar) {
+        DocumentEvent event = (DocumentEvent) edit;
+        this.edit = edit;
+        this.document = document;
+        this.offset = event.getOffset();
+        this.length = event.getLength();
+        this.insertion = event.getType() == DocumentEvent.EventType.INSERT;
+        this.removedText = contentEdit instanceof PieceTableContent.RemovedText
+                ? (PieceTableContent.RemovedText) contentEdit
+                : null;
+        this.typedChar = typedChar;
+
+        long bytes = EDIT_BYTES;
+        DocumentEvent.ElementChange lines = event.getChange(document.getDefaultRootElement());
+        if (lines != null) {
+            bytes += (long) ELEMENT_BYTES * (lines.getChildrenAdded().length + lines.getChildrenRemoved().length);
+        }
+        if (removedText != null) {
+            bytes += 2L * removedText.retainedChars();
+        }
+        this.footprint = bytes;
+    }
+
+    public Document getDocument() { return document; }
+    public int getOffset() { return offset; }
+    public int getLength() { return length; }
+    public boolean isInsertion() { return insertion; }
+
+    /**
+     * Returns the character inserted by a single-character insertion, as made by typing.
+     *
+     * @return The character, or {@code '\0'} for other edits.
+     */
+    public char getTypedChar() {
+        return typedChar;
+    }
+
+    /**
+     * Returns an estimate of the heap memory kept alive by this edit.
+     *
+     * @return The estimate in bytes.
+     */
+    public long getFootprint() {
+        return footprint;
+    }
+
+    /**
+     * Returns whether the removed text of this edit is available, see {@link #writeRemovedText(Writer)}.
+     *
+     * @return True for removals from a {@link PieceTableContent}.
+     */
+    public boolean hasRemovedText() {
+        return removedText != null;
+    }
+
+    /**
+     * Writes the text removed by this edit.
+     *
+     * @param out The destination.
+     * @throws IOException           If the destination cannot be written.
+     * @throws IllegalStateException If the edit is not a removal.
+     */
+    public void writeRemovedText(Writer out) throws IOException {
+        if (removedText == null) {
+            throw new IllegalStateException("Keine Entfernung");
+        }
+        removedText.writeTo(out);
+    }
+
+    @Override
+    public void undo() throws CannotUndoException { edit.undo(); }
+    @Override
+    public boolean canUndo() { return edit.canUndo(); }
+    @Override
+    public void redo() throws CannotRedoException { edit.redo(); }
+    @Override
+    public boolean canRedo() { return edit.canRedo(); }
+    @Override
+    public void die() { edit.die(); }
+    @Override
+    public boolean addEdit(UndoableEdit anEdit) { return false; }
+    @Override
+    public boolean replaceEdit(UndoableEdit anEdit) { return false; }
+    @Override
+    public boolean isSignificant() { return edit.isSignificant(); }
+    @Override
+    public String getPresentationName() { return edit.getPresentationName(); }
+    @Override
+    public String getUndoPresentationName() { return edit.getUndoPresentationName(); }
+    @Override
+    public String getRedoPresentationName() { return edit.getRedoPresentationName(); }
+}
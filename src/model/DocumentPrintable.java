@@ -0,0 +1,266 @@
+package model;
+
+import javax.print.DocFlavor;
+import javax.print.DocPrintJob;
+import javax.print.PrintException;
+import javax.print.SimpleDoc;
+import javax.print.StreamPrintService;
+import javax.print.StreamPrintServiceFactory;
+import javax.print.attribute.HashPrintRequestAttributeSet;
+import javax.print.attribute.standard.JobName;
+import javax.swing.text.BadLocationException;
+import javax.swing.text.Document;
+import javax.swing.text.Element;
+import javax.swing.text.PlainDocument;
+import javax.swing.text.Segment;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.awt.print.PageFormat;
+import java.awt.print.Printable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * Prints a plain text document page by page.
+ * <p>
+ * The page breaks are computed once per page size: every line is wrapped at the imageable width with a
+ * {@link RowBreaker}, and the offset of the first row of each page is stored in a table. Printing a page
+ * then only reads and draws the rows of that page, starting at its offset, so the printer may request the
+ * pages in any order and as often as it likes. The rows of the last line drawn are kept, so a very long
+ * line spanning many pages is only wrapped once.
+ * </p>
+ * <p>
+ * The document must not be changed while it is printed; a document that is still being edited
+ * is printed from a {@link DocumentSnapshot}.
+ * </p>
+ */
+public class DocumentPrintable implements Printable {
+
+    private final Document document;
+    private final Font font;
+    private final Segment segment = new Segment();
+    private final int[] asciiWidths = new int[128];
+    private FontMetrics metrics;
+    private RowBreaker breaker;
+    private double layoutWidth = -1;
+    private double layoutHeight = -1;
+    private int rowsPerPage;
+    private int tabWidth;
+    private int[] pageStarts = new int[0];
+    private int pageCount = 0;
+    private int cachedLine = -1;
+    private int[] cachedRows;
+
+    /**
+     * Constructs a printable for the given document.
+     *
+     * @param document The document to print.
+     * @param font     The font the text is printed in.
+     */
+    public DocumentPrintable(Document document, Font font) {
+        this.document = document;
+        this.font = font;
+    }
+
+    /**
+     * Returns the number of pages needed for the given page format.
+     *
+     * @param pageFormat The size and orientation of the pages.
+     * @return The page count, at least 1.
+     */
+    public synchronized int getPageCount(PageFormat pageFormat) {
+        layout(pageFormat, null);
+        return pageCount;
+    }
+
+    /**
+     * Draws one page of the document.
+     *
+     * @param graphics   The graphics context of the page.
+     * @param pageFormat The size and orientation of the page.
+     * @param pageIndex  The index of the page, starting with 0.
+     * @return {@link #PAGE_EXISTS}, or {@link #NO_SUCH_PAGE} behind the last page.
+     */
+    @Override
+    public synchronized int print(Graphics graphics, PageFormat pageFormat, int pageIndex) {
+        layout(pageFormat, graphics);
+        if (pageIndex < 0 || pageIndex >= pageCount) {
+            return NO_SUCH_PAGE;
+        }
+
+        Graphics2D g2d = (Graphics2D) graphics;
+        g2d.setFont(font);
+        g2d.setColor(Color.BLACK);
+        int x = (int) Math.ceil(pageFormat.getImageableX());
+        int y = (int) Math.ceil(pageFormat.getImageableY()) + metrics.getAscent();
+
+        Element root = document.getDefaultRootElement();
+        int offset = pageStarts[pageIndex];
+        int line = root.getElementIndex(offset);
+        int[] rows = rowsOf(line);
+        int lineStart = root.getElement(line).getStartOffset();
+        int row = Arrays.binarySearch(rows, offset - lineStart);
+        row = row >= 0 ? row : -row - 2;
+
+        for (int printed = 0; printed < rowsPerPage; printed++) {
+            if (row == rows.length) {
+                if (++line == root.getElementCount()) {
+                    break;
+                }
+                rows = rowsOf(line);
+                lineStart = root.getElement(line).getStartOffset();
+                row = 0;
+            }
+            int start = lineStart + rows[row];
+            int end = row + 1 < rows.length ? lineStart + rows[row + 1] : lineEnd(root.getElement(line));
+            drawRow(g2d, start, end, x, y + printed * metrics.getHeight());
+            row++;
+        }
+        return PAGE_EXISTS;
+    }
+
+    /**
+     * Prints the document into a PostScript or, where the platform provides a PDF print service, PDF file,
+     * without a printer or a display, as the batch mode does with {@code --print}. The output type is
+     * chosen by the extension of the file.
+     *
+     * @param output     The file to write.
+     * @param pageFormat The size and orientation of the pages.
+     * @param jobName    The name of the print job, stored in the file.
+     * @return The number of pages printed.
+     * @throws IOException If the file cannot be written or no print service for its type is available.
+     */
+    public int printToFile(Path output, PageFormat pageFormat, String jobName) throws IOException {
+        String mimeType = output.getFileName().toString().toLowerCase(Locale.ROOT).endsWith(".pdf")
+                ? "application/pdf" : DocFlavor.BYTE_ARRAY.POSTSCRIPT.getMimeType();
+        StreamPrintServiceFactory[] factories = StreamPrintServiceFactory.lookupStreamPrintServiceFactories(
+                DocFlavor.SERVICE_FORMATTED.PRINTABLE, mimeType);
+        if (factories.length == 0) {
+            throw new IOException("Kein Druckdienst für " + mimeType + " verfügbar");
+        }
+
+        try (OutputStream stream = Files.newOutputStream(output)) {
+            StreamPrintService service = factories[0].getPrintService(stream);
+            DocPrintJob job = service.createPrintJob();
+            HashPrintRequestAttributeSet attributes = new HashPrintRequestAttributeSet();
+            attributes.add(new JobName(jobName, Locale.getDefault()));
+            Printable pages = (graphics, format, pageIndex) -> print(graphics, pageFormat, pageIndex);
+            job.print(new SimpleDoc(pages, DocFlavor.SERVICE_FORMATTED.PRINTABLE, null), attributes);
+            service.dispose();
+        } catch (PrintException exception) {
+            throw new IOException("Drucken in Datei fehlgeschlagen: " + exception.getMessage(), exception);
+        }
+        return getPageCount(pageFormat);
+    }
+
+    /**
+     * Computes the page table for a page size, unless it has been computed for the same size already.
+     *
+     * @param pageFormat The size and orientation of the pages.
+     * @param graphics   The graphics context providing the font metrics, or null to use an offscreen context.
+     */
+    private void layout(PageFormat pageFormat, Graphics graphics) {
+        if (pageFormat.getImageableWidth() == layoutWidth && pageFormat.getImageableHeight() == layoutHeight) {
+            return;
+        }
+        if (metrics == null) {
+            metrics = graphics != null ? graphics.getFontMetrics(font) : offscreenMetrics(font);
+            for (char c = 0; c < asciiWidths.length; c++) {
+                asciiWidths[c] = metrics.charWidth(c);
+            }
+        }
+        layoutWidth = pageFormat.getImageableWidth();
+        layoutHeight = pageFormat.getImageableHeight();
+        rowsPerPage = Math.max(1, (int) (layoutHeight / metrics.getHeight()));
+        Object tabSize = document.getProperty(PlainDocument.tabSizeAttribute);
+        tabWidth = Math.max(1, (tabSize instanceof Integer ? (Integer) tabSize : 8) * metrics.charWidth('m'));
+        breaker = new RowBreaker(this::charWidth, tabWidth, Math.max(1, (int) layoutWidth), true);
+        cachedLine = -1;
+
+        CharSequence text = new DocumentCharSequence(document);
+        Element root = document.getDefaultRootElement();
+        int[] starts = new int[16];
+        int count = 0;
+        int rowsOnPage = rowsPerPage;
+        for (int line = 0; line < root.getElementCount(); line++) {
+            Element element = root.getElement(line);
+            int[] rows = breaker.breakLine(text, element.getStartOffset(), lineEnd(element));
+            for (int row : rows) {
+                if (rowsOnPage == rowsPerPage) {
+                    if (count == starts.length) {
+                        starts = Arrays.copyOf(starts, count * 2);
+                    }
+                    starts[count++] = element.getStartOffset() + row;
+                    rowsOnPage = 0;
+                }
+                rowsOnPage++;
+            }
+        }
+        pageStarts = Arrays.copyOf(starts, count);
+        pageCount = count;
+    }
+
+    /**
+     * Returns the row starts of a line, reusing those of the previous call for the same line.
+     */
+    private int[] rowsOf(int line) {
+        if (line != cachedLine) {
+            Element element = document.getDefaultRootElement().getElement(line);
+            cachedRows = breaker.breakLine(new DocumentCharSequence(document), element.getStartOffset(), lineEnd(element));
+            cachedLine = line;
+        }
+        return cachedRows;
+    }
+
+    /**
+     * Draws a row, advancing tabs to the tab stops relative to the start of the row, as the breaker measured it.
+     */
+    private void drawRow(Graphics2D g2d, int start, int end, int x, int y) {
+        try {
+            document.getText(start, end - start, segment);
+        } catch (BadLocationException exception) {
+            throw new IllegalStateException(exception);
+        }
+        int position = 0;
+        int runStart = segment.offset;
+        int last = segment.offset + segment.count;
+        for (int i = segment.offset; i <= last; i++) {
+            if (i == last || segment.array[i] == '\t') {
+                if (i > runStart) {
+                    g2d.drawChars(segment.array, runStart, i - runStart, x + position, y);
+                    for (int k = runStart; k < i; k++) {
+                        position += charWidth(segment.array[k]);
+                    }
+                }
+                if (i < last) {
+                    position += tabWidth - position % tabWidth;
+                }
+                runStart = i + 1;
+            }
+        }
+    }
+
+    private int charWidth(int c) {
+        return c < asciiWidths.length ? asciiWidths[c] : metrics.charWidth((char) c);
+    }
+
+    /**
+     * Returns the end of a line without its line break.
+     */
+    private static int lineEnd(Element line) {
+        return Math.max(line.getStartOffset(), line.getEndOffset() - 1);
+    }
+
+    private static FontMetrics offscreenMetrics(Font font) {
+        Graphics2D graphics = new BufferedImage(1, 1, BufferedImage.TYPE_INT_RGB).createGraphics();
+        try {
+            return graphics.getFontMetrics(font);
+        } finally {
+            graphics.dispose();
+        }
+    }
+}
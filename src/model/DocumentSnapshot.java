@@ -0,0 +1,340 @@
+package model;
+
+import javax.swing.event.DocumentListener;
+import javax.swing.event.UndoableEditListener;
+import javax.swing.text.AbstractDocument;
+import javax.swing.text.AttributeSet;
+import javax.swing.text.BadLocationException;
+import javax.swing.text.Document;
+import javax.swing.text.Element;
+import javax.swing.text.PlainDocument;
+import javax.swing.text.Position;
+import javax.swing.text.Segment;
+import javax.swing.text.SimpleAttributeSet;
+import java.util.Arrays;
+import java.util.Dictionary;
+import java.util.Enumeration;
+import java.util.Hashtable;
+
+/**
+ * An unchangeable copy of a document as it was at one point in time, which can be read from any thread.
+ * <p>
+ * Background tasks such as saving, printing and counting matches read a snapshot taken on the EDT
+ * while the user goes on editing the document itself. The snapshot of a {@link PieceTableDocument}
+ * only copies its pieces, as the buffers they refer to are never changed, so taking it costs time
+ * proportional to the number of edits rather than to the length of the text; other documents are
+ * copied as a whole. The line elements are built from the text when they are first requested,
+ * on the thread requesting them.
+ * </p>
+ * <p>
+ * Inserting into or removing from a snapshot throws an {@link UnsupportedOperationException};
+ * listeners are accepted but never notified.
+ * </p>
+ */
+public class DocumentSnapshot implements Document {
+
+    private final AbstractDocument.Content content;
+    private final Hashtable<Object, Object> properties = new Hashtable<>();
+    private LineRoot root;
+
+    /**
+     * Constructs a snapshot around a copy of the content of a document.
+     *
+     * @param content    The copied content, ending with the implied newline.
+     * @param properties The properties of the document.
+     */
+    DocumentSnapshot(AbstractDocument.Content content, Dictionary<Object, Object> properties) {
+        this.content = content;
+        for (Enumeration<Object> keys = properties.keys(); keys.hasMoreElements(); ) {
+            Object key = keys.nextElement();
+            this.properties.put(key, properties.get(key));
+        }
+    }
+
+    /**
+     * Takes a snapshot of a document. Must be called on the EDT, or wherever else the document is changed.
+     *
+     * @param document The document.
+     * @return The snapshot; a snapshot is returned as it is.
+     */
+    public static DocumentSnapshot of(Document document) {
+        if (document instanceof DocumentSnapshot) {
+            return (DocumentSnapshot) document;
+        }
+        if (document instanceof PieceTableDocument) {
+            return ((PieceTableDocument) document).snapshot();
+        }
+
+        PieceTableContent content = new PieceTableContent();
+        Hashtable<Object, Object> properties = new Hashtable<>();
+        Object tabSize = document.getProperty(PlainDocument.tabSizeAttribute);
+        if (tabSize != null) {
+            properties.put(PlainDocument.tabSizeAttribute, tabSize);
+        }
+        document.render(() -> {
+            try {
+                content.insertString(0, document.getText(0, document.getLength()));
+            } catch (BadLocationException exception) {
+                throw new IllegalStateException(exception);
+            }
+        });
+        return new DocumentSnapshot(content, properties);
+    }
+
+    @Override
+    public int getLength() {
+        return content.length() - 1;
+    }
+
+    @Override
+    public String getText(int offset, int length) throws BadLocationException {
+        checkRange(offset, length);
+        return content.getString(offset, length);
+    }
+
+    @Override
+    public void getText(int offset, int length, Segment txt) throws BadLocationException {
+        checkRange(offset, length);
+        content.getChars(offset, length, txt);
+    }
+
+    private void checkRange(int offset, int length) throws BadLocationException {
+        if (offset < 0 || length < 0 || length > getLength() - offset) {
+            throw new BadLocationException("Invalid range", offset);
+        }
+    }
+
+    @Override
+    public Object getProperty(Object key) {
+        return properties.get(key);
+    }
+
+    @Override
+    public void putProperty(Object key, Object value) {
+        if (value == null) {
+            properties.remove(key);
+        } else {
+            properties.put(key, value);
+        }
+    }
+
+    @Override
+    public void insertString(int offset, String str, AttributeSet a) {
+        throw new UnsupportedOperationException("Eine Momentaufnahme kann nicht geändert werden");
+    }
+
+    @Override
+    public void remove(int offs, int len) {
+        throw new UnsupportedOperationException("Eine Momentaufnahme kann nicht geändert werden");
+    }
+
+    @Override
+    public Position createPosition(int offs) throws BadLocationException {
+        if (offs < 0 || offs > content.length()) {
+            throw new BadLocationException("Invalid position", offs);
+        }
+        return () -> offs;
+    }
+
+    @Override
+    public Position getStartPosition() {
+        return () -> 0;
+    }
+
+    @Override
+    public Position getEndPosition() {
+        return content::length;
+    }
+
+    @Override
+    public Element[] getRootElements() {
+        return new Element[] { getDefaultRootElement() };
+    }
+
+    /**
+     * Returns the root of the line elements, finding the line starts in the text on the first call.
+     *
+     * @return The root element.
+     */
+    @Override
+    public synchronized Element getDefaultRootElement() {
+        if (root == null) {
+            root = new LineRoot(findLineStarts());
+        }
+        return root;
+    }
+
+    private int[] findLineStarts() {
+        int[] starts = new int[16];
+        int count = 1;
+        Segment segment = new Segment();
+        segment.setPartialReturn(true);
+        int length = getLength();
+        int offset = 0;
+        try {
+            while (offset < length) {
+                content.getChars(offset, length - offset, segment);
+                for (int i = 0; i < segment.count; i++) {
+                    if (segment.array[segment.offset + i] == '\n') {
+                        if (count == starts.length) {
+                            starts = Arrays.copyOf(starts, count * 2);
+                        }
+                        starts[count++] = offset + i + 1;
+                    }
+                }
+                offset += segment.count;
+            }
+        } catch (BadLocationException exception) {
+            throw new IllegalStateException(exception);
+        }
+        return Arrays.copyOf(starts, count);
+    }
+
+    @Override
+    public void render(Runnable r) {
+        r.run();
+    }
+
+    @Override
+    public void addDocumentListener(DocumentListener listener) {
+    }
+
+    @Override
+    public void removeDocumentListener(DocumentListener listener) {
+    }
+
+    @Override
+    public void addUndoableEditListener(UndoableEditListener listener) {
+    }
+
+    @Override
+    public void removeUndoableEditListener(UndoableEditListener listener) {
+    }
+
+    /**
+     * The root element holding one element per line, as a {@link PlainDocument} does.
+     */
+    private class LineRoot implements Element {
+
+        private final int[] starts;
+
+        LineRoot(int[] starts) {
+            this.starts = starts;
+        }
+
+        @Override
+        public Document getDocument() {
+            return DocumentSnapshot.this;
+        }
+
+        @Override
+        public Element getParentElement() {
+            return null;
+        }
+
+        @Override
+        public String getName() {
+            return AbstractDocument.SectionElementName;
+        }
+
+        @Override
+        public AttributeSet getAttributes() {
+            return SimpleAttributeSet.EMPTY;
+        }
+
+        @Override
+        public int getStartOffset() {
+            return 0;
+        }
+
+        @Override
+        public int getEndOffset() {
+            return content.length();
+        }
+
+        @Override
+        public int getElementIndex(int offset) {
+            int index = Arrays.binarySearch(starts, offset);
+            return Math.max(0, index >= 0 ? index : -index - 2);
+        }
+
+        @Override
+        public int getElementCount() {
+            return starts.length;
+        }
+
+        @Override
+        public Element getElement(int index) {
+            return index >= 0 && index < starts.length ? new Line(this, index) : null;
+        }
+
+        @Override
+        public boolean isLeaf() {
+            return false;
+        }
+    }
+
+    /**
+     * A line, including its line break.
+     */
+    private class Line implements Element {
+
+        private final LineRoot parent;
+        private final int index;
+
+        Line(LineRoot parent, int index) {
+            this.parent = parent;
+            this.index = index;
+        }
+
+        @Override
+        public Document getDocument() {
+            return DocumentSnapshot.this;
+        }
+
+        @Override
+        public Element getParentElement() {
+            return parent;
+        }
+
+        @Override
+        public String getName() {
+            return AbstractDocument.ParagraphElementName;
+        }
+
+        @Override
+        public AttributeSet getAttributes() {
+            return SimpleAttributeSet.EMPTY;
+        }
+
+        @Override
+        public int getStartOffset() {
+            return parent.starts[index];
+        }
+
+        @Override
+        public int getEndOffset() {
+            return index + 1 < parent.starts.length ? parent.starts[index + 1] : content.length();
+        }
+
+        @Override
+        public int getElementIndex(int offset) {
+            return -1;
+        }
+
+        @Override
+        public int getElementCount() {
+            return 0;
+        }
+
+        @Override
+        public Element getElement(int index) {
+            return null;
+        }
+
+        @Override
+        public boolean isLeaf() {
+            return true;
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package model;
+
+import javax.swing.undo.CompoundEdit;
+import javax.swing.undo.UndoableEdit;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A group of edits that is undone and redone as one step, whose members can be inspected.
+ */
+public class EditGroup extends CompoundEdit {
+
+    /**
+     * Returns the edits of this group in the order they were made.
+     *
+     * @return The edits.
+     */
+    public List<UndoableEdit> getEdits() {
+        return Collections.unmodifiableList(edits);
+    }
+}
@@ -0,0 +1,368 @@
+package model;
+
+import javax.swing.text.BadLocationException;
+import javax.swing.text.Document;
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * An append-only journal of the insertions and removals applied to a document since it was
+ * last loaded or saved, so that unsaved changes can be recovered after a crash.
+ * <p>
+ * The journal starts with a header naming the base file the edits apply to and the file the document
+ * is saved to; they differ if the text has been swapped out to a temporary file. Each edit is a
+ * small record protected by a checksum; a record torn by a crash ends the journal. Edits are
+ * collected in memory by {@link #recordInsert(int, String)} and {@link #recordRemove(int, int)},
+ * which never touch the disk, and are written sequentially by {@link #flush()}. The pending
+ * records are bounded: once more text is waiting than {@link #MAX_PENDING_BYTES}, the journal is
+ * emptied and stays inactive until the next {@link #reset(Path, Path)}, as it could no longer
+ * reproduce the document.
+ * </p>
+ */
+public class EditJournal implements Closeable {
+
+    /** The maximum number of bytes waiting to be written. */
+    public static final int MAX_PENDING_BYTES = 16 * 1024 * 1024;
+
+    private static final int MAGIC = 0x544A4E32; // "TJN2"
+    private static final byte INSERT = 'I';
+    private static final byte REMOVE = 'R';
+
+    private final Path path;
+    private final FileChannel channel;
+    private final FileLock lock;
+    private final Object writeLock = new Object();
+
+    // Guarded by this
+    private ByteArrayOutputStream pending = new ByteArrayOutputStream();
+    private boolean truncatePending = false;
+    private boolean active = false;
+
+    /**
+     * Opens the journal file for writing and locks it against other instances of the editor.
+     * Existing content is kept until the first {@link #reset(Path, Path)}.
+     *
+     * @param path The journal file.
+     * @throws IOException If the file cannot be opened or is in use by another instance.
+     */
+    public EditJournal(Path path) throws IOException {
+        this.path = path;
+        Files.createDirectories(path.toAbsolutePath().getParent());
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        FileLock fileLock;
+        try {
+            fileLock = channel.tryLock();
+        } catch (OverlappingFileLockException exception) {
+            fileLock = null; // Locked within this process
+        }
+        if (fileLock == null) {
+            channel.close();
+            throw new IOException("Das Journal wird von einer anderen Instanz verwendet: " + path);
+        }
+        this.lock = fileLock;
+    }
+
+    public Path getPath() {
+        return path;
+    }
+
+    /**
+     * Starts a new journal for edits applied to the given base file.
+     * The previous edits are discarded when the journal is flushed next.
+     *
+     * @param base The file holding the text the edits apply to, or null for a new document.
+     * @param file The file the document is bound to, or null for an untitled document.
+     * @throws IOException If the base file cannot be examined.
+     */
+    public synchronized void reset(Path base, Path file) throws IOException {
+        ByteArrayOutputStream header = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(header);
+        out.writeInt(MAGIC);
+        out.writeUTF(base != null ? base.toAbsolutePath().toString() : "");
+        out.writeUTF(file != null ? file.toAbsolutePath().toString() : "");
+        out.writeLong(base != null ? Files.size(base) : 0);
+        out.writeLong(base != null ? Files.getLastModifiedTime(base).toMillis() : 0);
+
+        pending = header;
+        truncatePending = true;
+        active = true;
+    }
+
+    /**
+     * Stops recording and empties the journal with the next flush.
+     */
+    public synchronized void clear() {
+        pending = new ByteArrayOutputStream();
+        truncatePending = true;
+        active = false;
+    }
+
+    /**
+     * Returns whether edits are currently being recorded.
+     *
+     * @return True after a reset, until the journal is cleared or overflows.
+     */
+    public synchronized boolean isActive() {
+        return active;
+    }
+
+    /**
+     * Records the insertion of text.
+     *
+     * @param offset The offset of the insertion.
+     * @param text   The inserted text.
+     */
+    public synchronized void recordInsert(int offset, String text) {
+        if (!active) {
+            return;
+        }
+        if (pending.size() + 2L * text.length() > MAX_PENDING_BYTES) {
+            clear();
+            return;
+        }
+        byte[] chars = text.getBytes(StandardCharsets.UTF_16BE);
+        ByteBuffer record = ByteBuffer.allocate(9 + chars.length + 8);
+        record.put(INSERT).putInt(offset).putInt(text.length()).put(chars);
+        appendRecord(record);
+    }
+
+    /**
+     * Records the removal of text.
+     *
+     * @param offset The offset of the removal.
+     * @param length The number of removed characters.
+     */
+    public synchronized void recordRemove(int offset, int length) {
+        if (!active) {
+            return;
+        }
+        ByteBuffer record = ByteBuffer.allocate(9 + 8);
+        record.put(REMOVE).putInt(offset).putInt(length);
+        appendRecord(record);
+    }
+
+    /**
+     * Appends the checksum of the record and adds it to the pending bytes.
+     */
+    private void appendRecord(ByteBuffer record) {
+        CRC32 checksum = new CRC32();
+        checksum.update(record.array(), 0, record.position());
+        record.putLong(checksum.getValue());
+        pending.write(record.array(), 0, record.position());
+    }
+
+    /**
+     * Writes the pending records to the end of the journal and forces them to the disk.
+     * Flushes are serialised, so the records reach the file in the order they were recorded.
+     *
+     * @throws IOException If the journal cannot be written.
+     */
+    public void flush() throws IOException {
+        synchronized (writeLock) {
+            byte[] bytes;
+            boolean truncate;
+            synchronized (this) {
+                if (pending.size() == 0 && !truncatePending) {
+                    return;
+                }
+                bytes = pending.toByteArray();
+                truncate = truncatePending;
+                pending = new ByteArrayOutputStream();
+                truncatePending = false;
+            }
+
+            if (truncate) {
+                channel.truncate(0);
+                channel.position(0);
+            }
+            ByteBuffer buffer = ByteBuffer.wrap(bytes);
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(false);
+        }
+    }
+
+    /**
+     * Flushes the journal and releases the file.
+     *
+     * @throws IOException If the journal cannot be written.
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            flush();
+        } finally {
+            lock.release();
+            channel.close();
+        }
+    }
+
+    /**
+     * Reads a journal left behind by a previous session.
+     *
+     * @param path The journal file.
+     * @return The recorded edits, or null if the file contains neither edits nor swapped-out text.
+     * @throws IOException If the file cannot be read.
+     */
+    public static Recovery read(Path path) throws IOException {
+        if (!Files.exists(path) || Files.size(path) == 0) {
+            return null;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+            if (in.readInt() != MAGIC) {
+                return null;
+            }
+            String base = in.readUTF();
+            String file = in.readUTF();
+            Recovery recovery = new Recovery(base.isEmpty() ? null : Path.of(base), file.isEmpty() ? null : Path.of(file),
+                    in.readLong(), in.readLong());
+            // No record holds more text than could be pending, nor more than the file itself
+            long maxTextBytes = Math.min(MAX_PENDING_BYTES, Files.size(path));
+            while (recovery.readRecord(in, maxTextBytes)) {
+                // Records are collected until the end or the first damaged record
+            }
+            return recovery.edits.isEmpty() && !recovery.isSwapped() ? null : recovery;
+        } catch (EOFException exception) {
+            return null; // The header itself is incomplete
+        }
+    }
+
+    /**
+     * The edits of a journal and the base file they apply to.
+     */
+    public static class Recovery {
+        private final Path base;
+        private final Path file;
+        private final long baseSize;
+        private final long baseModified;
+        private final List<Edit> edits = new ArrayList<>();
+
+        Recovery(Path base, Path file, long baseSize, long baseModified) {
+            this.base = base;
+            this.file = file;
+            this.baseSize = baseSize;
+            this.baseModified = baseModified;
+        }
+
+        /**
+         * Reads the next record. A record whose length cannot have been written is treated as torn,
+         * before anything is allocated for its text.
+         *
+         * @param maxTextBytes The maximum size of the text of a record.
+         * @return False at the end of the journal or at a damaged record.
+         */
+        private boolean readRecord(DataInputStream in, long maxTextBytes) throws IOException {
+            try {
+                byte type = in.readByte();
+                int offset = in.readInt();
+                int length = in.readInt();
+                if (type != INSERT && type != REMOVE || length < 0 || type == INSERT && 2L * length > maxTextBytes) {
+                    return false;
+                }
+                byte[] chars = new byte[type == INSERT ? 2 * length : 0];
+                in.readFully(chars);
+
+                ByteBuffer record = ByteBuffer.allocate(9 + chars.length);
+                record.put(type).putInt(offset).putInt(length).put(chars);
+                CRC32 checksum = new CRC32();
+                checksum.update(record.array());
+                if (in.readLong() != checksum.getValue()) {
+                    return false;
+                }
+                edits.add(new Edit(offset, length, type == INSERT ? new String(chars, StandardCharsets.UTF_16BE) : null));
+                return true;
+            } catch (EOFException exception) {
+                return false;
+            }
+        }
+
+        /**
+         * Returns the file the edits apply to.
+         *
+         * @return The base file, or null if the edits apply to a new, empty document.
+         */
+        public Path getBase() {
+            return base;
+        }
+
+        /**
+         * Returns the file the document was bound to.
+         *
+         * @return The file, or null for an untitled document.
+         */
+        public Path getFile() {
+            return file;
+        }
+
+        /**
+         * Returns whether the base is a temporary copy of the text rather than the bound file.
+         *
+         * @return True if the text had been swapped out.
+         */
+        public boolean isSwapped() {
+            return base != null && !base.equals(file);
+        }
+
+        public int getEditCount() {
+            return edits.size();
+        }
+
+        /**
+         * Returns whether the base file is still the file the edits were recorded against.
+         *
+         * @return True if the base file has the recorded size and modification time.
+         */
+        public boolean isBaseUnchanged() {
+            if (base == null) {
+                return true;
+            }
+            try {
+                return Files.size(base) == baseSize && Files.getLastModifiedTime(base).toMillis() == baseModified;
+            } catch (IOException exception) {
+                return false;
+            }
+        }
+
+        /**
+         * Applies the recorded edits in order to a document holding the content of the base file.
+         *
+         * @param document The document to change.
+         * @throws BadLocationException If an edit does not fit the document.
+         */
+        public void replay(Document document) throws BadLocationException {
+            for (Edit edit : edits) {
+                if (edit.text != null) {
+                    document.insertString(edit.offset, edit.text, null);
+                } else {
+                    document.remove(edit.offset, edit.length);
+                }
+            }
+        }
+    }
+
+    /**
+     * A recorded insertion or removal.
+     */
+    private static class Edit {
+        final int offset;
+        final int length;
+        final String text;
+
+        Edit(int offset, int length, String text) {
+            this.offset = offset;
+            this.length = length;
+            this.text = text;
+        }
+    }
+}
@@ -0,0 +1,176 @@
+package model;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+
+/**
+ * Reads the text appended to a growing file, such as a log that is still being written.
+ * <p>
+ * Each {@link #poll(int)} reads only the bytes behind the offset reached so far through a
+ * {@link FileChannel} and decodes them; a character whose bytes have only partly been written
+ * is kept until the rest arrives. If the file has become shorter or has been replaced by another
+ * file, as happens when logs are rotated, reading starts over at its beginning and
+ * {@link #hasRestarted()} reports it.
+ * </p>
+ * <p>
+ * The text is returned as a document holds it: a byte order mark at the start of the file is
+ * skipped and CRLF and CR line endings are converted to LF with {@link TextFormat#toLineFeeds}.
+ * A CR at the end of the text read is held back until the next poll, so a CRLF whose LF has
+ * not been written yet does not become two line breaks.
+ * </p>
+ */
+public class FileTail {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final Path path;
+    private final CharsetDecoder decoder;
+    private final ByteBuffer bytes = ByteBuffer.allocate(BUFFER_SIZE);
+    private final CharBuffer chars = CharBuffer.allocate(BUFFER_SIZE);
+    private long offset;
+    private Object fileKey;
+    private boolean skipToLineStart;
+    private boolean atFileStart;
+    private boolean carriageReturnPending = false;
+    private boolean restarted = false;
+
+    /**
+     * Constructs a reader for the text appended behind the given offset.
+     *
+     * @param path    The file.
+     * @param charset The encoding of the file.
+     * @param offset  The byte offset to start reading at; a line cut by it is skipped.
+     */
+    public FileTail(Path path, Charset charset, long offset) {
+        this.path = path;
+        this.decoder = charset.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        this.offset = offset;
+        this.skipToLineStart = offset > 0;
+        this.atFileStart = offset == 0;
+    }
+
+    /**
+     * Constructs a reader starting with the last complete lines within the given number of bytes
+     * at the end of the file, like {@code tail}.
+     *
+     * @param path    The file.
+     * @param charset The encoding of the file.
+     * @param count   The number of bytes at the end of the file to read first.
+     * @return The reader.
+     * @throws IOException If the size of the file cannot be determined.
+     */
+    public static FileTail ofLastBytes(Path path, Charset charset, long count) throws IOException {
+        return new FileTail(path, charset, Math.max(0, Files.size(path) - count));
+    }
+
+    /**
+     * Reads the text appended since the last call, at most the given number of bytes.
+     * A missing file, for example while a log is being rotated, reads as no text.
+     *
+     * @param maxBytes The maximum number of bytes to read.
+     * @return The appended text, possibly empty.
+     * @throws IOException If the file cannot be read.
+     */
+    public String poll(int maxBytes) throws IOException {
+        restarted = false;
+        StringBuilder text = new StringBuilder();
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            Object key = Files.readAttributes(path, BasicFileAttributes.class).fileKey();
+            long size = channel.size();
+            if (size < offset || (fileKey != null && key != null && !key.equals(fileKey))) {
+                restart();
+            }
+            fileKey = key;
+
+            long end = Math.min(size, offset + maxBytes);
+            channel.position(offset);
+            while (offset < end) {
+                bytes.limit(bytes.position() + (int) Math.min(bytes.capacity() - bytes.position(), end - offset));
+                int read = channel.read(bytes);
+                if (read <= 0) {
+                    break;
+                }
+                offset += read;
+                bytes.flip();
+                CoderResult result;
+                do {
+                    result = decoder.decode(bytes, chars, false);
+                    chars.flip();
+                    text.append(chars);
+                    chars.clear();
+                } while (result.isOverflow());
+                bytes.compact(); // Keeps the bytes of an incomplete character
+            }
+        } catch (NoSuchFileException exception) {
+            return "";
+        }
+
+        if (atFileStart && text.length() > 0) {
+            if (text.charAt(0) == '\uFEFF') {
+                text.deleteCharAt(0); // The byte order mark
+            }
+            atFileStart = false;
+        }
+        if (carriageReturnPending) {
+            text.insert(0, '\r');
+            carriageReturnPending = false;
+        }
+        if (text.length() > 0 && text.charAt(text.length() - 1) == '\r') {
+            text.setLength(text.length() - 1);
+            carriageReturnPending = true;
+        }
+        String converted = TextFormat.toLineFeeds(text.toString());
+
+        if (skipToLineStart) {
+            int lineEnd = converted.indexOf('\n');
+            if (lineEnd < 0) {
+                return "";
+            }
+            converted = converted.substring(lineEnd + 1);
+            skipToLineStart = false;
+        }
+        return converted;
+    }
+
+    /**
+     * Returns whether the last {@link #poll(int)} started over at the beginning of the file,
+     * because the file had become shorter or had been replaced.
+     *
+     * @return True if the text read before is no longer part of the file.
+     */
+    public boolean hasRestarted() {
+        return restarted;
+    }
+
+    /**
+     * Returns the byte offset up to which the file has been read.
+     *
+     * @return The offset.
+     */
+    public long getOffset() {
+        return offset;
+    }
+
+    private void restart() {
+        offset = 0;
+        bytes.clear();
+        decoder.reset();
+        skipToLineStart = false;
+        atFileStart = true;
+        carriageReturnPending = false;
+        restarted = true;
+    }
+}
@@ -0,0 +1,323 @@
+package model;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.PosixFileAttributeView;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Applies a list of {@link TextTransform}s to text files without opening them in an editor.
+ * <p>
+ * A file is decoded chunk by chunk in its detected {@link TextFormat}, with all line endings converted to
+ * {@code '\n'}, and collected into blocks of whole lines of about {@link #BLOCK_SIZE} characters. Each
+ * block is passed through the transforms and encoded into a temporary file next to the original, so only
+ * one block is held in memory, however large the file is. If anything has changed, the temporary file is
+ * moved over the original in one atomic step; otherwise it is deleted and the original stays untouched.
+ * </p>
+ * <p>
+ * As the transforms see one block at a time, a match cannot span the boundary between two blocks, which
+ * always lies behind a line break. A single line longer than a block is kept in one block as a whole.
+ * Files that are not valid in their detected charset, and replacements that cannot be encoded in it,
+ * are reported as errors instead of being written with replacement characters.
+ * </p>
+ * <p>
+ * A transformer keeps no state between files, so several threads may use it at once.
+ * </p>
+ */
+public class FileTransformer {
+
+    public static final int BLOCK_SIZE = 1024 * 1024;
+    private static final int CHUNK_SIZE = 64 * 1024;
+
+    private final List<TextTransform> transforms;
+    private final TextFormat.LineEnding lineEnding;
+    private final boolean dryRun;
+    private final int blockSize;
+
+    /**
+     * Constructs a transformer.
+     *
+     * @param transforms The transforms, applied to each block in this order.
+     * @param lineEnding The line ending of the written files, or null to keep the detected one.
+     * @param dryRun     Whether the changes are only counted and no file is written.
+     */
+    public FileTransformer(List<TextTransform> transforms, TextFormat.LineEnding lineEnding, boolean dryRun) {
+        this(transforms, lineEnding, dryRun, BLOCK_SIZE);
+    }
+
+    FileTransformer(List<TextTransform> transforms, TextFormat.LineEnding lineEnding, boolean dryRun, int blockSize) {
+        this.transforms = List.copyOf(transforms);
+        this.lineEnding = lineEnding;
+        this.dryRun = dryRun;
+        this.blockSize = blockSize;
+    }
+
+    /**
+     * Transforms a file in place.
+     *
+     * @param path The file.
+     * @return The number of changes and whether the file has changed.
+     * @throws IOException If the file cannot be read, decoded, encoded or written.
+     */
+    public Result transform(Path path) throws IOException {
+        long startTime = System.nanoTime();
+        // A symbolic link is kept and the file it points to is transformed
+        Path file = path.toRealPath();
+        TextFormat source = TextFormat.detect(file);
+        TextFormat target = lineEnding == null ? source : source.withLineEnding(lineEnding);
+        Path tempFile = dryRun ? null : Files.createTempFile(file.getParent(), "." + file.getFileName(), ".tmp");
+        boolean moved = false;
+
+        try {
+            Pass pass = new Pass(source, target);
+            try (FileChannel input = FileChannel.open(file, StandardOpenOption.READ);
+                 FileChannel output = tempFile == null ? null
+                         : FileChannel.open(tempFile, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                pass.run(input, output);
+            }
+            boolean changed = pass.changeCount > 0 || !target.equals(source);
+            if (changed && tempFile != null) {
+                if (Files.getFileAttributeView(file, PosixFileAttributeView.class) != null) {
+                    Files.setPosixFilePermissions(tempFile, Files.getPosixFilePermissions(file));
+                }
+                moveIntoPlace(tempFile, file);
+                moved = true;
+            }
+            return new Result(path, source, pass.bytesRead, pass.changeCount, changed,
+                    System.nanoTime() - startTime);
+        } finally {
+            if (tempFile != null && !moved) {
+                Files.deleteIfExists(tempFile);
+            }
+        }
+    }
+
+    private static void moveIntoPlace(Path file, Path target) throws IOException {
+        try {
+            Files.move(file, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException exception) {
+            Files.move(file, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * The buffers and counters of transforming one file.
+     */
+    private class Pass {
+        private final TextFormat source;
+        private final TextFormat target;
+        private final CharsetDecoder decoder;
+        private final CharsetEncoder encoder;
+        private final ByteBuffer outputBytes = ByteBuffer.allocateDirect(CHUNK_SIZE);
+        private final String separator;
+        private FileChannel output;
+        private char[] block = new char[blockSize + CHUNK_SIZE];
+        private int length = 0;
+        private boolean afterCarriageReturn = false;
+        private long bytesRead = 0;
+        private int changeCount = 0;
+
+        Pass(TextFormat source, TextFormat target) {
+            this.source = source;
+            this.target = target;
+            decoder = source.getCharset().newDecoder()
+                    .onMalformedInput(CodingErrorAction.REPORT)
+                    .onUnmappableCharacter(CodingErrorAction.REPORT);
+            encoder = target.getCharset().newEncoder()
+                    .onMalformedInput(CodingErrorAction.REPORT)
+                    .onUnmappableCharacter(CodingErrorAction.REPORT);
+            separator = target.getLineEnding().getSeparator();
+        }
+
+        void run(FileChannel input, FileChannel output) throws IOException {
+            this.output = output;
+            outputBytes.put(target.getByteOrderMark());
+            input.position(source.getByteOrderMark().length);
+            bytesRead = input.position();
+            ByteBuffer bytes = ByteBuffer.allocateDirect(CHUNK_SIZE);
+            CharBuffer chars = CharBuffer.allocate(CHUNK_SIZE);
+
+            boolean endOfInput = false;
+            while (!endOfInput) {
+                int read = input.read(bytes);
+                endOfInput = read < 0;
+                bytesRead += Math.max(read, 0);
+                bytes.flip();
+                CoderResult result;
+                do {
+                    result = decoder.decode(bytes, chars, endOfInput);
+                    if (result.isError()) {
+                        throw new IOException("Datei ist nicht als " + source.getCharset().name()
+                                + " lesbar (Byte " + (bytesRead - bytes.remaining()) + ")");
+                    }
+                    collect(chars);
+                } while (result.isOverflow());
+                bytes.compact();
+            }
+            decoder.flush(chars);
+            collect(chars);
+            transformBlock(length);
+            finish();
+        }
+
+        /**
+         * Appends decoded characters to the block, converting line endings, and transforms the block once it is full.
+         */
+        private void collect(CharBuffer chars) throws IOException {
+            chars.flip();
+            if (length + chars.remaining() > block.length) {
+                block = Arrays.copyOf(block, Math.max(block.length * 2, length + chars.remaining()));
+            }
+            while (chars.hasRemaining()) {
+                char c = chars.get();
+                if (c == '\n' && afterCarriageReturn) {
+                    afterCarriageReturn = false;
+                    continue;
+                }
+                afterCarriageReturn = c == '\r';
+                block[length++] = afterCarriageReturn ? '\n' : c;
+            }
+            chars.clear();
+
+            if (length >= blockSize) {
+                int cut = length;
+                while (cut > 0 && block[cut - 1] != '\n') {
+                    cut--;
+                }
+                // Without a line break the block keeps growing until the line ends
+                if (cut > 0) {
+                    transformBlock(cut);
+                }
+            }
+        }
+
+        /**
+         * Passes the first characters of the block through all transforms, writes the result and
+         * moves the remaining characters to the front of the block.
+         */
+        private void transformBlock(int count) throws IOException {
+            char[] text = block;
+            int textLength = count;
+            for (TextTransform transform : transforms) {
+                RebuiltRegion region = transform.apply(text, textLength);
+                if (region == null) {
+                    continue;
+                }
+                changeCount += region.getMatchCount();
+                String replacement = region.getText();
+                char[] rebuilt = new char[textLength - (region.getEnd() - region.getStart()) + replacement.length()];
+                System.arraycopy(text, 0, rebuilt, 0, region.getStart());
+                replacement.getChars(0, replacement.length(), rebuilt, region.getStart());
+                System.arraycopy(text, region.getEnd(), rebuilt, region.getStart() + replacement.length(),
+                        textLength - region.getEnd());
+                text = rebuilt;
+                textLength = rebuilt.length;
+            }
+            write(text, textLength);
+            System.arraycopy(block, count, block, 0, length - count);
+            length -= count;
+        }
+
+        /**
+         * Encodes characters into the output, replacing each line feed by the separator of the target format.
+         */
+        private void write(char[] text, int count) throws IOException {
+            if (output == null) {
+                return;
+            }
+            CharBuffer chars;
+            if (separator.equals("\n")) {
+                chars = CharBuffer.wrap(text, 0, count);
+            } else {
+                StringBuilder converted = new StringBuilder(count + count / 16);
+                for (int i = 0; i < count; i++) {
+                    if (text[i] == '\n') {
+                        converted.append(separator);
+                    } else {
+                        converted.append(text[i]);
+                    }
+                }
+                chars = CharBuffer.wrap(converted);
+            }
+            encode(chars, false);
+        }
+
+        private void finish() throws IOException {
+            if (output == null) {
+                return;
+            }
+            encode(CharBuffer.allocate(0), true);
+            while (encoder.flush(outputBytes).isOverflow()) {
+                writeBuffer();
+            }
+            writeBuffer();
+            output.force(true);
+        }
+
+        private void encode(CharBuffer chars, boolean endOfInput) throws IOException {
+            CoderResult result = encoder.encode(chars, outputBytes, endOfInput);
+            while (!result.isUnderflow()) {
+                if (result.isError()) {
+                    throw new IOException("Text ist nicht als " + target.getCharset().name()
+                            + " darstellbar");
+                }
+                writeBuffer();
+                result = encoder.encode(chars, outputBytes, endOfInput);
+            }
+        }
+
+        private void writeBuffer() throws IOException {
+            outputBytes.flip();
+            while (outputBytes.hasRemaining()) {
+                output.write(outputBytes);
+            }
+            outputBytes.clear();
+        }
+    }
+
+    /**
+     * The outcome of transforming one file.
+     */
+    public static class Result {
+        private final Path path;
+        private final TextFormat format;
+        private final long byteCount;
+        private final int changeCount;
+        private final boolean changed;
+        private final long elapsedNanos;
+
+        Result(Path path, TextFormat format, long byteCount, int changeCount, boolean changed, long elapsedNanos) {
+            this.path = path;
+            this.format = format;
+            this.byteCount = byteCount;
+            this.changeCount = changeCount;
+            this.changed = changed;
+            this.elapsedNanos = elapsedNanos;
+        }
+
+        public Path getPath() { return path; }
+        public TextFormat getFormat() { return format; }
+        public long getByteCount() { return byteCount; }
+        public int getChangeCount() { return changeCount; }
+        public long getElapsedNanos() { return elapsedNanos; }
+
+        /**
+         * Returns whether the file has been rewritten, or in a dry run would have been.
+         *
+         * @return True if a transform has changed the text or the line ending has been converted.
+         */
+        public boolean isChanged() { return changed; }
+    }
+}
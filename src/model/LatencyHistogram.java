@@ -0,0 +1,101 @@
+package model;
+
+import java.util.Arrays;
+
+/**
+ * Records a distribution of latencies with a bounded relative error, in the style of an HdrHistogram.
+ * <p>
+ * Values below 128 are counted exactly. Larger values are counted in buckets covering a power of two each,
+ * split into 64 sub-buckets, so a value is reported at most 1/64 (about 1.6 %) above what was recorded,
+ * whatever its magnitude. Recording is a few shifts and an array increment and never allocates, so it can
+ * run for every event. The histogram may be recorded by one thread and read by another.
+ * </p>
+ */
+public class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 6;
+    private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+    private static final int EXACT_LIMIT = SUB_BUCKET_COUNT * 2;
+
+    private final long[] counts = new long[indexOf(Long.MAX_VALUE) + 1];
+    private long totalCount = 0;
+    private long sum = 0;
+    private long max = 0;
+
+    /**
+     * Records a value.
+     *
+     * @param value The value, for example a duration in nanoseconds; negative values are recorded as 0.
+     */
+    public synchronized void record(long value) {
+        long recorded = Math.max(0, value);
+        counts[indexOf(recorded)]++;
+        totalCount++;
+        sum += recorded;
+        max = Math.max(max, recorded);
+    }
+
+    public synchronized long getTotalCount() { return totalCount; }
+    public synchronized long getMax() { return max; }
+
+    /**
+     * Returns the mean of all recorded values.
+     *
+     * @return The mean, or 0 if nothing has been recorded.
+     */
+    public synchronized double getMean() {
+        return totalCount == 0 ? 0 : (double) sum / totalCount;
+    }
+
+    /**
+     * Returns the value below or at which the given percentage of all recorded values lie.
+     *
+     * @param percentile The percentile between 0 and 100.
+     * @return The highest value of the bucket containing the percentile, but at most the maximum; 0 if empty.
+     */
+    public synchronized long getValueAtPercentile(double percentile) {
+        if (totalCount == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(Math.min(100, Math.max(0, percentile)) / 100 * totalCount));
+        long seen = 0;
+        for (int index = 0; index < counts.length; index++) {
+            seen += counts[index];
+            if (seen >= rank) {
+                return Math.min(highestValueOf(index), max);
+            }
+        }
+        return max;
+    }
+
+    /**
+     * Removes all recorded values.
+     */
+    public synchronized void reset() {
+        Arrays.fill(counts, 0);
+        totalCount = 0;
+        sum = 0;
+        max = 0;
+    }
+
+    /**
+     * Returns the bucket of a value: the value itself below {@link #EXACT_LIMIT}, otherwise the number of
+     * bits shifted out of it, times the number of sub-buckets, plus its remaining top bits.
+     */
+    private static int indexOf(long value) {
+        if (value < EXACT_LIMIT) {
+            return (int) value;
+        }
+        int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+        return shift * SUB_BUCKET_COUNT + (int) (value >>> shift);
+    }
+
+    private static long highestValueOf(int index) {
+        if (index < EXACT_LIMIT) {
+            return index;
+        }
+        int shift = index / SUB_BUCKET_COUNT - 1;
+        long subBucket = index - shift * SUB_BUCKET_COUNT;
+        return ((subBucket + 1) << shift) - 1;
+    }
+}
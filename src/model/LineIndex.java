@@ -0,0 +1,204 @@
+package model;
+
+import javax.swing.text.AbstractDocument;
+import javax.swing.text.BadLocationException;
+import javax.swing.text.Segment;
+import java.util.Arrays;
+
+/**
+ * Keeps the start offsets of all lines of a document content in a primitive array.
+ * <p>
+ * The starts are sorted and split by a movable gap, like the marks of a {@link MarkTable}:
+ * starts in front of the gap are stored as they are, starts behind it relative to a shared shift.
+ * An edit moves the gap behind the edited line and adjusts the shift, so its cost depends on the
+ * number of line breaks inserted or removed and on the distance to the previous edit, but not on the
+ * number of lines. Mapping an offset to its line is a binary search over the array, without the
+ * {@link javax.swing.text.Position} lookups needed by the line elements.
+ * </p>
+ * <p>
+ * The index also holds the start behind the implied newline at the end of the content, so the end of
+ * line {@code n} is always the start of line {@code n + 1}.
+ * </p>
+ */
+public class LineIndex {
+
+    private static final int READ_CHUNK_SIZE = 16 * 1024;
+
+    private final Segment segment = new Segment();
+    private int[] starts = new int[16];
+    private int gapStart = 1;
+    private int gapEnd = starts.length;
+    private int shift = 0;
+    private int appendedLength = 0;
+
+    /**
+     * Constructs the index of an empty text, consisting of a single line starting at offset 0.
+     */
+    public LineIndex() {
+        segment.setPartialReturn(true);
+    }
+
+    /**
+     * Returns the number of lines.
+     *
+     * @return The line count, at least 1 once the implied newline has been added.
+     */
+    public int getLineCount() {
+        return Math.max(1, size() - 1);
+    }
+
+    /**
+     * Returns the start offset of a line.
+     *
+     * @param line The line index.
+     * @return The offset of the first character of the line.
+     * @throws IndexOutOfBoundsException If the line does not exist.
+     */
+    public int getLineStart(int line) {
+        if (line < 0 || line >= getLineCount()) {
+            throw new IndexOutOfBoundsException("Zeile " + line + " existiert nicht");
+        }
+        return get(line);
+    }
+
+    /**
+     * Returns the end offset of a line, which is the offset behind its line break.
+     *
+     * @param line The line index.
+     * @return The start offset of the following line.
+     * @throws IndexOutOfBoundsException If the line does not exist.
+     */
+    public int getLineEnd(int line) {
+        if (line < 0 || line >= getLineCount()) {
+            throw new IndexOutOfBoundsException("Zeile " + line + " existiert nicht");
+        }
+        return line + 1 < size() ? get(line + 1) : get(line);
+    }
+
+    /**
+     * Returns the line containing an offset.
+     *
+     * @param offset The offset.
+     * @return The index of the line; offsets beyond the end belong to the last line.
+     */
+    public int getLineOfOffset(int offset) {
+        int low = 0;
+        int high = getLineCount() - 1;
+        while (low < high) {
+            int middle = (low + high + 1) >>> 1;
+            if (get(middle) <= offset) {
+                low = middle;
+            } else {
+                high = middle - 1;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Adds text to the end of the indexed text. Used for scanning initial content in one pass.
+     *
+     * @param array  The characters.
+     * @param offset The index of the first character.
+     * @param count  The number of characters.
+     */
+    void append(char[] array, int offset, int count) {
+        moveGap(size());
+        for (int i = 0; i < count; i++) {
+            if (array[offset + i] == '\n') {
+                addAtGap(appendedLength + i + 1);
+            }
+        }
+        appendedLength += count;
+    }
+
+    /**
+     * Updates the index after text has been inserted into the content.
+     *
+     * @param content The content after the insertion.
+     * @param offset  The insertion offset.
+     * @param length  The number of inserted characters.
+     */
+    void afterInsert(AbstractDocument.Content content, int offset, int length) {
+        moveGap(getLineOfOffset(offset) + 1);
+        shift += length;
+
+        int end = offset + length;
+        int position = offset;
+        try {
+            while (position < end) {
+                content.getChars(position, Math.min(READ_CHUNK_SIZE, end - position), segment);
+                for (int i = 0; i < segment.count; i++) {
+                    if (segment.array[segment.offset + i] == '\n') {
+                        addAtGap(position + i + 1);
+                    }
+                }
+                position += segment.count;
+            }
+        } catch (BadLocationException exception) {
+            throw new IllegalStateException(exception);
+        }
+    }
+
+    /**
+     * Updates the index for a removal. Lines whose line break is removed are joined with the following line.
+     *
+     * @param offset The start of the removed range.
+     * @param length The number of removed characters.
+     */
+    void remove(int offset, int length) {
+        moveGap(getLineOfOffset(offset) + 1);
+        int end = offset + length;
+        while (gapEnd < starts.length && starts[gapEnd] + shift <= end) {
+            gapEnd++;
+        }
+        shift -= length;
+    }
+
+    private int size() {
+        return starts.length - (gapEnd - gapStart);
+    }
+
+    private int get(int index) {
+        return index < gapStart ? starts[index] : starts[index + gapEnd - gapStart] + shift;
+    }
+
+    /**
+     * Moves the gap so that it begins at the given index, converting the passed starts between
+     * absolute and shifted form.
+     */
+    private void moveGap(int index) {
+        if (index < gapStart) {
+            int gapLength = gapEnd - gapStart;
+            for (int i = gapStart - 1; i >= index; i--) {
+                starts[i + gapLength] = starts[i] - shift;
+            }
+            gapStart = index;
+            gapEnd = index + gapLength;
+        } else if (index > gapStart) {
+            int gapLength = gapEnd - gapStart;
+            for (int i = gapStart; i < index; i++) {
+                starts[i] = starts[i + gapLength] + shift;
+            }
+            gapStart = index;
+            gapEnd = index + gapLength;
+        }
+        if (gapEnd == starts.length) {
+            shift = 0; // Nothing is stored behind the gap
+        }
+    }
+
+    /**
+     * Inserts a start at the beginning of the gap, growing the array if the gap is used up.
+     */
+    private void addAtGap(int start) {
+        if (gapStart == gapEnd) {
+            int tail = starts.length - gapEnd;
+            int[] grown = Arrays.copyOf(starts, starts.length * 2);
+            System.arraycopy(starts, gapEnd, grown, grown.length - tail, tail);
+            gapEnd = grown.length - tail;
+            starts = grown;
+        }
+        starts[gapStart++] = start;
+    }
+}
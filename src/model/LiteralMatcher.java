@@ -0,0 +1,358 @@
+package model;
+
+import javax.swing.text.BadLocationException;
+import javax.swing.text.Document;
+import javax.swing.text.Segment;
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/**
+ * Finds a literal search term in a document using the Boyer-Moore-Horspool algorithm.
+ * <p>
+ * The document is read window by window through a reused {@link Segment}, so searching
+ * neither copies the whole text nor creates a lower-case copy of it: case-insensitive
+ * searches fold each character while comparing. A matcher is bound to one search term
+ * and can be reused for any number of searches, which then allocate nothing.
+ * </p>
+ */
+public class LiteralMatcher {
+
+    private static final int WINDOW_SIZE = 64 * 1024;
+    private static final char[] ASCII_LOWER_CASE = new char[128];
+
+    static {
+        for (char c = 0; c < 128; c++) {
+            ASCII_LOWER_CASE[c] = Character.toLowerCase(c);
+        }
+    }
+
+    private final String searchTerm;
+    private final boolean caseSensitive;
+    private final char[] pattern;
+    private final int[] shifts = new int[256];
+    private final Segment segment = new Segment();
+
+    /**
+     * Constructs a matcher for the given search term.
+     *
+     * @param searchTerm    The non-empty text to search for.
+     * @param caseSensitive Whether upper and lower case must match exactly.
+     */
+    public LiteralMatcher(String searchTerm, boolean caseSensitive) {
+        if (searchTerm.isEmpty()) {
+            throw new IllegalArgumentException("Leerer Suchbegriff");
+        }
+        this.searchTerm = searchTerm;
+        this.caseSensitive = caseSensitive;
+
+        pattern = new char[searchTerm.length()];
+        for (int i = 0; i < pattern.length; i++) {
+            pattern[i] = fold(searchTerm.charAt(i));
+        }
+
+        // Characters sharing the low byte share a table entry, which keeps the smallest shift
+        int last = pattern.length - 1;
+        Arrays.fill(shifts, pattern.length);
+        for (int i = 0; i < last; i++) {
+            shifts[pattern[i] & 0xFF] = last - i;
+        }
+    }
+
+    /**
+     * Returns whether this matcher searches for the given term with the given case sensitivity.
+     *
+     * @param searchTerm    The search term.
+     * @param caseSensitive Whether the search is case-sensitive.
+     * @return True if the matcher can be reused for this search.
+     */
+    public boolean matches(String searchTerm, boolean caseSensitive) {
+        return this.caseSensitive == caseSensitive && this.searchTerm.equals(searchTerm);
+    }
+
+    /**
+     * Returns the length of the search term, which is also the length of every match.
+     *
+     * @return The length of a match.
+     */
+    public int length() {
+        return pattern.length;
+    }
+
+    /**
+     * Finds the first match starting at or after the given offset.
+     *
+     * @param document The document to search.
+     * @param from     The offset to start at.
+     * @return The offset of the match, or -1 if there is none.
+     * @throws BadLocationException If the document changes during the search.
+     */
+    public int indexOf(Document document, int from) throws BadLocationException {
+        return indexOf(document, from, document.getLength());
+    }
+
+    /**
+     * Finds the first match lying completely within the given range.
+     *
+     * @param document The document to search.
+     * @param from     The start of the range.
+     * @param to       The end of the range (exclusive).
+     * @return The offset of the match, or -1 if there is none.
+     * @throws BadLocationException If the range is invalid.
+     */
+    public int indexOf(Document document, int from, int to) throws BadLocationException {
+        int offset = Math.max(from, 0);
+        while (to - offset >= pattern.length) {
+            int count = Math.min(WINDOW_SIZE, to - offset);
+            document.getText(offset, count, segment);
+            int index = indexOf(segment.array, segment.offset, segment.count);
+            if (index >= 0) {
+                return offset + index;
+            }
+            if (offset + count == to) {
+                break;
+            }
+            // The next window overlaps so that matches crossing the window boundary are found
+            offset += count - pattern.length + 1;
+        }
+        return -1;
+    }
+
+    /**
+     * Reports all non-overlapping matches within the given range in a single pass over the document.
+     *
+     * @param document The document to search.
+     * @param from     The start of the range.
+     * @param to       The end of the range (exclusive).
+     * @param action   Receives the offset of each match in ascending order.
+     * @return The number of matches.
+     * @throws BadLocationException If the range is invalid.
+     */
+    public int forEachMatch(Document document, int from, int to, IntConsumer action) throws BadLocationException {
+        return forEachMatch(document, from, to, segment, action);
+    }
+
+    /**
+     * Counts the non-overlapping matches starting within the given range. A match starting
+     * near the end of the range may extend behind it. Unlike the other methods, this one may
+     * be called by several threads at once, as it reads the document through its own segment.
+     *
+     * @param document The document to search.
+     * @param from     The start of the range.
+     * @param to       The end of the range (exclusive) for the start of a match.
+     * @return The number of matches.
+     * @throws BadLocationException If the range is invalid.
+     */
+    public int count(Document document, int from, int to) throws BadLocationException {
+        // A match starting at or behind the end of the range would not fit into the extended range
+        int end = (int) Math.min(document.getLength(), (long) to + pattern.length - 1);
+        return forEachMatch(document, from, end, new Segment(), offset -> { });
+    }
+
+    /**
+     * Returns whether two occurrences of the search term can overlap, i.e. whether a proper
+     * prefix of the term equals a suffix of it. Only if they cannot, the matches in separate
+     * ranges of a document can be counted independently.
+     *
+     * @return True if occurrences can overlap.
+     */
+    public boolean canOverlap() {
+        // Length of the longest proper prefix that is also a suffix, as in Knuth-Morris-Pratt
+        int border = 0;
+        int[] borders = new int[pattern.length];
+        for (int i = 1; i < pattern.length; i++) {
+            while (border > 0 && pattern[i] != pattern[border]) {
+                border = borders[border - 1];
+            }
+            if (pattern[i] == pattern[border]) {
+                border++;
+            }
+            borders[i] = border;
+        }
+        return border > 0;
+    }
+
+    /**
+     * Reports all non-overlapping matches within the given range, reading through the given segment.
+     */
+    private int forEachMatch(Document document, int from, int to, Segment segment, IntConsumer action)
+            throws BadLocationException {
+        int matchCount = 0;
+        int offset = Math.max(from, 0);
+        while (to - offset >= pattern.length) {
+            int count = Math.min(WINDOW_SIZE, to - offset);
+            document.getText(offset, count, segment);
+            int position = 0;
+            int index;
+            while ((index = indexOf(segment.array, segment.offset + position, count - position)) >= 0) {
+                action.accept(offset + position + index);
+                matchCount++;
+                position += index + pattern.length;
+            }
+            if (offset + count == to) {
+                break;
+            }
+            offset += Math.max(position, count - pattern.length + 1);
+        }
+        return matchCount;
+    }
+
+    /**
+     * Finds all non-overlapping matches in the document.
+     *
+     * @param document The document to search.
+     * @return The offsets of the matches in ascending order.
+     * @throws BadLocationException If the document changes during the search.
+     */
+    public int[] findAll(Document document) throws BadLocationException {
+        MatchCollector collector = new MatchCollector();
+        forEachMatch(document, 0, document.getLength(), collector);
+        return Arrays.copyOf(collector.offsets, collector.size);
+    }
+
+    /**
+     * Checks whether the search term occurs at the given offset.
+     *
+     * @param document The document.
+     * @param offset   The offset to check.
+     * @return True if a match starts at the offset.
+     * @throws BadLocationException If the document cannot be read.
+     */
+    public boolean matchesAt(Document document, int offset) throws BadLocationException {
+        if (offset < 0 || offset + pattern.length > document.getLength()) {
+            return false;
+        }
+        document.getText(offset, pattern.length, segment);
+        for (int i = 0; i < pattern.length; i++) {
+            if (fold(segment.array[segment.offset + i]) != pattern[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Replaces all non-overlapping matches in a single pass and returns the text from the first
+     * to the last match with all replacements applied. The unchanged text between the matches
+     * is streamed from the document.
+     *
+     * @param document    The document.
+     * @param replacement The text to replace each match with.
+     * @return The rebuilt region, or null if there is no match.
+     * @throws BadLocationException If the document changes while it is read.
+     */
+    public RebuiltRegion replaceAll(Document document, String replacement) throws BadLocationException {
+        int[] matches = findAll(document);
+        if (matches.length == 0) {
+            return null;
+        }
+        int regionStart = matches[0];
+        int regionEnd = matches[matches.length - 1] + pattern.length;
+        StringBuilder rebuilt = new StringBuilder(rebuiltCapacity(regionEnd - regionStart, matches.length, replacement));
+        Segment segment = new Segment();
+        segment.setPartialReturn(true);
+
+        int previousEnd = regionStart;
+        for (int match : matches) {
+            while (previousEnd < match) {
+                document.getText(previousEnd, match - previousEnd, segment);
+                rebuilt.append(segment.array, segment.offset, segment.count);
+                previousEnd += segment.count;
+            }
+            rebuilt.append(replacement);
+            previousEnd = match + pattern.length;
+        }
+        return new RebuiltRegion(regionStart, regionEnd, rebuilt.toString(), matches.length);
+    }
+
+    /**
+     * Replaces all non-overlapping matches within a character array, like {@link #replaceAll(Document, String)}.
+     * This method may be called by several threads at once.
+     *
+     * @param text        The characters.
+     * @param offset      The index of the first character.
+     * @param count       The number of characters.
+     * @param replacement The text to replace each match with.
+     * @return The rebuilt region with offsets relative to the first character, or null if there is no match.
+     */
+    public RebuiltRegion replaceAll(char[] text, int offset, int count, String replacement) {
+        int index = indexOf(text, offset, count);
+        if (index < 0) {
+            return null;
+        }
+        StringBuilder rebuilt = new StringBuilder();
+        int regionStart = index;
+        int position = index;
+        int matchCount = 0;
+        while (index >= 0) {
+            rebuilt.append(text, offset + position, index - position).append(replacement);
+            position = index + pattern.length;
+            matchCount++;
+            int next = indexOf(text, offset + position, count - position);
+            index = next < 0 ? -1 : position + next;
+        }
+        return new RebuiltRegion(regionStart, position, rebuilt.toString(), matchCount);
+    }
+
+    private int rebuiltCapacity(int regionLength, int matchCount, String replacement) {
+        long length = regionLength + (long) matchCount * (replacement.length() - pattern.length);
+        return (int) Math.min(length, Integer.MAX_VALUE - 8);
+    }
+
+    /**
+     * Finds the first match within a character array.
+     *
+     * @param text   The characters to search.
+     * @param offset The index of the first character.
+     * @param count  The number of characters.
+     * @return The index of the match relative to the offset, or -1 if there is none.
+     */
+    int indexOf(char[] text, int offset, int count) {
+        int last = pattern.length - 1;
+        int end = offset + count;
+        int i = offset + last;
+        while (i < end) {
+            int k = 0;
+            while (k <= last && fold(text[i - k]) == pattern[last - k]) {
+                k++;
+            }
+            if (k > last) {
+                return i - last - offset;
+            }
+            i += shifts[fold(text[i]) & 0xFF];
+        }
+        return -1;
+    }
+
+    /**
+     * Folds a character for comparison, mapping upper and lower case to the same character
+     * in the same way as {@link String#equalsIgnoreCase(String)}.
+     *
+     * @param c The character.
+     * @return The folded character.
+     */
+    private char fold(char c) {
+        if (caseSensitive) {
+            return c;
+        }
+        if (c < 128) {
+            return ASCII_LOWER_CASE[c];
+        }
+        return Character.toLowerCase(Character.toUpperCase(c));
+    }
+
+    /**
+     * Collects match offsets in a growing array.
+     */
+    private static final class MatchCollector implements IntConsumer {
+        int[] offsets = new int[16];
+        int size = 0;
+
+        @Override
+        public void accept(int offset) {
+            if (size == offsets.length) {
+                offsets = Arrays.copyOf(offsets, size * 2);
+            }
+            offsets[size++] = offset;
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package model;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * A read-only view of a memory-mapped text file as a {@link CharSequence}.
+ * Each byte is exposed as one character, so the view is only correct
+ * for files consisting of single-byte (ASCII) characters.
+ */
+final class MappedText implements CharSequence {
+
+    private final Path path;
+    private final MappedByteBuffer buffer;
+
+    private MappedText(Path path, MappedByteBuffer buffer) {
+        this.path = path;
+        this.buffer = buffer;
+    }
+
+    /**
+     * Maps the given file read-only into memory.
+     *
+     * @param path    The file to map.
+     * @param maxSize The largest file size that can be mapped.
+     * @return The mapped text.
+     * @throws IOException If the file cannot be mapped or is too large.
+     */
+    static MappedText map(Path path, int maxSize) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > maxSize) {
+                throw new IOException("Die Datei ist zu groß: " + size + " Bytes");
+            }
+            // The mapping stays valid after the channel has been closed
+            return new MappedText(path, channel.map(FileChannel.MapMode.READ_ONLY, 0, size));
+        }
+    }
+
+    /**
+     * Copies characters into the destination array, like {@link String#getChars(int, int, char[], int)}.
+     *
+     * @param srcBegin The index of the first character to copy.
+     * @param srcEnd   The index after the last character to copy.
+     * @param dst      The destination array.
+     * @param dstBegin The start offset in the destination array.
+     */
+    void getChars(int srcBegin, int srcEnd, char[] dst, int dstBegin) {
+        for (int i = srcBegin; i < srcEnd; i++) {
+            dst[dstBegin++] = (char) (buffer.get(i) & 0xFF);
+        }
+    }
+
+    Path getPath() {
+        return path;
+    }
+
+    @Override
+    public int length() {
+        return buffer.limit();
+    }
+
+    @Override
+    public char charAt(int index) {
+        return (char) (buffer.get(index) & 0xFF);
+    }
+
+    @Override
+    public CharSequence subSequence(int start, int end) {
+        char[] chars = new char[end - start];
+        getChars(start, end, chars, 0);
+        return new String(chars);
+    }
+
+    @Override
+    public String toString() {
+        return subSequence(0, length()).toString();
+    }
+}
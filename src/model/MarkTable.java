@@ -0,0 +1,349 @@
+package model;
+
+import javax.swing.text.Position;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * Keeps track of the {@link Position} objects handed out by a document content.
+ * <p>
+ * The marks are kept sorted by offset and split by a movable gap, similar to
+ * Swing's {@code GapContent}. Marks in front of the gap store their offset directly,
+ * marks behind the gap store their offset plus a shared bias. An edit only moves the
+ * gap to the edit location and adjusts the bias, so the cost of an edit depends on
+ * the distance to the previous edit rather than on the number of positions.
+ * The marks themselves are stored in a {@link MarkList} with free space at the last
+ * insertion point, so creating many positions in a row, as when the line structure
+ * of a large insertion is built, does not shift the marks behind them each time.
+ * </p>
+ */
+class MarkTable {
+
+    private static final long BEHIND_GAP = 1L << 32;
+    private static final long INITIAL_BIAS = 1L << 48;
+    private static final int MIN_PURGE_COUNT = 64;
+
+    private final MarkList marks = new MarkList();
+    private final ReferenceQueue<MarkPosition> queue = new ReferenceQueue<>();
+    private int gapIndex = 0;
+    private long bias = INITIAL_BIAS;
+    private int unusedMarks = 0;
+
+    /**
+     * Returns a position that tracks the given offset.
+     * Positions at the same offset are shared, as they behave identically.
+     *
+     * @param offset The offset to track.
+     * @return The position.
+     */
+    synchronized Position createPosition(int offset) {
+        purgeUnusedMarks();
+
+        int index = findInsertionIndex(offset);
+        if (index > 0) {
+            Mark previous = marks.get(index - 1);
+            MarkPosition shared = previous.get();
+            if (shared != null && offsetOf(previous) == offset) {
+                return shared;
+            }
+        }
+
+        MarkPosition position = new MarkPosition();
+        Mark mark = new Mark(position, queue);
+        if (index < gapIndex) {
+            mark.raw = offset;
+            gapIndex++;
+        } else {
+            mark.raw = offset + bias;
+        }
+        position.mark = mark;
+        marks.add(index, mark);
+        return position;
+    }
+
+    /**
+     * Updates the marks for an insertion.
+     * Marks at or behind the insertion point move, except for marks at offset 0.
+     *
+     * @param offset The insertion offset.
+     * @param length The number of inserted characters.
+     */
+    synchronized void insertUpdate(int offset, int length) {
+        moveGap(offset == 0 ? 1 : offset);
+        bias -= length;
+        if (bias < BEHIND_GAP * 2) {
+            rebias();
+        }
+    }
+
+    /**
+     * Updates the marks for a removal.
+     * Marks inside the removed range collapse onto its start.
+     *
+     * @param offset The start of the removed range.
+     * @param length The number of removed characters.
+     */
+    synchronized void removeUpdate(int offset, int length) {
+        moveGap(offset);
+        bias += length;
+        for (int i = gapIndex; i < marks.size(); i++) {
+            Mark mark = marks.get(i);
+            if (mark.raw - bias >= offset) {
+                break;
+            }
+            mark.raw = offset + bias;
+        }
+    }
+
+    /**
+     * Records the marks within the given range, including both ends, so that their
+     * offsets can be restored when the removal of the range is undone.
+     *
+     * @param offset The start of the range.
+     * @param length The length of the range.
+     * @return The recorded marks and their offsets relative to the start of the range.
+     */
+    synchronized Snapshot snapshot(int offset, int length) {
+        moveGap(offset);
+        int end = gapIndex;
+        while (end < marks.size() && marks.get(end).raw - bias <= offset + length) {
+            end++;
+        }
+
+        Mark[] recorded = marks.toArray(gapIndex, end);
+        int[] relativeOffsets = new int[recorded.length];
+        for (int i = 0; i < recorded.length; i++) {
+            relativeOffsets[i] = (int) (recorded[i].raw - bias) - offset;
+        }
+        return new Snapshot(recorded, relativeOffsets);
+    }
+
+    /**
+     * Restores the offsets recorded by {@link #snapshot(int, int)} after the range has been re-inserted.
+     *
+     * @param snapshot The recorded marks.
+     * @param offset   The start of the re-inserted range.
+     * @param length   The length of the re-inserted range.
+     */
+    synchronized void restore(Snapshot snapshot, int offset, int length) {
+        moveGap(offset);
+        int start = gapIndex;
+        int end = start;
+        while (end < marks.size() && marks.get(end).raw - bias <= offset + length) {
+            end++;
+        }
+
+        for (int i = 0; i < snapshot.marks.length; i++) {
+            snapshot.marks[i].raw = offset + snapshot.relativeOffsets[i] + bias;
+        }
+        // The restored marks are spread across the range again, so only this window needs sorting
+        marks.sort(start, end, Comparator.comparingLong(mark -> mark.raw));
+    }
+
+    /**
+     * Moves the gap so that exactly the marks with an offset below the given one are in front of it.
+     *
+     * @param offset The new gap offset.
+     */
+    private void moveGap(int offset) {
+        while (gapIndex > 0 && marks.get(gapIndex - 1).raw >= offset) {
+            gapIndex--;
+            marks.get(gapIndex).raw += bias;
+        }
+        while (gapIndex < marks.size() && marks.get(gapIndex).raw - bias < offset) {
+            marks.get(gapIndex).raw -= bias;
+            gapIndex++;
+        }
+    }
+
+    /**
+     * Restores the bias after a very large number of inserted characters.
+     */
+    private void rebias() {
+        long shift = INITIAL_BIAS - bias;
+        for (int i = gapIndex; i < marks.size(); i++) {
+            marks.get(i).raw += shift;
+        }
+        bias = INITIAL_BIAS;
+    }
+
+    /**
+     * Finds the index behind the last mark whose offset is less than or equal to the given one.
+     *
+     * @param offset The offset to look up.
+     * @return The insertion index.
+     */
+    private int findInsertionIndex(int offset) {
+        int low = 0;
+        int high = marks.size();
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (offsetOf(marks.get(middle)) <= offset) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Removes marks whose positions are no longer referenced once they make up a large part of the table.
+     */
+    private void purgeUnusedMarks() {
+        while (queue.poll() != null) {
+            unusedMarks++;
+        }
+        if (unusedMarks < MIN_PURGE_COUNT || unusedMarks < marks.size() / 2) {
+            return;
+        }
+
+        int write = 0;
+        int newGapIndex = 0;
+        for (int read = 0; read < marks.size(); read++) {
+            Mark mark = marks.get(read);
+            if (mark.get() != null) {
+                marks.set(write++, mark);
+                if (read < gapIndex) {
+                    newGapIndex = write;
+                }
+            }
+        }
+        marks.truncate(write);
+        gapIndex = newGapIndex;
+        unusedMarks = 0;
+    }
+
+    /**
+     * Returns the current offset of a mark.
+     *
+     * @param mark The mark.
+     * @return The offset.
+     */
+    private int offsetOf(Mark mark) {
+        return (int) (mark.raw >= BEHIND_GAP ? mark.raw - bias : mark.raw);
+    }
+
+    /**
+     * An array list of marks whose free space is kept where the last mark was inserted,
+     * so that consecutive insertions at neighbouring indices only move a few elements.
+     */
+    private static final class MarkList {
+        private Mark[] elements = new Mark[64];
+        private int freeStart = 0;
+        private int freeEnd = elements.length;
+
+        int size() {
+            return elements.length - (freeEnd - freeStart);
+        }
+
+        Mark get(int index) {
+            return elements[index < freeStart ? index : index + freeEnd - freeStart];
+        }
+
+        void set(int index, Mark mark) {
+            elements[index < freeStart ? index : index + freeEnd - freeStart] = mark;
+        }
+
+        void add(int index, Mark mark) {
+            if (freeStart == freeEnd) {
+                grow();
+            }
+            moveFreeSpace(index);
+            elements[freeStart++] = mark;
+        }
+
+        /**
+         * Removes all marks from the given index on.
+         */
+        void truncate(int size) {
+            moveFreeSpace(size);
+            Arrays.fill(elements, freeEnd, elements.length, null);
+            freeEnd = elements.length;
+        }
+
+        Mark[] toArray(int from, int to) {
+            Mark[] array = new Mark[to - from];
+            for (int i = from; i < to; i++) {
+                array[i - from] = get(i);
+            }
+            return array;
+        }
+
+        void sort(int from, int to, Comparator<Mark> comparator) {
+            moveFreeSpace(to);
+            Arrays.sort(elements, from, to, comparator);
+        }
+
+        /**
+         * Moves the free space in front of the given index.
+         */
+        private void moveFreeSpace(int index) {
+            int freeLength = freeEnd - freeStart;
+            if (index < freeStart) {
+                System.arraycopy(elements, index, elements, index + freeLength, freeStart - index);
+                Arrays.fill(elements, index, Math.min(freeStart, index + freeLength), null);
+            } else if (index > freeStart) {
+                System.arraycopy(elements, freeEnd, elements, freeStart, index - freeStart);
+                Arrays.fill(elements, Math.max(freeEnd, index), index + freeLength, null);
+            }
+            freeStart = index;
+            freeEnd = index + freeLength;
+        }
+
+        private void grow() {
+            int size = size();
+            Mark[] grown = new Mark[elements.length * 2];
+            System.arraycopy(elements, 0, grown, 0, freeStart);
+            int tail = size - freeStart;
+            System.arraycopy(elements, freeEnd, grown, grown.length - tail, tail);
+            freeEnd = grown.length - tail;
+            elements = grown;
+        }
+    }
+
+    /**
+     * The marks of a removed range and their offsets relative to its start.
+     */
+    static class Snapshot {
+        private final Mark[] marks;
+        private final int[] relativeOffsets;
+
+        private Snapshot(Mark[] marks, int[] relativeOffsets) {
+            this.marks = marks;
+            this.relativeOffsets = relativeOffsets;
+        }
+    }
+
+    /**
+     * A tracked offset. Only weakly reachable from the table, so positions that are
+     * no longer used by the document can be purged.
+     */
+    private static class Mark extends WeakReference<MarkPosition> {
+        long raw;
+
+        Mark(MarkPosition position, ReferenceQueue<MarkPosition> queue) {
+            super(position, queue);
+        }
+    }
+
+    /**
+     * The position handed out to the document. Keeps its mark alive.
+     */
+    private class MarkPosition implements Position {
+        Mark mark;
+
+        @Override
+        public int getOffset() {
+            // Edits are serialised by the document's write lock, like in GapContent
+            return offsetOf(mark);
+        }
+
+        @Override
+        public String toString() {
+            return Integer.toString(getOffset());
+        }
+    }
+}
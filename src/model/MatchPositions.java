@@ -0,0 +1,135 @@
+package model;
+
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
+import java.util.Arrays;
+
+/**
+ * The ranges of all search matches in a document, kept in sorted primitive arrays.
+ * <p>
+ * Registered as a {@link DocumentListener}, the ranges follow the edits of the document:
+ * matches behind an edit are shifted, matches touched by an edit are dropped, as they may
+ * no longer match. Even a million matches only take two int arrays, and looking up the
+ * matches within a range of offsets is a binary search.
+ * </p>
+ */
+public class MatchPositions implements DocumentListener {
+
+    private int[] starts;
+    private int[] ends;
+    private int size;
+
+    /**
+     * Constructs an empty list of matches.
+     */
+    public MatchPositions() {
+        this(new int[16], new int[16], 0);
+    }
+
+    private MatchPositions(int[] starts, int[] ends, int size) {
+        this.starts = starts;
+        this.ends = ends;
+        this.size = size;
+    }
+
+    /**
+     * Creates the list for matches of equal length.
+     *
+     * @param starts The start offsets in ascending order.
+     * @param length The length of each match.
+     * @return The matches.
+     */
+    public static MatchPositions of(int[] starts, int length) {
+        int[] ends = new int[starts.length];
+        for (int i = 0; i < starts.length; i++) {
+            ends[i] = starts[i] + length;
+        }
+        return new MatchPositions(starts, ends, starts.length);
+    }
+
+    /**
+     * Appends a match behind all previous matches.
+     *
+     * @param start The start offset.
+     * @param end   The end offset.
+     */
+    public void add(int start, int end) {
+        if (size == starts.length) {
+            starts = Arrays.copyOf(starts, size * 2);
+            ends = Arrays.copyOf(ends, size * 2);
+        }
+        starts[size] = start;
+        ends[size] = end;
+        size++;
+    }
+
+    public int size() { return size; }
+    public int getStart(int index) { return starts[index]; }
+    public int getEnd(int index) { return ends[index]; }
+
+    /**
+     * Finds the first match that ends behind the given offset or is an empty match at it.
+     *
+     * @param offset The offset.
+     * @return The index of the match, or {@link #size()} if there is none.
+     */
+    public int indexOfFirstEndingAt(int offset) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (ends[middle] < offset || ends[middle] == offset && starts[middle] < offset) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    @Override
+    public void insertUpdate(DocumentEvent e) {
+        int offset = e.getOffset();
+        int length = e.getLength();
+        // Matches containing the insertion point are dropped, matches starting at or behind it move
+        int index = indexOfFirstEndingAt(offset);
+        int write = index;
+        for (int read = index; read < size; read++) {
+            if (starts[read] >= offset) {
+                starts[write] = starts[read] + length;
+                ends[write] = ends[read] + length;
+                write++;
+            } else if (ends[read] <= offset) {
+                starts[write] = starts[read];
+                ends[write] = ends[read];
+                write++;
+            }
+        }
+        size = write;
+    }
+
+    @Override
+    public void removeUpdate(DocumentEvent e) {
+        int offset = e.getOffset();
+        int end = offset + e.getLength();
+        // Matches overlapping the removed range are dropped, matches behind it move
+        int index = indexOfFirstEndingAt(offset);
+        int write = index;
+        for (int read = index; read < size; read++) {
+            if (starts[read] >= end) {
+                starts[write] = starts[read] - e.getLength();
+                ends[write] = ends[read] - e.getLength();
+                write++;
+            } else if (ends[read] <= offset && starts[read] < offset) {
+                starts[write] = starts[read];
+                ends[write] = ends[read];
+                write++;
+            }
+        }
+        size = write;
+    }
+
+    @Override
+    public void changedUpdate(DocumentEvent e) {
+    }
+}
@@ -0,0 +1,119 @@
+package model;
+
+import javax.swing.text.BadLocationException;
+import javax.swing.text.Document;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Counts the occurrences of a literal search term in parallel.
+ * <p>
+ * The document is split into chunks that are counted on the common {@link ForkJoinPool};
+ * each chunk reads up to the length of the term behind its end, so that matches crossing
+ * a chunk boundary are counted exactly once. Terms whose occurrences can overlap are counted
+ * sequentially in one pass, as the result of such a chunk would depend on the matches in
+ * front of it. A parallel count can be cancelled from another thread.
+ * </p>
+ * <p>
+ * The chunks are read by several threads at once, so the document must not be changed while
+ * counting; a document that is being edited is counted on a {@link DocumentSnapshot}.
+ * </p>
+ */
+public class ParallelMatchCounter {
+
+    private static final int CHUNK_SIZE = 1024 * 1024;
+
+    private final LiteralMatcher matcher;
+    private final Document document;
+    private volatile boolean cancelled = false;
+
+    /**
+     * Constructs a counter for the given term and document.
+     *
+     * @param matcher  The matcher of the search term.
+     * @param document The document to search.
+     */
+    public ParallelMatchCounter(LiteralMatcher matcher, Document document) {
+        this.matcher = matcher;
+        this.document = document;
+    }
+
+    /**
+     * Counts the matches starting within the given range.
+     *
+     * @param from The start of the range.
+     * @param to   The end of the range (exclusive).
+     * @return The number of matches.
+     * @throws CancellationException If the count has been cancelled.
+     * @throws BadLocationException  If the range lies outside the document.
+     */
+    public int count(int from, int to) throws BadLocationException {
+        if (matcher.canOverlap()) {
+            return matcher.count(document, from, to);
+        }
+        try {
+            return ForkJoinPool.commonPool().invoke(new CountTask(from, to));
+        } catch (ChunkFailure failure) {
+            throw failure.cause;
+        }
+    }
+
+    /**
+     * Cancels the count. Running chunks stop before reading their next part of the document.
+     */
+    public void cancel() {
+        cancelled = true;
+    }
+
+    /**
+     * Counts a range by splitting it in halves until the chunks are small enough.
+     */
+    private class CountTask extends RecursiveTask<Integer> {
+        private final int from;
+        private final int to;
+
+        CountTask(int from, int to) {
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected Integer compute() {
+            if (to - from <= CHUNK_SIZE) {
+                try {
+                    return countDirectly();
+                } catch (BadLocationException exception) {
+                    throw new ChunkFailure(exception);
+                }
+            }
+            int middle = (from + to) >>> 1;
+            CountTask left = new CountTask(from, middle);
+            left.fork();
+            int right = new CountTask(middle, to).compute();
+            return left.join() + right;
+        }
+
+        /**
+         * Counts the chunk in the current thread unless the count has been cancelled.
+         */
+        private int countDirectly() throws BadLocationException {
+            if (cancelled) {
+                throw new CancellationException("Zählen abgebrochen");
+            }
+            return matcher.count(document, from, to);
+        }
+    }
+
+    /**
+     * Carries a checked exception out of a fork/join task.
+     */
+    private static class ChunkFailure extends RuntimeException {
+        final BadLocationException cause;
+
+        ChunkFailure(BadLocationException cause) {
+            super(cause);
+            this.cause = cause;
+        }
+    }
+}
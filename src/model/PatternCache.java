@@ -0,0 +1,42 @@
+package model;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * A small least-recently-used cache of compiled regular expressions,
+ * so that repeating a search does not compile its expression again.
+ */
+public final class PatternCache {
+
+    private static final int MAX_SIZE = 16;
+
+    private static final Map<String, Pattern> cache = new LinkedHashMap<>(MAX_SIZE, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Pattern> eldest) {
+            return size() > MAX_SIZE;
+        }
+    };
+
+    private PatternCache() {
+    }
+
+    /**
+     * Returns the compiled pattern for the given expression and flags, compiling it on first use.
+     *
+     * @param expression The regular expression.
+     * @param flags      The match flags, see {@link Pattern#compile(String, int)}.
+     * @return The compiled pattern.
+     * @throws java.util.regex.PatternSyntaxException If the expression is invalid.
+     */
+    public static synchronized Pattern compile(String expression, int flags) {
+        String key = flags + "/" + expression;
+        Pattern pattern = cache.get(key);
+        if (pattern == null) {
+            pattern = Pattern.compile(expression, flags);
+            cache.put(key, pattern);
+        }
+        return pattern;
+    }
+}
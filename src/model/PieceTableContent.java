@@ -0,0 +1,518 @@
+package model;
+
+import javax.swing.text.AbstractDocument;
+import javax.swing.text.BadLocationException;
+import javax.swing.text.Position;
+import javax.swing.text.Segment;
+import javax.swing.undo.AbstractUndoableEdit;
+import javax.swing.undo.CannotRedoException;
+import javax.swing.undo.CannotUndoException;
+import javax.swing.undo.UndoableEdit;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.WeakHashMap;
+
+/**
+ * Document content stored in a piece table.
+ * <p>
+ * The text is described by a sequence of pieces, each referring to a range of an
+ * immutable buffer: the original (possibly memory-mapped) file, a shared append-only
+ * buffer for typed text, or a large inserted string kept as it is. Edits only split
+ * and rearrange pieces, so the original text is never copied onto the heap.
+ * </p>
+ */
+public class PieceTableContent implements AbstractDocument.Content {
+
+    private static final String IMPLIED_NEWLINE = "\n";
+    private static final int OWN_BUFFER_THRESHOLD = 4096;
+
+    private final AddBuffer addBuffer = new AddBuffer();
+    private final ArrayList<Piece> pieces = new ArrayList<>();
+    private int[] pieceStarts = new int[16];
+    private int length = 0;
+    private final MarkTable marks = new MarkTable();
+    private final TextStatistics statistics = new TextStatistics();
+    private final LineIndex lineIndex = new LineIndex();
+    private final Set<char[]> ownArrays = Collections.newSetFromMap(new WeakHashMap<>());
+    private final Path mappedPath;
+    private UndoableEdit lastEdit;
+
+    /**
+     * Constructs empty content consisting of the implied trailing newline.
+     */
+    public PieceTableContent() {
+        this((MappedText) null);
+    }
+
+    /**
+     * Constructs content whose initial text is the given memory-mapped file.
+     *
+     * @param original The mapped file, or null for empty content.
+     */
+    private PieceTableContent(MappedText original) {
+        if (original != null && original.length() > 0) {
+            pieces.add(new Piece(original, 0, original.length()));
+        }
+        pieces.add(new Piece(IMPLIED_NEWLINE, 0, 1));
+        mappedPath = original != null ? original.getPath() : null;
+        updatePieceStarts(0);
+        length = pieceStarts[pieces.size()];
+        if (original == null) {
+            statistics.append(IMPLIED_NEWLINE.toCharArray(), 0, 1);
+            lineIndex.append(IMPLIED_NEWLINE.toCharArray(), 0, 1);
+        }
+    }
+
+    /**
+     * Constructs a copy of other content that shares its buffers.
+     *
+     * @param original The content to copy.
+     */
+    private PieceTableContent(PieceTableContent original) {
+        pieces.addAll(original.pieces);
+        pieceStarts = Arrays.copyOf(original.pieceStarts, pieces.size() + 1);
+        length = original.length;
+        mappedPath = original.mappedPath;
+    }
+
+    /**
+     * Creates content backed by a memory-mapped file. The file is expected to contain
+     * single-byte characters only; see {@link PieceTableDocument#map}.
+     *
+     * @param path The file to map.
+     * @return The content.
+     * @throws IOException If the file cannot be mapped.
+     */
+    static PieceTableContent map(Path path) throws IOException {
+        return new PieceTableContent(MappedText.map(path, Integer.MAX_VALUE - 1));
+    }
+
+    /**
+     * Returns the file whose mapping backs this content.
+     *
+     * @return The mapped file, or null if the content is not backed by a file.
+     */
+    public Path getMappedPath() {
+        return mappedPath;
+    }
+
+    /**
+     * Returns a copy of this content as it is now, to be read while this content goes on changing.
+     * Only the pieces are copied: the buffers they refer to are never changed, so the copy costs time
+     * proportional to the number of edits rather than to the length of the text, and it can be read
+     * from any thread once it has been handed over. The copy itself must not be changed.
+     *
+     * @return The copy; its marks, statistics and line index are empty.
+     */
+    PieceTableContent copy() {
+        return new PieceTableContent(this);
+    }
+
+    /**
+     * Returns the undoable edit of the last insertion or removal and forgets it.
+     *
+     * @return The edit, or null if there has been no change since the last call.
+     */
+    UndoableEdit takeLastEdit() {
+        UndoableEdit edit = lastEdit;
+        lastEdit = null;
+        return edit;
+    }
+
+    /**
+     * Returns the word and line count of this content, which are kept up to date on every change.
+     * The initial text of mapped content is counted by {@link PieceTableDocument#map}.
+     *
+     * @return The statistics.
+     */
+    TextStatistics getStatistics() {
+        return statistics;
+    }
+
+    /**
+     * Returns the index of the line starts of this content, which is kept up to date on every change.
+     * The lines of mapped content are indexed by {@link PieceTableDocument#map}.
+     *
+     * @return The line index.
+     */
+    LineIndex getLineIndex() {
+        return lineIndex;
+    }
+
+    @Override
+    public Position createPosition(int offset) throws BadLocationException {
+        if (offset < 0 || offset > length) {
+            throw new BadLocationException("Invalid position", offset);
+        }
+        return marks.createPosition(offset);
+    }
+
+    @Override
+    public int length() {
+        return length;
+    }
+
+    @Override
+    public UndoableEdit insertString(int where, String str) throws BadLocationException {
+        if (where < 0 || where > length) {
+            throw new BadLocationException("Invalid insert", length);
+        }
+        if (str.isEmpty()) {
+            return null;
+        }
+        insertText(where, str);
+        lastEdit = new InsertUndo(where, str.length());
+        return lastEdit;
+    }
+
+    @Override
+    public UndoableEdit remove(int where, int nitems) throws BadLocationException {
+        if (where < 0 || nitems < 0 || where + nitems > length) {
+            throw new BadLocationException("Invalid remove", length);
+        }
+        MarkTable.Snapshot snapshot = marks.snapshot(where, nitems);
+        List<Piece> removed = removeRange(where, nitems);
+        lastEdit = new RemoveUndo(where, nitems, removed, snapshot);
+        return lastEdit;
+    }
+
+    @Override
+    public String getString(int where, int len) throws BadLocationException {
+        Segment segment = new Segment();
+        getChars(where, len, segment);
+        return new String(segment.array, segment.offset, segment.count);
+    }
+
+    /**
+     * Copies the requested range into the segment.
+     * Arrays allocated by this content are reused when the same segment is passed again,
+     * so repeated reads through one segment do not allocate.
+     * With partial return enabled, at most the remainder of the first piece is returned.
+     *
+     * @param where The start of the range.
+     * @param len   The length of the range.
+     * @param txt   The segment receiving the characters.
+     * @throws BadLocationException If the range is invalid.
+     */
+    @Override
+    public void getChars(int where, int len, Segment txt) throws BadLocationException {
+        if (where < 0 || len < 0 || where + len > length) {
+            throw new BadLocationException("Invalid location", length);
+        }
+
+        int index = findPiece(where);
+        if (txt.isPartialReturn() && len > 0) {
+            len = Math.min(len, pieceStarts[index] + pieces.get(index).length - where);
+        }
+
+        char[] array = obtainArray(txt.array, len);
+        int copied = 0;
+        while (copied < len) {
+            Piece piece = pieces.get(index);
+            int from = where + copied - pieceStarts[index];
+            int count = Math.min(piece.length - from, len - copied);
+            piece.copy(from, from + count, array, copied);
+            copied += count;
+            index++;
+        }
+
+        txt.array = array;
+        txt.offset = 0;
+        txt.count = len;
+    }
+
+    /**
+     * Returns an array of at least the given size, reusing the previous one if it belongs to this content.
+     *
+     * @param previous The array currently held by the segment.
+     * @param size     The required size.
+     * @return The array to copy into.
+     */
+    private char[] obtainArray(char[] previous, int size) {
+        synchronized (ownArrays) {
+            if (previous != null && previous.length >= size && ownArrays.contains(previous)) {
+                return previous;
+            }
+            char[] array = new char[Math.max(size, 64)];
+            ownArrays.add(array);
+            return array;
+        }
+    }
+
+    /**
+     * Inserts text, extending the last piece of the add buffer when typing continues at its end.
+     *
+     * @param where The insertion offset.
+     * @param str   The text to insert.
+     */
+    private void insertText(int where, String str) {
+        int count = str.length();
+        if (count >= OWN_BUFFER_THRESHOLD) {
+            // Large inserts keep their own buffer, so they can be collected once no piece refers to them
+            insertPieces(where, Collections.singletonList(new Piece(str, 0, count)), count);
+            return;
+        }
+
+        int index = findPiece(where);
+        if (index > 0 && (index == pieces.size() || pieceStarts[index] == where)) {
+            Piece previous = pieces.get(index - 1);
+            if (previous.buffer == addBuffer && previous.start + previous.length == addBuffer.length()) {
+                addBuffer.append(str);
+                pieces.set(index - 1, new Piece(addBuffer, previous.start, previous.length + count));
+                length += count;
+                updatePieceStarts(index - 1);
+                marks.insertUpdate(where, count);
+                statistics.afterInsert(this, where, count);
+                lineIndex.afterInsert(this, where, count);
+                return;
+            }
+        }
+
+        int start = addBuffer.length();
+        addBuffer.append(str);
+        insertPieces(where, Collections.singletonList(new Piece(addBuffer, start, count)), count);
+    }
+
+    /**
+     * Inserts pieces at the given offset and updates the marks, statistics and line index.
+     *
+     * @param where    The insertion offset.
+     * @param inserted The pieces to insert.
+     * @param count    The total length of the pieces.
+     */
+    private void insertPieces(int where, List<Piece> inserted, int count) {
+        int index = splitAt(where);
+        pieces.addAll(index, inserted);
+        length += count;
+        updatePieceStarts(index);
+        marks.insertUpdate(where, count);
+        statistics.afterInsert(this, where, count);
+        lineIndex.afterInsert(this, where, count);
+    }
+
+    /**
+     * Removes a range and updates the marks, statistics and line index.
+     *
+     * @param where The start of the range.
+     * @param count The length of the range.
+     * @return The removed pieces, which still refer to the removed text.
+     */
+    private List<Piece> removeRange(int where, int count) {
+        statistics.beforeRemove(this, where, count);
+        int first = splitAt(where);
+        int last = splitAt(where + count);
+        List<Piece> range = pieces.subList(first, last);
+        List<Piece> removed = new ArrayList<>(range);
+        range.clear();
+        length -= count;
+        updatePieceStarts(first);
+        marks.removeUpdate(where, count);
+        lineIndex.remove(where, count);
+        return removed;
+    }
+
+    /**
+     * Ensures that a piece starts at the given offset.
+     *
+     * @param offset The offset.
+     * @return The index of the piece starting at the offset, or the number of pieces at the end.
+     */
+    private int splitAt(int offset) {
+        int index = findPiece(offset);
+        if (index == pieces.size() || pieceStarts[index] == offset) {
+            return index;
+        }
+        Piece piece = pieces.get(index);
+        int head = offset - pieceStarts[index];
+        pieces.set(index, new Piece(piece.buffer, piece.start, head));
+        pieces.add(index + 1, new Piece(piece.buffer, piece.start + head, piece.length - head));
+        updatePieceStarts(index);
+        return index + 1;
+    }
+
+    /**
+     * Finds the piece containing the given offset by binary search.
+     *
+     * @param offset The offset.
+     * @return The index of the piece, or the number of pieces if the offset is the content length.
+     */
+    private int findPiece(int offset) {
+        if (offset >= length) {
+            return pieces.size();
+        }
+        int low = 0;
+        int high = pieces.size() - 1;
+        while (low < high) {
+            int middle = (low + high + 1) >>> 1;
+            if (pieceStarts[middle] <= offset) {
+                low = middle;
+            } else {
+                high = middle - 1;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Recomputes the start offsets of all pieces from the given index on.
+     *
+     * @param from The first index whose start may have changed.
+     */
+    private void updatePieceStarts(int from) {
+        if (pieceStarts.length < pieces.size() + 1) {
+            int[] grown = new int[Math.max(pieces.size() + 1, pieceStarts.length * 2)];
+            System.arraycopy(pieceStarts, 0, grown, 0, pieceStarts.length);
+            pieceStarts = grown;
+        }
+        for (int i = Math.max(from, 0); i < pieces.size(); i++) {
+            pieceStarts[i + 1] = pieceStarts[i] + pieces.get(i).length;
+        }
+    }
+
+    /**
+     * An immutable range of a text buffer.
+     */
+    private static final class Piece {
+        final CharSequence buffer;
+        final int start;
+        final int length;
+
+        Piece(CharSequence buffer, int start, int length) {
+            this.buffer = buffer;
+            this.start = start;
+            this.length = length;
+        }
+
+        /**
+         * Copies a part of this piece into the destination array.
+         */
+        void copy(int from, int to, char[] dst, int dstBegin) {
+            int begin = start + from;
+            int end = start + to;
+            if (buffer instanceof String) {
+                ((String) buffer).getChars(begin, end, dst, dstBegin);
+            } else if (buffer instanceof AddBuffer) {
+                ((AddBuffer) buffer).getChars(begin, end, dst, dstBegin);
+            } else if (buffer instanceof MappedText) {
+                ((MappedText) buffer).getChars(begin, end, dst, dstBegin);
+            } else {
+                for (int i = begin; i < end; i++) {
+                    dst[dstBegin++] = buffer.charAt(i);
+                }
+            }
+        }
+    }
+
+    /**
+     * Undoes an insertion by removing the inserted pieces again.
+     */
+    private class InsertUndo extends AbstractUndoableEdit {
+        private final int offset;
+        private final int count;
+        private List<Piece> removed;
+        private MarkTable.Snapshot snapshot;
+
+        InsertUndo(int offset, int count) {
+            this.offset = offset;
+            this.count = count;
+        }
+
+        @Override
+        public void undo() throws CannotUndoException {
+            super.undo();
+            snapshot = marks.snapshot(offset, count);
+            removed = removeRange(offset, count);
+        }
+
+        @Override
+        public void redo() throws CannotRedoException {
+            super.redo();
+            insertPieces(offset, removed, count);
+            marks.restore(snapshot, offset, count);
+            removed = null;
+            snapshot = null;
+        }
+    }
+
+    /**
+     * The text removed by an edit, which the edit keeps for undoing it.
+     */
+    interface RemovedText {
+
+        /**
+         * Writes the removed text.
+         *
+         * @param out The destination.
+         * @throws IOException If the destination cannot be written.
+         */
+        void writeTo(Writer out) throws IOException;
+
+        /**
+         * Returns the number of removed characters held in buffers of their own, which can only be
+         * collected once the edit is discarded. Text in the shared add buffer or in a mapped file is not counted.
+         *
+         * @return The number of characters.
+         */
+        int retainedChars();
+    }
+
+    /**
+     * Undoes a removal by re-inserting the removed pieces and restoring the positions within them.
+     */
+    private class RemoveUndo extends AbstractUndoableEdit implements RemovedText {
+        private final int offset;
+        private final int count;
+        private final List<Piece> removed;
+        private MarkTable.Snapshot snapshot;
+
+        RemoveUndo(int offset, int count, List<Piece> removed, MarkTable.Snapshot snapshot) {
+            this.offset = offset;
+            this.count = count;
+            this.removed = removed;
+            this.snapshot = snapshot;
+        }
+
+        @Override
+        public void undo() throws CannotUndoException {
+            super.undo();
+            insertPieces(offset, removed, count);
+            marks.restore(snapshot, offset, count);
+        }
+
+        @Override
+        public void redo() throws CannotRedoException {
+            super.redo();
+            snapshot = marks.snapshot(offset, count);
+            removeRange(offset, count);
+        }
+
+        @Override
+        public void writeTo(Writer out) throws IOException {
+            char[] chunk = new char[8192];
+            for (Piece piece : removed) {
+                for (int from = 0; from < piece.length; from += chunk.length) {
+                    int to = Math.min(piece.length, from + chunk.length);
+                    piece.copy(from, to, chunk, 0);
+                    out.write(chunk, 0, to - from);
+                }
+            }
+        }
+
+        @Override
+        public int retainedChars() {
+            int chars = 0;
+            for (Piece piece : removed) {
+                if (piece.buffer instanceof String && piece.buffer != IMPLIED_NEWLINE) {
+                    chars += piece.length;
+                }
+            }
+            return chars;
+        }
+    }
+}
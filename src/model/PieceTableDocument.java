@@ -0,0 +1,241 @@
+package model;
+
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.UndoableEditEvent;
+import javax.swing.text.AttributeSet;
+import javax.swing.text.BadLocationException;
+import javax.swing.text.Element;
+import javax.swing.text.PlainDocument;
+import javax.swing.text.Segment;
+import javax.swing.undo.UndoableEdit;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.function.IntConsumer;
+
+/**
+ * A plain text document whose content is stored in a {@link PieceTableContent}.
+ * Documents opened with {@link #map(Path, IntConsumer)} keep the file memory-mapped,
+ * so only the edits made by the user live on the heap.
+ * <p>
+ * Insertions and removals are reported to undoable edit listeners as {@link DocumentEdit}s.
+ * Edits made between {@link #beginCompoundEdit()} and {@link #endCompoundEdit()} are reported
+ * to undoable edit listeners as a single edit, so they are undone in one step.
+ * {@link #replace} uses this to combine its removal and insertion.
+ * </p>
+ */
+public class PieceTableDocument extends PlainDocument {
+
+    private static final int SCAN_CHUNK_SIZE = 1024 * 1024;
+
+    private int compoundEditDepth = 0;
+    private EditGroup compoundEdit;
+    private boolean compoundEditHasEdits = false;
+    private final Segment typedChar = new Segment();
+
+    /**
+     * Constructs an empty document.
+     */
+    public PieceTableDocument() {
+        super(new PieceTableContent());
+    }
+
+    /**
+     * Constructs a document around existing content.
+     *
+     * @param content The content of the document.
+     */
+    private PieceTableDocument(PieceTableContent content) {
+        super(content);
+    }
+
+    /**
+     * Opens a file as a memory-mapped document.
+     * Only files consisting of ASCII characters with LF line endings can be mapped, as their bytes
+     * correspond directly to the characters of a document; for other files null is returned.
+     *
+     * @param path     The file to open.
+     * @param progress Receives the scanning progress in percent.
+     * @return The document, or null if the file contains non-ASCII characters or carriage returns.
+     * @throws IOException If the file cannot be mapped or the calling thread is interrupted.
+     */
+    public static PieceTableDocument map(Path path, IntConsumer progress) throws IOException {
+        PieceTableDocument document = new PieceTableDocument(PieceTableContent.map(path));
+        return document.buildLineElements(progress) ? document : null;
+    }
+
+    /**
+     * Returns the file whose mapping backs this document.
+     *
+     * @return The mapped file, or null if the document is not backed by a file.
+     */
+    public Path getMappedPath() {
+        return ((PieceTableContent) getContent()).getMappedPath();
+    }
+
+    /**
+     * Returns the word and line count of this document, which are updated incrementally on every edit.
+     *
+     * @return The statistics.
+     */
+    public TextStatistics getStatistics() {
+        return ((PieceTableContent) getContent()).getStatistics();
+    }
+
+    /**
+     * Returns the index of the line starts of this document, which is updated incrementally on every edit.
+     * It maps between offsets and lines without going through the line elements.
+     *
+     * @return The line index.
+     */
+    public LineIndex getLineIndex() {
+        return ((PieceTableContent) getContent()).getLineIndex();
+    }
+
+    /**
+     * Takes a snapshot of this document, which background tasks can read while the document goes on changing.
+     * Only the pieces of the text are copied, so this is cheap even for a large document.
+     *
+     * @return The snapshot.
+     */
+    public DocumentSnapshot snapshot() {
+        readLock();
+        try {
+            return new DocumentSnapshot(((PieceTableContent) getContent()).copy(), getDocumentProperties());
+        } finally {
+            readUnlock();
+        }
+    }
+
+    /**
+     * Starts collecting the following edits into one compound edit. Calls may be nested;
+     * the edit is reported once the outermost group ends.
+     */
+    public void beginCompoundEdit() {
+        if (compoundEditDepth++ == 0) {
+            compoundEdit = new EditGroup();
+            compoundEditHasEdits = false;
+        }
+    }
+
+    /**
+     * Ends a group of edits started with {@link #beginCompoundEdit()} and reports
+     * the collected edits as one undoable edit, if there are any.
+     */
+    public void endCompoundEdit() {
+        if (compoundEditDepth == 0) {
+            throw new IllegalStateException("Keine zusammengefasste Bearbeitung aktiv");
+        }
+        if (--compoundEditDepth == 0) {
+            EditGroup edit = compoundEdit;
+            compoundEdit = null;
+            edit.end();
+            if (compoundEditHasEdits) {
+                super.fireUndoableEditUpdate(new UndoableEditEvent(this, edit));
+            }
+        }
+    }
+
+    /**
+     * Replaces a range of text as a single undoable edit.
+     */
+    @Override
+    public void replace(int offset, int length, String text, AttributeSet attrs) throws BadLocationException {
+        beginCompoundEdit();
+        try {
+            super.replace(offset, length, text, attrs);
+        } finally {
+            endCompoundEdit();
+        }
+    }
+
+    /**
+     * Reports an edit to the undoable edit listeners, describing insertions and removals
+     * with a {@link DocumentEdit} and collecting them while a compound edit is open.
+     */
+    @Override
+    protected void fireUndoableEditUpdate(UndoableEditEvent e) {
+        UndoableEdit contentEdit = ((PieceTableContent) getContent()).takeLastEdit();
+        if (e.getEdit() instanceof DefaultDocumentEvent && contentEdit != null) {
+            e = new UndoableEditEvent(this, new DocumentEdit(e.getEdit(), this, contentEdit, typedChar((DefaultDocumentEvent) e.getEdit())));
+        }
+        if (compoundEdit != null) {
+            compoundEdit.addEdit(e.getEdit());
+            compoundEditHasEdits = true;
+        } else {
+            super.fireUndoableEditUpdate(e);
+        }
+    }
+
+    /**
+     * Returns the character inserted by a single-character insertion, reading it without allocating a string.
+     *
+     * @param event The edit.
+     * @return The character, or {@code '\0'} for other edits.
+     */
+    private char typedChar(DefaultDocumentEvent event) {
+        if (event.getType() != DocumentEvent.EventType.INSERT || event.getLength() != 1) {
+            return '\0';
+        }
+        try {
+            getContent().getChars(event.getOffset(), 1, typedChar);
+            return typedChar.array[typedChar.offset];
+        } catch (BadLocationException exception) {
+            return '\0';
+        }
+    }
+
+    /**
+     * Creates the line elements for the initial content in a single pass,
+     * checking at the same time that the content consists of ASCII characters without carriage returns,
+     * counting its words and lines and indexing the line starts.
+     *
+     * @param progress Receives the scanning progress in percent.
+     * @return True if the content is ASCII-only and has LF line endings.
+     * @throws IOException If the calling thread is interrupted.
+     */
+    private boolean buildLineElements(IntConsumer progress) throws IOException {
+        Content content = getContent();
+        int length = content.length();
+        Element root = getDefaultRootElement();
+        ArrayList<Element> lines = new ArrayList<>();
+        TextStatistics statistics = getStatistics();
+        LineIndex lineIndex = getLineIndex();
+        Segment segment = new Segment();
+        segment.setPartialReturn(true);
+
+        writeLock();
+        try {
+            int lineStart = 0;
+            int offset = 0;
+            while (offset < length) {
+                if (Thread.currentThread().isInterrupted()) {
+                    throw new InterruptedIOException("Laden abgebrochen");
+                }
+                content.getChars(offset, Math.min(SCAN_CHUNK_SIZE, length - offset), segment);
+                for (int i = 0; i < segment.count; i++) {
+                    char c = segment.array[segment.offset + i];
+                    if (c > 0x7F || c == '\r') {
+                        return false;
+                    }
+                    if (c == '\n') {
+                        lines.add(createLeafElement(root, null, lineStart, offset + i + 1));
+                        lineStart = offset + i + 1;
+                    }
+                }
+                statistics.append(segment.array, segment.offset, segment.count);
+                lineIndex.append(segment.array, segment.offset, segment.count);
+                offset += segment.count;
+                progress.accept((int) ((long) offset * 100 / length));
+            }
+
+            ((BranchElement) root).replace(0, root.getElementCount(), lines.toArray(new Element[0]));
+            return true;
+        } catch (BadLocationException exception) {
+            throw new IOException(exception);
+        } finally {
+            writeUnlock();
+        }
+    }
+}
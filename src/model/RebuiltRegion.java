@@ -0,0 +1,25 @@
+package model;
+
+/**
+ * The text between the first and the last match of a Replace All, with all matches replaced.
+ * Replacing the range from {@link #getStart()} to {@link #getEnd()} with {@link #getText()}
+ * applies all replacements in one edit.
+ */
+public class RebuiltRegion {
+    private final int start;
+    private final int end;
+    private final String text;
+    private final int matchCount;
+
+    RebuiltRegion(int start, int end, String text, int matchCount) {
+        this.start = start;
+        this.end = end;
+        this.text = text;
+        this.matchCount = matchCount;
+    }
+
+    public int getStart() { return start; }
+    public int getEnd() { return end; }
+    public String getText() { return text; }
+    public int getMatchCount() { return matchCount; }
+}
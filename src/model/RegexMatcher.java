@@ -0,0 +1,238 @@
+package model;
+
+import javax.swing.text.Document;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Finds and replaces matches of a regular expression in a document.
+ * <p>
+ * Matching runs over a {@link DocumentCharSequence}, so the text is never copied as a whole.
+ * Compiled patterns come from the {@link PatternCache}. The methods may be called from a
+ * background thread; interrupting the thread stops a running match with a
+ * {@link java.util.concurrent.CancellationException}.
+ * Replacements may refer to groups with {@code $n} and {@code ${name}}, as in
+ * {@link Matcher#appendReplacement(StringBuilder, String)}.
+ * </p>
+ */
+public class RegexMatcher {
+
+    private final String expression;
+    private final boolean caseSensitive;
+    private final Pattern pattern;
+
+    /**
+     * Constructs a matcher for the given expression. Lines are matched with
+     * {@link Pattern#MULTILINE}, so {@code ^} and {@code $} refer to line starts and ends.
+     *
+     * @param expression    The regular expression.
+     * @param caseSensitive Whether upper and lower case must match exactly.
+     * @throws java.util.regex.PatternSyntaxException If the expression is invalid.
+     */
+    public RegexMatcher(String expression, boolean caseSensitive) {
+        this.expression = expression;
+        this.caseSensitive = caseSensitive;
+        int flags = Pattern.MULTILINE;
+        if (!caseSensitive) {
+            flags |= Pattern.CASE_INSENSITIVE | Pattern.UNICODE_CASE;
+        }
+        this.pattern = PatternCache.compile(expression, flags);
+    }
+
+    /**
+     * Returns whether this matcher searches for the given expression with the given case sensitivity.
+     *
+     * @param expression    The regular expression.
+     * @param caseSensitive Whether the search is case-sensitive.
+     * @return True if the matcher can be reused for this search.
+     */
+    public boolean matches(String expression, boolean caseSensitive) {
+        return this.caseSensitive == caseSensitive && this.expression.equals(expression);
+    }
+
+    /**
+     * Finds the first match starting at or after the given offset. An empty match at
+     * the offset itself is skipped, so that repeated searches move forward.
+     *
+     * @param document The document to search.
+     * @param from     The offset to start at.
+     * @return The start and end offset of the match, or null if there is none.
+     */
+    public int[] find(Document document, int from) {
+        DocumentCharSequence text = new DocumentCharSequence(document);
+        if (from > text.length()) {
+            return null;
+        }
+        Matcher matcher = pattern.matcher(text);
+        if (!matcher.find(from)) {
+            return null;
+        }
+        if (matcher.end() == from && matcher.start() == from && (from == text.length() || !matcher.find())) {
+            return null;
+        }
+        return new int[]{matcher.start(), matcher.end()};
+    }
+
+    /**
+     * Finds all matches in the document in a single pass.
+     *
+     * @param document The document to search.
+     * @return The ranges of the matches.
+     */
+    public MatchPositions findAll(Document document) {
+        Matcher matcher = pattern.matcher(new DocumentCharSequence(document));
+        MatchPositions matches = new MatchPositions();
+        while (matcher.find()) {
+            matches.add(matcher.start(), matcher.end());
+        }
+        return matches;
+    }
+
+    /**
+     * Counts the matches starting within the given range, continuing the matching across its end.
+     *
+     * @param document The document to search.
+     * @param from     The start of the range.
+     * @param to       The end of the range (exclusive) for the start of a match.
+     * @return The number of matches.
+     */
+    public int count(Document document, int from, int to) {
+        DocumentCharSequence text = new DocumentCharSequence(document);
+        if (from > text.length()) {
+            return 0;
+        }
+        Matcher matcher = pattern.matcher(text);
+        int matchCount = 0;
+        boolean found = matcher.find(from);
+        while (found && matcher.start() < to) {
+            matchCount++;
+            found = matcher.find();
+        }
+        return matchCount;
+    }
+
+    /**
+     * Returns the replacement for the match at the given range, with group references resolved.
+     *
+     * @param document    The document.
+     * @param start       The start of the match.
+     * @param end         The end of the match.
+     * @param replacement The replacement, possibly containing group references.
+     * @return The replacement text, or null if the range is no longer a match.
+     * @throws IllegalArgumentException If the replacement refers to a group that does not exist.
+     */
+    public String replacementAt(Document document, int start, int end, String replacement) {
+        DocumentCharSequence text = new DocumentCharSequence(document);
+        if (end > text.length()) {
+            return null;
+        }
+        Matcher matcher = pattern.matcher(text);
+        matcher.region(start, text.length());
+        matcher.useTransparentBounds(true);
+        matcher.useAnchoringBounds(false);
+        if (!matcher.lookingAt() || matcher.end() != end) {
+            return null;
+        }
+        return expandReplacement(matcher, replacement);
+    }
+
+    /**
+     * Replaces all matches in a single pass and returns the text from the first
+     * to the last match with all replacements applied.
+     *
+     * @param document    The document.
+     * @param replacement The replacement, possibly containing group references.
+     * @return The rebuilt region, or null if there is no match.
+     * @throws IllegalArgumentException If the replacement refers to a group that does not exist.
+     */
+    public RebuiltRegion replaceAll(Document document, String replacement) {
+        return replaceAll(new DocumentCharSequence(document), replacement);
+    }
+
+    /**
+     * Replaces all matches in a text in a single pass, like {@link #replaceAll(Document, String)}.
+     *
+     * @param text        The text.
+     * @param replacement The replacement, possibly containing group references.
+     * @return The rebuilt region with offsets relative to the text, or null if there is no match.
+     * @throws IllegalArgumentException If the replacement refers to a group that does not exist.
+     */
+    public RebuiltRegion replaceAll(CharSequence text, String replacement) {
+        Matcher matcher = pattern.matcher(text);
+        StringBuilder rebuilt = new StringBuilder();
+        int regionStart = -1;
+        int previousEnd = 0;
+        int matchCount = 0;
+
+        while (matcher.find()) {
+            if (regionStart == -1) {
+                regionStart = matcher.start();
+                previousEnd = regionStart;
+            }
+            rebuilt.append(text, previousEnd, matcher.start());
+            rebuilt.append(expandReplacement(matcher, replacement));
+            previousEnd = matcher.end();
+            matchCount++;
+        }
+        return matchCount == 0 ? null : new RebuiltRegion(regionStart, previousEnd, rebuilt.toString(), matchCount);
+    }
+
+    /**
+     * Resolves the group references in a replacement, following the syntax of
+     * {@link Matcher#appendReplacement(StringBuilder, String)}.
+     *
+     * @param matcher     The matcher positioned on a match.
+     * @param replacement The replacement.
+     * @return The replacement text.
+     */
+    private static String expandReplacement(Matcher matcher, String replacement) {
+        StringBuilder result = new StringBuilder();
+        int cursor = 0;
+        while (cursor < replacement.length()) {
+            char c = replacement.charAt(cursor++);
+            if (c == '\\') {
+                if (cursor == replacement.length()) {
+                    throw new IllegalArgumentException("Zu maskierendes Zeichen fehlt am Ende der Ersetzung");
+                }
+                result.append(replacement.charAt(cursor++));
+            } else if (c != '$') {
+                result.append(c);
+            } else if (cursor == replacement.length()) {
+                throw new IllegalArgumentException("Gruppennummer fehlt nach '$'");
+            } else if (replacement.charAt(cursor) == '{') {
+                int close = replacement.indexOf('}', cursor);
+                if (close == -1 || close == cursor + 1) {
+                    throw new IllegalArgumentException("Ungültiger Gruppenname in der Ersetzung");
+                }
+                appendGroup(result, matcher.group(replacement.substring(cursor + 1, close)));
+                cursor = close + 1;
+            } else {
+                int group = replacement.charAt(cursor) - '0';
+                if (group < 0 || group > 9) {
+                    throw new IllegalArgumentException("Ungültiger Gruppenverweis in der Ersetzung");
+                }
+                cursor++;
+                // Further digits belong to the reference as long as such a group exists
+                while (cursor < replacement.length()) {
+                    int digit = replacement.charAt(cursor) - '0';
+                    if (digit < 0 || digit > 9 || group * 10 + digit > matcher.groupCount()) {
+                        break;
+                    }
+                    group = group * 10 + digit;
+                    cursor++;
+                }
+                if (group > matcher.groupCount()) {
+                    throw new IllegalArgumentException("Keine Gruppe " + group + " im Ausdruck");
+                }
+                appendGroup(result, matcher.group(group));
+            }
+        }
+        return result.toString();
+    }
+
+    private static void appendGroup(StringBuilder result, String group) {
+        if (group != null) {
+            result.append(group);
+        }
+    }
+}
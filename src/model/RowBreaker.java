@@ -0,0 +1,148 @@
+package model;
+
+import java.util.Arrays;
+import java.util.function.IntUnaryOperator;
+
+/**
+ * Splits lines into the rows they occupy when wrapped at a given width.
+ * <p>
+ * Rows are filled greedily: a row ends before the first character that no longer fits, or, with word
+ * wrapping, after the last whitespace in front of it; whitespace itself may extend beyond the edge.
+ * Each row holds at least one character.
+ * Tabs advance to the next tab stop relative to the start of their row.
+ * As the content of a row only depends on where it starts, {@link #rebreak} can update the rows of an
+ * edited line from the row in front of the edit until the new rows meet the old ones again, instead of
+ * measuring the whole line.
+ * </p>
+ */
+public class RowBreaker {
+
+    private final IntUnaryOperator charWidth;
+    private final int tabWidth;
+    private final int wrapWidth;
+    private final boolean wordWrap;
+
+    /**
+     * Constructs a breaker.
+     *
+     * @param charWidth Returns the width of a character.
+     * @param tabWidth  The distance between two tab stops.
+     * @param wrapWidth The width available to a row.
+     * @param wordWrap  Whether rows end at whitespace instead of at any character.
+     */
+    public RowBreaker(IntUnaryOperator charWidth, int tabWidth, int wrapWidth, boolean wordWrap) {
+        this.charWidth = charWidth;
+        this.tabWidth = Math.max(1, tabWidth);
+        this.wrapWidth = Math.max(1, wrapWidth);
+        this.wordWrap = wordWrap;
+    }
+
+    /**
+     * Returns the starts of the rows of a line.
+     *
+     * @param text  The text containing the line.
+     * @param start The start of the line.
+     * @param end   The end of the line, without its line break.
+     * @return The row starts relative to the start of the line, beginning with 0.
+     */
+    public int[] breakLine(CharSequence text, int start, int end) {
+        RowList rows = new RowList(Math.max(1, (end - start) / 64));
+        breakRows(text, start, end, 0, rows, null, 0, 0);
+        return rows.toArray();
+    }
+
+    /**
+     * Updates the row starts of a line after an edit within it.
+     *
+     * @param text       The edited text containing the line.
+     * @param start      The start of the line.
+     * @param end        The end of the line, without its line break.
+     * @param oldRows    The row starts before the edit, relative to the start of the line.
+     * @param editOffset The offset of the edit relative to the start of the line.
+     * @param inserted   The number of characters inserted at the offset.
+     * @param removed    The number of characters removed at the offset.
+     * @return The new row starts relative to the start of the line.
+     */
+    public int[] rebreak(CharSequence text, int start, int end, int[] oldRows,
+                         int editOffset, int inserted, int removed) {
+        // The row in front of the edited one may take up the beginning of a shortened word
+        int row = Arrays.binarySearch(oldRows, editOffset);
+        row = row >= 0 ? row : -row - 2;
+        row = Math.max(0, row - 1);
+
+        RowList rows = new RowList(oldRows.length + 4);
+        for (int i = 0; i < row; i++) {
+            rows.add(oldRows[i]);
+        }
+        breakRows(text, start, end, oldRows[row], rows, oldRows, editOffset + inserted, inserted - removed);
+        return rows.toArray();
+    }
+
+    /**
+     * Fills rows from the given row start to the end of the line. If old rows are given, the rows
+     * behind the edited range are taken from them as soon as a new row starts where an old one did.
+     */
+    private void breakRows(CharSequence text, int start, int end, int rowStart, RowList rows,
+                           int[] oldRows, int resyncFrom, int delta) {
+        rows.add(rowStart);
+        int x = 0;
+        int lastBreak = -1;
+        int i = start + rowStart;
+        while (i < end) {
+            char c = text.charAt(i);
+            int width = c == '\t' ? tabWidth - x % tabWidth : charWidth.applyAsInt(c);
+            int currentRow = start + rows.last();
+            boolean hanging = wordWrap && Character.isWhitespace(c); // Whitespace may extend beyond the edge
+            if (x + width > wrapWidth && i > currentRow && !hanging) {
+                int breakAt = wordWrap && lastBreak > currentRow ? lastBreak : i;
+                int relative = breakAt - start;
+                if (oldRows != null && relative >= resyncFrom) {
+                    int old = Arrays.binarySearch(oldRows, relative - delta);
+                    if (old >= 0) {
+                        for (int k = old; k < oldRows.length; k++) {
+                            rows.add(oldRows[k] + delta);
+                        }
+                        return;
+                    }
+                }
+                rows.add(relative);
+                x = 0;
+                lastBreak = -1;
+                i = breakAt;
+                continue;
+            }
+            x += width;
+            i++;
+            if (hanging) {
+                lastBreak = i;
+            }
+        }
+    }
+
+    /**
+     * A growable list of row starts.
+     */
+    private static class RowList {
+        private int[] starts;
+        private int size = 0;
+
+        RowList(int capacity) {
+            starts = new int[capacity];
+        }
+
+        void add(int start) {
+            if (size == starts.length) {
+                starts = Arrays.copyOf(starts, size * 2 + 1);
+            }
+            starts[size++] = start;
+        }
+
+        int last() {
+            return starts[size - 1];
+        }
+
+        int[] toArray() {
+            return Arrays.copyOf(starts, size);
+        }
+    }
+}
@@ -0,0 +1,317 @@
+package model;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.Charset;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The encoding of a text file: its charset, whether it starts with a byte order mark, and its line ending.
+ * <p>
+ * Documents always separate lines with {@code '\n'}; the line ending is converted when a file is read
+ * or written. {@link #detect(Path)} derives the format of a file from a sample of its first bytes only,
+ * so detecting the format of a large file costs no more than that of a small one.
+ * </p>
+ */
+public class TextFormat {
+
+    /**
+     * The sequence of characters separating two lines in a file.
+     */
+    public enum LineEnding {
+        LF("\n", "LF (Unix)"),
+        CRLF("\r\n", "CRLF (Windows)"),
+        CR("\r", "CR (klassisches macOS)");
+
+        private final String separator;
+        private final String displayName;
+
+        LineEnding(String separator, String displayName) {
+            this.separator = separator;
+            this.displayName = displayName;
+        }
+
+        public String getSeparator() { return separator; }
+        public String getDisplayName() { return displayName; }
+    }
+
+    private static final byte[] UTF_8_BOM = {(byte) 0xEF, (byte) 0xBB, (byte) 0xBF};
+    private static final byte[] UTF_16BE_BOM = {(byte) 0xFE, (byte) 0xFF};
+    private static final byte[] UTF_16LE_BOM = {(byte) 0xFF, (byte) 0xFE};
+
+    public static final int SAMPLE_SIZE = 8 * 1024;
+    public static final Charset WINDOWS_1252 = Charset.isSupported("windows-1252")
+            ? Charset.forName("windows-1252") : StandardCharsets.ISO_8859_1;
+
+    /**
+     * The format of new documents: UTF-8 without a byte order mark, lines ending with LF.
+     */
+    public static final TextFormat DEFAULT = new TextFormat(StandardCharsets.UTF_8, false, LineEnding.LF);
+
+    /**
+     * The encodings offered for conversion, in the order they are shown.
+     */
+    public static final List<TextFormat> ENCODINGS = List.of(
+            DEFAULT,
+            new TextFormat(StandardCharsets.UTF_8, true, LineEnding.LF),
+            new TextFormat(StandardCharsets.UTF_16LE, true, LineEnding.LF),
+            new TextFormat(StandardCharsets.UTF_16BE, true, LineEnding.LF),
+            new TextFormat(WINDOWS_1252, false, LineEnding.LF),
+            new TextFormat(StandardCharsets.ISO_8859_1, false, LineEnding.LF));
+
+    private final Charset charset;
+    private final boolean byteOrderMark;
+    private final LineEnding lineEnding;
+
+    /**
+     * Constructs a format.
+     *
+     * @param charset       The charset of the text.
+     * @param byteOrderMark Whether the file starts with a byte order mark; ignored for charsets without one.
+     * @param lineEnding    The line ending used in the file.
+     */
+    public TextFormat(Charset charset, boolean byteOrderMark, LineEnding lineEnding) {
+        this.charset = charset;
+        this.byteOrderMark = byteOrderMark && bomOf(charset).length > 0;
+        this.lineEnding = lineEnding;
+    }
+
+    public Charset getCharset() { return charset; }
+    public boolean hasByteOrderMark() { return byteOrderMark; }
+    public LineEnding getLineEnding() { return lineEnding; }
+
+    /**
+     * Returns the bytes written in front of the text.
+     *
+     * @return The byte order mark, or an empty array.
+     */
+    public byte[] getByteOrderMark() {
+        return byteOrderMark ? bomOf(charset).clone() : new byte[0];
+    }
+
+    /**
+     * Returns the name of the encoding shown to the user, such as "UTF-8 mit BOM".
+     *
+     * @return The charset name and whether a byte order mark is written.
+     */
+    public String getEncodingName() {
+        return charset.name() + (byteOrderMark ? " mit BOM" : "");
+    }
+
+    /**
+     * Returns a format with the same line ending and the encoding of another format.
+     *
+     * @param encoding The format providing the charset and byte order mark.
+     * @return The new format.
+     */
+    public TextFormat withEncoding(TextFormat encoding) {
+        return new TextFormat(encoding.charset, encoding.byteOrderMark, lineEnding);
+    }
+
+    /**
+     * Returns a format with the same encoding and another line ending.
+     *
+     * @param lineEnding The line ending.
+     * @return The new format.
+     */
+    public TextFormat withLineEnding(LineEnding lineEnding) {
+        return new TextFormat(charset, byteOrderMark, lineEnding);
+    }
+
+    /**
+     * Returns whether the bytes of the file are the characters of the document, so it can be memory-mapped:
+     * an ASCII-compatible charset without a byte order mark and lines ending with LF.
+     *
+     * @return True if an ASCII-only file in this format can be mapped.
+     */
+    public boolean isMappable() {
+        return !byteOrderMark && lineEnding == LineEnding.LF
+                && (charset.equals(StandardCharsets.UTF_8) || charset.equals(WINDOWS_1252)
+                || charset.equals(StandardCharsets.ISO_8859_1) || charset.equals(StandardCharsets.US_ASCII));
+    }
+
+    /**
+     * Decodes the complete bytes of a file in this format, skipping the byte order mark and
+     * converting all line endings to {@code '\n'}. Intended for small files; large files are
+     * converted while they are streamed.
+     *
+     * @param bytes The bytes of the file.
+     * @return The text as it is held by a document.
+     */
+    public String decode(byte[] bytes) {
+        byte[] bom = bomOf(charset);
+        int start = startsWith(bytes, bytes.length, bom) ? bom.length : 0;
+        return toLineFeeds(new String(bytes, start, bytes.length - start, charset));
+    }
+
+    /**
+     * Converts CRLF and CR line endings to {@code '\n'}, the line ending held by a document.
+     * The text must not end within a CRLF sequence.
+     *
+     * @param text The decoded text.
+     * @return The text with LF line endings.
+     */
+    public static String toLineFeeds(String text) {
+        return text.indexOf('\r') < 0 ? text : text.replace("\r\n", "\n").replace('\r', '\n');
+    }
+
+    /**
+     * Detects the format of a file from its first {@link #SAMPLE_SIZE} bytes.
+     *
+     * @param path The file.
+     * @return The detected format.
+     * @throws IOException If the file cannot be read.
+     */
+    public static TextFormat detect(Path path) throws IOException {
+        try (InputStream input = Files.newInputStream(path)) {
+            byte[] sample = input.readNBytes(SAMPLE_SIZE);
+            return detect(sample, sample.length, sample.length < SAMPLE_SIZE);
+        }
+    }
+
+    /**
+     * Detects the format of a text from a sample of its first bytes.
+     * <p>
+     * A byte order mark determines the charset. Without one, text with zero bytes at every second
+     * position is taken as UTF-16, text that is valid UTF-8 as UTF-8, and any other text as Windows-1252,
+     * which assigns a character to almost every byte. The line ending is the one occurring most often
+     * in the sample, LF if there is none.
+     * </p>
+     *
+     * @param sample   The first bytes of the text.
+     * @param length   The number of valid bytes in the sample.
+     * @param complete Whether the sample holds the complete text, so it cannot end within a character.
+     * @return The detected format.
+     */
+    public static TextFormat detect(byte[] sample, int length, boolean complete) {
+        Charset charset;
+        boolean bom = true;
+        if (startsWith(sample, length, UTF_8_BOM)) {
+            charset = StandardCharsets.UTF_8;
+        } else if (startsWith(sample, length, UTF_16BE_BOM)) {
+            charset = StandardCharsets.UTF_16BE;
+        } else if (startsWith(sample, length, UTF_16LE_BOM)) {
+            charset = StandardCharsets.UTF_16LE;
+        } else {
+            bom = false;
+            charset = guessCharset(sample, length, complete);
+        }
+
+        int start = bom ? bomOf(charset).length : 0;
+        String text = new String(sample, start, length - start, charset);
+        return new TextFormat(charset, bom, dominantLineEnding(text));
+    }
+
+    private static Charset guessCharset(byte[] sample, int length, boolean complete) {
+        int evenZeros = 0;
+        int oddZeros = 0;
+        for (int i = 0; i < length; i++) {
+            if (sample[i] == 0) {
+                if (i % 2 == 0) {
+                    evenZeros++;
+                } else {
+                    oddZeros++;
+                }
+            }
+        }
+        int pairs = Math.max(1, length / 2);
+        if (evenZeros > pairs * 0.3 && oddZeros < pairs * 0.05) {
+            return StandardCharsets.UTF_16BE;
+        }
+        if (oddZeros > pairs * 0.3 && evenZeros < pairs * 0.05) {
+            return StandardCharsets.UTF_16LE;
+        }
+        return isUtf8(sample, length, complete) ? StandardCharsets.UTF_8 : WINDOWS_1252;
+    }
+
+    /**
+     * Checks that a sample is valid UTF-8. If the sample has been cut from a longer text,
+     * a character cut at its end is ignored.
+     */
+    private static boolean isUtf8(byte[] sample, int length, boolean complete) {
+        int end = length;
+        if (!complete) {
+            // Drop an incomplete sequence at the end of the sample
+            int lead = length - 1;
+            while (lead >= 0 && length - lead < 4 && (sample[lead] & 0xC0) == 0x80) {
+                lead--;
+            }
+            if (lead >= 0 && (sample[lead] & 0x80) != 0) {
+                end = lead;
+            }
+        }
+        try {
+            StandardCharsets.UTF_8.newDecoder()
+                    .onMalformedInput(CodingErrorAction.REPORT)
+                    .onUnmappableCharacter(CodingErrorAction.REPORT)
+                    .decode(ByteBuffer.wrap(sample, 0, end));
+            return true;
+        } catch (CharacterCodingException exception) {
+            return false;
+        }
+    }
+
+    private static LineEnding dominantLineEnding(CharSequence text) {
+        int lf = 0;
+        int crlf = 0;
+        int cr = 0;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '\r') {
+                if (i + 1 < text.length() && text.charAt(i + 1) == '\n') {
+                    crlf++;
+                    i++;
+                } else {
+                    cr++;
+                }
+            } else if (c == '\n') {
+                lf++;
+            }
+        }
+        if (crlf > lf && crlf >= cr) {
+            return LineEnding.CRLF;
+        }
+        return cr > lf && cr > crlf ? LineEnding.CR : LineEnding.LF;
+    }
+
+    private static boolean startsWith(byte[] sample, int length, byte[] prefix) {
+        return length >= prefix.length && Arrays.equals(sample, 0, prefix.length, prefix, 0, prefix.length);
+    }
+
+    private static byte[] bomOf(Charset charset) {
+        if (charset.equals(StandardCharsets.UTF_8)) {
+            return UTF_8_BOM;
+        } else if (charset.equals(StandardCharsets.UTF_16BE)) {
+            return UTF_16BE_BOM;
+        } else if (charset.equals(StandardCharsets.UTF_16LE)) {
+            return UTF_16LE_BOM;
+        }
+        return new byte[0];
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        if (!(other instanceof TextFormat)) {
+            return false;
+        }
+        TextFormat format = (TextFormat) other;
+        return charset.equals(format.charset) && byteOrderMark == format.byteOrderMark && lineEnding == format.lineEnding;
+    }
+
+    @Override
+    public int hashCode() {
+        return (charset.hashCode() * 31 + Boolean.hashCode(byteOrderMark)) * 31 + lineEnding.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return getEncodingName() + ", " + lineEnding.name();
+    }
+}
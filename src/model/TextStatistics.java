@@ -0,0 +1,191 @@
+package model;
+
+import javax.swing.text.AbstractDocument;
+import javax.swing.text.BadLocationException;
+import javax.swing.text.Segment;
+
+/**
+ * Keeps the word and line count of a document content up to date incrementally.
+ * <p>
+ * A word is a maximal run of non-whitespace characters, matching the previous
+ * {@code trim().split("\\s+")} definition, so the word count equals the number of
+ * positions where a non-whitespace character follows whitespace or the start of the text.
+ * An edit can only change this property for the edited characters and the character
+ * right behind them, so each update reads the edited range plus its two neighbours,
+ * independent of the size of the document.
+ * </p>
+ */
+public class TextStatistics {
+
+    private static final int READ_CHUNK_SIZE = 16 * 1024;
+
+    private final Segment segment = new Segment();
+    private int wordCount = 0;
+    private int lineBreakCount = 0;
+    private char lastAppended = '\n';
+
+    /**
+     * Constructs statistics for an empty text.
+     */
+    public TextStatistics() {
+        segment.setPartialReturn(true);
+    }
+
+    /**
+     * Returns the number of words.
+     *
+     * @return The word count.
+     */
+    public int getWordCount() {
+        return wordCount;
+    }
+
+    /**
+     * Returns the number of line breaks, including the implied newline
+     * at the end of a document content, which equals the number of lines.
+     *
+     * @return The line count.
+     */
+    public int getLineCount() {
+        return lineBreakCount;
+    }
+
+    /**
+     * Adds text to the end of the counted text. Used for scanning initial content in one pass.
+     *
+     * @param array  The characters.
+     * @param offset The index of the first character.
+     * @param count  The number of characters.
+     */
+    void append(char[] array, int offset, int count) {
+        if (count == 0) {
+            return;
+        }
+        wordCount += countWordStarts(array, offset, count, lastAppended);
+        lineBreakCount += countLineBreaks(array, offset, count);
+        lastAppended = array[offset + count - 1];
+    }
+
+    /**
+     * Updates the counts after text has been inserted into the content.
+     *
+     * @param content The content after the insertion.
+     * @param offset  The insertion offset.
+     * @param length  The number of inserted characters.
+     */
+    void afterInsert(AbstractDocument.Content content, int offset, int length) {
+        char previous = charBefore(content, offset);
+        int next = charAt(content, offset + length);
+
+        int removedStarts = next >= 0 && isWordStart((char) next, previous) ? 1 : 0;
+        int addedStarts = scanRange(content, offset, length, previous, true);
+        if (next >= 0 && isWordStart((char) next, charBefore(content, offset + length))) {
+            addedStarts++;
+        }
+        wordCount += addedStarts - removedStarts;
+    }
+
+    /**
+     * Updates the counts before text is removed from the content.
+     *
+     * @param content The content before the removal.
+     * @param offset  The start of the removed range.
+     * @param length  The number of characters to remove.
+     */
+    void beforeRemove(AbstractDocument.Content content, int offset, int length) {
+        char previous = charBefore(content, offset);
+        int next = charAt(content, offset + length);
+
+        int removedStarts = scanRange(content, offset, length, previous, false);
+        if (next >= 0 && isWordStart((char) next, charBefore(content, offset + length))) {
+            removedStarts++;
+        }
+        int addedStarts = next >= 0 && isWordStart((char) next, previous) ? 1 : 0;
+        wordCount += addedStarts - removedStarts;
+    }
+
+    /**
+     * Counts the word starts within a range of the content and adjusts the line break count.
+     *
+     * @param content  The content.
+     * @param offset   The start of the range.
+     * @param length   The length of the range.
+     * @param previous The character in front of the range.
+     * @param inserted Whether the range has been inserted (true) or is about to be removed (false).
+     * @return The number of word starts in the range.
+     */
+    private int scanRange(AbstractDocument.Content content, int offset, int length, char previous, boolean inserted) {
+        int wordStarts = 0;
+        int lineBreaks = 0;
+        int end = offset + length;
+        try {
+            while (offset < end) {
+                content.getChars(offset, Math.min(READ_CHUNK_SIZE, end - offset), segment);
+                wordStarts += countWordStarts(segment.array, segment.offset, segment.count, previous);
+                lineBreaks += countLineBreaks(segment.array, segment.offset, segment.count);
+                previous = segment.array[segment.offset + segment.count - 1];
+                offset += segment.count;
+            }
+        } catch (BadLocationException exception) {
+            throw new IllegalStateException(exception);
+        }
+        lineBreakCount += inserted ? lineBreaks : -lineBreaks;
+        return wordStarts;
+    }
+
+    /**
+     * Returns the character in front of the given offset, treating the start of the text as whitespace.
+     */
+    private char charBefore(AbstractDocument.Content content, int offset) {
+        return offset == 0 ? '\n' : (char) charAt(content, offset - 1);
+    }
+
+    /**
+     * Returns the character at the given offset, or -1 behind the end of the content.
+     */
+    private int charAt(AbstractDocument.Content content, int offset) {
+        if (offset >= content.length()) {
+            return -1;
+        }
+        try {
+            content.getChars(offset, 1, segment);
+            return segment.array[segment.offset];
+        } catch (BadLocationException exception) {
+            throw new IllegalStateException(exception);
+        }
+    }
+
+    private static int countWordStarts(char[] array, int offset, int count, char previous) {
+        int wordStarts = 0;
+        boolean previousIsWhitespace = isWhitespace(previous);
+        for (int i = offset; i < offset + count; i++) {
+            boolean whitespace = isWhitespace(array[i]);
+            if (!whitespace && previousIsWhitespace) {
+                wordStarts++;
+            }
+            previousIsWhitespace = whitespace;
+        }
+        return wordStarts;
+    }
+
+    private static int countLineBreaks(char[] array, int offset, int count) {
+        int lineBreaks = 0;
+        for (int i = offset; i < offset + count; i++) {
+            if (array[i] == '\n') {
+                lineBreaks++;
+            }
+        }
+        return lineBreaks;
+    }
+
+    private static boolean isWordStart(char c, char previous) {
+        return !isWhitespace(c) && isWhitespace(previous);
+    }
+
+    /**
+     * Checks for the characters matched by {@code \s} in a regular expression.
+     */
+    private static boolean isWhitespace(char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
+    }
+}
@@ -0,0 +1,80 @@
+package model;
+
+import java.nio.CharBuffer;
+
+/**
+ * A change applied to a text block by block, such as a Replace All or the removal of trailing whitespace.
+ * <p>
+ * A {@link FileTransformer} passes each block of whole lines through its transforms in turn, so a
+ * transform only sees a part of the file at a time. Transforms may be shared by several threads.
+ * </p>
+ */
+public interface TextTransform {
+
+    /**
+     * Applies the transform to a block of text.
+     *
+     * @param text  The characters of the block, starting at index 0; lines end with {@code '\n'}.
+     * @param count The number of characters.
+     * @return The changed region of the block and the number of changes, or null if nothing has changed.
+     */
+    RebuiltRegion apply(char[] text, int count);
+
+    /**
+     * Returns a transform replacing all matches of a literal search term.
+     *
+     * @param matcher     The matcher for the search term.
+     * @param replacement The text to replace each match with.
+     * @return The transform.
+     */
+    static TextTransform replace(LiteralMatcher matcher, String replacement) {
+        return (text, count) -> matcher.replaceAll(text, 0, count, replacement);
+    }
+
+    /**
+     * Returns a transform replacing all matches of a regular expression.
+     *
+     * @param matcher     The matcher for the expression.
+     * @param replacement The replacement, possibly containing group references.
+     * @return The transform.
+     */
+    static TextTransform replace(RegexMatcher matcher, String replacement) {
+        return (text, count) -> matcher.replaceAll(CharBuffer.wrap(text, 0, count), replacement);
+    }
+
+    /**
+     * Returns a transform removing spaces and tabs at the end of every line. Each shortened line counts as a change.
+     *
+     * @return The transform.
+     */
+    static TextTransform trimTrailingWhitespace() {
+        return (text, count) -> {
+            StringBuilder rebuilt = null;
+            int regionStart = -1;
+            int previousEnd = 0;
+            int changeCount = 0;
+            int lineStart = 0;
+            for (int i = 0; i <= count; i++) {
+                if (i < count && text[i] != '\n') {
+                    continue;
+                }
+                int trimmed = i;
+                while (trimmed > lineStart && (text[trimmed - 1] == ' ' || text[trimmed - 1] == '\t')) {
+                    trimmed--;
+                }
+                if (trimmed < i) {
+                    if (rebuilt == null) {
+                        rebuilt = new StringBuilder();
+                        regionStart = trimmed;
+                        previousEnd = trimmed;
+                    }
+                    rebuilt.append(text, previousEnd, trimmed - previousEnd);
+                    previousEnd = i;
+                    changeCount++;
+                }
+                lineStart = i + 1;
+            }
+            return rebuilt == null ? null : new RebuiltRegion(regionStart, previousEnd, rebuilt.toString(), changeCount);
+        };
+    }
+}
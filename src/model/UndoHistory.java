@@ -0,0 +1,466 @@
+package model;
+
+import javax.swing.text.BadLocationException;
+import javax.swing.text.Document;
+import javax.swing.text.Segment;
+import javax.swing.undo.*;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.LongSupplier;
+
+/**
+ * An undo history limited by the memory its edits keep alive rather than by the number of edits.
+ * <p>
+ * Characters typed or deleted one after another are merged into one step per word, and a pause in
+ * typing also starts a new step. Typed characters are added to the current step directly, so a
+ * keystroke does not create an entry of its own. The history
+ * keeps track of an estimate of the heap memory held by its edits (see {@link DocumentEdit#getFootprint()}).
+ * Once the estimate exceeds the memory budget, the oldest edits are moved to an {@link UndoSpillStore}:
+ * they are kept as compressed text on disk and undone and redone as plain insertions and removals.
+ * If the spilled edits exceed the disk budget as well, the oldest ones are discarded.
+ * Edits that cannot be spilled are discarded as soon as they are the oldest edits over the budget.
+ * </p>
+ */
+public class UndoHistory extends UndoManager {
+
+    private static final long SPILLED_EDIT_BYTES = 64;
+    private static final long OTHER_EDIT_BYTES = 1024;
+    private static final long TYPING_PAUSE_MILLIS = 1500;
+
+    private final long memoryBudget;
+    private final long diskBudget;
+    private UndoSpillStore spillStore;
+    private long memoryBytes = 0;
+    private int spilledEdits = 0;
+    private boolean replaying = false;
+    private final LongSupplier clock;
+
+    /**
+     * Constructs an empty history.
+     *
+     * @param memoryBudget The heap memory the edits may keep alive, in bytes.
+     * @param diskBudget   The disk space the spilled edits may occupy, in bytes.
+     */
+    public UndoHistory(long memoryBudget, long diskBudget) {
+        this(memoryBudget, diskBudget, System::currentTimeMillis);
+    }
+
+    /**
+     * Constructs an empty history using the given clock to detect pauses in typing.
+     *
+     * @param memoryBudget The heap memory the edits may keep alive, in bytes.
+     * @param diskBudget   The disk space the spilled edits may occupy, in bytes.
+     * @param clock        Returns the current time in milliseconds.
+     */
+    UndoHistory(long memoryBudget, long diskBudget, LongSupplier clock) {
+        this.memoryBudget = memoryBudget;
+        this.diskBudget = diskBudget;
+        this.clock = clock;
+        setLimit(Integer.MAX_VALUE);
+    }
+
+    /**
+     * Adds an edit, merging typed characters into the current word, and moves old edits
+     * out of memory if the budget is exceeded. Edits made while a spilled edit is being
+     * undone or redone are part of that edit and are ignored.
+     */
+    @Override
+    public synchronized boolean addEdit(UndoableEdit anEdit) {
+        if (replaying) {
+            return false;
+        }
+        boolean typing = WordGroup.isTyping(anEdit);
+        long now = typing ? clock.getAsLong() : 0;
+        if (typing && editToBeRedone() == null && lastEdit() instanceof WordGroup
+                && ((WordGroup) lastEdit()).absorb((DocumentEdit) anEdit, now)) {
+            memoryBytes += footprint(anEdit);
+            enforceBudget();
+            return true;
+        }
+        if (lastEdit() instanceof WordGroup) {
+            ((WordGroup) lastEdit()).close();
+        }
+        UndoableEdit edit = typing ? new WordGroup((DocumentEdit) anEdit, now) : anEdit;
+        boolean added = super.addEdit(edit);
+        if (added) {
+            memoryBytes += footprint(edit);
+            enforceBudget();
+        }
+        return added;
+    }
+
+    @Override
+    protected void trimEdits(int from, int to) {
+        for (int i = from; i <= to && i < edits.size(); i++) {
+            release(edits.get(i));
+        }
+        super.trimEdits(from, to);
+    }
+
+    @Override
+    public synchronized void discardAllEdits() {
+        for (UndoableEdit edit : edits) {
+            release(edit);
+        }
+        super.discardAllEdits();
+        memoryBytes = 0;
+        spilledEdits = 0;
+        if (spillStore != null) {
+            try {
+                spillStore.clear();
+            } catch (IOException exception) {
+                exception.printStackTrace();
+            }
+        }
+    }
+
+    /**
+     * Removes an edit from the accounting before it is discarded.
+     */
+    private void release(UndoableEdit edit) {
+        memoryBytes -= footprint(edit);
+        if (edit instanceof SpilledEdit) {
+            ((SpilledEdit) edit).releaseRecords();
+            spilledEdits--;
+        }
+    }
+
+    /**
+     * Moves the oldest edits out of memory until the memory budget is met,
+     * then discards the oldest spilled edits until the disk budget is met.
+     */
+    private void enforceBudget() {
+        for (int i = 0; memoryBytes > memoryBudget && i < edits.size(); i++) {
+            UndoableEdit edit = edits.get(i);
+            if (edit instanceof SpilledEdit) {
+                continue;
+            }
+            if (!edit.canUndo()) {
+                break; // Only the edits that have been undone are left
+            }
+            SpilledEdit spilled = spill(edit);
+            if (spilled == null) {
+                trimEdits(i, i);
+                i--;
+                continue;
+            }
+            memoryBytes += SPILLED_EDIT_BYTES - footprint(edit);
+            edits.set(i, spilled);
+            spilledEdits++;
+            edit.die();
+        }
+
+        while (spillStore != null && spillStore.getLiveBytes() > diskBudget && !edits.isEmpty()
+                && edits.get(0) instanceof SpilledEdit) {
+            trimEdits(0, 0);
+        }
+    }
+
+    /**
+     * Converts an edit into a spilled edit, writing the removed texts to the spill store.
+     *
+     * @param edit The edit, which must be in the done state.
+     * @return The spilled edit, or null if the edit cannot be spilled.
+     */
+    private SpilledEdit spill(UndoableEdit edit) {
+        List<DocumentEdit> operations = new ArrayList<>();
+        if (!flatten(edit, operations) || operations.isEmpty()) {
+            return null;
+        }
+        try {
+            if (spillStore == null) {
+                spillStore = new UndoSpillStore();
+            }
+            SpilledEdit spilled = new SpilledEdit(operations.get(0).getDocument(), edit.getPresentationName());
+            for (DocumentEdit operation : operations) {
+                UndoSpillStore.Record text = operation.isInsertion() ? null : spillStore.write(operation::writeRemovedText);
+                spilled.add(operation.getOffset(), operation.getLength(), operation.isInsertion(), text);
+            }
+            return spilled;
+        } catch (IOException exception) {
+            exception.printStackTrace();
+            return null;
+        }
+    }
+
+    /**
+     * Collects the insertions and removals an edit consists of, in the order they were made.
+     *
+     * @return False if the edit contains anything else.
+     */
+    private static boolean flatten(UndoableEdit edit, List<DocumentEdit> operations) {
+        if (edit instanceof DocumentEdit) {
+            DocumentEdit operation = (DocumentEdit) edit;
+            operations.add(operation);
+            return operation.isInsertion() || operation.hasRemovedText();
+        }
+        if (edit instanceof EditGroup) {
+            for (UndoableEdit member : ((EditGroup) edit).getEdits()) {
+                if (!flatten(member, operations)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Returns the estimated heap memory held by an edit.
+     */
+    private static long footprint(UndoableEdit edit) {
+        if (edit instanceof DocumentEdit) {
+            return ((DocumentEdit) edit).getFootprint();
+        }
+        if (edit instanceof SpilledEdit) {
+            return SPILLED_EDIT_BYTES;
+        }
+        if (edit instanceof EditGroup) {
+            long bytes = 0;
+            for (UndoableEdit member : ((EditGroup) edit).getEdits()) {
+                bytes += footprint(member);
+            }
+            return bytes;
+        }
+        return OTHER_EDIT_BYTES;
+    }
+
+    /**
+     * Returns the estimated heap memory held by the edits in memory.
+     *
+     * @return The estimate in bytes.
+     */
+    public synchronized long getMemoryBytes() {
+        return memoryBytes;
+    }
+
+    /**
+     * Returns the disk space occupied by the spilled edits.
+     *
+     * @return The size in bytes.
+     */
+    public synchronized long getSpilledBytes() {
+        return spillStore != null ? spillStore.getLiveBytes() : 0;
+    }
+
+    /**
+     * Returns the number of steps in the history, including those that have been undone.
+     *
+     * @return The number of steps.
+     */
+    public synchronized int getEditCount() {
+        return edits.size();
+    }
+
+    /**
+     * Returns the number of steps that have been moved to disk.
+     *
+     * @return The number of spilled steps.
+     */
+    public synchronized int getSpilledEditCount() {
+        return spilledEdits;
+    }
+
+    public long getMemoryBudget() {
+        return memoryBudget;
+    }
+
+    /**
+     * Releases the spill store.
+     */
+    public synchronized void close() {
+        discardAllEdits();
+        if (spillStore != null) {
+            try {
+                spillStore.close();
+            } catch (IOException exception) {
+                exception.printStackTrace();
+            }
+            spillStore = null;
+        }
+    }
+
+    /**
+     * The characters typed or deleted one after another within a word.
+     * A group ends at the start of a new word, at a jump of the caret, after a pause in typing
+     * and when it is undone.
+     */
+    private static class WordGroup extends EditGroup {
+        private boolean open = true;
+        private long lastEditMillis;
+
+        WordGroup(DocumentEdit edit, long now) {
+            super.addEdit(edit);
+            end();
+            lastEditMillis = now;
+        }
+
+        /**
+         * Returns whether an edit inserts or removes a single character.
+         */
+        static boolean isTyping(UndoableEdit edit) {
+            return edit instanceof DocumentEdit && ((DocumentEdit) edit).getLength() == 1
+                    && (((DocumentEdit) edit).isInsertion() || ((DocumentEdit) edit).hasRemovedText());
+        }
+
+        /**
+         * Adds a typed character to this group if it continues the word.
+         *
+         * @param next The edit of the character.
+         * @param now  The current time in milliseconds.
+         * @return True if the edit has been added.
+         */
+        boolean absorb(DocumentEdit next, long now) {
+            if (!open || !canUndo() || now - lastEditMillis > TYPING_PAUSE_MILLIS
+                    || !continues((DocumentEdit) lastEdit(), next)) {
+                open = false;
+                return false;
+            }
+            edits.add(next);
+            lastEditMillis = now;
+            return true;
+        }
+
+        void close() {
+            open = false;
+        }
+
+        /**
+         * Returns whether the next edit continues the word of the previous one: typing directly behind it,
+         * or deleting with backspace or delete at the same place.
+         */
+        private static boolean continues(DocumentEdit previous, DocumentEdit next) {
+            if (previous.isInsertion() != next.isInsertion()) {
+                return false;
+            }
+            if (next.isInsertion()) {
+                boolean newWord = Character.isWhitespace(previous.getTypedChar()) && !Character.isWhitespace(next.getTypedChar());
+                return next.getOffset() == previous.getOffset() + 1 && !newWord;
+            }
+            return next.getOffset() == previous.getOffset() - 1 || next.getOffset() == previous.getOffset();
+        }
+
+        @Override
+        public void undo() throws CannotUndoException {
+            open = false;
+            super.undo();
+        }
+    }
+
+    /**
+     * An edit that has been moved out of memory. It is undone and redone by applying its insertions
+     * and removals to the document; the text needed for the next step is kept in the spill store.
+     */
+    private class SpilledEdit extends AbstractUndoableEdit {
+        private final Document document;
+        private final String presentationName;
+        private final List<int[]> operations = new ArrayList<>();
+        private final List<UndoSpillStore.Record> texts = new ArrayList<>();
+
+        SpilledEdit(Document document, String presentationName) {
+            this.document = document;
+            this.presentationName = presentationName;
+        }
+
+        /**
+         * Appends an insertion or removal.
+         *
+         * @param text The removed text of a removal, null for an insertion.
+         */
+        void add(int offset, int length, boolean insertion, UndoSpillStore.Record text) {
+            operations.add(new int[]{offset, length, insertion ? 1 : 0});
+            texts.add(text);
+        }
+
+        @Override
+        public void undo() throws CannotUndoException {
+            super.undo();
+            try {
+                apply(true);
+            } catch (IOException | BadLocationException exception) {
+                throw (CannotUndoException) new CannotUndoException().initCause(exception);
+            }
+        }
+
+        @Override
+        public void redo() throws CannotRedoException {
+            super.redo();
+            try {
+                apply(false);
+            } catch (IOException | BadLocationException exception) {
+                throw (CannotRedoException) new CannotRedoException().initCause(exception);
+            }
+        }
+
+        /**
+         * Reverts the operations in reverse order, or repeats them in order. Text about to be
+         * removed from the document is written to the spill store first, text to be inserted is read from it.
+         *
+         * @param undo True to revert the operations.
+         */
+        private void apply(boolean undo) throws IOException, BadLocationException {
+            replaying = true;
+            try {
+                int count = operations.size();
+                for (int step = 0; step < count; step++) {
+                    int i = undo ? count - 1 - step : step;
+                    int[] operation = operations.get(i);
+                    boolean removes = (operation[2] == 1) == undo;
+                    if (removes) {
+                        UndoSpillStore.Record text = spillStore.write(out -> writeRange(operation[0], operation[1], out));
+                        document.remove(operation[0], operation[1]);
+                        texts.set(i, text);
+                    } else {
+                        UndoSpillStore.Record text = texts.get(i);
+                        document.insertString(operation[0], spillStore.read(text), null);
+                        texts.set(i, null);
+                        spillStore.release(text);
+                    }
+                }
+            } finally {
+                replaying = false;
+            }
+        }
+
+        /**
+         * Writes a range of the document in chunks.
+         */
+        private void writeRange(int offset, int length, Writer out) throws IOException {
+            Segment segment = new Segment();
+            segment.setPartialReturn(true);
+            try {
+                int end = offset + length;
+                while (offset < end) {
+                    document.getText(offset, end - offset, segment);
+                    out.write(segment.array, segment.offset, segment.count);
+                    offset += segment.count;
+                }
+            } catch (BadLocationException exception) {
+                throw new IOException(exception);
+            }
+        }
+
+        /**
+         * Releases the texts held in the spill store.
+         */
+        void releaseRecords() {
+            try {
+                for (UndoSpillStore.Record text : texts) {
+                    if (text != null) {
+                        spillStore.release(text);
+                    }
+                }
+            } catch (IOException exception) {
+                exception.printStackTrace();
+            }
+            texts.clear();
+        }
+
+        @Override
+        public String getPresentationName() {
+            return presentationName;
+        }
+    }
+}
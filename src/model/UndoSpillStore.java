@@ -0,0 +1,220 @@
+package model;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Set;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * A temporary file holding compressed text for edits that an {@link UndoHistory} has moved out of memory.
+ * <p>
+ * Texts are appended as separately compressed records. Released records leave unused space behind,
+ * which is reclaimed by rewriting the live records once it outweighs them. The file is deleted
+ * when the store is closed or the application exits.
+ * </p>
+ */
+public class UndoSpillStore implements Closeable {
+
+    private static final long MIN_COMPACT_SIZE = 8L * 1024 * 1024;
+
+    private final Path path;
+    private final FileChannel channel;
+    private final Set<Record> records = Collections.newSetFromMap(new IdentityHashMap<>());
+    private long liveBytes = 0;
+
+    /**
+     * Creates the store in a new temporary file.
+     *
+     * @throws IOException If the file cannot be created.
+     */
+    public UndoSpillStore() throws IOException {
+        path = Files.createTempFile("texteditor-undo", ".spill");
+        path.toFile().deleteOnExit();
+        channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+    }
+
+    /**
+     * A compressed text in the store.
+     */
+    public static final class Record {
+        private long position;
+        private long size;
+        private int chars;
+
+        public int getChars() { return chars; }
+    }
+
+    /**
+     * Something that writes a text, such as the removed text of a {@link DocumentEdit}.
+     */
+    public interface TextSource {
+        void writeTo(Writer out) throws IOException;
+    }
+
+    /**
+     * Compresses a text and appends it to the store.
+     *
+     * @param source Writes the text.
+     * @return The record of the text.
+     * @throws IOException If the store cannot be written.
+     */
+    public Record write(TextSource source) throws IOException {
+        Record record = new Record();
+        record.position = channel.size();
+        channel.position(record.position);
+
+        DataOutputStream data = new DataOutputStream(new BufferedOutputStream(
+                new DeflaterOutputStream(new NonClosingOutputStream(Channels.newOutputStream(channel)))));
+        try (Writer out = new Writer() {
+            @Override
+            public void write(char[] buffer, int offset, int length) throws IOException {
+                for (int i = 0; i < length; i++) {
+                    data.writeChar(buffer[offset + i]);
+                }
+                record.chars += length;
+            }
+
+            @Override
+            public void flush() throws IOException {
+                data.flush();
+            }
+
+            @Override
+            public void close() throws IOException {
+                data.close();
+            }
+        }) {
+            source.writeTo(out);
+        }
+
+        record.size = channel.position() - record.position;
+        records.add(record);
+        liveBytes += record.size;
+        return record;
+    }
+
+    /**
+     * Reads a text back from the store.
+     *
+     * @param record The record of the text.
+     * @return The text.
+     * @throws IOException If the store cannot be read.
+     */
+    public String read(Record record) throws IOException {
+        channel.position(record.position);
+        DataInputStream data = new DataInputStream(new BufferedInputStream(
+                new InflaterInputStream(Channels.newInputStream(channel))));
+        char[] chars = new char[record.chars];
+        for (int i = 0; i < chars.length; i++) {
+            chars[i] = data.readChar();
+        }
+        return new String(chars);
+    }
+
+    /**
+     * Releases a record that is no longer needed. Compacts the file if most of it is unused.
+     *
+     * @param record The record.
+     * @throws IOException If the file cannot be compacted.
+     */
+    public void release(Record record) throws IOException {
+        if (records.remove(record)) {
+            liveBytes -= record.size;
+        }
+        long fileSize = channel.size();
+        if (records.isEmpty()) {
+            channel.truncate(0);
+        } else if (fileSize > MIN_COMPACT_SIZE && fileSize > 2 * liveBytes) {
+            compact();
+        }
+    }
+
+    /**
+     * Moves all live records to the start of the file in their order and truncates the rest.
+     */
+    private void compact() throws IOException {
+        Record[] live = records.toArray(new Record[0]);
+        Arrays.sort(live, (a, b) -> Long.compare(a.position, b.position));
+        ByteBuffer buffer = ByteBuffer.allocate(64 * 1024);
+        long target = 0;
+        for (Record record : live) {
+            // Records only move towards the start, so copying front to back never overwrites unread bytes
+            for (long copied = 0; copied < record.size; ) {
+                buffer.clear().limit((int) Math.min(buffer.capacity(), record.size - copied));
+                int read = channel.read(buffer, record.position + copied);
+                buffer.flip();
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer, target + copied + (read - buffer.remaining()));
+                }
+                copied += read;
+            }
+            record.position = target;
+            target += record.size;
+        }
+        channel.truncate(target);
+    }
+
+    /**
+     * Releases all records.
+     *
+     * @throws IOException If the file cannot be truncated.
+     */
+    public void clear() throws IOException {
+        records.clear();
+        liveBytes = 0;
+        channel.truncate(0);
+    }
+
+    /**
+     * Returns the number of bytes occupied by live records.
+     *
+     * @return The size in bytes.
+     */
+    public long getLiveBytes() {
+        return liveBytes;
+    }
+
+    /**
+     * Returns the size of the file, including unused space.
+     *
+     * @return The size in bytes.
+     * @throws IOException If the size cannot be determined.
+     */
+    public long getFileSize() throws IOException {
+        return channel.size();
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+        Files.deleteIfExists(path);
+    }
+
+    /**
+     * Keeps the channel open when the compressing stream of a record is closed.
+     */
+    private static class NonClosingOutputStream extends FilterOutputStream {
+        NonClosingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+        }
+
+        @Override
+        public void close() throws IOException {
+            flush();
+        }
+    }
+}
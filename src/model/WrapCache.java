@@ -0,0 +1,172 @@
+package model;
+
+import java.util.function.IntUnaryOperator;
+
+/**
+ * Caches the rows of wrapped lines and maps between lines and rows.
+ * <p>
+ * Lines are measured lazily: until its row starts are known, a line counts with an estimated number of rows.
+ * The row counts are kept in a Fenwick tree, so finding the line shown in a row or the first row of a line
+ * takes logarithmic time, and measuring or editing a line only updates its own count. Only adding or removing
+ * lines rebuilds the tree.
+ * </p>
+ */
+public class WrapCache {
+
+    private static final int[] SINGLE_ROW = {0};
+
+    private int lineCount = 0;
+    private int[] counts = new int[0];
+    private int[][] rows = new int[0][];
+    private int[] tree = new int[1];
+    private int totalRows = 0;
+
+    /**
+     * Discards all measured rows, for example because the wrap width has changed.
+     *
+     * @param lineCount The number of lines.
+     * @param estimate  Returns the estimated row count of a line.
+     */
+    public void reset(int lineCount, IntUnaryOperator estimate) {
+        this.lineCount = lineCount;
+        counts = new int[lineCount];
+        rows = new int[lineCount][];
+        for (int line = 0; line < lineCount; line++) {
+            counts[line] = Math.max(1, estimate.applyAsInt(line));
+        }
+        rebuildTree();
+    }
+
+    /**
+     * Replaces a range of lines by new, unmeasured lines.
+     *
+     * @param index    The first line replaced.
+     * @param removed  The number of lines removed.
+     * @param added    The number of lines added in their place.
+     * @param estimate Returns the estimated row count of a new line, given its index.
+     */
+    public void replaceLines(int index, int removed, int added, IntUnaryOperator estimate) {
+        int newCount = lineCount - removed + added;
+        int tail = lineCount - index - removed;
+        int[] newCounts = new int[newCount];
+        int[][] newRows = new int[newCount][];
+        System.arraycopy(counts, 0, newCounts, 0, index);
+        System.arraycopy(rows, 0, newRows, 0, index);
+        System.arraycopy(counts, index + removed, newCounts, index + added, tail);
+        System.arraycopy(rows, index + removed, newRows, index + added, tail);
+        for (int line = index; line < index + added; line++) {
+            newCounts[line] = Math.max(1, estimate.applyAsInt(line));
+        }
+        lineCount = newCount;
+        counts = newCounts;
+        rows = newRows;
+        rebuildTree();
+    }
+
+    /**
+     * Returns whether the rows of a line have been measured.
+     *
+     * @param line The line.
+     * @return True if the row starts are known.
+     */
+    public boolean isMeasured(int line) {
+        return rows[line] != null;
+    }
+
+    /**
+     * Returns the row starts of a measured line.
+     *
+     * @param line The line.
+     * @return The row starts relative to the start of the line, or null if the line has not been measured.
+     */
+    public int[] getRows(int line) {
+        return rows[line];
+    }
+
+    /**
+     * Stores the measured row starts of a line.
+     *
+     * @param line      The line.
+     * @param rowStarts The row starts relative to the start of the line, beginning with 0.
+     */
+    public void setRows(int line, int[] rowStarts) {
+        rows[line] = rowStarts.length == 1 ? SINGLE_ROW : rowStarts;
+        setCount(line, rowStarts.length);
+    }
+
+    public int getLineCount() {
+        return lineCount;
+    }
+
+    public int getTotalRows() {
+        return totalRows;
+    }
+
+    /**
+     * Returns the number of rows of a line, estimated if it has not been measured.
+     *
+     * @param line The line.
+     * @return The row count.
+     */
+    public int getRowCount(int line) {
+        return counts[line];
+    }
+
+    /**
+     * Returns the index of the first row of a line.
+     *
+     * @param line The line.
+     * @return The sum of the row counts of the lines in front of it.
+     */
+    public int getFirstRow(int line) {
+        int sum = 0;
+        for (int i = line; i > 0; i -= i & -i) {
+            sum += tree[i];
+        }
+        return sum;
+    }
+
+    /**
+     * Returns the line shown in a row.
+     *
+     * @param row The row; rows beyond the end belong to the last line.
+     * @return The line.
+     */
+    public int getLineOfRow(int row) {
+        int line = 0;
+        int remaining = row;
+        for (int step = Integer.highestOneBit(Math.max(1, lineCount)); step > 0; step >>= 1) {
+            int next = line + step;
+            if (next <= lineCount && tree[next] <= remaining) {
+                line = next;
+                remaining -= tree[next];
+            }
+        }
+        return Math.min(line, lineCount - 1);
+    }
+
+    private void setCount(int line, int count) {
+        int difference = count - counts[line];
+        if (difference == 0) {
+            return;
+        }
+        counts[line] = count;
+        totalRows += difference;
+        for (int i = line + 1; i <= lineCount; i += i & -i) {
+            tree[i] += difference;
+        }
+    }
+
+    private void rebuildTree() {
+        tree = new int[lineCount + 1];
+        totalRows = 0;
+        for (int i = 1; i <= lineCount; i++) {
+            tree[i] += counts[i - 1];
+            totalRows += counts[i - 1];
+            int parent = i + (i & -i);
+            if (parent <= lineCount) {
+                tree[parent] += tree[i];
+            }
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package controller;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.*;
+
+import java.io.StringWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for {@link CommandRegistry}.
+ * <p>
+ * This test class verifies that commands are dispatched to their actions and that every run
+ * is timed, counted in the JSON export and emitted as a JFR event.
+ * </p>
+ */
+class CommandRegistryTests {
+
+    private CommandRegistry commands;
+    private int runs;
+
+    /**
+     * Creates a registry with a command counting its runs.
+     */
+    @BeforeEach
+    void setUp() {
+        commands = new CommandRegistry();
+        runs = 0;
+        commands.register("count", () -> runs++);
+    }
+
+    /**
+     * Tests that registered commands run and are recorded, and unknown commands are ignored.
+     */
+    @Test
+    void testExecuteRecordsRuns() {
+        assertTrue(commands.execute("count"));
+        assertTrue(commands.execute("count"));
+        assertFalse(commands.execute("unknown"));
+
+        assertEquals(2, runs);
+        CommandRegistry.CommandStatistics statistics = commands.getStatistics().get(0);
+        assertEquals("count", statistics.getCommand());
+        assertEquals(2, statistics.getCount());
+        assertTrue(statistics.getLatency().getMax() > 0);
+    }
+
+    /**
+     * Tests that a failing command is recorded and its exception passed on, and that re-registering keeps the statistics.
+     */
+    @Test
+    void testFailingCommandIsRecorded() {
+        commands.register("fail", () -> { throw new IllegalStateException("Fehler"); });
+        assertThrows(IllegalStateException.class, () -> commands.execute("fail"));
+        commands.register("fail", () -> { });
+        commands.execute("fail");
+
+        assertEquals(2, commands.getStatistics().get(1).getCount());
+        commands.reset();
+        assertEquals(0, commands.getStatistics().get(1).getCount());
+    }
+
+    /**
+     * Tests that the allocations of a command are measured.
+     */
+    @Test
+    void testAllocationsAreMeasured() {
+        Assumptions.assumeTrue(commands.isMeasuringAllocations());
+        commands.register("allocate", () -> assertEquals(1 << 20, new byte[1 << 20].length));
+        commands.execute("allocate");
+
+        assertTrue(commands.getStatistics().get(1).getMaxAllocatedBytes() >= 1 << 20);
+    }
+
+    /**
+     * Tests that the JSON export lists only the commands that have run.
+     */
+    @Test
+    void testWriteJson() throws Exception {
+        commands.register("quote\"", () -> { });
+        commands.execute("quote\"");
+        StringWriter writer = new StringWriter();
+        commands.writeJson(writer);
+
+        String json = writer.toString();
+        assertTrue(json.contains("{\"command\": \"quote\\\"\", \"count\": 1, \"p50Millis\": "), json);
+        assertTrue(json.contains("\"maxMillis\": "), json);
+        assertFalse(json.contains("\"count\", "), json);
+    }
+
+    /**
+     * Tests that every run is emitted as a JFR event carrying the command.
+     */
+    @Test
+    void testFlightRecorderEvent() throws Exception {
+        Path file = Files.createTempFile("commands", ".jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable("texteditor.Command");
+            recording.start();
+            commands.execute("count");
+            recording.stop();
+            recording.dump(file);
+
+            List<RecordedEvent> events = RecordingFile.readAllEvents(file);
+            assertEquals(1, events.size());
+            assertEquals("count", events.get(0).getString("command"));
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package controller;
+
+import org.junit.jupiter.api.*;
+
+import javax.swing.*;
+import java.awt.*;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.logging.Handler;
+import java.util.logging.LogRecord;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for {@link EdtWatchdog}.
+ * <p>
+ * This test class verifies that every dispatched event is timed and that the stack of the
+ * EDT is recorded once for an event exceeding the threshold.
+ * </p>
+ */
+class EdtWatchdogTests {
+
+    private final List<String> messages = new CopyOnWriteArrayList<>();
+    private EdtWatchdog watchdog;
+
+    /**
+     * Pushes a watchdog with a threshold of 50 ms that collects its messages.
+     */
+    @BeforeEach
+    void setUp() {
+        Handler handler = new Handler() {
+            @Override
+            public void publish(LogRecord record) { messages.add(record.getMessage()); }
+            @Override
+            public void flush() { }
+            @Override
+            public void close() { }
+        };
+        watchdog = new EdtWatchdog(50, handler);
+        Toolkit.getDefaultToolkit().getSystemEventQueue().push(watchdog);
+    }
+
+    /**
+     * Tests that short events are recorded in the histogram without a stall report.
+     */
+    @Test
+    void testShortEventsAreTimed() throws Exception {
+        for (int i = 0; i <= 100; i++) {
+            SwingUtilities.invokeAndWait(() -> { });
+        }
+
+        assertTrue(watchdog.getHistogram().getTotalCount() >= 100);
+        assertEquals(0, watchdog.getStallCount());
+        watchdog.writeSummary();
+        assertTrue(messages.get(messages.size() - 1).startsWith("EDT-Latenz: "), messages.toString());
+    }
+
+    /**
+     * Tests that the stack of a blocking event is recorded once, followed by its total duration.
+     */
+    @Test
+    void testStallIsReported() throws Exception {
+        SwingUtilities.invokeAndWait(() -> sleep(300));
+        SwingUtilities.invokeAndWait(() -> { }); // The blocking event has been timed once the next one runs
+
+        assertEquals(1, watchdog.getStallCount());
+        assertEquals(2, messages.size(), messages.toString());
+        assertTrue(messages.get(0).startsWith("EDT blockiert seit "), messages.get(0));
+        assertTrue(messages.get(0).contains("EdtWatchdogTests.sleep"), messages.get(0));
+        assertTrue(messages.get(1).startsWith("EDT-Blockade beendet nach "), messages.get(1));
+        assertTrue(watchdog.getHistogram().getMax() >= 300_000_000L);
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Removes the watchdog from the event queue after each test case.
+     */
+    @AfterEach
+    void tearDown() {
+        watchdog.uninstall();
+    }
+}
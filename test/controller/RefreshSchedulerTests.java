@@ -0,0 +1,78 @@
+package controller;
+
+import org.junit.jupiter.api.*;
+
+import javax.swing.*;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for {@link RefreshScheduler}.
+ * <p>
+ * This test class verifies that repeated requests are merged into a single refresh
+ * and that the applied and dropped counters reflect this.
+ * </p>
+ */
+class RefreshSchedulerTests {
+
+    private RefreshScheduler refreshScheduler;
+
+    /**
+     * Creates a new scheduler before each test case.
+     */
+    @BeforeEach
+    void setUp() {
+        refreshScheduler = new RefreshScheduler();
+    }
+
+    /**
+     * Tests that a burst of requests runs each task only once.
+     */
+    @Test
+    void testBurstIsCoalesced() throws Exception {
+        AtomicInteger firstRuns = new AtomicInteger();
+        AtomicInteger secondRuns = new AtomicInteger();
+        Runnable first = firstRuns::incrementAndGet;
+        Runnable second = secondRuns::incrementAndGet;
+
+        SwingUtilities.invokeAndWait(() -> {
+            for (int i = 0; i < 100; i++) {
+                refreshScheduler.request(first);
+            }
+            refreshScheduler.request(second);
+            refreshScheduler.flush();
+        });
+
+        assertEquals(1, firstRuns.get());
+        assertEquals(1, secondRuns.get());
+        assertEquals(2, refreshScheduler.getAppliedCount());
+        assertEquals(99, refreshScheduler.getDroppedCount());
+    }
+
+    /**
+     * Tests that pending tasks are run by the timer at the end of the frame.
+     */
+    @Test
+    void testTaskRunsAfterFrame() throws Exception {
+        CountDownLatch latch = new CountDownLatch(1);
+        Runnable task = latch::countDown;
+
+        SwingUtilities.invokeAndWait(() -> {
+            refreshScheduler.request(task);
+            refreshScheduler.request(task);
+        });
+
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        // The counters are updated after the task on the EDT, so they are read there once the flush has finished
+        long[] counts = new long[2];
+        SwingUtilities.invokeAndWait(() -> {
+            counts[0] = refreshScheduler.getAppliedCount();
+            counts[1] = refreshScheduler.getDroppedCount();
+        });
+        assertEquals(1, counts[0]);
+        assertEquals(1, counts[1]);
+    }
+}
@@ -8,6 +8,8 @@ import gui.TextEditorMainGUI;
 import org.junit.jupiter.api.*;
 
 import javax.swing.*;
+import javax.swing.text.BadLocationException;
+import javax.swing.text.Document;
 import java.io.File;
 import java.io.FileWriter;
 import java.io.IOException;
@@ -91,20 +93,19 @@ class TextEditorMainControllerTests {
         }
     }
 
+    /**
+     * Tests that a new file opens in a tab of its own, keeping the unsaved text of the previous tab.
+     */
     @Test
-    void testNewFileActionNO() {
+    void testNewFileKeepsPreviousTab() throws BadLocationException {
         textArea.setText("Some unsaved text");
+        Document previousDocument = textArea.getDocument();
 
-        // Simuliere "Nein" im Bestätigungsdialog
-        int userSelection = JOptionPane.NO_OPTION;
+        fileMenuManager.createNewFile();
 
-        if (userSelection == JOptionPane.YES_OPTION) {
-            fileMenuManager.createNewFile();
-            assertTrue(textArea.getText().isEmpty(), "Text area should be empty after clicking 'Yes'.");
-        } else {
-            fileMenuManager.createNewFile();
-            assertFalse(textArea.getText().isEmpty(), "Text area should retain content after clicking 'No'.");
-        }
+        assertTrue(textArea.getText().isEmpty(), "The new tab should be empty.");
+        assertEquals("Some unsaved text", previousDocument.getText(0, previousDocument.getLength()),
+                "The previous tab should retain its content.");
     }
 
     /**
@@ -0,0 +1,107 @@
+package controller.batch;
+
+import org.junit.jupiter.api.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for {@link BatchCommand}.
+ * <p>
+ * This test class runs the batch mode over a directory tree and verifies the transformed files,
+ * the per-file report and the exit codes for failing files and invalid arguments, as well as
+ * printing a file into a PostScript file.
+ * </p>
+ */
+class BatchCommandTests {
+
+    private Path directory;
+    private ByteArrayOutputStream out;
+    private ByteArrayOutputStream err;
+
+    /**
+     * Creates a directory with a few text files before each test case.
+     */
+    @BeforeEach
+    void setUp() throws IOException {
+        directory = Files.createTempDirectory("batch");
+        Files.createDirectories(directory.resolve("sub"));
+        for (int i = 0; i < 20; i++) {
+            Path file = directory.resolve(i % 2 == 0 ? "sub" : ".").resolve("datei" + i + ".txt");
+            Files.writeString(file, "foo bar  \nFOO\n".repeat(i + 1), StandardCharsets.UTF_8);
+        }
+        Files.writeString(directory.resolve("ignoriert.log"), "foo\n", StandardCharsets.UTF_8);
+        out = new ByteArrayOutputStream();
+        err = new ByteArrayOutputStream();
+    }
+
+    /**
+     * Tests that all included files are transformed in parallel and reported in order with their match counts.
+     */
+    @Test
+    void testTransformsDirectory() throws IOException {
+        int exitCode = run("--replace", "foo", "baz", "--ignore-case", "--trim-trailing",
+                "--include", "*.txt", "--threads", "3", directory.toString());
+
+        assertEquals(0, exitCode, err.toString(StandardCharsets.UTF_8));
+        assertEquals("baz bar\nbaz\n".repeat(6), Files.readString(directory.resolve("datei5.txt")));
+        assertEquals("foo\n", Files.readString(directory.resolve("ignoriert.log")));
+        String report = out.toString(StandardCharsets.UTF_8);
+        assertTrue(report.contains("18 Treffer"), report);
+        assertTrue(report.contains("20 Dateien, 20 geändert, 0 Fehler, 630 Treffer"), report);
+    }
+
+    /**
+     * Tests the exit codes for invalid arguments and for files that cannot be read.
+     */
+    @Test
+    void testExitCodes() {
+        assertEquals(2, run(directory.toString()));
+        assertEquals(2, run("--replace", "(", "x", "--regex", directory.toString()));
+        assertEquals(2, run("--eol", "xy", directory.toString()));
+        assertTrue(err.toString(StandardCharsets.UTF_8).contains("Aufruf: --batch"));
+
+        assertEquals(1, run("--trim-trailing", directory.resolve("fehlt.txt").toString()));
+    }
+
+    /**
+     * Tests that a single file is printed into a PostScript file and that printing rejects transforms.
+     */
+    @Test
+    void testPrintToFile() throws IOException {
+        Path output = directory.resolve("druck.ps");
+
+        int exitCode = run("--print", output.toString(), directory.resolve("datei19.txt").toString());
+
+        assertEquals(0, exitCode, err.toString(StandardCharsets.UTF_8));
+        assertTrue(Files.readString(output, StandardCharsets.ISO_8859_1).startsWith("%!PS"));
+        assertTrue(out.toString(StandardCharsets.UTF_8).contains("1 Seite gedruckt"), out.toString(StandardCharsets.UTF_8));
+        assertEquals(2, run("--print", output.toString(), "--trim-trailing", directory.resolve("datei19.txt").toString()));
+        assertEquals(2, run("--print", output.toString(), directory.toString(), directory.resolve("datei19.txt").toString()));
+    }
+
+    private int run(String... args) {
+        return BatchCommand.run(args, new PrintStream(out, true, StandardCharsets.UTF_8),
+                new PrintStream(err, true, StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Deletes the test directory after each test case.
+     */
+    @AfterEach
+    void tearDown() throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path file : (Iterable<Path>) files.sorted(Comparator.reverseOrder())::iterator) {
+                Files.delete(file);
+            }
+        }
+    }
+}
@@ -13,7 +13,7 @@ import static org.junit.jupiter.api.Assertions.*;
  * Unit tests for {@link EditMenuManager}.
  * <p>
  * This test class verifies undo/redo functionality, web search capability,
- * and the insertion of date/time in the text editor.
+ * jumping to a line, and the insertion of date/time in the text editor.
  * </p>
  */
 class EditMenuManagerTest {
@@ -66,6 +66,22 @@ class EditMenuManagerTest {
         });
     }
 
+    /**
+     * Tests jumping to a line.
+     * Verifies that the cursor moves to the start of the line and that missing lines are rejected.
+     */
+    @Test
+    void testGoToLine() {
+        SwingUtilities.invokeLater(() -> {
+            textArea.setText("eins\nzwei\ndrei");
+
+            assertTrue(editMenuManager.goToLine(3));
+            assertEquals(10, textArea.getCaretPosition());
+            assertFalse(editMenuManager.goToLine(4));
+            assertEquals(10, textArea.getCaretPosition());
+        });
+    }
+
     /**
      * Tests inserting the current date and time.
      * Verifies that the correct format is used and that the text is inserted at the cursor position.
@@ -0,0 +1,105 @@
+package controller.filemenu;
+
+import model.TextFormat;
+import org.junit.jupiter.api.*;
+
+import javax.swing.*;
+import javax.swing.text.PlainDocument;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for {@link FileLoadWorker}.
+ * <p>
+ * This test class ensures that files are decoded correctly across chunk boundaries,
+ * that byte order marks and CRLF line endings are converted, and that the loaded text
+ * ends up in the document in reading order.
+ * </p>
+ */
+class FileLoadWorkerTests {
+
+    private File testFile;
+
+    /**
+     * Creates a local test file before each test case.
+     */
+    @BeforeEach
+    void setUp() throws IOException {
+        testFile = new File("testfile_load.txt");
+        testFile.createNewFile();
+    }
+
+    /**
+     * Tests loading a file that is larger than a single chunk and contains multibyte characters.
+     */
+    @Test
+    void testLoadMultibyteFile() throws Exception {
+        StringBuilder expected = new StringBuilder();
+        for (int i = 0; i < 20000; i++) {
+            expected.append("Zeile ").append(i).append(" äöü ß €\n");
+        }
+        Files.writeString(testFile.toPath(), expected, StandardCharsets.UTF_8);
+
+        PlainDocument document = new PlainDocument();
+        FileLoadWorker worker = new FileLoadWorker(testFile.toPath(), document, StandardCharsets.UTF_8);
+        worker.execute();
+        worker.get();
+        SwingUtilities.invokeAndWait(() -> { }); // Wait for the remaining chunks on the EDT
+
+        assertEquals(expected.toString(), document.getText(0, document.getLength()));
+    }
+
+    /**
+     * Tests that the byte order mark is skipped and CRLF line endings become LF, also across chunk boundaries.
+     */
+    @Test
+    void testLoadUtf16WithCrlf() throws Exception {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < 20000; i++) {
+            text.append("Zeile ").append(i).append(" äöü\r\n");
+        }
+        byte[] bom = {(byte) 0xFF, (byte) 0xFE};
+        byte[] encoded = text.toString().getBytes(StandardCharsets.UTF_16LE);
+        byte[] bytes = new byte[bom.length + encoded.length];
+        System.arraycopy(bom, 0, bytes, 0, bom.length);
+        System.arraycopy(encoded, 0, bytes, bom.length, encoded.length);
+        Files.write(testFile.toPath(), bytes);
+
+        TextFormat format = TextFormat.detect(testFile.toPath());
+        PlainDocument document = new PlainDocument();
+        FileLoadWorker worker = new FileLoadWorker(testFile.toPath(), document, format);
+        worker.execute();
+        worker.get();
+        SwingUtilities.invokeAndWait(() -> { });
+
+        assertEquals(text.toString().replace("\r\n", "\n"), document.getText(0, document.getLength()));
+    }
+
+    /**
+     * Tests loading an empty file.
+     */
+    @Test
+    void testLoadEmptyFile() throws Exception {
+        PlainDocument document = new PlainDocument();
+        FileLoadWorker worker = new FileLoadWorker(testFile.toPath(), document, StandardCharsets.UTF_8);
+        worker.execute();
+        worker.get();
+        SwingUtilities.invokeAndWait(() -> { });
+
+        assertEquals(0, document.getLength());
+    }
+
+    /**
+     * Deletes the test file after each test case.
+     */
+    @AfterEach
+    void tearDown() {
+        if (testFile.exists()) {
+            testFile.delete();
+        }
+    }
+}
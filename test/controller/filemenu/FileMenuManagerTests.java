@@ -77,6 +77,31 @@ class FileMenuManagerTest {
         assertEquals(expectedContent, textArea.getText());
     }
 
+    /**
+     * Tests that the files selected in the file chooser are opened, each in a tab of its own,
+     * and replace the empty, untitled tab.
+     */
+    @Test
+    void testOpenFilesThroughChooser() throws IOException {
+        File secondFile = new File("testfile_second.txt");
+        try {
+            Files.writeString(secondFile.toPath(), "Zweite Datei");
+            JFileChooser fileChooser = new JFileChooser();
+            fileChooser.setMultiSelectionEnabled(true);
+            fileChooser.setSelectedFiles(new File[] { testFile.getAbsoluteFile(), secondFile.getAbsoluteFile() });
+
+            fileMenuManager.openSelectedFiles(fileChooser);
+
+            JTabbedPane tabs = gui.getDocumentTabs();
+            assertEquals(2, tabs.getTabCount());
+            assertTrue(tabs.getTitleAt(0).contains(testFile.getName()));
+            assertTrue(tabs.getTitleAt(1).contains(secondFile.getName()));
+            assertFalse(fileChooser.isMultiSelectionEnabled());
+        } finally {
+            secondFile.delete();
+        }
+    }
+
     /**
      * Tests the print document functionality.
      * Ensures that no exceptions occur when attempting to print.
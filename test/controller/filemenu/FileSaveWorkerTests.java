@@ -0,0 +1,199 @@
+package controller.filemenu;
+
+import model.PieceTableDocument;
+import model.TextFormat;
+import org.junit.jupiter.api.*;
+
+import javax.swing.text.BadLocationException;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.concurrent.ExecutionException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for {@link FileSaveWorker}.
+ * <p>
+ * This test class ensures that documents are encoded correctly across chunk boundaries,
+ * with the byte order mark and line ending of the target format, that an existing file
+ * is replaced as a whole and that no temporary file is left behind.
+ * </p>
+ */
+class FileSaveWorkerTests {
+
+    private File testFile;
+    private PieceTableDocument document;
+
+    /**
+     * Creates a local test file and an empty document before each test case.
+     */
+    @BeforeEach
+    void setUp() throws IOException {
+        testFile = new File("testfile_save.txt").getAbsoluteFile();
+        Files.writeString(testFile.toPath(), "Alter Inhalt, der deutlich länger ist als der neue Inhalt");
+        document = new PieceTableDocument();
+    }
+
+    /**
+     * Tests saving a document that is larger than a single chunk and contains multibyte characters and surrogate pairs.
+     */
+    @Test
+    void testSaveMultibyteDocument() throws Exception {
+        StringBuilder expected = new StringBuilder();
+        for (int i = 0; i < 20000; i++) {
+            expected.append("Zeile ").append(i).append(" äöü ß € 😀\n");
+        }
+        document.insertString(0, expected.toString(), null);
+
+        FileSaveWorker worker = new FileSaveWorker(document, testFile.toPath(), StandardCharsets.UTF_8);
+        worker.execute();
+        worker.get();
+
+        assertEquals(expected.toString(), Files.readString(testFile.toPath(), StandardCharsets.UTF_8));
+        assertNoTempFiles();
+    }
+
+    /**
+     * Tests that the text is encoded with the given charset and replaces the old content completely.
+     */
+    @Test
+    void testSaveWithCharset() throws Exception {
+        document.insertString(0, "Grüße", null);
+
+        FileSaveWorker worker = new FileSaveWorker(document, testFile.toPath(), StandardCharsets.ISO_8859_1);
+        worker.execute();
+        worker.get();
+
+        assertArrayEquals("Grüße".getBytes(StandardCharsets.ISO_8859_1), Files.readAllBytes(testFile.toPath()));
+    }
+
+    /**
+     * Tests that characters the charset cannot represent fail the save and leave the file as it was.
+     */
+    @Test
+    void testUnmappableCharactersFail() throws Exception {
+        byte[] original = Files.readAllBytes(testFile.toPath());
+        document.insertString(0, "Grüße 文本 😀\n", null);
+
+        FileSaveWorker worker = new FileSaveWorker(document, testFile.toPath(),
+                new TextFormat(StandardCharsets.ISO_8859_1, false, TextFormat.LineEnding.LF));
+        worker.execute();
+
+        ExecutionException exception = assertThrows(ExecutionException.class, worker::get);
+        assertInstanceOf(CharacterCodingException.class, exception.getCause());
+        assertArrayEquals(original, Files.readAllBytes(testFile.toPath()));
+        assertNoTempFiles();
+    }
+
+    /**
+     * Tests that characters the charset cannot represent are replaced if the worker is asked to.
+     */
+    @Test
+    void testReplaceUnmappableCharacters() throws Exception {
+        document.insertString(0, "Grüße 文本 😀\n", null);
+
+        FileSaveWorker worker = new FileSaveWorker(document, testFile.toPath(),
+                new TextFormat(StandardCharsets.ISO_8859_1, false, TextFormat.LineEnding.LF), true);
+        worker.execute();
+        worker.get();
+
+        assertArrayEquals("Grüße ?? ?\n".getBytes(StandardCharsets.ISO_8859_1), Files.readAllBytes(testFile.toPath()));
+    }
+
+    /**
+     * Tests that the byte order mark is written first and line feeds are written as CRLF.
+     */
+    @Test
+    void testSaveWithFormat() throws Exception {
+        document.insertString(0, "eins\nzwei\n", null);
+        TextFormat format = new TextFormat(StandardCharsets.UTF_8, true, TextFormat.LineEnding.CRLF);
+
+        FileSaveWorker worker = new FileSaveWorker(document, testFile.toPath(), format);
+        worker.execute();
+        worker.get();
+
+        byte[] bytes = Files.readAllBytes(testFile.toPath());
+        assertArrayEquals(new byte[]{(byte) 0xEF, (byte) 0xBB, (byte) 0xBF}, Arrays.copyOf(bytes, 3));
+        assertEquals("eins\r\nzwei\r\n", new String(bytes, 3, bytes.length - 3, StandardCharsets.UTF_8));
+        assertEquals(format, TextFormat.detect(testFile.toPath()));
+    }
+
+    /**
+     * Tests saving an empty document.
+     */
+    @Test
+    void testSaveEmptyDocument() throws Exception {
+        FileSaveWorker worker = new FileSaveWorker(document, testFile.toPath(), StandardCharsets.UTF_8);
+        worker.execute();
+        worker.get();
+
+        assertEquals(0, Files.size(testFile.toPath()));
+        assertNoTempFiles();
+    }
+
+    /**
+     * Tests that the text at the construction of the worker is saved, even if the document is edited before it runs.
+     */
+    @Test
+    void testSaveIgnoresLaterEdits() throws Exception {
+        document.insertString(0, "gespeichert", null);
+        FileSaveWorker worker = new FileSaveWorker(document, testFile.toPath(), StandardCharsets.UTF_8);
+        document.insertString(0, "nicht ", null);
+        document.remove(10, 5);
+
+        worker.execute();
+        worker.get();
+
+        assertEquals("gespeichert", Files.readString(testFile.toPath(), StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Tests that saving through a symbolic link replaces the file it points to and keeps the link.
+     */
+    @Test
+    void testSaveThroughSymbolicLink() throws Exception {
+        Path link = testFile.toPath().resolveSibling("testfile_save_link.txt");
+        boolean linked;
+        try {
+            Files.createSymbolicLink(link, testFile.toPath());
+            linked = true;
+        } catch (UnsupportedOperationException | IOException exception) {
+            linked = false;
+        }
+        Assumptions.assumeTrue(linked, "Symbolische Links werden nicht unterstützt");
+        try {
+            document.insertString(0, "über den Link", null);
+
+            FileSaveWorker worker = new FileSaveWorker(document, link, StandardCharsets.UTF_8);
+            worker.execute();
+            worker.get();
+
+            assertTrue(Files.isSymbolicLink(link));
+            assertEquals("über den Link", Files.readString(testFile.toPath(), StandardCharsets.UTF_8));
+            assertNoTempFiles();
+        } finally {
+            Files.deleteIfExists(link);
+        }
+    }
+
+    private void assertNoTempFiles() throws IOException {
+        try (var files = Files.list(testFile.toPath().getParent())) {
+            assertTrue(files.noneMatch(file -> file.getFileName().toString().startsWith("." + testFile.getName())));
+        }
+    }
+
+    /**
+     * Deletes the test file after each test case.
+     */
+    @AfterEach
+    void tearDown() {
+        if (testFile.exists()) {
+            testFile.delete();
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package gui;
+
+import org.junit.jupiter.api.*;
+
+import javax.swing.*;
+import java.awt.*;
+import java.awt.geom.AffineTransform;
+import java.awt.image.BufferedImage;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for {@link IconCache}.
+ * <p>
+ * This test class verifies that icons are rendered once per display scale at the size
+ * they cover on the screen, and that a missing icon paints nothing.
+ * </p>
+ */
+class IconCacheTests {
+
+    private IconCache cache;
+
+    /**
+     * Creates an empty cache before each test case.
+     */
+    @BeforeEach
+    void setUp() {
+        cache = new IconCache();
+    }
+
+    /**
+     * Tests that a preloaded icon has a variant of the exact pixel size for each scale, which is reused.
+     */
+    @Test
+    void testVariantPerScale() {
+        cache.preload(List.of("print-solid.png"), 24).join();
+
+        BufferedImage normal = cache.getImage("print-solid.png", 24, 1.0);
+        BufferedImage doubled = cache.getImage("print-solid.png", 24, 2.0);
+        assertNotNull(normal);
+        assertEquals(24, normal.getWidth());
+        assertEquals(48, doubled.getHeight());
+        assertSame(doubled, cache.getImage("print-solid.png", 24, 2.0));
+        assertEquals(30, cache.getImage("print-solid.png", 24, IconCache.roundScale(1.26)).getWidth());
+    }
+
+    /**
+     * Tests that an icon paints its variant for the scale of the graphics.
+     */
+    @Test
+    void testPaintUsesScaledVariant() {
+        Icon icon = cache.getIcon("globe-solid.png", 24);
+        BufferedImage screen = new BufferedImage(48, 48, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D graphics = screen.createGraphics();
+        graphics.setTransform(AffineTransform.getScaleInstance(2, 2));
+        icon.paintIcon(null, graphics, 0, 0);
+        graphics.dispose();
+
+        assertEquals(24, icon.getIconWidth());
+        assertNotNull(cache.getImage("globe-solid.png", 24, 2.0));
+        assertNotEquals(0, screen.getRGB(24, 24) >>> 24, "The globe should cover the centre of the icon");
+    }
+
+    /**
+     * Tests that a missing icon paints nothing instead of failing.
+     */
+    @Test
+    void testMissingIcon() {
+        cache.preload(List.of("missing.png"), 24).join();
+
+        assertNull(cache.getImage("missing.png", 24, 1.0));
+        BufferedImage screen = new BufferedImage(24, 24, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D graphics = screen.createGraphics();
+        assertDoesNotThrow(() -> cache.getIcon("missing.png", 24).paintIcon(null, graphics, 0, 0));
+        graphics.dispose();
+    }
+
+    /**
+     * Tests that an image is fitted into the square with its proportions kept.
+     */
+    @Test
+    void testScaleKeepsProportions() {
+        BufferedImage wide = new BufferedImage(400, 200, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D graphics = wide.createGraphics();
+        graphics.setColor(Color.BLACK);
+        graphics.fillRect(0, 0, 400, 200);
+        graphics.dispose();
+
+        BufferedImage scaled = IconCache.scale(wide, 24);
+        assertEquals(24, scaled.getWidth());
+        assertEquals(0, scaled.getRGB(12, 2) >>> 24, "Above the image should stay transparent");
+        assertEquals(255, scaled.getRGB(12, 12) >>> 24);
+    }
+}
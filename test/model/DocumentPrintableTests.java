@@ -0,0 +1,124 @@
+package model;
+
+import org.junit.jupiter.api.*;
+
+import javax.swing.text.BadLocationException;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.awt.print.PageFormat;
+import java.awt.print.Paper;
+import java.awt.print.Printable;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for {@link DocumentPrintable}.
+ * <p>
+ * This test class verifies that a document is split into as many pages as its wrapped rows need,
+ * that every page can be printed in any order and that printing into a PostScript file works
+ * without a printer.
+ * </p>
+ */
+class DocumentPrintableTests {
+
+    private static final Font FONT = new Font(Font.MONOSPACED, Font.PLAIN, 10);
+
+    private PieceTableDocument document;
+    private PageFormat pageFormat;
+    private int rowsPerPage;
+
+    /**
+     * Creates an empty document and a small page before each test case.
+     */
+    @BeforeEach
+    void setUp() {
+        document = new PieceTableDocument();
+        Paper paper = new Paper();
+        paper.setSize(300, 200);
+        paper.setImageableArea(10, 10, 280, 180);
+        pageFormat = new PageFormat();
+        pageFormat.setPaper(paper);
+
+        Graphics2D graphics = new BufferedImage(1, 1, BufferedImage.TYPE_INT_RGB).createGraphics();
+        rowsPerPage = 180 / graphics.getFontMetrics(FONT).getHeight();
+        graphics.dispose();
+    }
+
+    /**
+     * Tests that short lines fill the pages one row per line.
+     */
+    @Test
+    void testPageCountOfShortLines() throws BadLocationException {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < 10 * rowsPerPage; i++) {
+            text.append("Zeile ").append(i).append('\n');
+        }
+        document.insertString(0, text.toString(), null);
+
+        // The trailing line break leaves an empty last line
+        assertEquals(11, new DocumentPrintable(document, FONT).getPageCount(pageFormat));
+    }
+
+    /**
+     * Tests that a long line is wrapped onto further pages and that pages can be printed in any order.
+     */
+    @Test
+    void testLongLineSpansPages() throws BadLocationException {
+        document.insertString(0, "wort ".repeat(20000), null);
+        DocumentPrintable printable = new DocumentPrintable(document, FONT);
+        int pageCount = printable.getPageCount(pageFormat);
+        assertTrue(pageCount > 10);
+
+        Graphics2D graphics = new BufferedImage(300, 200, BufferedImage.TYPE_INT_RGB).createGraphics();
+        assertEquals(Printable.PAGE_EXISTS, printable.print(graphics, pageFormat, pageCount - 1));
+        assertEquals(Printable.PAGE_EXISTS, printable.print(graphics, pageFormat, 0));
+        assertEquals(Printable.NO_SUCH_PAGE, printable.print(graphics, pageFormat, pageCount));
+        graphics.dispose();
+    }
+
+    /**
+     * Tests that a snapshot is printed with the pages of the document at the time it was taken.
+     */
+    @Test
+    void testPrintSnapshot() throws BadLocationException {
+        document.insertString(0, "wort ".repeat(2000) + "\nZeile\n".repeat(2 * rowsPerPage), null);
+        int pageCount = new DocumentPrintable(document, FONT).getPageCount(pageFormat);
+        DocumentPrintable printable = new DocumentPrintable(DocumentSnapshot.of(document), FONT);
+        document.remove(0, document.getLength());
+
+        assertEquals(pageCount, printable.getPageCount(pageFormat));
+        Graphics2D graphics = new BufferedImage(300, 200, BufferedImage.TYPE_INT_RGB).createGraphics();
+        assertEquals(Printable.PAGE_EXISTS, printable.print(graphics, pageFormat, pageCount - 1));
+        graphics.dispose();
+    }
+
+    /**
+     * Tests that an empty document is printed as one empty page.
+     */
+    @Test
+    void testEmptyDocument() {
+        assertEquals(1, new DocumentPrintable(document, FONT).getPageCount(pageFormat));
+    }
+
+    /**
+     * Tests printing into a PostScript file without a printer or a display.
+     */
+    @Test
+    void testPrintToPostScriptFile() throws BadLocationException, IOException {
+        document.insertString(0, "Hallo\tWelt\n".repeat(3 * rowsPerPage), null);
+        Path output = Files.createTempFile("druck", ".ps");
+        try {
+            int pages = new DocumentPrintable(document, FONT).printToFile(output, pageFormat, "Test");
+
+            assertEquals(4, pages);
+            String postScript = Files.readString(output, StandardCharsets.ISO_8859_1);
+            assertTrue(postScript.startsWith("%!PS"));
+        } finally {
+            Files.deleteIfExists(output);
+        }
+    }
+}
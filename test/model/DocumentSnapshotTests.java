@@ -0,0 +1,114 @@
+package model;
+
+import org.junit.jupiter.api.*;
+
+import javax.swing.text.BadLocationException;
+import javax.swing.text.Element;
+import javax.swing.text.PlainDocument;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for {@link DocumentSnapshot}.
+ * <p>
+ * This test class verifies that a snapshot keeps the text and lines of a document as they were
+ * when it was taken, also when it is read on another thread while the document is edited.
+ * </p>
+ */
+class DocumentSnapshotTests {
+
+    private PieceTableDocument document;
+
+    /**
+     * Creates an empty document before each test case.
+     */
+    @BeforeEach
+    void setUp() {
+        document = new PieceTableDocument();
+    }
+
+    /**
+     * Tests that edits after the snapshot do not change it, including typing continued at its end.
+     */
+    @Test
+    void testSnapshotKeepsText() throws BadLocationException {
+        document.insertString(0, "Hallo", null);
+        DocumentSnapshot snapshot = document.snapshot();
+        document.insertString(5, " Welt", null);
+        document.remove(0, 1);
+
+        assertEquals(5, snapshot.getLength());
+        assertEquals("Hallo", snapshot.getText(0, snapshot.getLength()));
+        assertEquals("allo Welt", document.getText(0, document.getLength()));
+        assertThrows(BadLocationException.class, () -> snapshot.getText(3, 5));
+        assertThrows(UnsupportedOperationException.class, () -> snapshot.insertString(0, "x", null));
+    }
+
+    /**
+     * Tests that the lines of a snapshot match those of the document.
+     */
+    @Test
+    void testLineElements() throws BadLocationException {
+        document.insertString(0, "eins\nzwei\n\ndrei", null);
+        DocumentSnapshot snapshot = document.snapshot();
+        document.remove(0, document.getLength());
+
+        Element root = snapshot.getDefaultRootElement();
+        assertEquals(4, root.getElementCount());
+        assertEquals(5, root.getElement(1).getStartOffset());
+        assertEquals(10, root.getElement(1).getEndOffset());
+        assertEquals(16, root.getElement(3).getEndOffset());
+        assertEquals(2, root.getElementIndex(10));
+        assertEquals(3, root.getElementIndex(15));
+    }
+
+    /**
+     * Tests that a snapshot read on another thread keeps its text while much more text is typed into the document.
+     */
+    @Test
+    void testReadWhileTyping() throws Exception {
+        StringBuilder expected = new StringBuilder();
+        for (int i = 0; i < 5000; i++) {
+            String line = "Zeile " + i + " äöü\n";
+            document.insertString(document.getLength(), line, null);
+            expected.append(line);
+        }
+        DocumentSnapshot snapshot = document.snapshot();
+
+        CompletableFuture<String> read = CompletableFuture.supplyAsync(() -> {
+            StringBuilder text = new StringBuilder();
+            for (int round = 0; round < 20; round++) {
+                text.setLength(0);
+                for (int offset = 0; offset < snapshot.getLength(); offset += 1000) {
+                    try {
+                        text.append(snapshot.getText(offset, Math.min(1000, snapshot.getLength() - offset)));
+                    } catch (BadLocationException exception) {
+                        throw new IllegalStateException(exception);
+                    }
+                }
+            }
+            return text.toString();
+        });
+        for (int i = 0; i < 50000; i++) {
+            document.insertString(document.getLength(), i % 2 == 0 ? "€" : "a", null);
+        }
+
+        assertEquals(expected.toString(), read.get());
+    }
+
+    /**
+     * Tests that other documents are copied as a whole.
+     */
+    @Test
+    void testSnapshotOfOtherDocument() throws BadLocationException {
+        PlainDocument plain = new PlainDocument();
+        plain.insertString(0, "a\nb", null);
+        DocumentSnapshot snapshot = DocumentSnapshot.of(plain);
+        plain.remove(0, 1);
+
+        assertEquals("a\nb", snapshot.getText(0, snapshot.getLength()));
+        assertEquals(2, snapshot.getDefaultRootElement().getElementCount());
+        assertSame(snapshot, DocumentSnapshot.of(snapshot));
+    }
+}
@@ -0,0 +1,190 @@
+package model;
+
+import org.junit.jupiter.api.*;
+
+import javax.swing.text.BadLocationException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for {@link EditJournal}.
+ * <p>
+ * This test class verifies that recorded edits reproduce the document when replayed,
+ * that a torn record ends the journal and that a reset discards the previous edits.
+ * </p>
+ */
+class EditJournalTests {
+
+    private Path journalFile;
+    private Path baseFile;
+    private EditJournal journal;
+
+    /**
+     * Creates a journal and a base file in a temporary directory before each test case.
+     */
+    @BeforeEach
+    void setUp() throws IOException {
+        Path directory = Files.createTempDirectory("journal");
+        journalFile = directory.resolve("recovery.journal");
+        baseFile = directory.resolve("base.txt");
+        Files.writeString(baseFile, "Hallo Welt\n", StandardCharsets.UTF_8);
+        journal = new EditJournal(journalFile);
+    }
+
+    /**
+     * Tests that replaying the journal on the base text reproduces the edited document.
+     */
+    @Test
+    void testReplayReproducesDocument() throws IOException, BadLocationException {
+        PieceTableDocument document = new PieceTableDocument();
+        document.insertString(0, Files.readString(baseFile), null);
+        journal.reset(baseFile, baseFile);
+
+        document.insertString(5, ", schöne 😀", null);
+        journal.recordInsert(5, ", schöne 😀");
+        document.remove(0, 5);
+        journal.recordRemove(0, 5);
+        journal.flush();
+
+        EditJournal.Recovery recovery = EditJournal.read(journalFile);
+        assertNotNull(recovery);
+        assertEquals(baseFile.toAbsolutePath(), recovery.getBase());
+        assertEquals(2, recovery.getEditCount());
+        assertTrue(recovery.isBaseUnchanged());
+
+        PieceTableDocument replayed = new PieceTableDocument();
+        replayed.insertString(0, Files.readString(baseFile), null);
+        recovery.replay(replayed);
+        assertEquals(document.getText(0, document.getLength()), replayed.getText(0, replayed.getLength()));
+    }
+
+    /**
+     * Tests that a journal whose text was swapped out to a temporary file is recovered even without
+     * further edits, naming both the swap file and the file the document is bound to.
+     */
+    @Test
+    void testSwappedTextIsRecovered() throws IOException {
+        Path swapFile = baseFile.resolveSibling("swap.txt");
+        Files.writeString(swapFile, "Hallo Welt, geändert\n", StandardCharsets.UTF_8);
+        journal.reset(swapFile, baseFile);
+        journal.flush();
+
+        EditJournal.Recovery recovery = EditJournal.read(journalFile);
+        assertNotNull(recovery);
+        assertTrue(recovery.isSwapped());
+        assertEquals(swapFile.toAbsolutePath(), recovery.getBase());
+        assertEquals(baseFile.toAbsolutePath(), recovery.getFile());
+        assertEquals(0, recovery.getEditCount());
+
+        journal.reset(baseFile, baseFile);
+        journal.flush();
+        assertNull(EditJournal.read(journalFile), "An unchanged document needs no recovery");
+        Files.delete(swapFile);
+    }
+
+    /**
+     * Tests that a record torn by a crash ends the journal without affecting the records in front of it.
+     */
+    @Test
+    void testTornRecordIsIgnored() throws IOException {
+        journal.reset(null, null);
+        journal.recordInsert(0, "abc");
+        journal.recordInsert(3, "def");
+        journal.flush();
+        journal.close();
+
+        try (FileChannel channel = FileChannel.open(journalFile, StandardOpenOption.WRITE)) {
+            channel.truncate(channel.size() - 3);
+        }
+
+        EditJournal.Recovery recovery = EditJournal.read(journalFile);
+        assertNotNull(recovery);
+        assertNull(recovery.getBase());
+        assertEquals(1, recovery.getEditCount());
+    }
+
+    /**
+     * Tests that a record with a corrupt length ends the journal instead of allocating its text.
+     */
+    @Test
+    void testCorruptLengthEndsJournal() throws IOException {
+        journal.reset(null, null);
+        journal.recordInsert(0, "abc");
+        journal.recordInsert(3, "def");
+        journal.flush();
+        journal.close();
+
+        // Header of 24 bytes and a first record of 23 bytes, then the type and offset of the second record
+        for (int length : new int[]{Integer.MAX_VALUE, 0x40000001, 1000}) {
+            try (FileChannel channel = FileChannel.open(journalFile, StandardOpenOption.WRITE)) {
+                channel.write(ByteBuffer.allocate(4).putInt(0, length), 24 + 23 + 5);
+            }
+            EditJournal.Recovery recovery = EditJournal.read(journalFile);
+            assertNotNull(recovery);
+            assertEquals(1, recovery.getEditCount());
+        }
+    }
+
+    /**
+     * Tests that a reset discards the edits recorded before it.
+     */
+    @Test
+    void testResetDiscardsEdits() throws IOException {
+        journal.reset(null, null);
+        journal.recordInsert(0, "abc");
+        journal.flush();
+        journal.reset(baseFile, baseFile);
+        journal.flush();
+
+        assertNull(EditJournal.read(journalFile));
+    }
+
+    /**
+     * Tests that an edit exceeding the bound for pending records stops the journal.
+     */
+    @Test
+    void testOverflowStopsJournal() throws IOException {
+        journal.reset(null, null);
+        journal.recordInsert(0, "a".repeat(EditJournal.MAX_PENDING_BYTES));
+        journal.recordInsert(0, "b");
+        journal.flush();
+
+        assertFalse(journal.isActive());
+        assertNull(EditJournal.read(journalFile));
+    }
+
+    /**
+     * Tests that the journal notices a changed base file.
+     */
+    @Test
+    void testChangedBaseFile() throws IOException {
+        journal.reset(baseFile, baseFile);
+        journal.recordRemove(0, 1);
+        journal.flush();
+        Files.writeString(baseFile, "Anderer Inhalt", StandardCharsets.UTF_8);
+
+        assertFalse(EditJournal.read(journalFile).isBaseUnchanged());
+    }
+
+    /**
+     * Closes the journal and deletes the temporary files after each test case.
+     */
+    @AfterEach
+    void tearDown() throws IOException {
+        try {
+            journal.close();
+        } catch (IOException | IllegalStateException exception) {
+            // Already closed by the test
+        }
+        Files.deleteIfExists(journalFile);
+        Files.deleteIfExists(baseFile);
+        Files.deleteIfExists(journalFile.getParent());
+    }
+}
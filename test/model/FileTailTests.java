@@ -0,0 +1,142 @@
+package model;
+
+import org.junit.jupiter.api.*;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for {@link FileTail}.
+ * <p>
+ * This test class verifies that only appended text is read, that characters split between two
+ * writes are decoded once complete, and that a truncated file is read again from its beginning.
+ * </p>
+ */
+class FileTailTests {
+
+    private Path logFile;
+
+    /**
+     * Creates an empty log file before each test case.
+     */
+    @BeforeEach
+    void setUp() throws IOException {
+        logFile = Files.createTempFile("tail", ".log");
+    }
+
+    /**
+     * Tests that each poll returns only the text appended since the previous one.
+     */
+    @Test
+    void testReadsAppendedText() throws IOException {
+        FileTail tail = new FileTail(logFile, StandardCharsets.UTF_8, 0);
+        assertEquals("", tail.poll(1024));
+
+        append("erste Zeile\n".getBytes(StandardCharsets.UTF_8));
+        assertEquals("erste Zeile\n", tail.poll(1024));
+        assertEquals("", tail.poll(1024));
+
+        append("zweite Zeile\n".getBytes(StandardCharsets.UTF_8));
+        assertEquals("zweite Zeile\n", tail.poll(1024));
+        assertFalse(tail.hasRestarted());
+        assertEquals(Files.size(logFile), tail.getOffset());
+    }
+
+    /**
+     * Tests that a character whose bytes arrive in two writes is returned once, after the second write.
+     */
+    @Test
+    void testSplitCharacter() throws IOException {
+        FileTail tail = new FileTail(logFile, StandardCharsets.UTF_8, 0);
+        byte[] umlaut = "ä".getBytes(StandardCharsets.UTF_8);
+
+        append(new byte[]{'x', umlaut[0]});
+        assertEquals("x", tail.poll(1024));
+        append(new byte[]{umlaut[1], '\n'});
+        assertEquals("ä\n", tail.poll(1024));
+    }
+
+    /**
+     * Tests that the byte order mark is skipped and line endings are converted, also for a CRLF split between two writes.
+     */
+    @Test
+    void testNormalizesText() throws IOException {
+        FileTail tail = new FileTail(logFile, StandardCharsets.UTF_8, 0);
+
+        append(new byte[]{(byte) 0xEF, (byte) 0xBB, (byte) 0xBF, 'a', '\r', '\n', 'b', '\r'});
+        assertEquals("a\nb", tail.poll(1024));
+        append(new byte[]{'\n', 'c', '\r', 'd'});
+        assertEquals("\nc\nd", tail.poll(1024));
+        append(new byte[]{'\r'});
+        assertEquals("", tail.poll(1024));
+        append(new byte[]{'e'});
+        assertEquals("\ne", tail.poll(1024));
+    }
+
+    /**
+     * Tests that a poll reads at most the given number of bytes and continues with the next poll.
+     */
+    @Test
+    void testPollIsBounded() throws IOException {
+        append("0123456789".getBytes(StandardCharsets.UTF_8));
+        FileTail tail = new FileTail(logFile, StandardCharsets.UTF_8, 0);
+
+        assertEquals("0123", tail.poll(4));
+        assertEquals("456789", tail.poll(100));
+    }
+
+    /**
+     * Tests that starting at the end of a file skips the line cut by the start offset.
+     */
+    @Test
+    void testLastBytesStartAtLine() throws IOException {
+        append("alte Zeile\nletzte Zeile\n".getBytes(StandardCharsets.UTF_8));
+        FileTail tail = FileTail.ofLastBytes(logFile, StandardCharsets.UTF_8, 16);
+
+        assertEquals("letzte Zeile\n", tail.poll(1024));
+    }
+
+    /**
+     * Tests that a truncated file, as left by log rotation, is read again from its beginning.
+     */
+    @Test
+    void testTruncatedFileRestarts() throws IOException {
+        append("viele alte Zeilen\n".getBytes(StandardCharsets.UTF_8));
+        FileTail tail = new FileTail(logFile, StandardCharsets.UTF_8, 0);
+        tail.poll(1024);
+
+        Files.writeString(logFile, "neu\n", StandardCharsets.UTF_8);
+        assertEquals("neu\n", tail.poll(1024));
+        assertTrue(tail.hasRestarted());
+    }
+
+    /**
+     * Tests that a missing file reads as no text until it exists again.
+     */
+    @Test
+    void testMissingFile() throws IOException {
+        FileTail tail = new FileTail(logFile, StandardCharsets.UTF_8, 0);
+        Files.delete(logFile);
+        assertEquals("", tail.poll(1024));
+
+        append("wieder da\n".getBytes(StandardCharsets.UTF_8));
+        assertEquals("wieder da\n", tail.poll(1024));
+    }
+
+    private void append(byte[] data) throws IOException {
+        Files.write(logFile, data, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+    }
+
+    /**
+     * Deletes the log file after each test case.
+     */
+    @AfterEach
+    void tearDown() throws IOException {
+        Files.deleteIfExists(logFile);
+    }
+}
@@ -0,0 +1,158 @@
+package model;
+
+import org.junit.jupiter.api.*;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for {@link FileTransformer}.
+ * <p>
+ * This test class verifies that files are transformed block by block with their encoding and line
+ * ending preserved, that unchanged files and dry runs leave the original untouched, and that a
+ * replacement that cannot be encoded fails without damaging the file.
+ * </p>
+ */
+class FileTransformerTests {
+
+    private Path file;
+
+    /**
+     * Creates an empty test file before each test case.
+     */
+    @BeforeEach
+    void setUp() throws IOException {
+        file = Files.createTempFile("transform", ".txt");
+    }
+
+    /**
+     * Tests a literal replacement across many small blocks in a UTF-16 file with CRLF line endings.
+     */
+    @Test
+    void testReplaceAcrossBlocks() throws IOException {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < 2000; i++) {
+            text.append("Zeile ").append(i).append(" mit äöü und alt\r\n");
+        }
+        byte[] bom = {(byte) 0xFF, (byte) 0xFE};
+        Files.write(file, concat(bom, text.toString().getBytes(StandardCharsets.UTF_16LE)));
+
+        FileTransformer transformer = new FileTransformer(
+                List.of(TextTransform.replace(new LiteralMatcher("ALT", false), "neu")), null, false, 100);
+        FileTransformer.Result result = transformer.transform(file);
+
+        assertEquals(2000, result.getChangeCount());
+        assertTrue(result.isChanged());
+        String expected = text.toString().replace(" alt\r\n", " neu\r\n");
+        assertArrayEquals(concat(bom, expected.getBytes(StandardCharsets.UTF_16LE)), Files.readAllBytes(file));
+    }
+
+    /**
+     * Tests that regular expressions, trailing whitespace removal and a line ending conversion are applied in order.
+     */
+    @Test
+    void testTransformsAndLineEnding() throws IOException {
+        Files.writeString(file, "a=1  \nb=2\t\nc=3\n", StandardCharsets.UTF_8);
+
+        FileTransformer transformer = new FileTransformer(List.of(
+                TextTransform.replace(new RegexMatcher("^(\\w)=(\\d)", true), "$2:$1"),
+                TextTransform.trimTrailingWhitespace()), TextFormat.LineEnding.CRLF, false, 4);
+        FileTransformer.Result result = transformer.transform(file);
+
+        assertEquals(5, result.getChangeCount());
+        assertEquals("1:a\r\n2:b\r\n3:c\r\n", Files.readString(file, StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Tests that neither a file without matches nor a dry run rewrites the file.
+     */
+    @Test
+    void testUnchangedFileAndDryRun() throws IOException {
+        Files.writeString(file, "Nichts zu ersetzen\r\nauch hier nicht\r\n", StandardCharsets.UTF_8);
+        FileTime modified = FileTime.fromMillis(1_000_000_000L);
+        Files.setLastModifiedTime(file, modified);
+
+        FileTransformer.Result unchanged = new FileTransformer(
+                List.of(TextTransform.replace(new LiteralMatcher("xyz", true), "abc")), null, false).transform(file);
+        FileTransformer.Result dryRun = new FileTransformer(
+                List.of(TextTransform.replace(new LiteralMatcher("hier", true), "dort")), null, true).transform(file);
+
+        assertFalse(unchanged.isChanged());
+        assertEquals(0, unchanged.getChangeCount());
+        assertTrue(dryRun.isChanged());
+        assertEquals(1, dryRun.getChangeCount());
+        assertEquals(modified, Files.getLastModifiedTime(file));
+        assertEquals(TextFormat.LineEnding.CRLF, unchanged.getFormat().getLineEnding());
+        assertEquals(1, countFiles());
+    }
+
+    /**
+     * Tests that a replacement that the charset of the file cannot represent fails and leaves the file as it was.
+     */
+    @Test
+    void testUnmappableReplacement() throws IOException {
+        byte[] original = "Größe: 5 EUR\n".getBytes(StandardCharsets.ISO_8859_1);
+        Files.write(file, original);
+
+        FileTransformer transformer = new FileTransformer(
+                List.of(TextTransform.replace(new LiteralMatcher("EUR", true), "😀")), null, false);
+
+        assertThrows(IOException.class, () -> transformer.transform(file));
+        assertArrayEquals(original, Files.readAllBytes(file));
+        assertEquals(1, countFiles());
+    }
+
+    /**
+     * Tests that a file reached through a symbolic link is transformed where the link points to and the link is kept.
+     */
+    @Test
+    void testTransformThroughSymbolicLink() throws IOException {
+        Files.writeString(file, "alt\n", StandardCharsets.UTF_8);
+        Path link = file.resolveSibling(file.getFileName() + ".link");
+        boolean linked;
+        try {
+            Files.createSymbolicLink(link, file);
+            linked = true;
+        } catch (UnsupportedOperationException | IOException exception) {
+            linked = false;
+        }
+        Assumptions.assumeTrue(linked, "Symbolische Links werden nicht unterstützt");
+        try {
+            FileTransformer transformer = new FileTransformer(
+                    List.of(TextTransform.replace(new LiteralMatcher("alt", true), "neu")), null, false);
+            transformer.transform(link);
+
+            assertTrue(Files.isSymbolicLink(link));
+            assertEquals("neu\n", Files.readString(file, StandardCharsets.UTF_8));
+        } finally {
+            Files.deleteIfExists(link);
+        }
+    }
+
+    private long countFiles() throws IOException {
+        try (var files = Files.list(file.getParent())) {
+            return files.filter(path -> path.getFileName().toString().contains(file.getFileName().toString())).count();
+        }
+    }
+
+    private static byte[] concat(byte[] first, byte[] second) {
+        byte[] result = new byte[first.length + second.length];
+        System.arraycopy(first, 0, result, 0, first.length);
+        System.arraycopy(second, 0, result, first.length, second.length);
+        return result;
+    }
+
+    /**
+     * Deletes the test file after each test case.
+     */
+    @AfterEach
+    void tearDown() throws IOException {
+        Files.deleteIfExists(file);
+    }
+}
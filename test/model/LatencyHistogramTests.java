@@ -0,0 +1,74 @@
+package model;
+
+import org.junit.jupiter.api.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for {@link LatencyHistogram}.
+ * <p>
+ * This test class verifies that small values are counted exactly, that percentiles of
+ * large values stay within the relative error of the buckets, and that a reset clears all counts.
+ * </p>
+ */
+class LatencyHistogramTests {
+
+    private LatencyHistogram histogram;
+
+    /**
+     * Creates an empty histogram before each test case.
+     */
+    @BeforeEach
+    void setUp() {
+        histogram = new LatencyHistogram();
+    }
+
+    /**
+     * Tests that values below 128 are reported exactly.
+     */
+    @Test
+    void testSmallValuesAreExact() {
+        for (int value = 0; value < 100; value++) {
+            histogram.record(value);
+        }
+
+        assertEquals(100, histogram.getTotalCount());
+        assertEquals(49, histogram.getValueAtPercentile(50));
+        assertEquals(99, histogram.getValueAtPercentile(100));
+        assertEquals(0, histogram.getValueAtPercentile(0));
+        assertEquals(49.5, histogram.getMean(), 1e-9);
+    }
+
+    /**
+     * Tests percentiles of nanosecond durations from one microsecond to ten seconds.
+     */
+    @Test
+    void testPercentilesWithinRelativeError() {
+        for (long value = 1_000; value <= 10_000_000_000L; value += 1_000_000) {
+            histogram.record(value);
+        }
+
+        long count = histogram.getTotalCount();
+        for (double percentile : new double[]{10, 50, 90, 99, 99.9}) {
+            long expected = 1_000 + (long) (Math.ceil(percentile / 100 * count) - 1) * 1_000_000;
+            long actual = histogram.getValueAtPercentile(percentile);
+            assertTrue(actual >= expected && actual <= expected + expected / 64, percentile + ": " + actual);
+        }
+        assertEquals(9_999_001_000L, histogram.getMax());
+        assertEquals(histogram.getMax(), histogram.getValueAtPercentile(100));
+    }
+
+    /**
+     * Tests that a reset removes all recorded values.
+     */
+    @Test
+    void testReset() {
+        histogram.record(5_000_000);
+        histogram.record(-3);
+        histogram.reset();
+
+        assertEquals(0, histogram.getTotalCount());
+        assertEquals(0, histogram.getMax());
+        assertEquals(0, histogram.getValueAtPercentile(99));
+    }
+}
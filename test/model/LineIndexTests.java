@@ -0,0 +1,123 @@
+package model;
+
+import org.junit.jupiter.api.*;
+
+import javax.swing.text.BadLocationException;
+import javax.swing.text.Element;
+import javax.swing.undo.UndoManager;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for {@link LineIndex}.
+ * <p>
+ * This test class verifies that the line index of a piece table document matches its line elements
+ * after edits, undo and redo, and after opening a file as a memory-mapped document.
+ * </p>
+ */
+class LineIndexTests {
+
+    private PieceTableDocument document;
+
+    /**
+     * Creates an empty document before each test case.
+     */
+    @BeforeEach
+    void setUp() {
+        document = new PieceTableDocument();
+    }
+
+    /**
+     * Tests the mapping between offsets and lines of a small text.
+     */
+    @Test
+    void testLineOfOffset() throws BadLocationException {
+        document.insertString(0, "eins\nzwei\n\ndrei", null);
+        LineIndex lineIndex = document.getLineIndex();
+
+        assertEquals(4, lineIndex.getLineCount());
+        assertEquals(0, lineIndex.getLineOfOffset(4));
+        assertEquals(1, lineIndex.getLineOfOffset(5));
+        assertEquals(2, lineIndex.getLineOfOffset(10));
+        assertEquals(3, lineIndex.getLineOfOffset(document.getLength()));
+        assertEquals(11, lineIndex.getLineStart(3));
+        assertEquals(11, lineIndex.getLineEnd(2));
+        assertThrows(IndexOutOfBoundsException.class, () -> lineIndex.getLineStart(4));
+    }
+
+    /**
+     * Tests that random insertions and removals, including undo and redo, keep the index equal to the line elements.
+     */
+    @Test
+    void testMatchesLineElements() throws BadLocationException {
+        UndoManager undoManager = new UndoManager();
+        document.addUndoableEditListener(undoManager);
+        Random random = new Random(17);
+
+        for (int i = 0; i < 2000; i++) {
+            int length = document.getLength();
+            int action = random.nextInt(10);
+            if (action < 5) {
+                document.insertString(random.nextInt(length + 1), randomText(random), null);
+            } else if (action < 8 && length > 0) {
+                int offset = random.nextInt(length);
+                document.remove(offset, random.nextInt(Math.min(20, length - offset) + 1));
+            } else if (action == 8 && undoManager.canUndo()) {
+                undoManager.undo();
+            } else if (undoManager.canRedo()) {
+                undoManager.redo();
+            }
+            assertMatchesElements();
+        }
+    }
+
+    /**
+     * Tests that the lines of a memory-mapped file are indexed when it is opened.
+     */
+    @Test
+    void testMappedFile() throws IOException, BadLocationException {
+        File file = File.createTempFile("lines", ".txt");
+        try {
+            StringBuilder text = new StringBuilder();
+            for (int i = 0; i < 5000; i++) {
+                text.append("Zeile ").append(i).append('\n');
+            }
+            Files.writeString(file.toPath(), text, StandardCharsets.US_ASCII);
+            document = PieceTableDocument.map(file.toPath(), progress -> {});
+
+            assertEquals(5001, document.getLineIndex().getLineCount());
+            assertMatchesElements();
+            document.insertString(100, "\n\n", null);
+            assertMatchesElements();
+        } finally {
+            file.delete();
+        }
+    }
+
+    private void assertMatchesElements() {
+        Element root = document.getDefaultRootElement();
+        LineIndex lineIndex = document.getLineIndex();
+        assertEquals(root.getElementCount(), lineIndex.getLineCount());
+        for (int line = 0; line < root.getElementCount(); line++) {
+            assertEquals(root.getElement(line).getStartOffset(), lineIndex.getLineStart(line));
+            assertEquals(root.getElement(line).getEndOffset(), lineIndex.getLineEnd(line));
+        }
+        for (int offset = 0; offset <= document.getLength(); offset += 7) {
+            assertEquals(root.getElementIndex(offset), lineIndex.getLineOfOffset(offset));
+        }
+    }
+
+    private static String randomText(Random random) {
+        StringBuilder text = new StringBuilder();
+        int length = random.nextInt(12);
+        for (int i = 0; i < length; i++) {
+            text.append(random.nextInt(4) == 0 ? '\n' : (char) ('a' + random.nextInt(26)));
+        }
+        return text.toString();
+    }
+}
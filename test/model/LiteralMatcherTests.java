@@ -0,0 +1,96 @@
+package model;
+
+import org.junit.jupiter.api.*;
+
+import javax.swing.text.BadLocationException;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for {@link LiteralMatcher}.
+ * <p>
+ * This test class verifies case-sensitive and case-insensitive searches,
+ * including matches that cross the boundary between two read windows.
+ * </p>
+ */
+class LiteralMatcherTests {
+
+    private PieceTableDocument document;
+
+    /**
+     * Creates an empty document before each test case.
+     */
+    @BeforeEach
+    void setUp() {
+        document = new PieceTableDocument();
+    }
+
+    /**
+     * Tests that case folding is applied only to case-insensitive searches.
+     */
+    @Test
+    void testCaseSensitivity() throws BadLocationException {
+        document.insertString(0, "Straße und STRASSE, Über und über", null);
+
+        assertEquals(-1, new LiteralMatcher("strasse", true).indexOf(document, 0));
+        assertEquals(11, new LiteralMatcher("strasse", false).indexOf(document, 0));
+        assertEquals(20, new LiteralMatcher("über", false).indexOf(document, 0));
+        assertEquals(29, new LiteralMatcher("über", true).indexOf(document, 0));
+        assertTrue(new LiteralMatcher("ÜBER", false).matchesAt(document, 29));
+        assertFalse(new LiteralMatcher("über", true).matchesAt(document, 20));
+    }
+
+    /**
+     * Tests that repeated searches find every occurrence in order.
+     */
+    @Test
+    void testRepeatedSearch() throws BadLocationException {
+        document.insertString(0, "aaaa", null);
+        LiteralMatcher matcher = new LiteralMatcher("aa", true);
+
+        assertEquals(0, matcher.indexOf(document, 0));
+        assertEquals(1, matcher.indexOf(document, 1));
+        assertEquals(2, matcher.indexOf(document, 2));
+        assertEquals(-1, matcher.indexOf(document, 3));
+    }
+
+    /**
+     * Tests that all non-overlapping matches are found in order.
+     */
+    @Test
+    void testFindAll() throws BadLocationException {
+        document.insertString(0, "Ab ab aab aaa", null);
+
+        assertArrayEquals(new int[]{0, 3, 7}, new LiteralMatcher("ab", false).findAll(document));
+        assertArrayEquals(new int[]{6, 10}, new LiteralMatcher("aa", true).findAll(document));
+        assertArrayEquals(new int[0], new LiteralMatcher("abc", true).findAll(document));
+    }
+
+    /**
+     * Tests a large document against {@link String#indexOf(String, int)}, with matches on window boundaries.
+     */
+    @Test
+    void testLargeDocumentMatchesStringIndexOf() throws BadLocationException {
+        Random random = new Random(7);
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < 300_000; i++) {
+            text.append("abc \n".charAt(random.nextInt(5)));
+        }
+        String needle = "abcab";
+        for (int position = 64 * 1024 - 3; position < text.length(); position += 64 * 1024 - 4) {
+            text.replace(position, position + needle.length(), needle);
+        }
+        document.insertString(0, text.toString(), null);
+
+        LiteralMatcher matcher = new LiteralMatcher(needle, true);
+        int expected = text.indexOf(needle);
+        int actual = matcher.indexOf(document, 0);
+        while (expected != -1) {
+            assertEquals(expected, actual);
+            expected = text.indexOf(needle, expected + 1);
+            actual = matcher.indexOf(document, actual + 1);
+        }
+        assertEquals(-1, actual);
+    }
+}
@@ -0,0 +1,78 @@
+package model;
+
+import org.junit.jupiter.api.*;
+
+import javax.swing.text.BadLocationException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for {@link MatchPositions}.
+ * <p>
+ * This test class verifies that the match ranges follow edits of the document
+ * and that matches touched by an edit are dropped.
+ * </p>
+ */
+class MatchPositionsTests {
+
+    private PieceTableDocument document;
+    private MatchPositions matches;
+
+    /**
+     * Creates a document with three matches of "ab" before each test case.
+     */
+    @BeforeEach
+    void setUp() throws BadLocationException {
+        document = new PieceTableDocument();
+        document.insertString(0, "ab xx ab yy ab", null);
+        matches = MatchPositions.of(new LiteralMatcher("ab", true).findAll(document), 2);
+        document.addDocumentListener(matches);
+    }
+
+    /**
+     * Tests that insertions shift the following matches and drop a match they split.
+     */
+    @Test
+    void testInsert() throws BadLocationException {
+        document.insertString(3, "123", null);
+        assertRanges(0, 2, 9, 11, 15, 17);
+
+        document.insertString(10, "-", null);
+        assertRanges(0, 2, 16, 18);
+
+        document.insertString(0, ">", null);
+        assertRanges(1, 3, 17, 19);
+    }
+
+    /**
+     * Tests that removals shift the following matches and drop the matches they overlap.
+     */
+    @Test
+    void testRemove() throws BadLocationException {
+        document.remove(2, 4);
+        assertRanges(0, 2, 2, 4, 8, 10);
+
+        document.remove(1, 2);
+        assertRanges(6, 8);
+    }
+
+    /**
+     * Tests looking up the first match at or behind an offset.
+     */
+    @Test
+    void testIndexOfFirstEndingAt() {
+        assertEquals(0, matches.indexOfFirstEndingAt(0));
+        assertEquals(1, matches.indexOfFirstEndingAt(2));
+        assertEquals(1, matches.indexOfFirstEndingAt(7));
+        assertEquals(3, matches.indexOfFirstEndingAt(14));
+    }
+
+    private void assertRanges(int... expected) {
+        int[] actual = new int[matches.size() * 2];
+        for (int i = 0; i < matches.size(); i++) {
+            actual[2 * i] = matches.getStart(i);
+            actual[2 * i + 1] = matches.getEnd(i);
+        }
+        assertArrayEquals(expected, actual);
+    }
+}
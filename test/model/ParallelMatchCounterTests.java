@@ -0,0 +1,101 @@
+package model;
+
+import org.junit.jupiter.api.*;
+
+import javax.swing.text.BadLocationException;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CancellationException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for {@link ParallelMatchCounter}.
+ * <p>
+ * This test class verifies that the parallel count agrees with a sequential search,
+ * also for matches crossing the boundary between two chunks, and that a count can be cancelled.
+ * </p>
+ */
+class ParallelMatchCounterTests {
+
+    private PieceTableDocument document;
+
+    /**
+     * Creates an empty document before each test case.
+     */
+    @BeforeEach
+    void setUp() {
+        document = new PieceTableDocument();
+    }
+
+    /**
+     * Tests that the parallel count of a document spanning several chunks equals the sequential count.
+     */
+    @Test
+    void testCountMatchesSequentialSearch() throws BadLocationException {
+        Random random = new Random(7);
+        StringBuilder text = new StringBuilder();
+        while (text.length() < 5 * 1024 * 1024) {
+            text.append(random.nextInt(4) == 0 ? "Suchbegriff " : "Text ");
+        }
+        document.insertString(0, text.toString(), null);
+
+        LiteralMatcher matcher = new LiteralMatcher("suchbegriff", false);
+        int expected = matcher.findAll(document).length;
+        ParallelMatchCounter counter = new ParallelMatchCounter(matcher, document);
+
+        assertTrue(expected > 0);
+        assertEquals(expected, counter.count(0, document.getLength()));
+        int middle = document.getLength() / 2;
+        assertEquals(expected, counter.count(0, middle) + counter.count(middle, document.getLength()));
+    }
+
+    /**
+     * Tests that a snapshot is counted as it was taken while the document is edited.
+     */
+    @Test
+    void testCountSnapshotWhileEditing() throws Exception {
+        document.insertString(0, "treffer ".repeat(512 * 1024), null);
+        DocumentSnapshot snapshot = document.snapshot();
+        ParallelMatchCounter counter = new ParallelMatchCounter(new LiteralMatcher("treffer", true), snapshot);
+
+        CompletableFuture<Integer> count = CompletableFuture.supplyAsync(() -> {
+            try {
+                return counter.count(0, snapshot.getLength());
+            } catch (BadLocationException exception) {
+                throw new IllegalStateException(exception);
+            }
+        });
+        for (int i = 0; i < 2000; i++) {
+            document.remove(i * 8, 3);
+            document.insertString(0, "x", null);
+        }
+
+        assertEquals(512 * 1024, count.get());
+    }
+
+    /**
+     * Tests that overlapping occurrences are counted the way the search finds them.
+     */
+    @Test
+    void testOverlappingTerm() throws BadLocationException {
+        document.insertString(0, "aaaaa", null);
+
+        ParallelMatchCounter counter = new ParallelMatchCounter(new LiteralMatcher("aa", true), document);
+
+        assertEquals(2, counter.count(0, document.getLength()));
+    }
+
+    /**
+     * Tests that a cancelled counter stops with a {@link CancellationException}.
+     */
+    @Test
+    void testCancel() throws BadLocationException {
+        document.insertString(0, "abc ".repeat(1024 * 1024), null);
+
+        ParallelMatchCounter counter = new ParallelMatchCounter(new LiteralMatcher("abc", true), document);
+        counter.cancel();
+
+        assertThrows(CancellationException.class, () -> counter.count(0, document.getLength()));
+    }
+}
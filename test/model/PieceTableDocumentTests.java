@@ -0,0 +1,153 @@
+package model;
+
+import org.junit.jupiter.api.*;
+
+import javax.swing.text.BadLocationException;
+import javax.swing.text.Element;
+import javax.swing.text.Position;
+import javax.swing.undo.UndoManager;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for {@link PieceTableDocument}.
+ * <p>
+ * This test class verifies editing, undo/redo and position tracking on the piece table,
+ * as well as opening files as memory-mapped documents.
+ * </p>
+ */
+class PieceTableDocumentTests {
+
+    private PieceTableDocument document;
+    private File testFile;
+
+    /**
+     * Creates an empty document and a local test file before each test case.
+     */
+    @BeforeEach
+    void setUp() throws IOException {
+        document = new PieceTableDocument();
+        testFile = new File("testfile_mapped.txt");
+        testFile.createNewFile();
+    }
+
+    /**
+     * Tests inserting and removing text in the middle of existing pieces.
+     */
+    @Test
+    void testInsertAndRemove() throws BadLocationException {
+        document.insertString(0, "Hello World", null);
+        document.insertString(5, ",", null);
+        document.insertString(document.getLength(), "!", null);
+        document.remove(0, 1);
+        document.insertString(0, "J", null);
+
+        assertEquals("Jello, World!", document.getText(0, document.getLength()));
+    }
+
+    /**
+     * Tests that undo and redo restore the text and the line structure.
+     */
+    @Test
+    void testUndoRedo() throws BadLocationException {
+        UndoManager undoManager = new UndoManager();
+        document.addUndoableEditListener(undoManager);
+
+        document.insertString(0, "first\nsecond\nthird", null);
+        document.remove(3, 8);
+        assertEquals("fird\nthird", document.getText(0, document.getLength()));
+        assertEquals(2, document.getDefaultRootElement().getElementCount());
+
+        undoManager.undo();
+        assertEquals("first\nsecond\nthird", document.getText(0, document.getLength()));
+        assertEquals(3, document.getDefaultRootElement().getElementCount());
+
+        undoManager.redo();
+        assertEquals("fird\nthird", document.getText(0, document.getLength()));
+    }
+
+    /**
+     * Tests that a replacement and grouped edits are undone in a single step.
+     */
+    @Test
+    void testCompoundEdits() throws BadLocationException {
+        UndoManager undoManager = new UndoManager();
+        document.addUndoableEditListener(undoManager);
+        document.insertString(0, "one two three", null);
+
+        document.replace(4, 3, "2", null);
+        assertEquals("one 2 three", document.getText(0, document.getLength()));
+
+        document.beginCompoundEdit();
+        document.remove(0, 4);
+        document.insertString(document.getLength(), " four", null);
+        document.endCompoundEdit();
+        assertEquals("2 three four", document.getText(0, document.getLength()));
+
+        undoManager.undo();
+        assertEquals("one 2 three", document.getText(0, document.getLength()));
+        undoManager.undo();
+        assertEquals("one two three", document.getText(0, document.getLength()));
+        undoManager.redo();
+        assertEquals("one 2 three", document.getText(0, document.getLength()));
+    }
+
+    /**
+     * Tests that positions follow insertions and removals.
+     */
+    @Test
+    void testPositionTracking() throws BadLocationException {
+        document.insertString(0, "abcdef", null);
+        Position position = document.createPosition(4);
+
+        document.insertString(1, "xyz", null);
+        assertEquals(7, position.getOffset());
+
+        document.remove(5, 4);
+        assertEquals(5, position.getOffset());
+    }
+
+    /**
+     * Tests opening an ASCII file as a memory-mapped document.
+     */
+    @Test
+    void testMapAsciiFile() throws IOException, BadLocationException {
+        Files.writeString(testFile.toPath(), "line 1\nline 2\nline 3", StandardCharsets.US_ASCII);
+
+        PieceTableDocument mapped = PieceTableDocument.map(testFile.toPath(), progress -> { });
+        assertNotNull(mapped);
+        assertEquals("line 1\nline 2\nline 3", mapped.getText(0, mapped.getLength()));
+        assertEquals(testFile.toPath(), mapped.getMappedPath());
+
+        Element root = mapped.getDefaultRootElement();
+        assertEquals(3, root.getElementCount());
+        assertEquals(7, root.getElement(1).getStartOffset());
+
+        mapped.insertString(7, "new ", null);
+        assertEquals("line 1\nnew line 2\nline 3", mapped.getText(0, mapped.getLength()));
+    }
+
+    /**
+     * Tests that files with non-ASCII characters are not mapped.
+     */
+    @Test
+    void testMapNonAsciiFile() throws IOException {
+        Files.writeString(testFile.toPath(), "Grüße", StandardCharsets.UTF_8);
+
+        assertNull(PieceTableDocument.map(testFile.toPath(), progress -> { }));
+    }
+
+    /**
+     * Deletes the test file after each test case.
+     */
+    @AfterEach
+    void tearDown() {
+        if (testFile.exists()) {
+            testFile.delete();
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package model;
+
+import org.junit.jupiter.api.*;
+
+import javax.swing.text.BadLocationException;
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for {@link RegexMatcher}.
+ * <p>
+ * This test class verifies searching and replacing with regular expressions on a document,
+ * including group references and cancelling a runaway expression.
+ * </p>
+ */
+class RegexMatcherTests {
+
+    private PieceTableDocument document;
+
+    /**
+     * Creates an empty document before each test case.
+     */
+    @BeforeEach
+    void setUp() {
+        document = new PieceTableDocument();
+    }
+
+    /**
+     * Tests finding matches, including skipping an empty match at the start offset.
+     */
+    @Test
+    void testFind() throws BadLocationException {
+        document.insertString(0, "Anna 12, Bert 345\nCarl 6", null);
+
+        assertArrayEquals(new int[]{5, 7}, new RegexMatcher("\\d+", true).find(document, 0));
+        assertArrayEquals(new int[]{14, 17}, new RegexMatcher("\\d+", true).find(document, 8));
+        assertArrayEquals(new int[]{18, 22}, new RegexMatcher("^c\\w+", false).find(document, 0));
+        assertNull(new RegexMatcher("^c\\w+", true).find(document, 0));
+        assertArrayEquals(new int[]{17, 17}, new RegexMatcher("$", true).find(document, 16));
+        assertArrayEquals(new int[]{24, 24}, new RegexMatcher("$", true).find(document, 17));
+    }
+
+    /**
+     * Tests that a snapshot is matched as it was taken while the document is edited.
+     */
+    @Test
+    void testReplaceAllOnSnapshot() throws Exception {
+        document.insertString(0, "Zeile 1\n".repeat(20000), null);
+        DocumentSnapshot snapshot = document.snapshot();
+        RegexMatcher matcher = new RegexMatcher("(\\w+) (\\d)", true);
+
+        Future<RebuiltRegion> replaced = ForkJoinPool.commonPool().submit(() -> matcher.replaceAll(snapshot, "$2 $1"));
+        for (int i = 0; i < 1000; i++) {
+            document.remove(0, 8);
+        }
+
+        assertEquals(20000, replaced.get().getMatchCount());
+    }
+
+    /**
+     * Tests replacements with numbered and named group references.
+     */
+    @Test
+    void testReplaceWithGroups() throws BadLocationException {
+        document.insertString(0, "Anna 12, Bert 345", null);
+        RegexMatcher matcher = new RegexMatcher("(?<name>\\w+) (\\d+)", true);
+
+        assertEquals("12=Anna", matcher.replacementAt(document, 0, 7, "$2=${name}"));
+        assertNull(matcher.replacementAt(document, 0, 6, "$2"));
+        assertThrows(IllegalArgumentException.class, () -> matcher.replacementAt(document, 0, 7, "$3"));
+
+        RebuiltRegion region = matcher.replaceAll(document, "$2 \\$ $1");
+        assertEquals(2, region.getMatchCount());
+        assertEquals(0, region.getStart());
+        assertEquals(17, region.getEnd());
+        assertEquals("12 $ Anna, 345 $ Bert", region.getText());
+    }
+
+    /**
+     * Tests that interrupting the matching thread stops catastrophic backtracking.
+     */
+    @Test
+    void testInterruptStopsBacktracking() throws Exception {
+        document.insertString(0, "a".repeat(60), null);
+        RegexMatcher matcher = new RegexMatcher("(.*a){10}b", true);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<int[]> future = executor.submit(() -> matcher.find(document, 0));
+            assertThrows(TimeoutException.class, () -> future.get(200, TimeUnit.MILLISECONDS));
+            future.cancel(true);
+            executor.shutdown();
+            assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package model;
+
+import org.junit.jupiter.api.*;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for {@link RowBreaker}.
+ * <p>
+ * This test class verifies character and word wrapping with tabs, and that updating the rows of an
+ * edited line gives the same rows as measuring the edited line again.
+ * </p>
+ */
+class RowBreakerTests {
+
+    /**
+     * Tests that lines are wrapped before the first character that no longer fits.
+     */
+    @Test
+    void testCharacterWrap() {
+        RowBreaker breaker = new RowBreaker(c -> 1, 4, 4, false);
+
+        assertArrayEquals(new int[]{0, 4, 8}, breaker.breakLine("abcdefghij", 0, 10));
+        assertArrayEquals(new int[]{0}, breaker.breakLine("", 0, 0));
+        assertArrayEquals(new int[]{0, 3}, breaker.breakLine("xxab\tc", 2, 6), "A tab fills up to the next stop");
+    }
+
+    /**
+     * Tests that word wrapping ends rows after whitespace, lets whitespace extend beyond the edge
+     * and falls back to character wrapping for words longer than a row.
+     */
+    @Test
+    void testWordWrap() {
+        RowBreaker breaker = new RowBreaker(c -> 1, 4, 5, true);
+
+        assertArrayEquals(new int[]{0, 6}, breaker.breakLine("aa bb cc", 0, 8));
+        assertArrayEquals(new int[]{0, 3, 8}, breaker.breakLine("aa abcdefg", 0, 10));
+    }
+
+    /**
+     * Tests that the rows updated after random edits equal the rows of the edited line measured again.
+     */
+    @Test
+    void testRebreakMatchesBreakLine() {
+        Random random = new Random(11);
+        for (boolean wordWrap : new boolean[]{false, true}) {
+            RowBreaker breaker = new RowBreaker(c -> c == 'W' ? 3 : 1, 4, 12, wordWrap);
+            StringBuilder line = new StringBuilder(randomText(random, 2000));
+            int[] rows = breaker.breakLine(line, 0, line.length());
+
+            for (int edit = 0; edit < 500; edit++) {
+                int offset = random.nextInt(line.length() + 1);
+                int removed = random.nextBoolean() ? Math.min(random.nextInt(8), line.length() - offset) : 0;
+                String inserted = randomText(random, random.nextInt(8));
+                line.replace(offset, offset + removed, inserted);
+
+                rows = breaker.rebreak(line, 0, line.length(), rows, offset, inserted.length(), removed);
+                assertArrayEquals(breaker.breakLine(line, 0, line.length()), rows, "Edit " + edit);
+            }
+        }
+    }
+
+    private static String randomText(Random random, int length) {
+        String alphabet = "abcW  \t";
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < length; i++) {
+            text.append(alphabet.charAt(random.nextInt(alphabet.length())));
+        }
+        return text.toString();
+    }
+}
@@ -0,0 +1,69 @@
+package model;
+
+import org.junit.jupiter.api.*;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for {@link TextFormat}.
+ * <p>
+ * This test class verifies that the charset, byte order mark and line ending of a text
+ * are detected from a sample of its first bytes.
+ * </p>
+ */
+class TextFormatTests {
+
+    /**
+     * Tests that byte order marks determine the charset.
+     */
+    @Test
+    void testByteOrderMarks() {
+        assertEquals(new TextFormat(StandardCharsets.UTF_8, true, TextFormat.LineEnding.LF),
+                detect(new byte[]{(byte) 0xEF, (byte) 0xBB, (byte) 0xBF, 'a', '\n'}));
+        assertEquals(new TextFormat(StandardCharsets.UTF_16BE, true, TextFormat.LineEnding.LF),
+                detect(new byte[]{(byte) 0xFE, (byte) 0xFF, 0, 'a'}));
+        assertEquals(new TextFormat(StandardCharsets.UTF_16LE, true, TextFormat.LineEnding.CRLF),
+                detect(new byte[]{(byte) 0xFF, (byte) 0xFE, 'a', 0, '\r', 0, '\n', 0}));
+    }
+
+    /**
+     * Tests the detection of UTF-16 without a byte order mark, UTF-8 and Windows-1252.
+     */
+    @Test
+    void testCharsetWithoutByteOrderMark() {
+        assertEquals(StandardCharsets.UTF_16LE, detect("Hallo Welt\n".getBytes(StandardCharsets.UTF_16LE)).getCharset());
+        assertEquals(StandardCharsets.UTF_16BE, detect("Hallo Welt\n".getBytes(StandardCharsets.UTF_16BE)).getCharset());
+        assertEquals(StandardCharsets.UTF_8, detect("Grüße\n".getBytes(StandardCharsets.UTF_8)).getCharset());
+        assertEquals(TextFormat.WINDOWS_1252, detect("Grüße\n".getBytes(TextFormat.WINDOWS_1252)).getCharset());
+    }
+
+    /**
+     * Tests that a UTF-8 character cut at the end of an incomplete sample does not prevent detecting UTF-8.
+     */
+    @Test
+    void testCharacterCutBySample() {
+        byte[] bytes = "abc€".getBytes(StandardCharsets.UTF_8);
+        assertEquals(StandardCharsets.UTF_8, TextFormat.detect(bytes, bytes.length - 1, false).getCharset());
+        assertEquals(TextFormat.WINDOWS_1252, TextFormat.detect(bytes, bytes.length - 1, true).getCharset());
+    }
+
+    /**
+     * Tests that the most frequent line ending wins and that decoding converts all line endings to LF.
+     */
+    @Test
+    void testLineEndings() {
+        assertEquals(TextFormat.LineEnding.CRLF, detect("a\r\nb\r\nc\n".getBytes(StandardCharsets.UTF_8)).getLineEnding());
+        assertEquals(TextFormat.LineEnding.CR, detect("a\rb\rc".getBytes(StandardCharsets.UTF_8)).getLineEnding());
+        assertEquals(TextFormat.LineEnding.LF, detect("ohne Zeilenende".getBytes(StandardCharsets.UTF_8)).getLineEnding());
+
+        TextFormat format = new TextFormat(StandardCharsets.UTF_8, true, TextFormat.LineEnding.CRLF);
+        byte[] bytes = {(byte) 0xEF, (byte) 0xBB, (byte) 0xBF, 'a', '\r', '\n', 'b', '\r', 'c'};
+        assertEquals("a\nb\nc", format.decode(bytes));
+    }
+
+    private static TextFormat detect(byte[] bytes) {
+        return TextFormat.detect(bytes, bytes.length, true);
+    }
+}
@@ -0,0 +1,91 @@
+package model;
+
+import org.junit.jupiter.api.*;
+
+import javax.swing.text.BadLocationException;
+import javax.swing.undo.UndoManager;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for {@link TextStatistics}.
+ * <p>
+ * This test class verifies that the incrementally maintained word and line counts
+ * of a {@link PieceTableDocument} match a full count of the text after edits and undo/redo.
+ * </p>
+ */
+class TextStatisticsTests {
+
+    private PieceTableDocument document;
+
+    /**
+     * Creates an empty document before each test case.
+     */
+    @BeforeEach
+    void setUp() {
+        document = new PieceTableDocument();
+    }
+
+    /**
+     * Tests the counts of an empty document.
+     */
+    @Test
+    void testEmptyDocument() {
+        assertEquals(0, document.getStatistics().getWordCount());
+        assertEquals(1, document.getStatistics().getLineCount());
+    }
+
+    /**
+     * Tests that words are joined and split when whitespace between them is edited.
+     */
+    @Test
+    void testJoinAndSplitWords() throws BadLocationException {
+        document.insertString(0, "Hello World\nfoo", null);
+        assertEquals(3, document.getStatistics().getWordCount());
+        assertEquals(2, document.getStatistics().getLineCount());
+
+        document.remove(5, 1);
+        assertEquals(2, document.getStatistics().getWordCount());
+
+        document.insertString(2, " \n ", null);
+        assertEquals(3, document.getStatistics().getWordCount());
+        assertEquals(3, document.getStatistics().getLineCount());
+    }
+
+    /**
+     * Tests random edits including undo and redo against a full count of the text.
+     */
+    @Test
+    void testRandomEditsMatchFullCount() throws BadLocationException {
+        UndoManager undoManager = new UndoManager();
+        document.addUndoableEditListener(undoManager);
+        Random random = new Random(42);
+        String alphabet = "ab \n\t";
+
+        for (int i = 0; i < 500; i++) {
+            int length = document.getLength();
+            int action = random.nextInt(10);
+            if (action < 5 || length == 0) {
+                StringBuilder text = new StringBuilder();
+                for (int j = random.nextInt(8) + 1; j > 0; j--) {
+                    text.append(alphabet.charAt(random.nextInt(alphabet.length())));
+                }
+                document.insertString(random.nextInt(length + 1), text.toString(), null);
+            } else if (action < 8) {
+                int offset = random.nextInt(length);
+                document.remove(offset, random.nextInt(Math.min(6, length - offset)) + 1);
+            } else if (action == 8 && undoManager.canUndo()) {
+                undoManager.undo();
+            } else if (undoManager.canRedo()) {
+                undoManager.redo();
+            }
+
+            String text = document.getText(0, document.getLength());
+            assertEquals(text.trim().isEmpty() ? 0 : text.trim().split("\\s+").length,
+                    document.getStatistics().getWordCount());
+            assertEquals(document.getDefaultRootElement().getElementCount(),
+                    document.getStatistics().getLineCount());
+        }
+    }
+}
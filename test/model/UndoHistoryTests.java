@@ -0,0 +1,186 @@
+package model;
+
+import org.junit.jupiter.api.*;
+
+import javax.swing.text.BadLocationException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for {@link UndoHistory}.
+ * <p>
+ * This test class verifies that typed characters are undone word by word, that edits over
+ * the memory budget are moved to disk and still undo and redo correctly, and that the history
+ * accounts for the memory its edits hold.
+ * </p>
+ */
+class UndoHistoryTests {
+
+    private PieceTableDocument document;
+    private UndoHistory history;
+
+    /**
+     * Creates an empty document with an undo history before each test case.
+     */
+    @BeforeEach
+    void setUp() {
+        document = new PieceTableDocument();
+    }
+
+    private void attach(long memoryBudget, long diskBudget) {
+        history = new UndoHistory(memoryBudget, diskBudget);
+        document.addUndoableEditListener(e -> history.addEdit(e.getEdit()));
+    }
+
+    private String text() throws BadLocationException {
+        return document.getText(0, document.getLength());
+    }
+
+    private void type(int offset, String text) throws BadLocationException {
+        for (int i = 0; i < text.length(); i++) {
+            document.insertString(offset + i, String.valueOf(text.charAt(i)), null);
+        }
+    }
+
+    /**
+     * Tests that typed characters are merged into one step per word.
+     */
+    @Test
+    void testWordGrouping() throws BadLocationException {
+        attach(1024 * 1024, 1024 * 1024);
+        type(0, "Hallo schöne Welt");
+
+        assertEquals(3, history.getEditCount());
+        history.undo();
+        assertEquals("Hallo schöne ", text());
+        history.undo();
+        assertEquals("Hallo ", text());
+        history.redo();
+        assertEquals("Hallo schöne ", text());
+
+        // Backspace over a whole word is one step as well
+        for (int offset = 12; offset > 6; offset--) {
+            document.remove(offset, 1);
+        }
+        assertEquals("Hallo s", text());
+        history.undo();
+        assertEquals("Hallo schöne ", text());
+    }
+
+    /**
+     * Tests that typing at another place starts a new step.
+     */
+    @Test
+    void testCaretJumpEndsWord() throws BadLocationException {
+        attach(1024 * 1024, 1024 * 1024);
+        type(0, "abc");
+        type(0, "xy");
+
+        assertEquals("xyabc", text());
+        history.undo();
+        assertEquals("abc", text());
+    }
+
+    /**
+     * Tests that a pause in typing starts a new step, and that continued typing adds no entries.
+     */
+    @Test
+    void testTypingPause() throws BadLocationException {
+        long[] now = {0};
+        history = new UndoHistory(1024 * 1024, 1024 * 1024, () -> now[0]);
+        document.addUndoableEditListener(e -> history.addEdit(e.getEdit()));
+
+        type(0, "Schreib");
+        now[0] += 5000;
+        type(7, "maschine");
+
+        assertEquals(2, history.getEditCount());
+        history.undo();
+        assertEquals("Schreib", text());
+    }
+
+    /**
+     * Tests that edits over the memory budget are spilled to disk and still undo and redo correctly.
+     */
+    @Test
+    void testSpillAndUndo() throws BadLocationException {
+        attach(16 * 1024, 64 * 1024 * 1024);
+        String paste = "Eine lange Zeile mit Umlauten äöü und 😀\n".repeat(5000);
+        document.insertString(0, paste, null);
+        document.insertString(0, "Anfang ", null);
+        document.remove(0, document.getLength() - 10);
+        type(document.getLength(), "Ende");
+
+        assertTrue(history.getSpilledEditCount() > 0);
+        assertTrue(history.getSpilledBytes() > 0);
+        assertTrue(history.getMemoryBytes() <= 16 * 1024);
+        String edited = text();
+
+        history.undo();
+        history.undo();
+        assertEquals("Anfang " + paste, text());
+        history.undo();
+        history.undo();
+        assertEquals("", text());
+
+        for (int i = 0; i < 4; i++) {
+            history.redo();
+        }
+        assertEquals(edited, text());
+        history.undo();
+        history.undo();
+        assertEquals("Anfang " + paste, text());
+    }
+
+    /**
+     * Tests that the oldest spilled edits are discarded once the disk budget is exceeded.
+     */
+    @Test
+    void testDiskBudget() throws BadLocationException {
+        attach(1024, 1024);
+        java.util.Random random = new java.util.Random(3);
+        for (int i = 0; i < 20; i++) {
+            StringBuilder line = new StringBuilder();
+            for (int j = 0; j < 300; j++) {
+                line.append((char) ('a' + random.nextInt(26)));
+            }
+            document.insertString(0, line.toString(), null);
+            document.remove(0, 200);
+        }
+
+        assertTrue(history.getSpilledBytes() <= 1024);
+        assertTrue(history.getEditCount() < 40);
+        while (history.canUndo()) {
+            history.undo();
+        }
+        assertTrue(document.getLength() > 0); // The oldest edits have been discarded
+        while (history.canRedo()) {
+            history.redo();
+        }
+        assertEquals(20 * 100, document.getLength());
+    }
+
+    /**
+     * Tests that discarding the history resets its footprint.
+     */
+    @Test
+    void testDiscardAllEdits() throws BadLocationException {
+        attach(1024, 1024 * 1024);
+        document.insertString(0, "x".repeat(10000), null);
+        document.remove(0, 10000);
+
+        history.discardAllEdits();
+        assertEquals(0, history.getEditCount());
+        assertEquals(0, history.getMemoryBytes());
+        assertEquals(0, history.getSpilledBytes());
+        assertFalse(history.canUndo());
+    }
+
+    /**
+     * Releases the spill store after each test case.
+     */
+    @AfterEach
+    void tearDown() {
+        history.close();
+    }
+}
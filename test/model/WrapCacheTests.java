@@ -0,0 +1,65 @@
+package model;
+
+import org.junit.jupiter.api.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for {@link WrapCache}.
+ * <p>
+ * This test class verifies the mapping between lines and rows after measuring lines
+ * and after replacing lines.
+ * </p>
+ */
+class WrapCacheTests {
+
+    private WrapCache cache;
+
+    /**
+     * Creates a cache of ten lines estimated with one row per line before each test case.
+     */
+    @BeforeEach
+    void setUp() {
+        cache = new WrapCache();
+        cache.reset(10, line -> 1);
+    }
+
+    /**
+     * Tests that measuring a line updates the rows of all following lines.
+     */
+    @Test
+    void testMeasuredLineShiftsRows() {
+        assertEquals(10, cache.getTotalRows());
+        assertFalse(cache.isMeasured(3));
+
+        cache.setRows(3, new int[]{0, 80, 160});
+        assertTrue(cache.isMeasured(3));
+        assertEquals(12, cache.getTotalRows());
+        assertEquals(3, cache.getFirstRow(3));
+        assertEquals(6, cache.getFirstRow(4));
+        assertEquals(3, cache.getLineOfRow(3));
+        assertEquals(3, cache.getLineOfRow(5));
+        assertEquals(4, cache.getLineOfRow(6));
+        assertEquals(9, cache.getLineOfRow(100), "Rows beyond the end belong to the last line");
+    }
+
+    /**
+     * Tests that replacing lines keeps the measured lines around them and estimates the new ones.
+     */
+    @Test
+    void testReplaceLines() {
+        cache.setRows(0, new int[]{0, 10});
+        cache.setRows(9, new int[]{0, 10, 20});
+
+        cache.replaceLines(4, 2, 5, line -> 2);
+        assertEquals(13, cache.getLineCount());
+        assertEquals(2 + 3 + 5 * 2 + 3 + 3, cache.getTotalRows());
+        assertArrayEquals(new int[]{0, 10, 20}, cache.getRows(12));
+        assertFalse(cache.isMeasured(4));
+
+        for (int line = 0, row = 0; line < cache.getLineCount(); row += cache.getRowCount(line), line++) {
+            assertEquals(row, cache.getFirstRow(line));
+            assertEquals(line, cache.getLineOfRow(row));
+        }
+    }
+}